@@ -0,0 +1,354 @@
+package jgh.javagraph;
+
+import java.util.*;
+
+/**
+ * Immutable, <i>compressed sparse row</i> (CSR) snapshot of a <code>Graph</code>. Every node is given a
+ * dense integer id in <i>[0, nodeCount())</i>, the graph's own node id with unused ids closed up, and the
+ * adjacency of node <i>u</i> is stored as the contiguous
+ * range of arcs <i>[arcStart(u), arcEnd(u))</i>, so a neighbourhood lookup costs <i>O(deg(u))</i> instead
+ * of a scan of the whole edge list.
+ * <br>
+ * Edges are treated as undirected, in the same way as <code>Dijkstra</code>, <code>GraphSearch</code> and
+ * <code>Connectivity</code> treat them, so each edge <i>(u,v)</i> is stored as the two arcs <i>u->v</i> and
+ * <i>v->u</i>. If the edges are <code>WeightedEdge</code>s then the weight of each arc is copied into a
+ * parallel <code>float</code> array. The snapshot does not follow later changes to the original graph,
+ * including changes made with <code>WeightedEdge.setWeight</code>.
+ *
+ * @param <N> Node type
+ * @param <E> Edge type
+ */
+public final class CompactGraph<N, E extends IEdge<N>> implements IGraph<N, E> {
+
+    /**
+     * Dense ids of the nodes, with no unused ids.
+     */
+    private final NodeIndex<N> mIndex;
+
+    /**
+     * Edges of the graph, indexed by edge index.
+     */
+    private final ArrayList<E> mEdgeList;
+
+    /**
+     * Arcs of node <i>u</i> are in the range <i>[mOffsets[u], mOffsets[u+1])</i>.
+     */
+    private final int[] mOffsets;
+
+    /**
+     * Target node id of each arc.
+     */
+    private final int[] mTargets;
+
+    /**
+     * Index of the edge which each arc was created from.
+     */
+    private final int[] mArcEdges;
+
+    /**
+     * Weight of each arc, or <code>null</code> if the edges are not weighted.
+     */
+    private final float[] mWeights;
+
+    /**
+     * <i>from</i> node id of each edge.
+     */
+    private final int[] mEdgeFrom;
+
+    /**
+     * <i>to</i> node id of each edge.
+     */
+    private final int[] mEdgeTo;
+
+    private CompactGraph(NodeIndex<N> index, Collection<E> edges) {
+        // close up the unused ids of the graph's index, keeping the order of the rest.
+        int[] ids = new int[index.size()];
+        ArrayList<N> nodes = new ArrayList<N>(index.count());
+        for (int i = 0; i < index.size(); i++) {
+            N node = index.node(i);
+            if (node != null) {
+                ids[i] = nodes.size();
+                nodes.add(node);
+            }
+        }
+        int n = nodes.size();
+        mIndex = new NodeIndex<N>(nodes);
+
+        mEdgeList = new ArrayList<E>(edges);
+        int m = mEdgeList.size();
+        mEdgeFrom = new int[m];
+        mEdgeTo = new int[m];
+
+        // the edges are only weighted if every edge is a weighted edge.
+        boolean weighted = true;
+        int[] degree = new int[n];
+        for (int i = 0; i < m; i++) {
+            E e = mEdgeList.get(i);
+            int u = ids[index.id(e.from())];
+            int v = ids[index.id(e.to())];
+            mEdgeFrom[i] = u;
+            mEdgeTo[i] = v;
+            degree[u]++;
+            if (u != v)
+                degree[v]++;
+            if (!(e instanceof WeightedEdge))
+                weighted = false;
+        }
+
+        // prefix sum the degrees to get the start of each node's arc range.
+        mOffsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            mOffsets[i + 1] = mOffsets[i] + degree[i];
+        }
+
+        int arcs = mOffsets[n];
+        mTargets = new int[arcs];
+        mArcEdges = new int[arcs];
+        mWeights = weighted ? new float[arcs] : null;
+        int[] next = Arrays.copyOf(mOffsets, n);
+        for (int i = 0; i < m; i++) {
+            int u = mEdgeFrom[i];
+            int v = mEdgeTo[i];
+            float w = weighted ? ((WeightedEdge) mEdgeList.get(i)).getWeight() : 0;
+            int a = next[u]++;
+            mTargets[a] = v;
+            mArcEdges[a] = i;
+            if (weighted)
+                mWeights[a] = w;
+            if (u != v) {
+                int b = next[v]++;
+                mTargets[b] = u;
+                mArcEdges[b] = i;
+                if (weighted)
+                    mWeights[b] = w;
+            }
+        }
+    }
+
+    /**
+     * Creates a compact snapshot of the given graph. Node ids are the graph's node ids, in the same order,
+     * with unused ids closed up, so they are the graph's ids if no node has been removed.
+     *
+     * @param graph graph to compact
+     * @param <N>   Node type
+     * @param <E>   Edge type
+     * @return compact snapshot of the graph.
+     */
+    public static <N, E extends IEdge<N>> CompactGraph<N, E> of(Graph<N, E> graph) {
+        return new CompactGraph<N, E>(graph.getNodeIndex(), graph.getEdges());
+    }
+
+    /**
+     * Returns an unmodifiable list of the edges of the graph, in edge index order.
+     *
+     * @return list of edges.
+     */
+    @Override
+    public List<E> getEdges() {
+        return Collections.unmodifiableList(mEdgeList);
+    }
+
+    /**
+     * Returns an unmodifiable set of the nodes of the graph.
+     *
+     * @return set of nodes.
+     */
+    @Override
+    public Set<N> getNodes() {
+        return mIndex.nodeSet();
+    }
+
+    /**
+     * Returns the nodes adjacent to the given node, read from the node's arc range. If the node
+     * is not on the graph then the returned list is empty.
+     *
+     * @param node node
+     * @return list of adjacent nodes.
+     */
+    @Override
+    public List<N> neighbours(N node) {
+        ArrayList<N> adjacent = new ArrayList<N>();
+        int u = id(node);
+        if (u == -1)
+            return adjacent;
+        for (int a = mOffsets[u]; a < mOffsets[u + 1]; a++) {
+            adjacent.add(mIndex.node(mTargets[a]));
+        }
+        return adjacent;
+    }
+
+    /**
+     * Returns the edges incident with the given node, read from the node's arc range. If the node
+     * is not on the graph then the returned list is empty.
+     *
+     * @param node node
+     * @return list of incident edges.
+     */
+    @Override
+    public List<E> incidentEdges(N node) {
+        ArrayList<E> incident = new ArrayList<E>();
+        int u = id(node);
+        if (u == -1)
+            return incident;
+        for (int a = mOffsets[u]; a < mOffsets[u + 1]; a++) {
+            incident.add(mEdgeList.get(mArcEdges[a]));
+        }
+        return incident;
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return number of nodes.
+     */
+    public int nodeCount() {
+        return mIndex.size();
+    }
+
+    /**
+     * Returns the number of edges.
+     *
+     * @return number of edges.
+     */
+    public int edgeCount() {
+        return mEdgeList.size();
+    }
+
+    /**
+     * Returns the number of arcs. Each edge gives two arcs, except for loops, which give one.
+     *
+     * @return number of arcs.
+     */
+    public int arcCount() {
+        return mTargets.length;
+    }
+
+    /**
+     * Returns the id of the given node, or -1 if the node is not on the graph.
+     *
+     * @param node node
+     * @return id of the node, or -1.
+     */
+    public int id(N node) {
+        return mIndex.id(node);
+    }
+
+    /**
+     * Returns the node with the given id.
+     *
+     * @param id node id
+     * @return node
+     */
+    public N node(int id) {
+        return mIndex.node(id);
+    }
+
+    /**
+     * Returns the dense ids of the nodes. Structures built from the snapshot can share it, so that they
+     * number the nodes as the snapshot does.
+     *
+     * @return node index of the snapshot.
+     */
+    public NodeIndex<N> getNodeIndex() {
+        return mIndex;
+    }
+
+    /**
+     * Returns the degree of the node with the given id, the length of its arc range.
+     *
+     * @param id node id
+     * @return degree of the node.
+     */
+    public int degree(int id) {
+        return mOffsets[id + 1] - mOffsets[id];
+    }
+
+    /**
+     * Returns the first arc of the given node.
+     *
+     * @param id node id
+     * @return index of the first arc of the node.
+     */
+    public int arcStart(int id) {
+        return mOffsets[id];
+    }
+
+    /**
+     * Returns one past the last arc of the given node.
+     *
+     * @param id node id
+     * @return index one past the last arc of the node.
+     */
+    public int arcEnd(int id) {
+        return mOffsets[id + 1];
+    }
+
+    /**
+     * Returns the id of the node the arc points to.
+     *
+     * @param arc arc index
+     * @return target node id.
+     */
+    public int target(int arc) {
+        return mTargets[arc];
+    }
+
+    /**
+     * Returns the weight of the arc. If the edges are not weighted every arc has weight 1.
+     *
+     * @param arc arc index
+     * @return weight of the arc.
+     */
+    public float weight(int arc) {
+        return mWeights == null ? 1f : mWeights[arc];
+    }
+
+    /**
+     * Returns true if the arcs carry the weights of <code>WeightedEdge</code> edges.
+     *
+     * @return true if the graph is weighted.
+     */
+    public boolean isWeighted() {
+        return mWeights != null;
+    }
+
+    /**
+     * Returns the index of the edge the arc was created from.
+     *
+     * @param arc arc index
+     * @return edge index
+     */
+    public int edgeIndex(int arc) {
+        return mArcEdges[arc];
+    }
+
+    /**
+     * Returns the edge with the given edge index.
+     *
+     * @param index edge index
+     * @return edge
+     */
+    public E edge(int index) {
+        return mEdgeList.get(index);
+    }
+
+    /**
+     * Returns the id of the <i>from</i> node of the edge.
+     *
+     * @param index edge index
+     * @return <i>from</i> node id.
+     */
+    public int edgeFrom(int index) {
+        return mEdgeFrom[index];
+    }
+
+    /**
+     * Returns the id of the <i>to</i> node of the edge.
+     *
+     * @param index edge index
+     * @return <i>to</i> node id.
+     */
+    public int edgeTo(int index) {
+        return mEdgeTo[index];
+    }
+}
@@ -1,19 +1,69 @@
 package jgh.javagraph;
 
-import jgh.javagraph.algorithms.Utilities;
-
 import java.util.*;
 
 /**
  * Basic Graph class. This class implements <code>IGraph</code>, and guarantees only
  * single edges per node pair.
+ * <p>
+ * A graph may be read from several threads at once, as long as no thread changes it meanwhile, either
+ * through its mutators or through the collections returned by <code>getEdges()</code> and
+ * <code>getNodes()</code>. Changes must be published to the reading threads, e.g. by starting them
+ * after the change or by handing the graph over through a concurrent collection.
  * @param <N>
  * @param <E>
  */
 public class Graph<N, E extends IEdge<N>> implements IGraph<N,E> {
 
-    ArrayList<E> mEdges;
-    Set<N> mNodes;
+    EdgeList<E> mEdges;
+    NodeSet<N> mNodes;
+
+    /**
+     * Positions in <code>mEdges</code> of the edges incident with each node, by node id, in the order the
+     * edges were added. Only the first <code>mDegree[id]</code> positions are used. Kept in sync with
+     * <code>mEdges</code> and <code>mNodes</code> by every mutator, so neighbourhood lookups do not need to
+     * scan the edge list.
+     */
+    int[][] mIncidence;
+
+    /**
+     * Degree of each node, by node id.
+     */
+    int[] mDegree;
+
+    /**
+     * Position of each edge in <code>mEdges</code>. Gives constant time edge membership tests
+     * and lets <code>removeEdge</code> remove an edge without shifting the edge list.
+     */
+    ObjectIntMap<E> mEdgePositions;
+
+    /**
+     * Dense integer ids of the nodes, kept in sync with <code>mNodes</code>.
+     */
+    NodeIndex<N> mNodeIndex;
+
+    /**
+     * Number of nodes with odd degree, maintained by the mutators.
+     */
+    int mOddDegreeCount;
+
+    /**
+     * Cached degree histogram, or <code>null</code> if the graph has changed since it was computed.
+     * Volatile, since concurrent readers may each compute and cache it.
+     */
+    volatile int[] mDegreeHistogram;
+
+    /**
+     * Number of changes made to the graph's edges and nodes.
+     */
+    int mModificationCount;
+
+    /**
+     * Change counts of <code>mEdges</code> and <code>mNodes</code> when the index was last in sync with them.
+     * They are written after the index, so a reader which finds them current also sees the index.
+     */
+    volatile int mIndexedEdgeChanges;
+    volatile int mIndexedNodeChanges;
 
     /**
      * Constructor for standard <i>Graph</i> object. This Graph guarantees that no two edges share the same two
@@ -23,193 +73,423 @@ public class Graph<N, E extends IEdge<N>> implements IGraph<N,E> {
      * @param edges
      */
     public Graph(ArrayList<E> edges) {
+        this(new GraphBuilder<N, E>(edges.size()).addEdges(edges));
+    }
 
+    /**
+     * @param edges
+     * @param nodes
+     */
+    public Graph(ArrayList<E> edges, Set<N> nodes) {
+        this(new GraphBuilder<N, E>(edges.size()).addEdges(edges).addNodes(nodes));
+    }
+
+    /**
+     * Constructs the graph from the builder's nodes and edges.
+     *
+     * @param builder builder holding the nodes and edges.
+     */
+    Graph(GraphBuilder<N, E> builder) {
         // Standard Graph must guarantee no two edges have the same two nodes.
-        // To guarantee this, we merge out duplicates with the following
-        // map object.
-        HashMap<Integer, E> edgeMap = new HashMap<>();
-        for (E e : edges) {
-            edgeMap.put(e.from().hashCode() * -11 + 110451 * e.to().hashCode(), e);
+        // The builder merges out duplicates on the packed node id pair of each edge.
+        mEdges = new EdgeList<E>(builder.distinctEdges());
+        mNodes = new NodeSet<N>(builder.nodes());
+        mNodeIndex = builder.nodeIndex();
+        buildIndex();
+    }
+
+    /**
+     * Rebuilds the incidence index and edge positions from the edge list and node set.
+     */
+    private void buildIndex() {
+        mModificationCount++;
+        mEdgePositions = new ObjectIntMap<E>(mEdges.size());
+        mOddDegreeCount = 0;
+        mDegreeHistogram = null;
+        // existing nodes keep their ids.
+        for (int i = 0; i < mNodeIndex.size(); i++) {
+            N n = mNodeIndex.node(i);
+            if (n != null && !mNodes.contains(n))
+                mNodeIndex.remove(n);
+        }
+        for (N n : mNodes) {
+            mNodeIndex.add(n);
+        }
+        mIncidence = new int[mNodeIndex.size()][];
+        mDegree = new int[mNodeIndex.size()];
+        for (int i = 0; i < mEdges.size(); i++) {
+            E e = mEdges.get(i);
+            // an edge in the list twice is indexed at its first position.
+            if (mEdgePositions.get(e) != ObjectIntMap.MISSING)
+                continue;
+            mEdgePositions.put(e, i);
+            index(e, i);
+        }
+        indexed();
+    }
+
+    /**
+     * The edge list and node set are returned directly by <code>getEdges()</code> and <code>getNodes()</code>,
+     * so they can be changed without going through the mutators. If either has changed since the index was
+     * last in sync with them then the index is rebuilt. Readers are called from several threads at once,
+     * so the rebuild is made by one thread only, while the others wait for it.
+     */
+    private void checkIndex() {
+        if (stale()) {
+            synchronized (this) {
+                if (stale())
+                    buildIndex();
+            }
+        }
+    }
+
+    private boolean stale() {
+        return mEdges.changes() != mIndexedEdgeChanges || mNodes.changes() != mIndexedNodeChanges;
+    }
+
+    /**
+     * Records that the index is in sync with the edge list and node set, after a mutator has updated both.
+     */
+    private void indexed() {
+        mIndexedEdgeChanges = mEdges.changes();
+        mIndexedNodeChanges = mNodes.changes();
+    }
+
+    private void index(E edge, int position) {
+        int u = incidence(edge.from());
+        int v = incidence(edge.to());
+        addIncidence(u, position);
+        if (v != u)
+            addIncidence(v, position);
+    }
+
+    private void addIncidence(int id, int position) {
+        int[] incident = mIncidence[id];
+        if (incident == null) {
+            incident = mIncidence[id] = new int[4];
+        } else if (mDegree[id] == incident.length) {
+            incident = mIncidence[id] = Arrays.copyOf(incident, incident.length * 2);
         }
+        incident[mDegree[id]++] = position;
+        degreeChanged(mDegree[id]);
+    }
 
-        //Guarantee only one edge per (u,v) node pair.
-        mEdges = new ArrayList<E>(edgeMap.values());
+    /**
+     * Removes the position from the node's incident positions, keeping the order of the rest.
+     */
+    private void removeIncidence(int id, int position) {
+        int[] incident = mIncidence[id];
+        int degree = mDegree[id];
+        for (int k = 0; k < degree; k++) {
+            if (incident[k] == position) {
+                System.arraycopy(incident, k + 1, incident, k, degree - k - 1);
+                mDegree[id] = degree - 1;
+                degreeChanged(degree - 1);
+                return;
+            }
+        }
+    }
 
-        // get the nodes, add them to the node set.
-        mNodes = new HashSet<N>();
-        for (E e : edges) {
-            Set<N> n = e.nodes();
-            mNodes.addAll(n);
+    /**
+     * Replaces an incident position of the node, after its edge has been moved in <code>mEdges</code>.
+     */
+    private void moveIncidence(int id, int from, int to) {
+        int[] incident = mIncidence[id];
+        for (int k = 0; k < mDegree[id]; k++) {
+            if (incident[k] == from) {
+                incident[k] = to;
+                return;
+            }
         }
     }
 
     /**
-     * @param edges
-     * @param nodes
+     * Updates the degree statistics after a node's degree has changed by one, to <code>degree</code>.
      */
-    public Graph(ArrayList<E> edges, Set<N> nodes) {
-        this(edges);
-        mNodes.addAll(nodes);
+    private void degreeChanged(int degree) {
+        mOddDegreeCount += degree % 2 == 1 ? 1 : -1;
+        mDegreeHistogram = null;
+    }
+
+    /**
+     * Returns the id of the node, first adding it to the graph if it is not on it.
+     */
+    private int incidence(N node) {
+        int id = mNodeIndex.id(node);
+        if (id == -1) {
+            mNodes.add(node);
+            id = mNodeIndex.add(node);
+            mDegreeHistogram = null;
+            if (id >= mDegree.length) {
+                int capacity = Math.max(id + 1, mDegree.length + (mDegree.length >> 1));
+                mIncidence = Arrays.copyOf(mIncidence, capacity);
+                mDegree = Arrays.copyOf(mDegree, capacity);
+            }
+        }
+        return id;
     }
 
 
+    /**
+     * Returns the graph's edge list. Changes made to the list are seen by the graph, which rebuilds its index
+     * when it is next used; <code>addEdge</code> and <code>removeEdge</code> update the index in place instead.
+     *
+     * @return list of edges.
+     */
     @Override
     public ArrayList<E> getEdges() {
         return mEdges;
     }
 
+    /**
+     * Returns the graph's node set. As with <code>getEdges()</code>, changes made to the set are seen by the
+     * graph.
+     *
+     * @return set of nodes.
+     */
     @Override
     public Set<N> getNodes() {
         return mNodes;
     }
 
+    /**
+     * Returns the dense integer ids of the graph's nodes. The index is kept up to date as the graph
+     * changes, and a node keeps its id for as long as it is on the graph. The ids of removed nodes are
+     * given to nodes added later.
+     *
+     * @return node index of the graph.
+     */
+    public NodeIndex<N> getNodeIndex() {
+        checkIndex();
+        return mNodeIndex;
+    }
+
+    /**
+     * Returns the position of the edge in <code>getEdges()</code>, or -1 if the edge is not on the graph.
+     * Positions are dense, but removing an edge moves the last edge into the removed edge's position.
+     *
+     * @param edge edge
+     * @return position of the edge, or -1.
+     */
+    public int edgeIndex(E edge) {
+        checkIndex();
+        return mEdgePositions.get(edge);
+    }
+
+    /**
+     * Returns the nodes adjacent to the given node. The lookup uses the graph's incidence index, so
+     * costs <i>O(deg(node))</i>. If the node is not on the graph then the returned set is empty.
+     *
+     * @param node node
+     * @return set of nodes sharing an edge with the given node.
+     */
+    @Override
+    public Set<N> neighbours(N node) {
+        LinkedHashSet<N> adjacent = new LinkedHashSet<N>();
+        for (E e : incidentEdges(node)) {
+            adjacent.add(e.from() == node ? e.to() : e.from());
+        }
+        return adjacent;
+    }
+
+    /**
+     * Returns an unmodifiable view of the edges incident with the given node, in the order they were
+     * added. If the node is not on the graph then the returned set is empty.
+     *
+     * @param node node
+     * @return set of edges incident with the given node.
+     */
+    @Override
+    public Set<E> incidentEdges(N node) {
+        checkIndex();
+        int id = mNodeIndex.id(node);
+        if (id == -1)
+            return Collections.emptySet();
+        return new IncidentEdges(node, id);
+    }
+
 
     /**
      * Returns the degree of the given node. If the node does not exist on the graph then returns
-     * -1.
+     * -1. The degree is read from the incidence index, so this takes constant time.
      *
      * @param node
      * @return degree of the node, or -1, if the node is not in the graph's node set.
      */
     public int degree(N node) {
-        if (mNodes.contains(node) == false) {
-            return -1;
-        } else {
-            return (int) mEdges.stream().filter(e -> e.nodes().contains(node)).count();
-        }
+        checkIndex();
+        int id = mNodeIndex.id(node);
+        return id == -1 ? -1 : mDegree[id];
     }
 
 
     /**
      * Checks if the (undirected) graph contains a Eulerian cycle, a cycle visiting all nodes, only traversing
-     * any edge once. Returns true <i>iff</i> all nodes have even degree.
+     * any edge once. Returns true <i>iff</i> all nodes have even degree. The number of odd degree nodes
+     * is maintained by the mutators, so this takes constant time.
      *
      * @return true if the graph contains a Eulerian cycle, false otherwise.
      */
     public boolean eulerian() {
-        int evenNodes = (int) mNodes.stream().map(node -> degree(node)).filter(i -> i % 2 == 0).count();
-        return evenNodes == mNodes.size();
+        checkIndex();
+        return mOddDegreeCount == 0;
     }
 
     /**
-     * Gets all the nodes which have maximum degree on the graph.
+     * Returns the degree histogram of the graph. Element <i>d</i> of the returned array is the number of
+     * nodes with degree <i>d</i>, and the length of the array is one more than the maximum degree. The
+     * histogram is cached until the graph is next changed.
      *
-     * @return ArrayList of maximum degree nodes.
+     * @return degree histogram.
      */
-    public ArrayList<N> getMaxDegreeNode() {
-        ArrayList<N> max = new ArrayList<>();
-        ArrayList<N> nodes = new ArrayList<>(getNodes());
-        N m = nodes.get(0);
-        HashMap<N, Integer> degCount = new HashMap<>();
-        for (E e : getEdges()) {
-            N f = e.from();
-            if (degCount.containsKey(f)) {
-                degCount.put(f, degCount.get(f) + 1);
-                int d = degCount.get(f);
-            } else {
-                degCount.put(f, 1);
-            }
-            N t = e.to();
-            if (degCount.containsKey(t)) {
-                degCount.put(t, degCount.get(t) + 1);
-                int d = degCount.get(f);
-            } else {
-                degCount.put(t, 1);
-            }
-        }
+    public int[] getDegreeHistogram() {
+        return degreeHistogram().clone();
+    }
 
-        Optional<Integer> maxDegOption = degCount.values().stream().max(new Comparator<Integer>() {
-            @Override
-            public int compare(Integer o1, Integer o2) {
-                if (o1 > o2) return 1;
-                else if (o1 < o2) return -1;
-                else return 0;
-            }
-        });
-        if (maxDegOption.isPresent() == false)
-            return null;
-        Iterator<Map.Entry<N, Integer>> iter = degCount.entrySet().iterator();
-        while (iter.hasNext()) {
-            Map.Entry<N, Integer> entry = iter.next();
-            if (entry.getValue() == maxDegOption.get())
-                max.add(entry.getKey());
+    /**
+     * Returns the maximum degree of all nodes on the graph, or -1 if the graph has no nodes.
+     *
+     * @return maximum degree.
+     */
+    public int getMaxDegree() {
+        int[] histogram = degreeHistogram();
+        return histogram.length - 1;
+    }
+
+    /**
+     * Returns the minimum degree of all nodes on the graph, or -1 if the graph has no nodes.
+     *
+     * @return minimum degree.
+     */
+    public int getMinDegree() {
+        int[] histogram = degreeHistogram();
+        for (int d = 0; d < histogram.length; d++) {
+            if (histogram[d] > 0)
+                return d;
         }
-        return max;
+        return -1;
+    }
+
+    /**
+     * Gets all the nodes which have maximum degree on the graph.
+     *
+     * @return ArrayList of maximum degree nodes, or null if the graph has no nodes.
+     */
+    public ArrayList<N> getMaxDegreeNode() {
+        return getNodesWithDegree(getMaxDegree());
     }
 
     /**
-     * Gets all the nodes which have minimum degree on the graph.
+     * Gets all the nodes which have minimum degree on the graph. Nodes with no incident
+     * edges have degree zero.
      *
-     * @return ArrayList of minimum degree nodes.
+     * @return ArrayList of minimum degree nodes, or null if the graph has no nodes.
      */
     public ArrayList<N> getMinDegreeNode() {
-        ArrayList<N> min = new ArrayList<>();
-        ArrayList<N> nodes = new ArrayList<>(getNodes());
-        N m = nodes.get(0);
-        HashMap<N, Integer> degCount = new HashMap<>();
-        for (E e : getEdges()) {
-            N f = e.from();
-            if (degCount.containsKey(f)) {
-                degCount.put(f, degCount.get(f) + 1);
-                int d = degCount.get(f);
-            } else {
-                degCount.put(f, 1);
-            }
+        return getNodesWithDegree(getMinDegree());
+    }
 
-            N t = e.to();
-            if (degCount.containsKey(t)) {
-                degCount.put(t, degCount.get(t) + 1);
-                int d = degCount.get(f);
-            } else {
-                degCount.put(t, 1);
-            }
+    private ArrayList<N> getNodesWithDegree(int degree) {
+        if (degree < 0)
+            return null;
+        ArrayList<N> nodes = new ArrayList<>();
+        for (int i = 0; i < mNodeIndex.size(); i++) {
+            N node = mNodeIndex.node(i);
+            if (node != null && mDegree[i] == degree)
+                nodes.add(node);
         }
-        Optional<Integer> minDegOption = degCount.values().stream().min(new Comparator<Integer>() {
-            @Override
-            public int compare(Integer o1, Integer o2) {
-                if (o1 > o2) return 1;
-                else if (o1 < o2) return -1;
-                else return 0;
+        return nodes;
+    }
+
+    /**
+     * Returns the cached degree histogram, computing it if the graph has changed since
+     * it was last computed.
+     */
+    private int[] degreeHistogram() {
+        checkIndex();
+        if (mDegreeHistogram == null) {
+            int max = -1;
+            for (int i = 0; i < mNodeIndex.size(); i++) {
+                if (mNodeIndex.node(i) != null)
+                    max = Math.max(max, mDegree[i]);
             }
-        });
-        if (minDegOption.isPresent() == false)
-            return null;
-        Iterator<Map.Entry<N, Integer>> iter = degCount.entrySet().iterator();
-        while (iter.hasNext()) {
-            Map.Entry<N, Integer> entry = iter.next();
-            if (entry.getValue() == minDegOption.get())
-                min.add(entry.getKey());
+            int[] histogram = new int[max + 1];
+            for (int i = 0; i < mNodeIndex.size(); i++) {
+                if (mNodeIndex.node(i) != null)
+                    histogram[mDegree[i]]++;
+            }
+            mDegreeHistogram = histogram;
         }
-        return min;
+        return mDegreeHistogram;
     }
 
 
+    /**
+     * Returns the number of changes made to the graph's edges and nodes, by <code>addEdge</code>,
+     * <code>removeEdge</code> and <code>removeNode</code>. Direct changes to the edge list or node set are
+     * counted too. While the count is unchanged, results computed from the graph are still valid. Changes to
+     * edge weights are not counted.
+     *
+     * @return modification count.
+     */
+    public int getModificationCount() {
+        checkIndex();
+        return mModificationCount;
+    }
+
     /**
      * Removes the edge from the graph. If the edge does not exist on the graph then the
-     * function will return false.
+     * function will return false. The last edge of the edge list is moved into the removed
+     * edge's position, so removal takes constant time.
      *
      * @param edge edge to remove.
      * @return false if the edge does not exist on the graph, true otherwise.
      */
     public boolean removeEdge(E edge) {
-        if (!getEdges().contains(edge))
+        checkIndex();
+        int position = mEdgePositions.remove(edge);
+        if (position == ObjectIntMap.MISSING)
             return false;
-        getEdges().remove(edge);
+        int u = mNodeIndex.id(edge.from());
+        int v = mNodeIndex.id(edge.to());
+        removeIncidence(u, position);
+        if (v != u)
+            removeIncidence(v, position);
+        int lastPosition = mEdges.size() - 1;
+        E last = mEdges.remove(lastPosition);
+        if (position != lastPosition) {
+            mEdges.set(position, last);
+            mEdgePositions.put(last, position);
+            int a = mNodeIndex.id(last.from());
+            int b = mNodeIndex.id(last.to());
+            moveIncidence(a, lastPosition, position);
+            if (b != a)
+                moveIncidence(b, lastPosition, position);
+        }
+        mModificationCount++;
+        indexed();
         return true;
     }
 
 
     /**
      * Adds the given edge to the graphs edge list. If the edge already exists on the graph
-     * then the function will simply return <b>false</b>.
+     * then the function will simply return <b>false</b>. Nodes of the edge which are not yet
+     * on the graph are added to the node set.
      *
      * @param edge edge to add to the graph
      * @return false if the edge is already on the graph, otherwise true.
      */
     public boolean addEdge(E edge) {
-        if (getEdges().contains(edge))
+        checkIndex();
+        if (mEdgePositions.get(edge) != ObjectIntMap.MISSING)
             return false;
-        getEdges().add(edge);
+        int position = mEdges.size();
+        mEdgePositions.put(edge, position);
+        mEdges.add(edge);
+        index(edge, position);
+        mModificationCount++;
+        indexed();
         return true;
     }
 
@@ -223,17 +503,218 @@ public class Graph<N, E extends IEdge<N>> implements IGraph<N,E> {
      * @return True if node exists on the graph, and was removed, false otherwise.
      */
     public boolean removeNode(N node) {
+        checkIndex();
         if (!mNodes.contains(node))
             return false;
-        Collection<E> incidentEdges = Utilities.getIncidentEdges(mEdges, node);
-        mEdges.removeAll(incidentEdges);
+        ArrayList<E> incidentEdges = new ArrayList<E>(incidentEdges(node));
+        for (E e : incidentEdges) {
+            removeEdge(e);
+        }
+        mIncidence[mNodeIndex.id(node)] = null;
         mNodes.remove(node);
+        mNodeIndex.remove(node);
+        mDegreeHistogram = null;
+        mModificationCount++;
+        indexed();
         return true;
     }
 
+    /**
+     * Creates an immutable, compact snapshot of this graph, with dense integer node ids and
+     * array based adjacency. Later changes to this graph are not reflected in the snapshot.
+     *
+     * @return compact snapshot of the graph.
+     */
+    public CompactGraph<N, E> freeze() {
+        return CompactGraph.of(this);
+    }
+
     public boolean contractEdge(E edge) {
-        if (!mEdges.contains(edge))
+        checkIndex();
+        if (mEdgePositions.get(edge) == ObjectIntMap.MISSING)
             return false;
         return false;
     }
+
+    /**
+     * View of the edges incident with a node, read from the node's incident positions. It is empty once the
+     * node is removed, even if the node's id is given to another node.
+     */
+    private final class IncidentEdges extends AbstractSet<E> {
+
+        private final N mNode;
+        private final int mId;
+
+        IncidentEdges(N node, int id) {
+            mNode = node;
+            mId = id;
+        }
+
+        @Override
+        public int size() {
+            checkIndex();
+            return mNodeIndex.node(mId) == mNode ? mDegree[mId] : 0;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            checkIndex();
+            if (o == null)
+                return false;
+            int position = mEdgePositions.get(o);
+            if (position == ObjectIntMap.MISSING || mNodeIndex.node(mId) != mNode)
+                return false;
+            E edge = mEdges.get(position);
+            return edge.from() == mNode || edge.to() == mNode;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            final int size = size();
+            final int[] incident = mIncidence[mId];
+            return new Iterator<E>() {
+                int k = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return k < size;
+                }
+
+                @Override
+                public E next() {
+                    if (k >= size)
+                        throw new NoSuchElementException();
+                    return mEdges.get(incident[k++]);
+                }
+            };
+        }
+    }
+
+    /**
+     * Edge list which counts every change made to it, including replacing an edge with <code>set</code>, in
+     * <code>modCount</code>. Its sub lists are built on its own methods, since those of <code>ArrayList</code>
+     * write replaced edges straight to the backing array.
+     */
+    static final class EdgeList<E> extends ArrayList<E> {
+
+        private static final long serialVersionUID = 1L;
+
+        EdgeList(Collection<? extends E> edges) {
+            super(edges);
+        }
+
+        int changes() {
+            return modCount;
+        }
+
+        @Override
+        public E set(int index, E element) {
+            E previous = super.set(index, element);
+            modCount++;
+            return previous;
+        }
+
+        @Override
+        public List<E> subList(int fromIndex, int toIndex) {
+            final EdgeList<E> list = this;
+            return new AbstractList<E>() {
+                @Override
+                public E get(int index) {
+                    return list.get(index);
+                }
+
+                @Override
+                public E set(int index, E element) {
+                    return list.set(index, element);
+                }
+
+                @Override
+                public void add(int index, E element) {
+                    list.add(index, element);
+                }
+
+                @Override
+                public E remove(int index) {
+                    return list.remove(index);
+                }
+
+                @Override
+                public int size() {
+                    return list.size();
+                }
+            }.subList(fromIndex, toIndex);
+        }
+    }
+
+    /**
+     * Node set which counts the changes made to it.
+     */
+    static final class NodeSet<N> extends AbstractSet<N> {
+
+        private final Set<N> mSet;
+        private int mChanges;
+
+        NodeSet(Set<N> nodes) {
+            mSet = nodes;
+        }
+
+        int changes() {
+            return mChanges;
+        }
+
+        @Override
+        public boolean add(N node) {
+            if (!mSet.add(node))
+                return false;
+            mChanges++;
+            return true;
+        }
+
+        @Override
+        public boolean remove(Object node) {
+            if (!mSet.remove(node))
+                return false;
+            mChanges++;
+            return true;
+        }
+
+        @Override
+        public boolean contains(Object node) {
+            return mSet.contains(node);
+        }
+
+        @Override
+        public void clear() {
+            if (!mSet.isEmpty())
+                mChanges++;
+            mSet.clear();
+        }
+
+        @Override
+        public int size() {
+            return mSet.size();
+        }
+
+        @Override
+        public Iterator<N> iterator() {
+            final Iterator<N> iterator = mSet.iterator();
+            return new Iterator<N>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public N next() {
+                    return iterator.next();
+                }
+
+                @Override
+                public void remove() {
+                    iterator.remove();
+                    mChanges++;
+                }
+            };
+        }
+    }
 }
@@ -0,0 +1,225 @@
+package jgh.javagraph;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Builder for <code>Graph</code> objects. Nodes are given dense integer ids as they are added, and each edge is
+ * keyed by the packed pair <i>(id(from), id(to))</i> in a single <code>long</code>. Duplicate edges are merged
+ * out with a primitive open addressing map on these keys, so building a graph takes a single linear pass
+ * over the edges, without boxing a key or allocating a map entry per edge.
+ * <br>
+ * As with the <code>Graph</code> constructors, if multiple edges share the same <i>(from, to)</i> node pair
+ * then only the last added edge is accepted by the graph.
+ *
+ * @param <N> Node type
+ * @param <E> Edge type
+ */
+public class GraphBuilder<N, E extends IEdge<N>> {
+
+    /**
+     * Edges, in the order they were added.
+     */
+    private ArrayList<E> mEdges;
+
+    /**
+     * Packed <i>(id(from), id(to))</i> key of each edge.
+     */
+    private long[] mKeys;
+
+    /**
+     * Ids of the added nodes. The built graph keeps these ids.
+     */
+    private NodeIndex<N> mNodeIndex;
+
+    /**
+     * Whether the duplicate edges should be merged out in parallel.
+     */
+    private boolean mParallel = false;
+
+    /**
+     * Whether the builder has built its graph.
+     */
+    private boolean mBuilt = false;
+
+    /**
+     * Creates an empty builder.
+     */
+    public GraphBuilder() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty builder, with room for the expected number of edges.
+     *
+     * @param expectedEdges expected number of edges
+     */
+    public GraphBuilder(int expectedEdges) {
+        mEdges = new ArrayList<E>(expectedEdges);
+        mKeys = new long[Math.max(expectedEdges, 16)];
+        mNodeIndex = new NodeIndex<N>(Collections.<N>emptyList());
+    }
+
+    /**
+     * Sets whether the duplicate edges are merged out in parallel, using the common
+     * <code>ForkJoinPool</code>. The resulting graph is the same either way.
+     *
+     * @param parallel true to build in parallel
+     * @return this builder
+     */
+    public GraphBuilder<N, E> parallel(boolean parallel) {
+        mParallel = parallel;
+        return this;
+    }
+
+    /**
+     * Adds a node to the graph. Nodes of added edges do not need to be added separately.
+     *
+     * @param node node to add
+     * @return this builder
+     */
+    public GraphBuilder<N, E> addNode(N node) {
+        mNodeIndex.add(node);
+        return this;
+    }
+
+    /**
+     * Adds all the nodes to the graph.
+     *
+     * @param nodes nodes to add
+     * @return this builder
+     */
+    public GraphBuilder<N, E> addNodes(Collection<? extends N> nodes) {
+        for (N node : nodes) {
+            mNodeIndex.add(node);
+        }
+        return this;
+    }
+
+    /**
+     * Adds an edge to the graph.
+     *
+     * @param edge edge to add
+     * @return this builder
+     */
+    public GraphBuilder<N, E> addEdge(E edge) {
+        int i = mEdges.size();
+        if (i == mKeys.length)
+            mKeys = Arrays.copyOf(mKeys, i * 2);
+        mKeys[i] = ((long) mNodeIndex.add(edge.from()) << 32) | mNodeIndex.add(edge.to());
+        mEdges.add(edge);
+        return this;
+    }
+
+    /**
+     * Adds all the edges to the graph.
+     *
+     * @param edges edges to add
+     * @return this builder
+     */
+    public GraphBuilder<N, E> addEdges(Collection<? extends E> edges) {
+        int required = mEdges.size() + edges.size();
+        if (required > mKeys.length)
+            mKeys = Arrays.copyOf(mKeys, Math.max(required, mKeys.length * 2));
+        mEdges.ensureCapacity(required);
+        for (E edge : edges) {
+            addEdge(edge);
+        }
+        return this;
+    }
+
+    /**
+     * Builds the graph from the added nodes and edges. The graph takes over the builder's node ids,
+     * so a builder can only build one graph.
+     *
+     * @return Graph
+     * @throws IllegalStateException if the builder has already built a graph.
+     */
+    public Graph<N, E> build() {
+        if (mBuilt)
+            throw new IllegalStateException("GraphBuilder has already built a graph.");
+        mBuilt = true;
+        return new Graph<N, E>(this);
+    }
+
+    /**
+     * Returns the set of all added nodes.
+     */
+    Set<N> nodes() {
+        HashSet<N> nodes = new HashSet<N>(mNodeIndex.size() * 2);
+        for (int i = 0; i < mNodeIndex.size(); i++) {
+            nodes.add(mNodeIndex.node(i));
+        }
+        return nodes;
+    }
+
+    /**
+     * Returns the ids of the added nodes.
+     */
+    NodeIndex<N> nodeIndex() {
+        return mNodeIndex;
+    }
+
+    /**
+     * Returns the added edges with duplicates merged out, keeping the last added edge for each
+     * <i>(from, to)</i> pair. The accepted edges keep the order in which they were added.
+     */
+    ArrayList<E> distinctEdges() {
+        int m = mEdges.size();
+        boolean[] dropped = new boolean[m];
+        if (mParallel && m > 0) {
+            dropDuplicatesInParallel(dropped);
+        } else {
+            dropDuplicates(dropped, null, 0, m);
+        }
+
+        ArrayList<E> distinct = new ArrayList<E>(m);
+        for (int i = 0; i < m; i++) {
+            if (!dropped[i])
+                distinct.add(mEdges.get(i));
+        }
+        return distinct;
+    }
+
+    /**
+     * Marks every edge which is followed by a later edge with the same key. If <code>order</code> is not null
+     * the edges considered are <code>order[start..end)</code>, otherwise they are the edges <i>start..end-1</i>.
+     * Edges must be considered in increasing index order.
+     */
+    private void dropDuplicates(boolean[] dropped, int[] order, int start, int end) {
+        LongIntMap map = new LongIntMap(end - start);
+        for (int j = start; j < end; j++) {
+            int i = order == null ? j : order[j];
+            int previous = map.put(mKeys[i], i);
+            if (previous != LongIntMap.MISSING)
+                dropped[previous] = true;
+        }
+    }
+
+    /**
+     * Partitions the edges into shards by key, so that all the edges with the same key fall in the same shard,
+     * then merges out the duplicates of each shard in parallel.
+     */
+    private void dropDuplicatesInParallel(boolean[] dropped) {
+        int m = mEdges.size();
+        int shards = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4) - 1) << 1;
+        int[] shardOf = new int[m];
+        int[] offsets = new int[shards + 1];
+        for (int i = 0; i < m; i++) {
+            long h = mKeys[i] * 0x9E3779B97F4A7C15L;
+            shardOf[i] = (int) (h >>> 40) & (shards - 1);
+            offsets[shardOf[i] + 1]++;
+        }
+        for (int s = 0; s < shards; s++) {
+            offsets[s + 1] += offsets[s];
+        }
+        // counting sort keeps the edges of each shard in increasing index order.
+        int[] order = new int[m];
+        int[] next = Arrays.copyOf(offsets, shards);
+        for (int i = 0; i < m; i++) {
+            order[next[shardOf[i]]++] = i;
+        }
+
+        IntStream.range(0, shards).parallel().forEach(s -> dropDuplicates(dropped, order, offsets[s], offsets[s + 1]));
+    }
+}
@@ -1,7 +1,9 @@
 package jgh.javagraph;
 
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 /**
@@ -23,4 +25,35 @@ public interface IGraph<N, E extends IEdge<N>> {
      */
     Set<N> getNodes();
 
+    /**
+     * Gets the nodes adjacent to the given node, i.e. the nodes sharing an edge with it. By default
+     * this scans all edges; implementations with an incidence index should override it.
+     *
+     * @param node node on the graph
+     * @return Collection of adjacent nodes.
+     */
+    default Collection<N> neighbours(N node) {
+        LinkedHashSet<N> adjacent = new LinkedHashSet<N>();
+        for (E e : incidentEdges(node)) {
+            adjacent.add(e.from() == node ? e.to() : e.from());
+        }
+        return adjacent;
+    }
+
+    /**
+     * Gets the edges incident with the given node. By default this scans all edges; implementations
+     * with an incidence index should override it.
+     *
+     * @param node node on the graph
+     * @return Collection of incident edges.
+     */
+    default Collection<E> incidentEdges(N node) {
+        ArrayList<E> incident = new ArrayList<E>();
+        for (E e : getEdges()) {
+            if (e.from() == node || e.to() == node)
+                incident.add(e);
+        }
+        return incident;
+    }
+
 }
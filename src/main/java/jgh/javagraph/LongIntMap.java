@@ -0,0 +1,113 @@
+package jgh.javagraph;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from primitive <code>long</code> keys to non-negative <code>int</code> values,
+ * using linear probing. No objects are allocated per entry. The key <code>Long.MIN_VALUE</code> is reserved
+ * to mark empty slots and cannot be stored.
+ */
+final class LongIntMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    /**
+     * Returned by <code>get</code> and <code>put</code> when the key is not in the map.
+     */
+    static final int MISSING = -1;
+
+    private long[] mKeys;
+    private int[] mValues;
+    private int mSize;
+    private int mMask;
+
+    /**
+     * Creates a map with room for the expected number of entries before it needs to grow.
+     *
+     * @param expectedSize expected number of entries
+     */
+    LongIntMap(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2L && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        mKeys = new long[capacity];
+        Arrays.fill(mKeys, EMPTY);
+        mValues = new int[capacity];
+        mMask = capacity - 1;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mMask;
+    }
+
+    /**
+     * Returns the value for the key, or <code>MISSING</code> if the key is not in the map.
+     *
+     * @param key key
+     * @return value, or <code>MISSING</code>.
+     */
+    int get(long key) {
+        int i = slot(key);
+        while (mKeys[i] != EMPTY) {
+            if (mKeys[i] == key)
+                return mValues[i];
+            i = (i + 1) & mMask;
+        }
+        return MISSING;
+    }
+
+    /**
+     * Maps the key to the value, replacing any previous value.
+     *
+     * @param key   key
+     * @param value non-negative value
+     * @return the previous value, or <code>MISSING</code> if the key was not in the map.
+     */
+    int put(long key, int value) {
+        int i = slot(key);
+        while (mKeys[i] != EMPTY) {
+            if (mKeys[i] == key) {
+                int previous = mValues[i];
+                mValues[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mMask;
+        }
+        mKeys[i] = key;
+        mValues[i] = value;
+        if (++mSize * 2 > mKeys.length)
+            grow();
+        return MISSING;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return number of entries.
+     */
+    int size() {
+        return mSize;
+    }
+
+    private void grow() {
+        long[] keys = mKeys;
+        int[] values = mValues;
+        allocate(keys.length * 2);
+        for (int j = 0; j < keys.length; j++) {
+            if (keys[j] == EMPTY)
+                continue;
+            int i = slot(keys[j]);
+            while (mKeys[i] != EMPTY) {
+                i = (i + 1) & mMask;
+            }
+            mKeys[i] = keys[j];
+            mValues[i] = values[j];
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package jgh.javagraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Registry of dense integer ids for the nodes of a <code>Graph</code>. Each node keeps the id it was given
+ * for as long as it stays on the graph, so algorithms can hold per node state in plain arrays of length
+ * <code>size()</code>, indexed by node id, instead of in maps of <code>NodeData</code> objects.
+ * <br>
+ * The id of a removed node is given to the next node added, so <code>size()</code> stays at the largest
+ * number of nodes the graph has held at once. Until then the id is unused, and <code>node(id)</code>
+ * returns <code>null</code>. Since ids are reused, state held by id is only valid until a node is next
+ * removed; see <code>Graph.getModificationCount()</code>. The index is owned and kept up to date by its
+ * graph; see <code>Graph.getNodeIndex()</code>. Snapshots of a graph, such as <code>CompactGraph</code>, hold
+ * fixed indexes with no unused ids.
+ *
+ * @param <N> Node type
+ */
+public final class NodeIndex<N> {
+
+    /**
+     * Node for each id, or <code>null</code> for ids of removed nodes.
+     */
+    private final ArrayList<N> mNodeList;
+
+    /**
+     * Id for each node.
+     */
+    private final HashMap<N, Integer> mNodeIds;
+
+    /**
+     * Unused ids, the most recently freed last.
+     */
+    private int[] mFree = new int[0];
+    private int mFreeCount;
+
+    /**
+     * Creates an index with ids given in the order of the node collection.
+     *
+     * @param nodes nodes to index
+     */
+    NodeIndex(Collection<N> nodes) {
+        mNodeList = new ArrayList<N>(nodes.size());
+        mNodeIds = new HashMap<N, Integer>(nodes.size() * 2);
+        for (N node : nodes) {
+            add(node);
+        }
+    }
+
+    /**
+     * Creates a fixed index of the nodes, with ids in the order of the collection, for snapshots of a graph
+     * which are rebuilt from a list of their nodes.
+     *
+     * @param nodes nodes to index
+     * @param <N>   Node type
+     * @return index of the nodes.
+     */
+    public static <N> NodeIndex<N> of(Collection<N> nodes) {
+        return new NodeIndex<N>(nodes);
+    }
+
+    /**
+     * Returns the id of the node, or -1 if the node is not in the index.
+     *
+     * @param node node
+     * @return id of the node, or -1.
+     */
+    public int id(N node) {
+        Integer id = mNodeIds.get(node);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the node with the given id, or <code>null</code> if the id is unused.
+     *
+     * @param id node id
+     * @return node, or <code>null</code>.
+     */
+    public N node(int id) {
+        return mNodeList.get(id);
+    }
+
+    /**
+     * Returns an unmodifiable view of the node of each id, with <code>null</code> for unused ids.
+     *
+     * @return list of nodes, by id.
+     */
+    public List<N> nodes() {
+        return Collections.unmodifiableList(mNodeList);
+    }
+
+    /**
+     * Returns an unmodifiable view of the nodes in the index.
+     */
+    Set<N> nodeSet() {
+        return Collections.unmodifiableSet(mNodeIds.keySet());
+    }
+
+    /**
+     * Returns one more than the largest id given out. Arrays of per node state should have this length.
+     *
+     * @return size of the id range.
+     */
+    public int size() {
+        return mNodeList.size();
+    }
+
+    /**
+     * Gives the node the most recently freed id, or the next id if none is free, if it is not already in
+     * the index.
+     *
+     * @param node node
+     * @return id of the node.
+     */
+    int add(N node) {
+        Integer id = mNodeIds.get(node);
+        if (id == null) {
+            if (mFreeCount > 0) {
+                id = mFree[--mFreeCount];
+                mNodeList.set(id, node);
+            } else {
+                id = mNodeList.size();
+                mNodeList.add(node);
+            }
+            mNodeIds.put(node, id);
+        }
+        return id;
+    }
+
+    /**
+     * Removes the node from the index. Its id is unused until it is given to the next node added.
+     *
+     * @param node node
+     */
+    void remove(N node) {
+        Integer id = mNodeIds.remove(node);
+        if (id == null)
+            return;
+        mNodeList.set(id, null);
+        if (mFreeCount == mFree.length)
+            mFree = Arrays.copyOf(mFree, Math.max(4, mFreeCount * 2));
+        mFree[mFreeCount++] = id;
+    }
+
+    /**
+     * Returns the number of nodes in the index.
+     *
+     * @return number of nodes.
+     */
+    public int count() {
+        return mNodeIds.size();
+    }
+}
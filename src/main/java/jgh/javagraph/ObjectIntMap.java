@@ -0,0 +1,139 @@
+package jgh.javagraph;
+
+/**
+ * Open addressing hash map from object keys to non-negative <code>int</code> values, using linear probing.
+ * Keys are compared with <code>equals</code>, as in a <code>HashMap</code>, but no objects are allocated per
+ * entry. Keys cannot be <code>null</code>.
+ *
+ * @param <K> Key type
+ */
+final class ObjectIntMap<K> {
+
+    /**
+     * Returned by <code>get</code>, <code>put</code> and <code>remove</code> when the key is not in the map.
+     */
+    static final int MISSING = -1;
+
+    private Object[] mKeys;
+    private int[] mValues;
+    private int mSize;
+    private int mMask;
+
+    /**
+     * Creates a map with room for the expected number of entries before it needs to grow.
+     *
+     * @param expectedSize expected number of entries
+     */
+    ObjectIntMap(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2L && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        mKeys = new Object[capacity];
+        mValues = new int[capacity];
+        mMask = capacity - 1;
+    }
+
+    private int slot(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mMask;
+    }
+
+    /**
+     * Returns the value for the key, or <code>MISSING</code> if the key is not in the map.
+     *
+     * @param key key
+     * @return value, or <code>MISSING</code>.
+     */
+    int get(Object key) {
+        int i = slot(key);
+        while (mKeys[i] != null) {
+            if (mKeys[i].equals(key))
+                return mValues[i];
+            i = (i + 1) & mMask;
+        }
+        return MISSING;
+    }
+
+    /**
+     * Maps the key to the value, replacing any previous value.
+     *
+     * @param key   key
+     * @param value non-negative value
+     * @return the previous value, or <code>MISSING</code> if the key was not in the map.
+     */
+    int put(K key, int value) {
+        int i = slot(key);
+        while (mKeys[i] != null) {
+            if (mKeys[i].equals(key)) {
+                int previous = mValues[i];
+                mValues[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mMask;
+        }
+        mKeys[i] = key;
+        mValues[i] = value;
+        if (++mSize * 2 > mKeys.length)
+            grow();
+        return MISSING;
+    }
+
+    /**
+     * Removes the key from the map. The entries after it in its probe run are shifted back, so that no
+     * deleted markers are needed.
+     *
+     * @param key key
+     * @return the removed value, or <code>MISSING</code> if the key was not in the map.
+     */
+    int remove(Object key) {
+        int i = slot(key);
+        while (mKeys[i] != null && !mKeys[i].equals(key)) {
+            i = (i + 1) & mMask;
+        }
+        if (mKeys[i] == null)
+            return MISSING;
+        int value = mValues[i];
+        for (int j = (i + 1) & mMask; mKeys[j] != null; j = (j + 1) & mMask) {
+            // an entry may fill the gap if its own slot is not in the cyclic range (i, j].
+            int k = slot(mKeys[j]);
+            if (i < j ? k <= i || k > j : k <= i && k > j) {
+                mKeys[i] = mKeys[j];
+                mValues[i] = mValues[j];
+                i = j;
+            }
+        }
+        mKeys[i] = null;
+        mSize--;
+        return value;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return number of entries.
+     */
+    int size() {
+        return mSize;
+    }
+
+    private void grow() {
+        Object[] keys = mKeys;
+        int[] values = mValues;
+        allocate(keys.length * 2);
+        for (int j = 0; j < keys.length; j++) {
+            if (keys[j] == null)
+                continue;
+            int i = slot(keys[j]);
+            while (mKeys[i] != null) {
+                i = (i + 1) & mMask;
+            }
+            mKeys[i] = keys[j];
+            mValues[i] = values[j];
+        }
+    }
+}
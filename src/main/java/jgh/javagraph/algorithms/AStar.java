@@ -3,9 +3,12 @@ package jgh.javagraph.algorithms;
 import jgh.javagraph.*;
 
 import java.util.*;
+import java.util.function.IntFunction;
 
 /**
- * Implementation of AStar algorithm for a weighted, undirected graph.
+ * Implementation of AStar algorithm for a weighted, undirected graph. The open set is an
+ * <code>IndexedHeap</code> keyed by f-distance, and the scores are held in the arrays of a
+ * <code>TraversalWorkspace</code>, so each expansion costs <i>O(deg log N)</i>.
  */
 public class AStar {
 
@@ -21,99 +24,88 @@ public class AStar {
      * @return minimum path list.
      */
     public static <N, E extends WeightedEdge<N>> ArrayList<N> findMinPath(Graph<N, E> graph, N nodeS, N nodeF, IAStarHeuristic heuristic) {
+        return findMinPath(graph, nodeS, nodeF, heuristic, TraversalWorkspace.forCurrentThread());
+    }
 
-        // Instantiate the openSet and closedSet. The openSet is the collection
-        // of currently searchable nodes. Closed Set is the collection of already
-        // finished nodes, that should no longer be searched.
-        HashSet<N> openSet = new HashSet<N>();
-        HashSet<N> closedSet = new HashSet<N>();
-        openSet.add(nodeS);
-        ArrayList<N> shortestPath = new ArrayList<N>();
-
-        // Instantiate the score maps. THe give the currently evaluated g-distance,
-        // and f-distance, where g-distance is distance from source node to current node,
-        // f-distance is the estimated distance g-distance + heuristic, where the heuristic
-        // is the estimated distance to the end node from the current node.
-        HashMap<N, Float> gScoreMap = new HashMap<N, Float>();
-        HashMap<N, Float> fScoreMap = new HashMap<N, Float>();
-
-
-        HashMap<N,NodeData<N>> nodeMap = new HashMap<N,NodeData<N>>();
-
-        // Initialize the score maps.
-        for (N t : graph.getNodes()) {
-            NodeData<N> nodeData = new NodeData<N>(t);
-            if(t.equals(nodeS)){
-                gScoreMap.put(t, 0f);
-                fScoreMap.put(t, 0f + heuristic.getHeuristic(nodeS, nodeF));
-            }
-            else {
-                gScoreMap.put(t, Float.MAX_VALUE);
-
-                fScoreMap.put(t, 0f);
-            }
-            nodeData.setPrevious(Optional.of(t));
-            nodeMap.put(t, nodeData);
-        }
-
-        //begin the search.
-        while (openSet.size() > 0) {
-            N current = null;
-            for (N openNode : openSet) {
-                if (current == null)
-                    current = openNode;
-                else {
-                    if (fScoreMap.get(current) > fScoreMap.get(openNode)) {
-                        current = openNode;
-                    }
-                }
-            }
+    /**
+     * Returns the ordered list of nodes between the start node, and end node, which is the
+     * minimum path, keeping the search state in the given workspace. The heuristic must not start another
+     * search with the same workspace.
+     *
+     * @param graph     The graph
+     * @param nodeS     The start node
+     * @param nodeF     The final, goal node
+     * @param heuristic The heuristic function for a measure of distance.
+     * @param workspace workspace for the search state
+     * @param <E>       Weighted edge type
+     * @return minimum path list.
+     */
+    public static <N, E extends WeightedEdge<N>> ArrayList<N> findMinPath(Graph<N, E> graph, N nodeS, N nodeF,
+                                                                          IAStarHeuristic heuristic,
+                                                                          TraversalWorkspace workspace) {
+        NodeIndex<N> index = graph.getNodeIndex();
+        int s = index.id(nodeS);
+        int f = index.id(nodeF);
+        // the heap is the open set, keyed by f-distance, the g-distance plus the heuristic, and the visited nodes
+        // are the closed set. The heuristic of each node is cached in its workspace score.
+        HeapSearch.run(Arcs.of(graph), s, t -> heuristic.getHeuristic(index.node(t), nodeF), u -> u == f,
+                workspace);
+        return path(nodeS, s, f, workspace, index::node);
+    }
 
-            if (current == nodeF) {
-                shortestPath.add(current);
-                break;
-            }
+    /**
+     * Returns the ordered list of nodes between the start node, and end node, which is the
+     * minimum path on a <code>CompactGraph</code> snapshot, generated by the A-star algorithm with heuristic
+     * <code>IAStarHeuristic</code>. The path is in the same order as <code>findMinPath(Graph, ...)</code>.
+     *
+     * @param graph     The compact graph
+     * @param nodeS     The start node
+     * @param nodeF     The final, goal node
+     * @param heuristic The heuristic function for a measure of distance.
+     * @param <E>       Weighted edge type
+     * @return minimum path list.
+     */
+    public static <N, E extends WeightedEdge<N>> ArrayList<N> findMinPath(CompactGraph<N, E> graph, N nodeS, N nodeF,
+                                                                          IAStarHeuristic heuristic) {
+        return findMinPath(graph, nodeS, nodeF, heuristic, TraversalWorkspace.forCurrentThread());
+    }
 
-            openSet.remove(current);
-            closedSet.add(current);
-            //get adjacent node list.
-            Collection<E> incident = Utilities.getIncidentEdges(graph.getEdges(), current);
-            for (E u : incident) {
-                for (N t : u.nodes()) {
-                    if (t == current)
-                        continue;
-                    else if (closedSet.contains((t)))
-                        continue;
-                    else {
-                        float tmp = gScoreMap.get(current) + u.getWeight();// g + h sum.
-                        if (openSet.contains(t) == false) {
+    /**
+     * Returns the ordered list of nodes between the start node, and end node, which is the
+     * minimum path on a <code>CompactGraph</code> snapshot, keeping the search state in the given workspace.
+     *
+     * @param graph     The compact graph
+     * @param nodeS     The start node
+     * @param nodeF     The final, goal node
+     * @param heuristic The heuristic function for a measure of distance.
+     * @param workspace workspace for the search state
+     * @param <E>       Weighted edge type
+     * @return minimum path list.
+     */
+    public static <N, E extends WeightedEdge<N>> ArrayList<N> findMinPath(CompactGraph<N, E> graph, N nodeS, N nodeF,
+                                                                          IAStarHeuristic heuristic,
+                                                                          TraversalWorkspace workspace) {
+        int s = graph.id(nodeS);
+        int f = graph.id(nodeF);
+        HeapSearch.run(Arcs.of(graph), s, t -> heuristic.getHeuristic(graph.node(t), nodeF), u -> u == f,
+                workspace);
+        return path(nodeS, s, f, workspace, graph::node);
+    }
 
-                            nodeMap.get(t).setPrevious(Optional.of(current));
-                            openSet.add(t);
-                            gScoreMap.put(t, tmp);
-                            fScoreMap.put(t, tmp + heuristic.getHeuristic(t, nodeF));
-                            nodeMap.get(t).setDistance(tmp);
-                        } else {
-                            float currentScore = gScoreMap.get(t);
-                            if (currentScore > tmp) {
-                                nodeMap.get(t).setPrevious(Optional.of(current));
-                                gScoreMap.put(t, tmp);
-                                fScoreMap.put(t, tmp + heuristic.getHeuristic(t, nodeF));
-                                nodeMap.get(t).setDistance(tmp);
-                            }
-                        }
-                    }
-                }
-            }
+    /**
+     * Builds the path from the predecessors in the workspace, from node id <code>s</code> to node id <code>f</code>.
+     */
+    private static <N> ArrayList<N> path(N nodeS, int s, int f, TraversalWorkspace workspace,
+                                         IntFunction<N> nodes) {
+        ArrayList<N> shortestPath = new ArrayList<N>();
+        // if the goal was not reached the path is just the start node.
+        if (f != s && workspace.previous(f) == -1) {
+            shortestPath.add(nodeS);
+            return shortestPath;
         }
-
-
-        N p = (N)nodeMap.get(nodeF).getPrevious().get();
-        while (p != null && p != nodeMap.get(p).getPrevious().get()) {
-            shortestPath.add(p);
-            p = (N)nodeMap.get(p).getPrevious().get();
+        for (int p = f; p != -1; p = workspace.previous(p)) {
+            shortestPath.add(nodes.apply(p));
         }
-        shortestPath.add(nodeS);
         Collections.reverse(shortestPath);
         return shortestPath;
     }
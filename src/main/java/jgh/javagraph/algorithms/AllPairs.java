@@ -0,0 +1,351 @@
+package jgh.javagraph.algorithms;
+
+import jgh.javagraph.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * All pairs shortest path static methods. Both methods return a <code>Distances</code> matrix, which holds the
+ * minimum distance between every ordered pair of nodes.
+ */
+public class AllPairs {
+
+    /**
+     * Side length of the square tiles of the distance matrix. A tile of floats is 16KB, so the three tiles
+     * used by each tile update fit in the level 1 and 2 caches.
+     */
+    static final int TILE = 64;
+
+    /**
+     * Distance between each ordered pair of nodes of a graph. The matrix is held in a flat array of
+     * <code>TILE</code> by <code>TILE</code> tiles, each tile in row major order, with the node ids padded up to
+     * a whole number of tiles.
+     *
+     * @param <N> Node type
+     */
+    public static final class Distances<N> {
+
+        private final NodeIndex<N> mIndex;
+        private final ArrayList<N> mNodes;
+        private final int mSize;
+        private final int mTiles;
+        private final float[] mMatrix;
+
+        Distances(NodeIndex<N> index, int size, int tiles, float[] matrix) {
+            mIndex = index;
+            mSize = size;
+            mTiles = tiles;
+            mMatrix = matrix;
+            mNodes = new ArrayList<N>(index.count());
+            for (int i = 0; i < size; i++) {
+                N node = index.node(i);
+                if (node != null)
+                    mNodes.add(node);
+            }
+        }
+
+        /**
+         * Returns the nodes of the graph, in id order.
+         *
+         * @return list of nodes.
+         */
+        public List<N> getNodes() {
+            return Collections.unmodifiableList(mNodes);
+        }
+
+        /**
+         * Returns the minimum distance from <code>from</code> to <code>to</code>, or <code>Float.MAX_VALUE</code>
+         * if there is no path, or either node was not on the graph.
+         *
+         * @param from start node
+         * @param to   final node
+         * @return minimum distance.
+         */
+        public float getDistance(N from, N to) {
+            int u = mIndex.id(from);
+            int v = mIndex.id(to);
+            if (u == -1 || v == -1 || u >= mSize || v >= mSize)
+                return Float.MAX_VALUE;
+            return mMatrix[offset(u, v, mTiles)];
+        }
+
+        /**
+         * Returns the distance matrix between the nodes, in the order of <code>getNodes()</code>. Unreachable
+         * pairs have distance <code>Float.MAX_VALUE</code>.
+         *
+         * @return distance matrix.
+         */
+        public float[][] toArray() {
+            int n = mNodes.size();
+            int[] ids = new int[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = mIndex.id(mNodes.get(i));
+            }
+            float[][] matrix = new float[n][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    matrix[i][j] = mMatrix[offset(ids[i], ids[j], mTiles)];
+                }
+            }
+            return matrix;
+        }
+    }
+
+    /**
+     * Finds the minimum distance between every pair of nodes with the <i>Floyd-Warshall algorithm</i>, run on
+     * the parallel streams' common <code>ForkJoinPool</code>. Edges are undirected, except that the direction of
+     * <code>DirectedWeightedEdge</code>s is honoured. Negative weights are allowed on directed edges.
+     * Takes <i>O(n<sup>3</sup>)</i> time and <i>O(n<sup>2</sup>)</i> space, so is suited to dense graphs; for
+     * sparse graphs <code>johnson</code> is faster.
+     *
+     * @param graph weighted graph
+     * @param <E>   Weighted Edge type
+     * @return distance between each pair of nodes.
+     * @throws AlgorithmException if a negative cycle is found.
+     */
+    public static <N, E extends WeightedEdge<N>> Distances<N> floydWarshall(Graph<N, E> graph)
+            throws AlgorithmException {
+        return floydWarshall(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Finds the minimum distance between every pair of nodes with the <i>Floyd-Warshall algorithm</i>, running
+     * the tile updates in the given pool. The matrix is split into tiles, and for each diagonal tile <i>k</i>
+     * the algorithm updates tile <i>(k, k)</i>, then the other tiles in row and column <i>k</i> in parallel,
+     * then all remaining tiles in parallel. Each tile update only reads tiles of row and column <i>k</i>.
+     *
+     * @param graph weighted graph
+     * @param pool  pool to run the tile updates in
+     * @param <E>   Weighted Edge type
+     * @return distance between each pair of nodes.
+     * @throws AlgorithmException if a negative cycle is found.
+     */
+    public static <N, E extends WeightedEdge<N>> Distances<N> floydWarshall(Graph<N, E> graph, ForkJoinPool pool)
+            throws AlgorithmException {
+        NodeIndex<N> index = graph.getNodeIndex();
+        int n = index.size();
+        int tiles = (n + TILE - 1) / TILE;
+        float[] m = emptyMatrix(tiles);
+        for (E edge : graph.getEdges()) {
+            int u = index.id(edge.from());
+            int v = index.id(edge.to());
+            Direction direction = edge instanceof DirectedWeightedEdge
+                    ? ((DirectedWeightedEdge<N>) edge).getDirection() : Direction.BOTH;
+            if (direction != Direction.BACKWARDS)
+                relax(m, offset(u, v, tiles), edge.getWeight());
+            if (direction != Direction.FORWARDS)
+                relax(m, offset(v, u, tiles), edge.getWeight());
+        }
+
+        for (int k = 0; k < tiles; k++) {
+            int kk = k;
+            update(m, tile(k, k, tiles), tile(k, k, tiles), tile(k, k, tiles));
+            // row k and column k, except tile (k, k).
+            run(pool, () -> IntStream.range(0, 2 * tiles).parallel().forEach(t -> {
+                int other = t >> 1;
+                if (other == kk)
+                    return;
+                if ((t & 1) == 0) {
+                    update(m, tile(kk, other, tiles), tile(kk, kk, tiles), tile(kk, other, tiles));
+                } else {
+                    update(m, tile(other, kk, tiles), tile(other, kk, tiles), tile(kk, kk, tiles));
+                }
+            }));
+            run(pool, () -> IntStream.range(0, tiles * tiles).parallel().forEach(t -> {
+                int i = t / tiles;
+                int j = t % tiles;
+                if (i == kk || j == kk)
+                    return;
+                update(m, tile(i, j, tiles), tile(i, kk, tiles), tile(kk, j, tiles));
+            }));
+        }
+
+        for (int i = 0; i < n; i++) {
+            if (m[offset(i, i, tiles)] < 0)
+                throw new AlgorithmException("Negative cycle found.");
+        }
+        for (int i = 0; i < m.length; i++) {
+            if (m[i] == Float.POSITIVE_INFINITY)
+                m[i] = Float.MAX_VALUE;
+        }
+        return new Distances<N>(index, n, tiles, m);
+    }
+
+    /**
+     * Finds the minimum distance between every pair of nodes with <i>Johnson's algorithm</i>. Bellman-Ford
+     * from a virtual source joined to every node gives each node a potential <i>h</i>, and reweighting each arc
+     * <i>u-v</i> to <i>w + h(u) - h(v)</i> makes every weight non-negative without changing the minimum paths.
+     * Dijkstra is then run from each node, in parallel. Takes <i>O(nm log n)</i> time, so is suited to sparse
+     * graphs with negative weights.
+     *
+     * @param graph weighted, directed graph
+     * @param <E>   Weighted Edge type
+     * @return distance between each pair of nodes.
+     * @throws AlgorithmException if a negative cycle is found.
+     */
+    public static <N, E extends DirectedWeightedEdge<N>> Distances<N> johnson(Graph<N, E> graph)
+            throws AlgorithmException {
+        NodeIndex<N> index = graph.getNodeIndex();
+        int n = index.size();
+
+        // outgoing arcs of each node, in compressed rows.
+        ArrayList<E> edges = graph.getEdges();
+        int[] arcStart = new int[n + 1];
+        for (E edge : edges) {
+            if (edge.getDirection() != Direction.BACKWARDS)
+                arcStart[index.id(edge.from()) + 1]++;
+            if (edge.getDirection() != Direction.FORWARDS)
+                arcStart[index.id(edge.to()) + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            arcStart[i + 1] += arcStart[i];
+        }
+        int[] target = new int[arcStart[n]];
+        float[] weight = new float[arcStart[n]];
+        int[] fill = Arrays.copyOf(arcStart, n);
+        for (E edge : edges) {
+            int u = index.id(edge.from());
+            int v = index.id(edge.to());
+            if (edge.getDirection() != Direction.BACKWARDS) {
+                target[fill[u]] = v;
+                weight[fill[u]++] = edge.getWeight();
+            }
+            if (edge.getDirection() != Direction.FORWARDS) {
+                target[fill[v]] = u;
+                weight[fill[v]++] = edge.getWeight();
+            }
+        }
+
+        float[] h = potentials(n, arcStart, target, weight);
+        for (int u = 0; u < n; u++) {
+            for (int a = arcStart[u]; a < arcStart[u + 1]; a++) {
+                // rounding can leave tiny negative weights, which Dijkstra cannot take.
+                weight[a] = Math.max(0, weight[a] + h[u] - h[target[a]]);
+            }
+        }
+
+        int tiles = (n + TILE - 1) / TILE;
+        float[] m = emptyMatrix(tiles);
+        IntStream.range(0, n).parallel().forEach(s -> {
+            if (index.node(s) == null)
+                return;
+            TraversalWorkspace workspace = TraversalWorkspace.forCurrentThread();
+            workspace.reset(n);
+            IndexedHeap heap = workspace.heap(n);
+            workspace.setDistance(s, 0);
+            heap.offer(s, 0);
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                workspace.visit(u);
+                float d = workspace.distance(u);
+                m[offset(s, u, tiles)] = d - h[s] + h[u];
+                for (int a = arcStart[u]; a < arcStart[u + 1]; a++) {
+                    int v = target[a];
+                    if (workspace.isVisited(v))
+                        continue;
+                    float poss = d + weight[a];
+                    if (poss < workspace.distance(v)) {
+                        workspace.setDistance(v, poss);
+                        heap.offer(v, poss);
+                    }
+                }
+            }
+        });
+        for (int i = 0; i < m.length; i++) {
+            if (m[i] == Float.POSITIVE_INFINITY)
+                m[i] = Float.MAX_VALUE;
+        }
+        return new Distances<N>(index, n, tiles, m);
+    }
+
+    /**
+     * Bellman-Ford from a virtual source with a zero weight arc to every node, which is the same as starting
+     * every node at distance 0.
+     */
+    private static float[] potentials(int n, int[] arcStart, int[] target, float[] weight)
+            throws AlgorithmException {
+        float[] h = new float[n];
+        for (int i = 0; i <= n; i++) {
+            boolean changed = false;
+            for (int u = 0; u < n; u++) {
+                for (int a = arcStart[u]; a < arcStart[u + 1]; a++) {
+                    float tmp = h[u] + weight[a];
+                    if (tmp < h[target[a]]) {
+                        h[target[a]] = tmp;
+                        changed = true;
+                    }
+                }
+            }
+            if (!changed)
+                return h;
+        }
+        throw new AlgorithmException("Negative cycle found.");
+    }
+
+    /**
+     * Returns a matrix of <code>tiles</code> by <code>tiles</code> tiles, with zeroes on the diagonal and
+     * infinity elsewhere.
+     */
+    private static float[] emptyMatrix(int tiles) {
+        int size = tiles * TILE;
+        float[] m = new float[size * size];
+        Arrays.fill(m, Float.POSITIVE_INFINITY);
+        for (int i = 0; i < size; i++) {
+            m[offset(i, i, tiles)] = 0;
+        }
+        return m;
+    }
+
+    private static void relax(float[] m, int offset, float weight) {
+        m[offset] = Math.min(m[offset], weight);
+    }
+
+    /**
+     * Returns the offset of the first entry of tile <i>(i, j)</i>.
+     */
+    private static int tile(int i, int j, int tiles) {
+        return (i * tiles + j) * TILE * TILE;
+    }
+
+    /**
+     * Returns the offset of entry <i>(u, v)</i>.
+     */
+    static int offset(int u, int v, int tiles) {
+        return tile(u / TILE, v / TILE, tiles) + (u % TILE) * TILE + v % TILE;
+    }
+
+    /**
+     * Relaxes tile <code>c</code> through the paths of tiles <code>a</code> and <code>b</code>, so that
+     * <i>c(i, j) = min(c(i, j), a(i, k) + b(k, j))</i> for each <i>k</i> of the tile. The tiles may be the
+     * same tile, as <i>k</i> is the outer loop.
+     */
+    private static void update(float[] m, int c, int a, int b) {
+        for (int k = 0; k < TILE; k++) {
+            int bRow = b + k * TILE;
+            for (int i = 0; i < TILE; i++) {
+                float aik = m[a + i * TILE + k];
+                if (aik == Float.POSITIVE_INFINITY)
+                    continue;
+                int cRow = c + i * TILE;
+                for (int j = 0; j < TILE; j++) {
+                    float poss = aik + m[bRow + j];
+                    if (poss < m[cRow + j])
+                        m[cRow + j] = poss;
+                }
+            }
+        }
+    }
+
+    private static void run(ForkJoinPool pool, Runnable task) {
+        if (pool == ForkJoinPool.commonPool()) {
+            task.run();
+        } else {
+            pool.submit(task).join();
+        }
+    }
+}
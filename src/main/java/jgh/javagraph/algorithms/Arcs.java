@@ -0,0 +1,83 @@
+package jgh.javagraph.algorithms;
+
+import jgh.javagraph.CompactGraph;
+import jgh.javagraph.Graph;
+import jgh.javagraph.NodeIndex;
+import jgh.javagraph.WeightedEdge;
+
+/**
+ * Weighted arcs of a graph by node id, so that a search loop written over ids runs on a <code>Graph</code>,
+ * through its <code>NodeIndex</code>, and on a <code>CompactGraph</code> alike. Edges are treated as
+ * undirected, so each edge is an arc from either end.
+ */
+interface Arcs {
+
+    /**
+     * Returns the size of the node id range.
+     *
+     * @return number of node ids.
+     */
+    int size();
+
+    /**
+     * Passes each arc leaving node id <code>u</code> to the visitor.
+     *
+     * @param u       node id
+     * @param visitor visitor of the arcs
+     */
+    void forEachArc(int u, Visitor visitor);
+
+    /**
+     * Visitor of the arcs leaving a node.
+     */
+    interface Visitor {
+
+        /**
+         * Visits an arc.
+         *
+         * @param target id of the node the arc points to
+         * @param weight weight of the arc
+         */
+        void arc(int target, float weight);
+    }
+
+    /**
+     * Returns the arcs of the graph, read from its incidence index.
+     */
+    static <N, E extends WeightedEdge<N>> Arcs of(Graph<N, E> graph) {
+        final NodeIndex<N> index = graph.getNodeIndex();
+        return new Arcs() {
+            @Override
+            public int size() {
+                return index.size();
+            }
+
+            @Override
+            public void forEachArc(int u, Visitor visitor) {
+                N node = index.node(u);
+                for (E e : graph.incidentEdges(node)) {
+                    visitor.arc(index.id(e.from() == node ? e.to() : e.from()), e.getWeight());
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the arcs of the compact graph, read from its arc ranges.
+     */
+    static <N, E extends WeightedEdge<N>> Arcs of(CompactGraph<N, E> graph) {
+        return new Arcs() {
+            @Override
+            public int size() {
+                return graph.nodeCount();
+            }
+
+            @Override
+            public void forEachArc(int u, Visitor visitor) {
+                for (int a = graph.arcStart(u); a < graph.arcEnd(u); a++) {
+                    visitor.arc(graph.target(a), graph.weight(a));
+                }
+            }
+        };
+    }
+}
@@ -4,14 +4,22 @@ package jgh.javagraph.algorithms;
 import jgh.javagraph.*;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Optional;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
 
 /**
  * BellmanFord static methods
  */
 public class BellmanFord {
 
+    /**
+     * Number of arcs swept by each task of a parallel pass.
+     */
+    private static final int PARALLEL_CHUNK = 1 << 14;
 
     /**
      * Implements Bellman-Ford algorithm to find minimum path between two points on a weighted, directed graph, where
@@ -21,62 +29,434 @@ public class BellmanFord {
      * @param nodeS Start node
      * @param nodeF Final node
      * @param <E>   Weighted Edge type
-     * @return ArrayList of minimum path nodes in order.
-     * @throws AlgorithmException If negative cycle is found.
+     * @return ArrayList of minimum path nodes in order, from <code>nodeF</code> back to <code>nodeS</code>.
+     * If <code>nodeF</code> cannot be reached the list is empty.
+     * @throws AlgorithmException If negative cycle is found. This is a <code>NegativeCycleException</code>,
+     *                            which holds the cycle.
      */
     public static <N, E extends DirectedWeightedEdge<N>> ArrayList<N> findMinPath(Graph<N, E> graph,
                                                                                                 N nodeS, N nodeF)
             throws AlgorithmException {
-        ArrayList<N> path = new ArrayList<N>();
-        ArrayList<N> nodes = new ArrayList<N>(graph.getNodes());
-        HashMap<N,NodeData<N>> nodeMap = new HashMap<N,NodeData<N>>();
-
-        for (N t : nodes) {
-            NodeData<N> n = new NodeData<>(t);
-            if (t == nodeS)
-                n.setDistance(0);
-            else
-                n.setDistance(Float.MAX_VALUE);// essentially infinity
-            // all mPrevious are null
-            n.setPrevious(Optional.empty());
-            nodeMap.put(t,n);
+        return findMinPath(graph, nodeS, nodeF, TraversalWorkspace.forCurrentThread());
+    }
+
+    /**
+     * Implements Bellman-Ford algorithm to find minimum path between two points on a weighted, directed graph,
+     * keeping the search state in the given workspace.
+     *
+     * @param graph     Weighted, directed graph.
+     * @param nodeS     Start node
+     * @param nodeF     Final node
+     * @param workspace workspace for the search state
+     * @param <E>       Weighted Edge type
+     * @return ArrayList of minimum path nodes in order, from <code>nodeF</code> back to <code>nodeS</code>.
+     * If <code>nodeF</code> cannot be reached the list is empty.
+     * @throws AlgorithmException If negative cycle is found. This is a <code>NegativeCycleException</code>,
+     *                            which holds the cycle.
+     */
+    public static <N, E extends DirectedWeightedEdge<N>> ArrayList<N> findMinPath(Graph<N, E> graph,
+                                                                                  N nodeS, N nodeF,
+                                                                                  TraversalWorkspace workspace)
+            throws AlgorithmException {
+        NodeIndex<N> index = graph.getNodeIndex();
+        int s = index.id(nodeS);
+        int f = index.id(nodeF);
+
+        // flatten the edges into arcs, one for each direction the edge may be traversed in.
+        // The ends of arc a are held at ends[2a] and ends[2a + 1].
+        ArrayList<E> edges = graph.getEdges();
+        int[] ends = workspace.ints(edges.size() * 4);
+        float[] weight = workspace.floats(edges.size() * 2);
+        int arcCount = 0;
+        for (int i = 0; i < edges.size(); i++) {
+            E edge = edges.get(i);
+            int u = index.id(edge.from());
+            int v = index.id(edge.to());
+            if (edge.getDirection() != Direction.BACKWARDS) {
+                ends[2 * arcCount] = u;
+                ends[2 * arcCount + 1] = v;
+                weight[arcCount++] = edge.getWeight();
+            }
+            if (edge.getDirection() != Direction.FORWARDS) {
+                ends[2 * arcCount] = v;
+                ends[2 * arcCount + 1] = u;
+                weight[arcCount++] = edge.getWeight();
+            }
         }
 
-        ArrayList<N> edgeNodes = new ArrayList<N>();
-        for (int i = 0; i < nodes.size(); i++) {
-            for (E edge : graph.getEdges()) {
-                if (edge.getDirection() == Direction.FORWARDS) {
-                    float tmp = nodeMap.get(edge.from()).getDistance() + edge.getWeight();
-                    if (tmp < nodeMap.get(edge.to()).getDistance()) {
-                        nodeMap.get(edge.to()).setDistance(tmp);
-                        nodeMap.get(edge.to()).setPrevious(Optional.of(edge.from()));
-                    }
-                } else if (edge.getDirection() == Direction.BACKWARDS) {
-                    float tmp = nodeMap.get(edge.to()).getDistance() + edge.getWeight();
-                    if (tmp < nodeMap.get(edge.from()).getDistance()) {
-                        nodeMap.get(edge.from()).setDistance(tmp);
-                        nodeMap.get(edge.from()).setPrevious(Optional.of(edge.from()));
-                    }
+        // unreached nodes have distance Float.MAX_VALUE, essentially infinity, and no previous node.
+        workspace.reset(index.size());
+        workspace.setDistance(s, 0);
+
+        // stop early once a pass changes no distances.
+        boolean changed = true;
+        for (int i = 0; i < index.count() && changed; i++) {
+            changed = false;
+            for (int a = 0; a < arcCount; a++) {
+                int u = ends[2 * a];
+                if (!workspace.isReached(u))
+                    continue;
+                int v = ends[2 * a + 1];
+                float tmp = workspace.distance(u) + weight[a];
+                if (tmp < workspace.distance(v)) {
+                    workspace.setDistance(v, tmp);
+                    workspace.setPrevious(v, u);
+                    changed = true;
                 }
             }
         }
 
         // search for negative weight cycles.
-        for (E edge : graph.getEdges()) {
+        for (int a = 0; changed && a < arcCount; a++) {
+            int u = ends[2 * a];
+            if (!workspace.isReached(u))
+                continue;
+            int v = ends[2 * a + 1];
+            float tmp = workspace.distance(u) + weight[a];
+            if (tmp < workspace.distance(v)) {
+                // v can still be improved after |V| passes, so its predecessors lead into a negative cycle.
+                workspace.setPrevious(v, u);
+                int cycle = findCycle(workspace::previous, v, new int[index.size()], 1);
+                throw negativeCycle(workspace::previous, index, cycle);
+            }
+        }
+
+        ArrayList<N> path = new ArrayList<N>();
+        if (f != s && workspace.previous(f) == -1)
+            return path;
+        for (int p = f; p != -1; p = workspace.previous(p)) {
+            path.add(index.node(p));
+        }
+        return path;
+    }
+
+    /**
+     * Finds the minimum path between two points on a weighted, directed graph, where weights can be negative or
+     * positive, with the queue based <i>Shortest Path Faster Algorithm</i>. Only nodes whose distance fell are
+     * queued to have their arcs relaxed again, so the search ends as soon as no distance changes, which is
+     * usually long before the |V| passes of <code>findMinPath</code>.
+     * <br>
+     * Negative cycles are found early. The number of arcs on the path to each node is counted, and every |V|
+     * relaxations the predecessors of the relaxed node are walked; a cycle of predecessors, or a path of |V|
+     * arcs, can only come from a negative cycle.
+     *
+     * @param graph Weighted, directed graph.
+     * @param nodeS Start node
+     * @param nodeF Final node
+     * @param <E>   Weighted Edge type
+     * @return ArrayList of minimum path nodes in order, from <code>nodeF</code> back to <code>nodeS</code>.
+     * If <code>nodeF</code> cannot be reached the list is empty.
+     * @throws NegativeCycleException If a negative cycle is reachable from <code>nodeS</code>.
+     */
+    public static <N, E extends DirectedWeightedEdge<N>> ArrayList<N> findMinPathSpfa(Graph<N, E> graph,
+                                                                                      N nodeS, N nodeF)
+            throws NegativeCycleException {
+        return findMinPathSpfa(graph, nodeS, nodeF, TraversalWorkspace.forCurrentThread());
+    }
+
+    /**
+     * Finds the minimum path between two points on a weighted, directed graph with the queue based
+     * <i>Shortest Path Faster Algorithm</i>, as <code>findMinPathSpfa(Graph, N, N)</code>, keeping the search
+     * state in the given workspace.
+     *
+     * @param graph     Weighted, directed graph.
+     * @param nodeS     Start node
+     * @param nodeF     Final node
+     * @param workspace workspace for the search state
+     * @param <E>       Weighted Edge type
+     * @return ArrayList of minimum path nodes in order, from <code>nodeF</code> back to <code>nodeS</code>.
+     * If <code>nodeF</code> cannot be reached the list is empty.
+     * @throws NegativeCycleException If a negative cycle is reachable from <code>nodeS</code>.
+     */
+    public static <N, E extends DirectedWeightedEdge<N>> ArrayList<N> findMinPathSpfa(Graph<N, E> graph,
+                                                                                      N nodeS, N nodeF,
+                                                                                      TraversalWorkspace workspace)
+            throws NegativeCycleException {
+        NodeIndex<N> index = graph.getNodeIndex();
+        int n = index.size();
+        int s = index.id(nodeS);
+        int f = index.id(nodeF);
+
+        // arcs of each node u, one for each direction an edge may be traversed in, are
+        // [start[u], start[u + 1]) of target and weight.
+        ArrayList<E> edges = graph.getEdges();
+        int[] start = new int[n + 1];
+        for (E edge : edges) {
+            if (edge.getDirection() != Direction.BACKWARDS)
+                start[index.id(edge.from()) + 1]++;
+            if (edge.getDirection() != Direction.FORWARDS)
+                start[index.id(edge.to()) + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            start[i + 1] += start[i];
+        }
+        int[] target = new int[start[n]];
+        float[] weight = new float[start[n]];
+        int[] next = Arrays.copyOf(start, n);
+        for (E edge : edges) {
+            int u = index.id(edge.from());
+            int v = index.id(edge.to());
+            if (edge.getDirection() != Direction.BACKWARDS) {
+                target[next[u]] = v;
+                weight[next[u]++] = edge.getWeight();
+            }
+            if (edge.getDirection() != Direction.FORWARDS) {
+                target[next[v]] = u;
+                weight[next[v]++] = edge.getWeight();
+            }
+        }
+
+        // cyclic queue of nodes whose arcs are to be relaxed, and the number of arcs on the path to each node.
+        int[] queue = new int[n];
+        boolean[] queued = new boolean[n];
+        int[] arcCount = new int[n];
+        int[] mark = new int[n];
+        workspace.reset(n);
+        workspace.setDistance(s, 0);
+        int head = 0;
+        int size = 1;
+        queue[0] = s;
+        queued[s] = true;
+        int relaxations = 0;
+        int walk = 0;
+        while (size > 0) {
+            int u = queue[head];
+            head = head + 1 == n ? 0 : head + 1;
+            size--;
+            queued[u] = false;
+            int arcs = arcCount[u];
+            float d = workspace.distance(u);
+            for (int a = start[u]; a < start[u + 1]; a++) {
+                int v = target[a];
+                float tmp = d + weight[a];
+                if (tmp >= workspace.distance(v))
+                    continue;
+                workspace.setDistance(v, tmp);
+                workspace.setPrevious(v, u);
+                arcCount[v] = arcs + 1;
+                if (arcs + 1 >= n || ++relaxations % n == 0) {
+                    int cycle = findCycle(workspace::previous, v, mark, ++walk);
+                    if (cycle != -1)
+                        throw negativeCycle(workspace::previous, index, cycle);
+                }
+                if (!queued[v]) {
+                    queue[(head + size) % n] = v;
+                    queued[v] = true;
+                    size++;
+                }
+            }
+        }
+
+        ArrayList<N> path = new ArrayList<N>();
+        if (f != s && workspace.previous(f) == -1)
+            return path;
+        for (int p = f; p != -1; p = workspace.previous(p)) {
+            path.add(index.node(p));
+        }
+        return path;
+    }
+
+    /**
+     * Finds the minimum path between two points on a weighted, directed graph, where weights can be negative or
+     * positive, relaxing the arcs of each Bellman-Ford pass in parallel on the common <code>ForkJoinPool</code>.
+     *
+     * @param graph Weighted, directed graph.
+     * @param nodeS Start node
+     * @param nodeF Final node
+     * @param <E>   Weighted Edge type
+     * @return ArrayList of minimum path nodes in order, from <code>nodeF</code> back to <code>nodeS</code>.
+     * If <code>nodeF</code> cannot be reached the list is empty.
+     * @throws NegativeCycleException If a negative cycle is reachable from <code>nodeS</code>.
+     */
+    public static <N, E extends DirectedWeightedEdge<N>> ArrayList<N> findMinPathParallel(Graph<N, E> graph,
+                                                                                          N nodeS, N nodeF)
+            throws NegativeCycleException {
+        return findMinPathParallel(graph, nodeS, nodeF, ForkJoinPool.commonPool());
+    }
 
-            float tmp = nodeMap.get(edge.from()).getDistance() + edge.getWeight();
-            if (tmp < nodeMap.get(edge.to()).getDistance()) {
-                throw new AlgorithmException("Negative cycle found.");
+    /**
+     * Finds the minimum path between two points on a weighted, directed graph, where weights can be negative or
+     * positive, relaxing the arcs of each Bellman-Ford pass in parallel in the given pool. The edges are
+     * copied into flat <code>from</code>, <code>to</code> and weight arrays, one arc for each direction an
+     * edge may be traversed in, and each pass sweeps chunks of the arcs concurrently. The distance and
+     * predecessor of each node are packed into one <code>long</code> and lowered with compare-and-set, so
+     * concurrent relaxations of the same node keep the smallest distance with its own predecessor. The
+     * passes stop as soon as one changes nothing.
+     *
+     * @param graph Weighted, directed graph.
+     * @param nodeS Start node
+     * @param nodeF Final node
+     * @param pool  pool to run the passes in
+     * @param <E>   Weighted Edge type
+     * @return ArrayList of minimum path nodes in order, from <code>nodeF</code> back to <code>nodeS</code>.
+     * If <code>nodeF</code> cannot be reached the list is empty.
+     * @throws NegativeCycleException If a negative cycle is reachable from <code>nodeS</code>.
+     */
+    public static <N, E extends DirectedWeightedEdge<N>> ArrayList<N> findMinPathParallel(Graph<N, E> graph,
+                                                                                          N nodeS, N nodeF,
+                                                                                          ForkJoinPool pool)
+            throws NegativeCycleException {
+        NodeIndex<N> index = graph.getNodeIndex();
+        int n = index.size();
+        int s = index.id(nodeS);
+        int f = index.id(nodeF);
+
+        ArrayList<E> edges = graph.getEdges();
+        int arcCount = (int) edges.stream().filter(e -> e.getDirection() == Direction.BOTH).count() + edges.size();
+        int[] from = new int[arcCount];
+        int[] to = new int[arcCount];
+        float[] weight = new float[arcCount];
+        int a = 0;
+        for (E edge : edges) {
+            int u = index.id(edge.from());
+            int v = index.id(edge.to());
+            if (edge.getDirection() != Direction.BACKWARDS) {
+                from[a] = u;
+                to[a] = v;
+                weight[a++] = edge.getWeight();
+            }
+            if (edge.getDirection() != Direction.FORWARDS) {
+                from[a] = v;
+                to[a] = u;
+                weight[a++] = edge.getWeight();
             }
         }
 
+        // unreached nodes are at infinity, which stays infinite when any weight is added.
+        AtomicLongArray state = new AtomicLongArray(n);
+        long unreached = pack(Float.POSITIVE_INFINITY, -1);
+        for (int i = 0; i < n; i++) {
+            state.set(i, unreached);
+        }
+        state.set(s, pack(0, -1));
 
-        N p = (N)nodeMap.get(nodeF).getPrevious().get();
-        path.add((N)nodeF);
-        while (p != null && p != nodeMap.get(p).getPrevious().orElse(null)) {
-            path.add(p);
-            p = nodeMap.get(p).getPrevious().orElse(null);
+        int chunks = (arcCount + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+        boolean[] changed = new boolean[chunks];
+        Runnable pass = () -> IntStream.range(0, chunks).parallel().forEach(c -> {
+            boolean any = false;
+            int end = Math.min(arcCount, (c + 1) * PARALLEL_CHUNK);
+            for (int k = c * PARALLEL_CHUNK; k < end; k++) {
+                int u = from[k];
+                float d = distance(state.get(u));
+                if (d == Float.POSITIVE_INFINITY)
+                    continue;
+                long poss = pack(d + weight[k], u);
+                long current = state.get(to[k]);
+                // only a strictly smaller distance may replace the state. Breaking ties by predecessor id
+                // would let the ends of a zero weight two-way arc become each other's predecessors.
+                while ((int) (poss >> 32) < (int) (current >> 32)) {
+                    if (state.compareAndSet(to[k], current, poss)) {
+                        any = true;
+                        break;
+                    }
+                    current = state.get(to[k]);
+                }
+            }
+            changed[c] = any;
+        });
+
+        // a pass after the first |V| - 1 which still changes a distance means a negative cycle.
+        for (int i = 0; i < index.count(); i++) {
+            if (pool == ForkJoinPool.commonPool()) {
+                pass.run();
+            } else {
+                pool.submit(pass).join();
+            }
+            boolean any = false;
+            for (boolean c : changed) {
+                any |= c;
+            }
+            if (!any)
+                break;
+            if (i + 1 == index.count())
+                throw negativeCycle(state, from, to, weight, index);
+        }
+
+        ArrayList<N> path = new ArrayList<N>();
+        if (f != s && previous(state.get(f)) == -1)
+            return path;
+        for (int p = f; p != -1; p = previous(state.get(p))) {
+            path.add(index.node(p));
         }
         return path;
     }
+
+    /**
+     * Finds a negative cycle in the packed predecessors of a parallel search whose last pass still changed a
+     * distance. While the predecessors form a tree each distance is the weight of a path of the tree, and
+     * relaxation cannot go on for ever, so sequential passes are run until the predecessors close a cycle.
+     */
+    private static <N> NegativeCycleException negativeCycle(AtomicLongArray state, int[] from, int[] to,
+                                                            float[] weight, NodeIndex<N> index) {
+        IntUnaryOperator previous = v -> previous(state.get(v));
+        int[] mark = new int[state.length()];
+        while (true) {
+            // each node's predecessors are walked once: a walk stops at a node marked by an earlier walk.
+            Arrays.fill(mark, 0);
+            for (int v = 0; v < mark.length; v++) {
+                int p = v;
+                while (p != -1 && mark[p] == 0) {
+                    mark[p] = v + 1;
+                    p = previous.applyAsInt(p);
+                }
+                if (p != -1 && mark[p] == v + 1)
+                    return negativeCycle(previous, index, p);
+            }
+            for (int a = 0; a < from.length; a++) {
+                float d = distance(state.get(from[a]));
+                if (d != Float.POSITIVE_INFINITY && d + weight[a] < distance(state.get(to[a])))
+                    state.set(to[a], pack(d + weight[a], from[a]));
+            }
+        }
+    }
+
+    /**
+     * Packs a distance and predecessor into a <code>long</code> whose high half orders by distance. The float
+     * bits are made to order as signed ints by flipping all but the sign bit of negative floats, and the
+     * predecessor id plus one fills the low half.
+     */
+    private static long pack(float distance, int previous) {
+        int bits = Float.floatToRawIntBits(distance);
+        bits ^= (bits >> 31) & 0x7fffffff;
+        return ((long) bits << 32) | (previous + 1);
+    }
+
+    private static float distance(long state) {
+        int bits = (int) (state >> 32);
+        return Float.intBitsToFloat(bits ^ ((bits >> 31) & 0x7fffffff));
+    }
+
+    private static int previous(long state) {
+        return (int) state - 1;
+    }
+
+    /**
+     * Walks the predecessors from <code>start</code>, marking each node with <code>stamp</code> in
+     * <code>mark</code>.
+     *
+     * @return a node on a cycle of predecessors, or -1 if the walk ends without one.
+     */
+    private static int findCycle(IntUnaryOperator previous, int start, int[] mark, int stamp) {
+        for (int p = start; p != -1; p = previous.applyAsInt(p)) {
+            if (mark[p] == stamp)
+                return p;
+            mark[p] = stamp;
+        }
+        return -1;
+    }
+
+    /**
+     * Collects the cycle of predecessors through <code>node</code>, in the direction of its edges.
+     */
+    private static <N> NegativeCycleException negativeCycle(IntUnaryOperator previous, NodeIndex<N> index,
+                                                            int node) {
+        ArrayList<N> cycle = new ArrayList<N>();
+        int p = node;
+        do {
+            cycle.add(index.node(p));
+            p = previous.applyAsInt(p);
+        } while (p != node);
+        Collections.reverse(cycle);
+        return new NegativeCycleException(cycle);
+    }
 }
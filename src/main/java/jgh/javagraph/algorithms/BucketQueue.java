@@ -0,0 +1,224 @@
+package jgh.javagraph.algorithms;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * <i>Dial's</i> bucket queue of integer ids in <i>[0, capacity)</i>, ordered by non-negative <code>int</code>
+ * keys. The queue is <i>monotone</i>: every key offered must lie in <i>[min, min + maxSpread]</i>, where
+ * <i>min</i> is the key last polled, as in <i>Dijkstra's algorithm</i> on integer weights no larger than
+ * <i>maxSpread</i>. Keys are then kept in <i>maxSpread + 1</i> cyclic buckets of doubly linked ids, so queueing
+ * or decreasing a key takes constant time, and polling takes time proportional to the number of empty buckets
+ * passed over, with no key comparisons.
+ */
+public final class BucketQueue {
+
+    private final int mBucketCount;
+
+    /**
+     * First id of each bucket, or -1.
+     */
+    private final int[] mHeads;
+
+    /**
+     * Neighbours of each queued id in its bucket, or -1.
+     */
+    private int[] mNext;
+    private int[] mPrevious;
+
+    /**
+     * Key of each queued id.
+     */
+    private int[] mKeys;
+
+    /**
+     * Stamp of each queued id, equal to <code>mEpoch</code> while the id is queued.
+     */
+    private int[] mQueued;
+
+    private int mEpoch = 1;
+    private int mSize;
+
+    /**
+     * Key of the last polled id. Every queued key is in <i>[mCursor, mCursor + mBucketCount)</i>.
+     */
+    private int mCursor;
+
+    /**
+     * Creates a queue for ids in <i>[0, capacity)</i>, whose queued keys differ from the last polled key by at
+     * most <code>maxSpread</code>.
+     *
+     * @param capacity  number of ids
+     * @param maxSpread largest difference between a queued key and the last polled key
+     */
+    public BucketQueue(int capacity, int maxSpread) {
+        if (maxSpread < 0 || maxSpread == Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Key spread must be in [0, Integer.MAX_VALUE).");
+        mBucketCount = maxSpread + 1;
+        mHeads = new int[mBucketCount];
+        Arrays.fill(mHeads, -1);
+        mNext = new int[capacity];
+        mPrevious = new int[capacity];
+        mKeys = new int[capacity];
+        mQueued = new int[capacity];
+    }
+
+    /**
+     * Returns the largest difference allowed between a queued key and the last polled key.
+     *
+     * @return key spread.
+     */
+    public int getMaxSpread() {
+        return mBucketCount - 1;
+    }
+
+    /**
+     * Makes room for ids in <i>[0, capacity)</i>. Queued ids are kept.
+     *
+     * @param capacity number of ids
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= mQueued.length)
+            return;
+        int length = mQueued.length;
+        int grown = Math.max(capacity, length + (length >> 1));
+        mNext = Arrays.copyOf(mNext, grown);
+        mPrevious = Arrays.copyOf(mPrevious, grown);
+        mKeys = Arrays.copyOf(mKeys, grown);
+        mQueued = Arrays.copyOf(mQueued, grown);
+    }
+
+    /**
+     * Returns the number of queued ids.
+     *
+     * @return number of queued ids.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Returns true if no ids are queued.
+     *
+     * @return true if empty.
+     */
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Returns true if the id is queued.
+     *
+     * @param id id
+     * @return true if queued.
+     */
+    public boolean contains(int id) {
+        return mQueued[id] == mEpoch;
+    }
+
+    /**
+     * Returns the key of a queued id.
+     *
+     * @param id queued id
+     * @return key of the id.
+     */
+    public int key(int id) {
+        return mKeys[id];
+    }
+
+    /**
+     * Queues the id with the given key. If the id is already queued with a larger key then its key is
+     * decreased; if it is queued with a key no larger than <code>key</code> then nothing changes.
+     *
+     * @param id  id
+     * @param key key, in <i>[min, min + maxSpread]</i> for the last polled key <i>min</i>
+     * @return true if the id was queued or its key decreased.
+     * @throws IllegalArgumentException if the key is outside the allowed range.
+     */
+    public boolean offer(int id, int key) {
+        if (key < mCursor || key - mCursor >= mBucketCount)
+            throw new IllegalArgumentException("Key " + key + " is outside [" + mCursor + ", "
+                    + (mCursor + mBucketCount - 1) + "].");
+        if (mQueued[id] == mEpoch) {
+            if (mKeys[id] <= key)
+                return false;
+            unlink(id);
+        } else {
+            mQueued[id] = mEpoch;
+            mSize++;
+        }
+        mKeys[id] = key;
+        int bucket = key % mBucketCount;
+        int head = mHeads[bucket];
+        mNext[id] = head;
+        mPrevious[id] = -1;
+        if (head != -1)
+            mPrevious[head] = id;
+        mHeads[bucket] = id;
+        return true;
+    }
+
+    /**
+     * Returns the smallest key.
+     *
+     * @return smallest key.
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    public int peekKey() {
+        return mKeys[mHeads[advance()]];
+    }
+
+    /**
+     * Removes and returns an id with the smallest key.
+     *
+     * @return id with the smallest key.
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    public int poll() {
+        int id = mHeads[advance()];
+        unlink(id);
+        mQueued[id] = 0;
+        mSize--;
+        return id;
+    }
+
+    /**
+     * Removes every queued id, and allows any key to be queued next. Takes time proportional to the number
+     * of buckets.
+     */
+    public void clear() {
+        Arrays.fill(mHeads, -1);
+        mSize = 0;
+        mCursor = 0;
+        if (++mEpoch == 0) {
+            Arrays.fill(mQueued, 0);
+            mEpoch = 1;
+        }
+    }
+
+    /**
+     * Moves the cursor to the smallest queued key, and returns its bucket.
+     */
+    private int advance() {
+        if (mSize == 0)
+            throw new NoSuchElementException();
+        int bucket = mCursor % mBucketCount;
+        while (mHeads[bucket] == -1) {
+            mCursor++;
+            if (++bucket == mBucketCount)
+                bucket = 0;
+        }
+        return bucket;
+    }
+
+    private void unlink(int id) {
+        int next = mNext[id];
+        int previous = mPrevious[id];
+        if (previous == -1)
+            mHeads[mKeys[id] % mBucketCount] = next;
+        else
+            mNext[previous] = next;
+        if (next != -1)
+            mPrevious[next] = previous;
+    }
+}
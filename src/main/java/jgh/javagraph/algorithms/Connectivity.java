@@ -3,7 +3,6 @@ package jgh.javagraph.algorithms;
 import jgh.javagraph.*;
 
 import java.util.*;
-import java.util.stream.Stream;
 
 /**
  * Methods related to testing connectivity of graphs, subgraphs,
@@ -55,24 +54,86 @@ public class Connectivity {
     public static <N, E extends IEdge<N>> ArrayList<ArrayList<N>> getConnectedComponents(Graph<N,E> graph) {
         ArrayList<ArrayList<N>> connectedComponents = new ArrayList<ArrayList<N>>();
 
-        HashMap<N, NodeData<N>> nodeMap = new HashMap<>();
-        for(N n : graph.getNodes()){
-            nodeMap.put(n, new NodeData<N>(n));
+        NodeIndex<N> index = graph.getNodeIndex();
+        BitSet visited = new BitSet(index.size());
+        for (N n : graph.getNodes()) {
+            if (visited.get(index.id(n)))
+                continue;
+            connectedComponents.add(visitComponent(graph, index, visited, n));
         }
-        N n = getFirstUnvisitedNode(graph, nodeMap);
-        while (true) {
 
-            ArrayList<N> conn = getConnected(graph, n);
-            conn.add(n);
+        return connectedComponents;
+    }
+
+    /**
+     * Determines if the compact graph is connected, by doing a <i>BFS</i> from the node with id 0 and
+     * counting how many nodes have been visited.
+     *
+     * @param graph Compact graph
+     * @param <E>   Edge type
+     * @return True if the graph is connected, false otherwise.
+     */
+    public static <N, E extends IEdge<N>> boolean isConnected(CompactGraph<N, E> graph) {
+        int n = graph.nodeCount();
+        if (n == 0)
+            return true;
+        int[] queue = new int[n];
+        boolean[] visited = new boolean[n];
+        return visitComponent(graph, 0, visited, queue) == n;
+    }
+
+    /**
+     * Returns the connected components of a compact graph. Each connected component
+     * is represented as an <code>ArrayList</code> of nodes, in breadth first order from
+     * the component's lowest id node.
+     *
+     * @param graph Compact graph
+     * @param <E>   Edge type
+     * @return List of connected components
+     */
+    public static <N, E extends IEdge<N>> ArrayList<ArrayList<N>> getConnectedComponents(CompactGraph<N, E> graph) {
+        ArrayList<ArrayList<N>> connectedComponents = new ArrayList<ArrayList<N>>();
+        int n = graph.nodeCount();
+        int[] queue = new int[n];
+        boolean[] visited = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            if (visited[i])
+                continue;
+            int size = visitComponent(graph, i, visited, queue);
+            ArrayList<N> conn = new ArrayList<N>(size);
+            for (int j = 0; j < size; j++) {
+                conn.add(graph.node(queue[j]));
+            }
             connectedComponents.add(conn);
-            n = getFirstUnvisitedNode(graph, nodeMap);
-            if (n == null)
-                break;
         }
-
         return connectedComponents;
     }
 
+    /**
+     * Visits every node in the connected component of <code>root</code> breadth first. On return the first
+     * entries of <code>queue</code> hold the ids of the component's nodes.
+     *
+     * @return the number of nodes in the component.
+     */
+    private static <N, E extends IEdge<N>> int visitComponent(CompactGraph<N, E> graph, int root,
+                                                             boolean[] visited, int[] queue) {
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = root;
+        visited[root] = true;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int a = graph.arcStart(u); a < graph.arcEnd(u); a++) {
+                int v = graph.target(a);
+                if (!visited[v]) {
+                    visited[v] = true;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return tail;
+    }
+
     /**
      * Returns a list of the <i>maximally connected</i> subgraphs of the given graph. That is, each subgraph
      * in the list is completely disjoint from all other subgraphs. Any node in the given graph will be contained
@@ -84,12 +145,11 @@ public class Connectivity {
      */
     public static <N, E extends IEdge<N>> ArrayList<Graph<N,E>> getMaximalConnectedSubgraphs(Graph<N,E> graph) {
         ArrayList<ArrayList<N>> connectedNodes = getConnectedComponents(graph);
-        ArrayList<E> edgeList = new ArrayList<E>(graph.getEdges());
         ArrayList<Graph<N,E>> graphList = new ArrayList<Graph<N,E>>();
         for (ArrayList<N> nodeList : connectedNodes) {
             HashSet<E> edgeSet = new HashSet<E>();
             for (N node : nodeList) {
-                edgeSet.addAll(Utilities.getIncidentEdges(edgeList, node));
+                edgeSet.addAll(graph.incidentEdges(node));
             }
             graphList.add(new Graph(new ArrayList<E>(edgeSet), new HashSet<N>(nodeList)));
         }
@@ -99,23 +159,26 @@ public class Connectivity {
 
 
     /**
-     * Searches the graph's node set, in an unspecified order, and retrieves
-     * the first unvisited node found. If no such node exists then this method
-     * returns <code>null</code>.
+     * Visits every node in the connected component of <code>root</code> breadth first, marking each node's
+     * id in <code>visited</code>.
      *
-     * @param graph Graph to consider
-     * @param <E>   Edge type
-     * @return An unvisited node if one exists, otherwise returns <code>null</code>.
+     * @return the nodes of the component, in breadth first order from <code>root</code>.
      */
-    private static <N, E extends IEdge<N>> N getFirstUnvisitedNode(Graph<N,E> graph, HashMap<N, NodeData<N>> nodeMap) {
-
-        Iterator<Map.Entry<N,NodeData<N>>> iterator = nodeMap.entrySet().iterator();
-        while(iterator.hasNext()) {
-            Map.Entry<N,NodeData<N>> npair = iterator.next();
-            if (npair.getValue().isVisited() == false)
-                return npair.getKey();
+    private static <N, E extends IEdge<N>> ArrayList<N> visitComponent(Graph<N,E> graph, NodeIndex<N> index,
+                                                                       BitSet visited, N root) {
+        ArrayList<N> queue = new ArrayList<N>();
+        queue.add(root);
+        visited.set(index.id(root));
+        for (int head = 0; head < queue.size(); head++) {
+            for (N m : graph.neighbours(queue.get(head))) {
+                int id = index.id(m);
+                if (!visited.get(id)) {
+                    visited.set(id);
+                    queue.add(m);
+                }
+            }
         }
-        return null;
+        return queue;
     }
 
     /**
@@ -128,25 +191,14 @@ public class Connectivity {
      * @return ArrayList of Edges in the connected component containing <i>edge</i>.
      */
     public static <N, E extends IEdge<N>> ArrayList<E> getConnected(Graph<N,E> graph, E edge) {
-        HashMap<E, EdgeData<E>> edgeMap = new HashMap<>();
-        for(E e : graph.getEdges()) {
-            EdgeData<E> ed = new EdgeData<>(e);
-            if(e == edge) {
-                ed.setVisited(true);
-            }
-
-            edgeMap.put(e,ed);
+        NodeIndex<N> index = graph.getNodeIndex();
+        ArrayList<N> component = visitComponent(graph, index, new BitSet(index.size()), edge.from());
+        LinkedHashSet<E> connSet = new LinkedHashSet<E>();
+        connSet.add(edge);
+        for (N n : component) {
+            connSet.addAll(graph.incidentEdges(n));
         }
-
-        Collection<E> nextArr = Utilities.getIncidentEdges(new ArrayList(graph.getEdges()), edge);
-        ArrayList<E> connList = new ArrayList<E>();
-        connList.add(edge);
-        for (E e : nextArr) {
-            if (!edgeMap.get(e).isVisited()) {
-                connList.addAll(getConnected(graph, e));
-            }
-        }
-        return connList;
+        return new ArrayList<E>(connSet);
     }
 
     /**
@@ -160,28 +212,9 @@ public class Connectivity {
      * connected to any other node then the list will be empty.
      */
     public static <N, E extends IEdge<N>> ArrayList<N> getConnected(Graph<N,E> graph,  N node) {
-
-        HashMap<N, NodeData<N>> nodeMap = new HashMap<>();
-        for(N n : graph.getNodes()){
-            nodeMap.put(n, new NodeData<N>(n));
-        }
-        nodeMap.get(node).setVisited(true);
-        return getConnected(graph, nodeMap, node);
-    }
-
-    private static <N, E extends IEdge<N>> ArrayList<N> getConnected(Graph<N,E> graph,
-                                                                                  HashMap<N, NodeData<N>> nodeMap,  N node) {
-        nodeMap.get(node).setVisited(true);
-        ArrayList<N> connList = new ArrayList<N>();
-        ArrayList<N> adjNodes = Utilities.getAdjacentUnvisited(nodeMap, new ArrayList(graph.getEdges()), node);
-        connList.addAll(adjNodes);
-        for (N t : adjNodes) {
-            nodeMap.get(t).setVisited(true);
-        }
-        for (N t : adjNodes) {
-            connList.addAll(getConnected(graph, nodeMap, t));
-        }
-
+        NodeIndex<N> index = graph.getNodeIndex();
+        ArrayList<N> connList = visitComponent(graph, index, new BitSet(index.size()), node);
+        connList.remove(0);
         return connList;
     }
 
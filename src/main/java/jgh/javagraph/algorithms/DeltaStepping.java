@@ -0,0 +1,301 @@
+package jgh.javagraph.algorithms;
+
+import jgh.javagraph.CompactGraph;
+import jgh.javagraph.Graph;
+import jgh.javagraph.WeightedEdge;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel single source shortest paths with the <i>delta-stepping</i> algorithm of Meyer and Sanders. Nodes
+ * are kept in buckets of width <i>delta</i> by tentative distance. The lowest non-empty bucket is emptied in
+ * rounds, each of which relaxes the <i>light</i> arcs, of weight at most <i>delta</i>, of every node in the
+ * bucket in parallel, until no node is added back to the bucket. The <i>heavy</i> arcs of the nodes removed
+ * from the bucket are then relaxed in parallel, once. With <i>delta</i> near the average arc weight the
+ * buckets hold enough nodes to keep every thread busy, while few nodes are relaxed more than once.
+ * <br>
+ * Edges are treated as undirected, and the weights must be non-negative. The result is the same as
+ * <code>Dijkstra.shortestPathTree</code>, though where two minimum paths have the same weight the
+ * predecessors may differ.
+ */
+public class DeltaStepping {
+
+    /**
+     * Number of nodes relaxed by each parallel task. Smaller rounds are relaxed on the calling thread.
+     */
+    private static final int CHUNK = 256;
+
+    /**
+     * Finds the minimum distance from the source to every node of the graph, and the predecessor of each
+     * node on a minimum path, relaxing arcs in parallel on the common <code>ForkJoinPool</code>. The graph
+     * is frozen into a <code>CompactGraph</code> first; to search a large graph more than once, freeze it
+     * once and use <code>shortestPaths(CompactGraph, N, float)</code>.
+     *
+     * @param graph  weighted graph, with non-negative weights
+     * @param source source node
+     * @param delta  bucket width, greater than 0
+     * @param <N>    Node type
+     * @param <E>    Weighted Edge type
+     * @return shortest path tree from the source.
+     */
+    public static <N, E extends WeightedEdge<N>> ShortestPathTree<N> shortestPaths(Graph<N, E> graph, N source,
+                                                                                  float delta) {
+        return shortestPaths(graph.freeze(), source, delta);
+    }
+
+    /**
+     * Finds the minimum distance from the source to every node of the compact graph, and the predecessor of
+     * each node on a minimum path, relaxing arcs in parallel on the common <code>ForkJoinPool</code>.
+     *
+     * @param graph  weighted compact graph, with non-negative weights
+     * @param source source node
+     * @param delta  bucket width, greater than 0
+     * @param <N>    Node type
+     * @param <E>    Weighted Edge type
+     * @return shortest path tree from the source.
+     */
+    public static <N, E extends WeightedEdge<N>> ShortestPathTree<N> shortestPaths(CompactGraph<N, E> graph,
+                                                                                  N source, float delta) {
+        return shortestPaths(graph, source, delta, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Finds the minimum distance from the source to every node of the compact graph, and the predecessor of
+     * each node on a minimum path, relaxing arcs in parallel in the given pool.
+     *
+     * @param graph  weighted compact graph, with non-negative weights
+     * @param source source node
+     * @param delta  bucket width, greater than 0
+     * @param pool   pool to relax arcs in
+     * @param <N>    Node type
+     * @param <E>    Weighted Edge type
+     * @return shortest path tree from the source.
+     */
+    public static <N, E extends WeightedEdge<N>> ShortestPathTree<N> shortestPaths(CompactGraph<N, E> graph,
+                                                                                  N source, float delta,
+                                                                                  ForkJoinPool pool) {
+        if (!(delta > 0))
+            throw new IllegalArgumentException("Delta must be greater than 0.");
+        Search search = new Search(graph, delta, pool);
+        search.run(graph.id(source));
+
+        int n = graph.nodeCount();
+        float[] distance = new float[n];
+        int[] previous = new int[n];
+        for (int i = 0; i < n; i++) {
+            long state = search.mState.get(i);
+            distance[i] = distance(state);
+            previous[i] = previous(state);
+        }
+        return new ShortestPathTree<N>(source, distance, previous, graph::id, graph::node);
+    }
+
+    /**
+     * The tentative distance and predecessor of a node are packed into one <code>long</code>, the distance
+     * bits above the predecessor id plus one. Non-negative floats order the same way as their bits, so the
+     * high halves compare as the distances do, and a single compare-and-set keeps the two consistent.
+     */
+    private static long pack(float distance, int previous) {
+        return ((long) Float.floatToRawIntBits(distance) << 32) | (previous + 1);
+    }
+
+    private static float distance(long state) {
+        return Float.intBitsToFloat((int) (state >>> 32));
+    }
+
+    private static int previous(long state) {
+        return (int) state - 1;
+    }
+
+    /**
+     * State of one delta-stepping search.
+     */
+    private static final class Search {
+
+        private final float mDelta;
+        private final ForkJoinPool mPool;
+
+        // arcs of node u are [mStart[u], mStart[u + 1]), the light arcs before mSplit[u].
+        private final int[] mStart;
+        private final int[] mSplit;
+        private final int[] mTarget;
+        private final float[] mWeight;
+
+        private final AtomicLongArray mState;
+
+        /**
+         * Buckets, used cyclically. Tentative distances are never more than the largest weight beyond the
+         * current bucket, so no two buckets in use share a slot.
+         */
+        private final IntList[] mBuckets;
+        private long mQueued;
+
+        // stamps to drop repeated nodes from a round, and flags for the nodes removed from the bucket.
+        private final int[] mRoundMark;
+        private final boolean[] mRemoved;
+        private int mRound;
+
+        Search(CompactGraph<?, ?> graph, float delta, ForkJoinPool pool) {
+            mDelta = delta;
+            mPool = pool;
+            int n = graph.nodeCount();
+            mStart = new int[n + 1];
+            mSplit = new int[n];
+            mTarget = new int[graph.arcCount()];
+            mWeight = new float[graph.arcCount()];
+            float maxWeight = 0;
+            for (int u = 0; u < n; u++) {
+                int light = graph.arcStart(u);
+                int heavy = graph.arcEnd(u);
+                for (int a = graph.arcStart(u); a < graph.arcEnd(u); a++) {
+                    float w = graph.weight(a);
+                    maxWeight = Math.max(maxWeight, w);
+                    int b = w <= delta ? light++ : --heavy;
+                    mTarget[b] = graph.target(a);
+                    mWeight[b] = w;
+                }
+                mStart[u] = graph.arcStart(u);
+                mSplit[u] = light;
+            }
+            mStart[n] = graph.arcCount();
+
+            mState = new AtomicLongArray(n);
+            long unreached = pack(Float.MAX_VALUE, -1);
+            for (int i = 0; i < n; i++) {
+                mState.set(i, unreached);
+            }
+            mBuckets = new IntList[(int) (maxWeight / delta) + 2];
+            mRoundMark = new int[n];
+            mRemoved = new boolean[n];
+            Arrays.fill(mRoundMark, -1);
+        }
+
+        void run(int source) {
+            mState.set(source, pack(0, -1));
+            queue(source);
+            IntList removed = new IntList();
+            for (long i = 0; mQueued > 0; i++) {
+                int slot = (int) (i % mBuckets.length);
+                if (mBuckets[slot] == null || mBuckets[slot].mSize == 0)
+                    continue;
+                removed.mSize = 0;
+                IntList frontier = take(slot, i);
+                while (frontier.mSize > 0) {
+                    for (int k = 0; k < frontier.mSize; k++) {
+                        int u = frontier.mIds[k];
+                        if (!mRemoved[u]) {
+                            mRemoved[u] = true;
+                            removed.add(u);
+                        }
+                    }
+                    relax(frontier, true);
+                    frontier = take(slot, i);
+                }
+                relax(removed, false);
+                for (int k = 0; k < removed.mSize; k++) {
+                    mRemoved[removed.mIds[k]] = false;
+                }
+            }
+        }
+
+        private long bucket(int node) {
+            return (long) (distance(mState.get(node)) / mDelta);
+        }
+
+        private void queue(int node) {
+            int slot = (int) (bucket(node) % mBuckets.length);
+            if (mBuckets[slot] == null)
+                mBuckets[slot] = new IntList();
+            mBuckets[slot].add(node);
+            mQueued++;
+        }
+
+        /**
+         * Empties the slot, returning its nodes which are still in bucket <code>i</code>, each once.
+         */
+        private IntList take(int slot, long i) {
+            IntList queued = mBuckets[slot];
+            mBuckets[slot] = new IntList();
+            mQueued -= queued.mSize;
+            mRound++;
+            int size = 0;
+            for (int k = 0; k < queued.mSize; k++) {
+                int u = queued.mIds[k];
+                if (mRoundMark[u] == mRound || bucket(u) != i)
+                    continue;
+                mRoundMark[u] = mRound;
+                queued.mIds[size++] = u;
+            }
+            queued.mSize = size;
+            return queued;
+        }
+
+        /**
+         * Relaxes the light or heavy arcs of the nodes in parallel, then queues the nodes whose distances
+         * fell.
+         */
+        private void relax(IntList nodes, boolean light) {
+            int chunks = (nodes.mSize + CHUNK - 1) / CHUNK;
+            IntList[] improved = new IntList[chunks];
+            if (chunks == 1) {
+                improved[0] = relax(nodes, 0, light);
+            } else {
+                Runnable task = () -> IntStream.range(0, chunks).parallel()
+                        .forEach(c -> improved[c] = relax(nodes, c * CHUNK, light));
+                if (mPool == ForkJoinPool.commonPool()) {
+                    task.run();
+                } else {
+                    mPool.submit(task).join();
+                }
+            }
+            for (IntList list : improved) {
+                for (int k = 0; k < list.mSize; k++) {
+                    queue(list.mIds[k]);
+                }
+            }
+        }
+
+        private IntList relax(IntList nodes, int from, boolean light) {
+            IntList improved = new IntList();
+            int to = Math.min(from + CHUNK, nodes.mSize);
+            for (int k = from; k < to; k++) {
+                int u = nodes.mIds[k];
+                float d = distance(mState.get(u));
+                int start = light ? mStart[u] : mSplit[u];
+                int end = light ? mSplit[u] : mStart[u + 1];
+                for (int a = start; a < end; a++) {
+                    int v = mTarget[a];
+                    long poss = pack(d + mWeight[a], u);
+                    long current = mState.get(v);
+                    // ties keep the current predecessor, or the ends of a zero weight arc could become
+                    // each other's predecessors.
+                    while ((poss >>> 32) < (current >>> 32)) {
+                        if (mState.compareAndSet(v, current, poss)) {
+                            improved.add(v);
+                            break;
+                        }
+                        current = mState.get(v);
+                    }
+                }
+            }
+            return improved;
+        }
+    }
+
+    /**
+     * Growable list of node ids.
+     */
+    private static final class IntList {
+        int[] mIds = new int[8];
+        int mSize;
+
+        void add(int id) {
+            if (mSize == mIds.length)
+                mIds = Arrays.copyOf(mIds, mSize * 2);
+            mIds[mSize++] = id;
+        }
+    }
+}
@@ -3,13 +3,26 @@ package jgh.javagraph.algorithms;
 import jgh.javagraph.*;
 
 import java.util.*;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
 
 /**
  * Implementation of <i>Dijkstra's Algorithm</i> to find the shortest path between two
- * nodes in a graph.
+ * nodes in a graph. The next node to settle is taken from an <code>IndexedHeap</code>, so a search costs
+ * <i>O((N + E) log N)</i>, and point to point searches stop as soon as the goal node is settled.
+ * For small integer weights <code>findMinPathDial</code> replaces the heap with a <code>BucketQueue</code>.
  */
 public class Dijkstra {
 
+    /**
+     * Workspaces of the backward searches of <code>findMinPathBidirectional</code>, one per thread.
+     */
+    private static final ThreadLocal<TraversalWorkspace> BACKWARD = ThreadLocal.withInitial(TraversalWorkspace::new);
+
+    /**
+     * Largest edge weight <code>findMinPathDial</code> uses buckets for when it checks the weights itself.
+     */
+    private static final int MAX_DIAL_WEIGHT = 1 << 20;
 
     /**
      * Finds the minimum weight path between two nodes, <code>start</code>, and <code>finish</code>.
@@ -20,100 +33,459 @@ public class Dijkstra {
      * @param finish        the goal node.
      * @param <N>           Node type
      * @return List of <code>INode</code>s representing the minimum path from <code>start</code> to
-     * <code>finish</code>.
+     * <code>finish</code>, starting with <code>finish</code>. If <code>finish</code> cannot be reached the
+     * list is empty.
      */
     public static <N, E extends WeightedEdge<N>> ArrayList<N> findMinPath(Graph<N, E> weightedGraph, N start, N finish) {
-        ArrayList<N> minPath = new ArrayList<N>();
-        ArrayList<N> nodes = new ArrayList<N>(weightedGraph.getNodes());
-        HashMap<N,NodeData<N>> nodeMap = new HashMap<N,NodeData<N>>();
-        // set the initial conditions. The start node (start) has a temp
-        // distance of 0
-        // and all other nodes have a temp distance of max possible.
-        for (N inode : nodes) {
-            NodeData<N> nd = new NodeData<>(inode);
-            if (inode == start) {
-                nd.setDistance(0);
-            } else {
-                nd.setDistance(Float.MAX_VALUE);
-            }
-            nodeMap.put(inode, nd);
-        }
-
-        // loop until complete.
-        while (true) {
-            N min = null;
-            // try to find an unvisited node.
-            for (N t : nodes) {
-                if (nodeMap.get(t).isVisited() == false) {
-                    min = t;
-                    break;
-                }
-            }
-            if (min == null) {
-                break;
-            }
+        return findMinPath(weightedGraph, start, finish, TraversalWorkspace.forCurrentThread());
+    }
 
+    /**
+     * Finds the minimum weight path between two nodes, <code>start</code>, and <code>finish</code>, keeping
+     * the search state in the given workspace. The weighted graph's edge weights must be non-negative.
+     *
+     * @param weightedGraph Weighted Graph
+     * @param start         the initial node
+     * @param finish        the goal node.
+     * @param workspace     workspace for the search state
+     * @param <N>           Node type
+     * @return List of nodes representing the minimum path from <code>start</code> to
+     * <code>finish</code>, starting with <code>finish</code>. If <code>finish</code> cannot be reached the
+     * list is empty.
+     */
+    public static <N, E extends WeightedEdge<N>> ArrayList<N> findMinPath(Graph<N, E> weightedGraph, N start, N finish,
+                                                                          TraversalWorkspace workspace) {
+        NodeIndex<N> index = weightedGraph.getNodeIndex();
+        int f = index.id(finish);
+        search(Arcs.of(weightedGraph), index.id(start), f, workspace);
+        return path(workspace, f, index::node);
+    }
 
-            // find the minimum node of all unvisited nodes.
-            for (N t : nodes) {
-                if (nodeMap.get(t).isVisited() == false && nodeMap.get(t).getDistance() <= nodeMap.get(min).getDistance()) {
-                    min = t;
-                }
-            }
+    /**
+     * Finds the minimum weight paths from <code>source</code> to every node of the graph.
+     * The weighted graph's edge weights must be non-negative.
+     *
+     * @param weightedGraph Weighted Graph
+     * @param source        the source node
+     * @param <N>           Node type
+     * @return distances and predecessors of every node.
+     */
+    public static <N, E extends WeightedEdge<N>> ShortestPathTree<N> shortestPathTree(Graph<N, E> weightedGraph, N source) {
+        NodeIndex<N> index = weightedGraph.getNodeIndex();
+        TraversalWorkspace workspace = TraversalWorkspace.forCurrentThread();
+        search(Arcs.of(weightedGraph), index.id(source), -1, workspace);
+        return tree(source, workspace, index.size(), index::id, index::node);
+    }
 
-            nodeMap.get(min).setVisited(true);
+    /**
+     * Finds the minimum weight path between two nodes, <code>start</code>, and <code>finish</code>, by searching
+     * forwards from <code>start</code> and backwards from <code>finish</code> at the same time. The searches
+     * stop once the sum of their smallest queued distances is no shorter than the best path found where they
+     * meet, which typically settles far fewer nodes than <code>findMinPath</code>. Edges are treated as
+     * undirected, and the weights must be non-negative.
+     *
+     * @param weightedGraph Weighted Graph
+     * @param start         the initial node
+     * @param finish        the goal node.
+     * @param <N>           Node type
+     * @return List of nodes representing the minimum path from <code>start</code> to
+     * <code>finish</code>, starting with <code>finish</code>. If <code>finish</code> cannot be reached the
+     * list is empty.
+     */
+    public static <N, E extends WeightedEdge<N>> ArrayList<N> findMinPathBidirectional(Graph<N, E> weightedGraph,
+                                                                                       N start, N finish) {
+        return findMinPathBidirectional(weightedGraph, start, finish,
+                TraversalWorkspace.forCurrentThread(), BACKWARD.get());
+    }
 
-            // update the distance of adjacent nodes if necessary.
-            HashMap<N, Float> adjacent = getAdjacentNodesWithWeights(weightedGraph, min);
-            Iterator<Map.Entry<N, Float>> it = adjacent.entrySet().iterator();
-            while (it.hasNext()) {
-                Map.Entry<N, Float> entry = it.next();
-                if (nodeMap.get(entry.getKey()).isVisited()) {
-                    continue;
-                }
-                float poss = entry.getValue() + nodeMap.get(min).getDistance();
+    /**
+     * Finds the minimum weight path between two nodes with a bidirectional search, as
+     * <code>findMinPathBidirectional(Graph, N, N)</code>, keeping the state of the two searches in the given
+     * workspaces. Afterwards the <code>visitedCount()</code> of each workspace is the number of nodes
+     * its search settled.
+     *
+     * @param weightedGraph Weighted Graph
+     * @param start         the initial node
+     * @param finish        the goal node.
+     * @param forward       workspace for the search from <code>start</code>
+     * @param backward      workspace for the search from <code>finish</code>
+     * @param <N>           Node type
+     * @return List of nodes representing the minimum path from <code>start</code> to
+     * <code>finish</code>, starting with <code>finish</code>.
+     */
+    public static <N, E extends WeightedEdge<N>> ArrayList<N> findMinPathBidirectional(Graph<N, E> weightedGraph,
+                                                                                       N start, N finish,
+                                                                                       TraversalWorkspace forward,
+                                                                                       TraversalWorkspace backward) {
+        NodeIndex<N> index = weightedGraph.getNodeIndex();
+        int s = index.id(start);
+        int f = index.id(finish);
+        forward.reset(index.size());
+        backward.reset(index.size());
+        IndexedHeap forwardHeap = forward.heap(index.size());
+        IndexedHeap backwardHeap = backward.heap(index.size());
+        forward.setDistance(s, 0);
+        forwardHeap.offer(s, 0);
+        backward.setDistance(f, 0);
+        backwardHeap.offer(f, 0);
 
-                if (poss < nodeMap.get(entry.getKey()).getDistance()) {
-                    nodeMap.get(entry.getKey()).setDistance(poss);
-                    nodeMap.get(entry.getKey()).setPrevious(Optional.of(min));
+        // length of the best path found so far, and the edge where its two halves meet: the forward
+        // half ends at node meetForward, the backward half at node meetBackward.
+        float best = s == f ? 0 : Float.MAX_VALUE;
+        int meetForward = s;
+        int meetBackward = f;
+        while (!forwardHeap.isEmpty() && !backwardHeap.isEmpty()
+                && forwardHeap.peekKey() + backwardHeap.peekKey() < best) {
+            // expand the side with the smaller frontier.
+            boolean isForward = forwardHeap.size() <= backwardHeap.size();
+            TraversalWorkspace self = isForward ? forward : backward;
+            TraversalWorkspace other = isForward ? backward : forward;
+            IndexedHeap heap = isForward ? forwardHeap : backwardHeap;
 
+            int u = heap.poll();
+            self.visit(u);
+            N uNode = index.node(u);
+            float d = self.distance(u);
+            for (E e : weightedGraph.incidentEdges(uNode)) {
+                int v = index.id(e.from() == uNode ? e.to() : e.from());
+                float poss = d + e.getWeight();
+                if (other.isReached(v) && poss + other.distance(v) < best) {
+                    best = poss + other.distance(v);
+                    meetForward = isForward ? u : v;
+                    meetBackward = isForward ? v : u;
+                }
+                if (self.isVisited(v))
+                    continue;
+                if (poss < self.distance(v)) {
+                    self.setDistance(v, poss);
+                    self.setPrevious(v, u);
+                    heap.offer(v, poss);
                 }
             }
         }
 
-        //build the path list.
-        N p = nodeMap.get(finish).getPrevious().get(); //mPrevious
-        N c = finish;               //current
-        minPath.add(c);
-        while (p != null && p != c) {
-            minPath.add(p);
-            c = p;
-            Optional<N> on = nodeMap.get(p).getPrevious();
-            p =  on.orElse(null);
+        //build the path list, from finish to the meeting edge, then back to start.
+        ArrayList<N> minPath = new ArrayList<N>();
+        if (best == Float.MAX_VALUE)
+            return minPath;
+        for (int c = meetBackward; c != -1; c = backward.previous(c)) {
+            minPath.add(index.node(c));
+        }
+        Collections.reverse(minPath);
+        if (meetForward != meetBackward) {
+            for (int c = meetForward; c != -1; c = forward.previous(c)) {
+                minPath.add(index.node(c));
+            }
         }
         return minPath;
     }
 
     /**
-     * Returns the nodes adjacent to the given node on the graph. The returned nodes are given
-     * as a HashMap of the node and edge weight for the weight of the edge incident with both nodes.
+     * Runs the search from node id <code>s</code>, until node id <code>f</code> is settled, or until every
+     * reachable node is settled if <code>f</code> is -1.
+     */
+    private static void search(Arcs arcs, int s, int f, TraversalWorkspace workspace) {
+        HeapSearch.run(arcs, s, null, u -> u == f, workspace);
+    }
+
+    /**
+     * Finds the minimum weight path between two nodes, <code>start</code>, and <code>finish</code>, on a
+     * <code>CompactGraph</code> snapshot. The weighted graph's edge weights must be non-negative.
+     * The path is returned in the same order as <code>findMinPath(Graph, N, N)</code>, starting with
+     * <code>finish</code> and ending with <code>start</code>. If <code>finish</code> cannot be reached
+     * from <code>start</code> the returned list is empty.
+     *
+     * @param weightedGraph compact weighted graph
+     * @param start         the initial node
+     * @param finish        the goal node.
+     * @param <N>           Node type
+     * @return List of nodes representing the minimum path from <code>start</code> to
+     * <code>finish</code>.
+     */
+    public static <N, E extends WeightedEdge<N>> ArrayList<N> findMinPath(CompactGraph<N, E> weightedGraph, N start, N finish) {
+        return findMinPath(weightedGraph, start, finish, TraversalWorkspace.forCurrentThread());
+    }
+
+    /**
+     * Finds the minimum weight path between two nodes on a <code>CompactGraph</code> snapshot, keeping the
+     * search state in the given workspace. The path is in the same order as
+     * <code>findMinPath(CompactGraph, N, N)</code>.
+     *
+     * @param weightedGraph compact weighted graph
+     * @param start         the initial node
+     * @param finish        the goal node.
+     * @param workspace     workspace for the search state
+     * @param <N>           Node type
+     * @return List of nodes representing the minimum path from <code>start</code> to
+     * <code>finish</code>.
+     */
+    public static <N, E extends WeightedEdge<N>> ArrayList<N> findMinPath(CompactGraph<N, E> weightedGraph, N start, N finish,
+                                                                          TraversalWorkspace workspace) {
+        int f = weightedGraph.id(finish);
+        search(Arcs.of(weightedGraph), weightedGraph.id(start), f, workspace);
+        return path(workspace, f, weightedGraph::node);
+    }
+
+    /**
+     * Finds the minimum weight paths from <code>source</code> to every node of a <code>CompactGraph</code>
+     * snapshot. The weighted graph's edge weights must be non-negative.
+     *
+     * @param weightedGraph compact weighted graph
+     * @param source        the source node
+     * @param <N>           Node type
+     * @return distances and predecessors of every node.
+     */
+    public static <N, E extends WeightedEdge<N>> ShortestPathTree<N> shortestPathTree(CompactGraph<N, E> weightedGraph, N source) {
+        TraversalWorkspace workspace = TraversalWorkspace.forCurrentThread();
+        search(Arcs.of(weightedGraph), weightedGraph.id(source), -1, workspace);
+        return tree(source, workspace, weightedGraph.nodeCount(), weightedGraph::id, weightedGraph::node);
+    }
+
+    /**
+     * Returns the largest edge weight of the graph if every weight is a non-negative integer, so that
+     * <code>findMinPathDial</code> can be given it as a bound, or -1 otherwise.
      *
-     * @param graph Graph to search.
-     * @param node  node to search from.
-     * @param <N>   Node type.
-     * @return hashmap of adjacent nodes and edge weights.
-     */
-    private static <N, E extends WeightedEdge<N>> HashMap<N, Float> getAdjacentNodesWithWeights(Graph<N, E> graph, N node) {
-        HashMap<N, Float> adj = new HashMap<N, Float>();
-        for (WeightedEdge<N> e : graph.getEdges()) {
-
-            if (e.from() == node) {
-                adj.put(e.to(), e.getWeight());
-            } else if (e.to() == node) {
-                adj.put(e.from(), e.getWeight());
+     * @param weightedGraph Weighted Graph
+     * @param <N>           Node type
+     * @return largest edge weight, or -1.
+     */
+    public static <N, E extends WeightedEdge<N>> int integerWeightBound(Graph<N, E> weightedGraph) {
+        int bound = 0;
+        for (E e : weightedGraph.getEdges()) {
+            float w = e.getWeight();
+            if (!(w >= 0 && w <= Integer.MAX_VALUE - 1) || w != (int) w)
+                return -1;
+            bound = Math.max(bound, (int) w);
+        }
+        return bound;
+    }
+
+    /**
+     * Returns the largest edge weight of the compact graph if every weight is a non-negative integer, or -1
+     * otherwise.
+     *
+     * @param weightedGraph compact weighted graph
+     * @param <N>           Node type
+     * @return largest edge weight, or -1.
+     */
+    public static <N, E extends WeightedEdge<N>> int integerWeightBound(CompactGraph<N, E> weightedGraph) {
+        int bound = 0;
+        for (int a = 0; a < weightedGraph.arcCount(); a++) {
+            float w = weightedGraph.weight(a);
+            if (!(w >= 0 && w <= Integer.MAX_VALUE - 1) || w != (int) w)
+                return -1;
+            bound = Math.max(bound, (int) w);
+        }
+        return bound;
+    }
+
+    /**
+     * Finds the minimum weight path between two nodes, <code>start</code>, and <code>finish</code>, of a graph
+     * whose edge weights are small non-negative integers, with <i>Dial's algorithm</i>. The weights are
+     * checked first; if any is not an integer, or the largest is over 2<sup>20</sup>, the search falls back to
+     * <code>findMinPath</code>. When the bound is known in advance pass it to
+     * <code>findMinPathDial(Graph, N, N, int)</code>, which skips the check.
+     *
+     * @param weightedGraph Weighted Graph
+     * @param start         the initial node
+     * @param finish        the goal node.
+     * @param <N>           Node type
+     * @return List of nodes representing the minimum path from <code>start</code> to
+     * <code>finish</code>, starting with <code>finish</code>. If <code>finish</code> cannot be reached the
+     * list is empty.
+     */
+    public static <N, E extends WeightedEdge<N>> ArrayList<N> findMinPathDial(Graph<N, E> weightedGraph, N start,
+                                                                              N finish) {
+        int bound = integerWeightBound(weightedGraph);
+        if (bound == -1 || bound > MAX_DIAL_WEIGHT)
+            return findMinPath(weightedGraph, start, finish);
+        return findMinPathDial(weightedGraph, start, finish, bound, TraversalWorkspace.forCurrentThread());
+    }
+
+    /**
+     * Finds the minimum weight path between two nodes, <code>start</code>, and <code>finish</code>, of a graph
+     * whose edge weights are integers in <i>[0, maxWeight]</i>, with <i>Dial's algorithm</i>: reached nodes
+     * are kept in a <code>BucketQueue</code> of <i>maxWeight + 1</i> cyclic buckets by distance, in place of a
+     * heap, so the search takes <i>O(N + E + D)</i> time, where <i>D</i> is the distance to
+     * <code>finish</code>, with no distance comparisons.
+     *
+     * @param weightedGraph Weighted Graph
+     * @param start         the initial node
+     * @param finish        the goal node.
+     * @param maxWeight     bound on the edge weights
+     * @param <N>           Node type
+     * @return List of nodes representing the minimum path from <code>start</code> to
+     * <code>finish</code>, starting with <code>finish</code>. If <code>finish</code> cannot be reached the
+     * list is empty.
+     * @throws IllegalArgumentException if the search meets an edge whose weight is not an integer in
+     *                                  <i>[0, maxWeight]</i>.
+     */
+    public static <N, E extends WeightedEdge<N>> ArrayList<N> findMinPathDial(Graph<N, E> weightedGraph, N start,
+                                                                              N finish, int maxWeight) {
+        return findMinPathDial(weightedGraph, start, finish, maxWeight, TraversalWorkspace.forCurrentThread());
+    }
+
+    /**
+     * Finds the minimum weight path between two nodes of a graph whose edge weights are integers in
+     * <i>[0, maxWeight]</i> with <i>Dial's algorithm</i>, as <code>findMinPathDial(Graph, N, N, int)</code>,
+     * keeping the search state in the given workspace.
+     *
+     * @param weightedGraph Weighted Graph
+     * @param start         the initial node
+     * @param finish        the goal node.
+     * @param maxWeight     bound on the edge weights
+     * @param workspace     workspace for the search state
+     * @param <N>           Node type
+     * @return List of nodes representing the minimum path from <code>start</code> to
+     * <code>finish</code>, starting with <code>finish</code>.
+     */
+    public static <N, E extends WeightedEdge<N>> ArrayList<N> findMinPathDial(Graph<N, E> weightedGraph, N start,
+                                                                              N finish, int maxWeight,
+                                                                              TraversalWorkspace workspace) {
+        NodeIndex<N> index = weightedGraph.getNodeIndex();
+        int f = index.id(finish);
+        DialSearch.run(Arcs.of(weightedGraph), index.id(start), f, maxWeight, workspace);
+        return path(workspace, f, index::node);
+    }
+
+    /**
+     * Finds the minimum weight path between two nodes of a <code>CompactGraph</code> snapshot whose edge
+     * weights are small non-negative integers, with <i>Dial's algorithm</i>, falling back to
+     * <code>findMinPath</code> as <code>findMinPathDial(Graph, N, N)</code> does.
+     *
+     * @param weightedGraph compact weighted graph
+     * @param start         the initial node
+     * @param finish        the goal node.
+     * @param <N>           Node type
+     * @return List of nodes representing the minimum path from <code>start</code> to
+     * <code>finish</code>, starting with <code>finish</code>.
+     */
+    public static <N, E extends WeightedEdge<N>> ArrayList<N> findMinPathDial(CompactGraph<N, E> weightedGraph,
+                                                                              N start, N finish) {
+        int bound = integerWeightBound(weightedGraph);
+        if (bound == -1 || bound > MAX_DIAL_WEIGHT)
+            return findMinPath(weightedGraph, start, finish);
+        return findMinPathDial(weightedGraph, start, finish, bound, TraversalWorkspace.forCurrentThread());
+    }
+
+    /**
+     * Finds the minimum weight path between two nodes of a <code>CompactGraph</code> snapshot whose edge
+     * weights are integers in <i>[0, maxWeight]</i> with <i>Dial's algorithm</i>, keeping the search state in
+     * the given workspace.
+     *
+     * @param weightedGraph compact weighted graph
+     * @param start         the initial node
+     * @param finish        the goal node.
+     * @param maxWeight     bound on the edge weights
+     * @param workspace     workspace for the search state
+     * @param <N>           Node type
+     * @return List of nodes representing the minimum path from <code>start</code> to
+     * <code>finish</code>, starting with <code>finish</code>.
+     * @throws IllegalArgumentException if the search meets an edge whose weight is not an integer in
+     *                                  <i>[0, maxWeight]</i>.
+     */
+    public static <N, E extends WeightedEdge<N>> ArrayList<N> findMinPathDial(CompactGraph<N, E> weightedGraph,
+                                                                              N start, N finish, int maxWeight,
+                                                                              TraversalWorkspace workspace) {
+        int f = weightedGraph.id(finish);
+        DialSearch.run(Arcs.of(weightedGraph), weightedGraph.id(start), f, maxWeight, workspace);
+        return path(workspace, f, weightedGraph::node);
+    }
+
+    /**
+     * <i>Dial's algorithm</i>: Dijkstra's relaxation loop with a <code>BucketQueue</code> in place of the heap.
+     */
+    private static final class DialSearch implements Arcs.Visitor {
+
+        private final TraversalWorkspace mWorkspace;
+        private final BucketQueue mQueue;
+        private final int mMaxWeight;
+
+        /**
+         * Distance of each node id. Distances are kept as ints, since floats are exact only up to 2^24.
+         */
+        private final int[] mDistance;
+
+        // node being expanded, and its distance.
+        private int mNode;
+        private int mNodeDistance;
+
+        private DialSearch(TraversalWorkspace workspace, BucketQueue queue, int maxWeight, int[] distance) {
+            mWorkspace = workspace;
+            mQueue = queue;
+            mMaxWeight = maxWeight;
+            mDistance = distance;
+        }
+
+        /**
+         * Searches from node id <code>s</code> until node id <code>f</code> is settled, or every reachable node is.
+         */
+        static void run(Arcs arcs, int s, int f, int maxWeight, TraversalWorkspace workspace) {
+            int n = arcs.size();
+            workspace.reset(n);
+            BucketQueue queue = workspace.buckets(n, maxWeight);
+            DialSearch search = new DialSearch(workspace, queue, maxWeight, workspace.ints(n));
+            workspace.setDistance(s, 0);
+            search.mDistance[s] = 0;
+            queue.offer(s, 0);
+            while (!queue.isEmpty()) {
+                int u = queue.poll();
+                workspace.visit(u);
+                if (u == f)
+                    return;
+                search.mNode = u;
+                search.mNodeDistance = search.mDistance[u];
+                arcs.forEachArc(u, search);
+            }
+        }
+
+        @Override
+        public void arc(int v, float weight) {
+            if (mWorkspace.isVisited(v))
+                return;
+            int poss = mNodeDistance + integerWeight(weight, mMaxWeight);
+            if (!mWorkspace.isReached(v) || poss < mDistance[v]) {
+                mWorkspace.setDistance(v, poss);
+                mDistance[v] = poss;
+                mWorkspace.setPrevious(v, mNode);
+                mQueue.offer(v, poss);
             }
         }
+    }
+
+    private static int integerWeight(float weight, int maxWeight) {
+        int w = (int) weight;
+        if (w != weight || w < 0 || w > maxWeight)
+            throw new IllegalArgumentException("Edge weight " + weight + " is not an integer in [0, " + maxWeight
+                    + "].");
+        return w;
+    }
+
+    /**
+     * Returns the path from node id <code>f</code> back to the start of the search, or an empty list if
+     * <code>f</code> was not settled.
+     */
+    private static <N> ArrayList<N> path(TraversalWorkspace workspace, int f, IntFunction<N> nodes) {
+        ArrayList<N> minPath = new ArrayList<N>();
+        if (!workspace.isVisited(f))
+            return minPath;
+        for (int c = f; c != -1; c = workspace.previous(c)) {
+            minPath.add(nodes.apply(c));
+        }
+        return minPath;
+    }
 
-        return adj;
+    /**
+     * Copies the distances and predecessors out of the workspace.
+     */
+    private static <N> ShortestPathTree<N> tree(N source, TraversalWorkspace workspace, int n,
+                                                ToIntFunction<N> ids, IntFunction<N> nodes) {
+        float[] distance = new float[n];
+        int[] previous = new int[n];
+        for (int i = 0; i < n; i++) {
+            distance[i] = workspace.distance(i);
+            previous[i] = workspace.previous(i);
+        }
+        return new ShortestPathTree<N>(source, distance, previous, ids, nodes);
     }
 }
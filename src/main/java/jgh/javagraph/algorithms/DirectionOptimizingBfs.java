@@ -0,0 +1,267 @@
+package jgh.javagraph.algorithms;
+
+import jgh.javagraph.CompactGraph;
+import jgh.javagraph.Graph;
+import jgh.javagraph.IEdge;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel <i>direction optimising</i> breadth first search, after Beamer, Asanovic and Patterson. Each level
+ * of the search is expanded either <i>top down</i>, pushing from every node of the frontier to its unvisited
+ * neighbours, or <i>bottom up</i>, with every unvisited node pulling from the first neighbour it finds in the
+ * frontier. Top down steps are cheap while the frontier is small, but on graphs of small diameter the middle
+ * levels hold most of the graph, and there a bottom up step, which stops scanning a node's arcs at its first
+ * parent, looks at far fewer arcs.
+ * <br>
+ * The search switches to bottom up when the arcs leaving the frontier outnumber the arcs of the unvisited
+ * nodes divided by <i>ALPHA</i>, and back to top down once the frontier shrinks below the node count divided
+ * by <i>BETA</i>. The frontier and the visited nodes are kept as bitsets, and each step is split across
+ * threads by ranges of bitset words. Edges are treated as undirected.
+ */
+public class DirectionOptimizingBfs {
+
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    /**
+     * Number of bitset words, of 64 nodes each, expanded by each parallel task.
+     */
+    private static final int CHUNK_WORDS = 64;
+
+    /**
+     * Finds the hop distance from the source to every node of the graph, and the parent of each node in a
+     * breadth first search tree, on the common <code>ForkJoinPool</code>. The graph is frozen into a
+     * <code>CompactGraph</code> first; to search a large graph more than once, freeze it once and use
+     * <code>search(CompactGraph, N)</code>.
+     *
+     * @param graph  graph
+     * @param source source node
+     * @param <N>    Node type
+     * @param <E>    Edge type
+     * @return tree whose distances are numbers of edges, <code>Float.MAX_VALUE</code> for unreachable nodes.
+     */
+    public static <N, E extends IEdge<N>> ShortestPathTree<N> search(Graph<N, E> graph, N source) {
+        return search(graph.freeze(), source);
+    }
+
+    /**
+     * Finds the hop distance from the source to every node of the compact graph, and the parent of each node
+     * in a breadth first search tree, on the common <code>ForkJoinPool</code>.
+     *
+     * @param graph  compact graph
+     * @param source source node
+     * @param <N>    Node type
+     * @param <E>    Edge type
+     * @return tree whose distances are numbers of edges, <code>Float.MAX_VALUE</code> for unreachable nodes.
+     */
+    public static <N, E extends IEdge<N>> ShortestPathTree<N> search(CompactGraph<N, E> graph, N source) {
+        return search(graph, source, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Finds the hop distance from the source to every node of the compact graph, and the parent of each node
+     * in a breadth first search tree, expanding each level in parallel in the given pool.
+     *
+     * @param graph  compact graph
+     * @param source source node
+     * @param pool   pool to expand levels in
+     * @param <N>    Node type
+     * @param <E>    Edge type
+     * @return tree whose distances are numbers of edges, <code>Float.MAX_VALUE</code> for unreachable nodes.
+     */
+    public static <N, E extends IEdge<N>> ShortestPathTree<N> search(CompactGraph<N, E> graph, N source,
+                                                                     ForkJoinPool pool) {
+        Search search = new Search(graph, pool);
+        search.run(graph.id(source));
+        return new ShortestPathTree<N>(source, search.mDistance, search.mParent, graph::id, graph::node);
+    }
+
+    /**
+     * State of one breadth first search.
+     */
+    private static final class Search {
+
+        private final CompactGraph<?, ?> mGraph;
+        private final ForkJoinPool mPool;
+        private final int mNodes;
+        private final int mWords;
+
+        private final float[] mDistance;
+        private final int[] mParent;
+
+        private AtomicLongArray mFrontier;
+        private AtomicLongArray mNext;
+        private final AtomicLongArray mVisited;
+
+        // nodes and arcs added to the next frontier by each chunk of the current step.
+        private final long[] mChunkNodes;
+        private final long[] mChunkArcs;
+
+        Search(CompactGraph<?, ?> graph, ForkJoinPool pool) {
+            mGraph = graph;
+            mPool = pool;
+            mNodes = graph.nodeCount();
+            mWords = (mNodes + 63) >>> 6;
+            mDistance = new float[mNodes];
+            mParent = new int[mNodes];
+            Arrays.fill(mDistance, Float.MAX_VALUE);
+            Arrays.fill(mParent, -1);
+            mFrontier = new AtomicLongArray(mWords);
+            mNext = new AtomicLongArray(mWords);
+            mVisited = new AtomicLongArray(mWords);
+            int chunks = (mWords + CHUNK_WORDS - 1) / CHUNK_WORDS;
+            mChunkNodes = new long[chunks];
+            mChunkArcs = new long[chunks];
+        }
+
+        void run(int source) {
+            mDistance[source] = 0;
+            mFrontier.set(source >>> 6, 1L << source);
+            mVisited.set(source >>> 6, 1L << source);
+            long frontierNodes = 1;
+            long frontierArcs = degree(source);
+            long unvisitedArcs = mGraph.arcCount() - frontierArcs;
+            boolean bottomUp = false;
+            for (int level = 0; frontierNodes > 0; level++) {
+                long previousNodes = frontierNodes;
+                if (!bottomUp && frontierArcs > unvisitedArcs / ALPHA)
+                    bottomUp = true;
+                step(level, bottomUp);
+
+                frontierNodes = 0;
+                frontierArcs = 0;
+                for (int c = 0; c < mChunkNodes.length; c++) {
+                    frontierNodes += mChunkNodes[c];
+                    frontierArcs += mChunkArcs[c];
+                }
+                unvisitedArcs -= frontierArcs;
+                if (bottomUp && frontierNodes < previousNodes && frontierNodes < mNodes / BETA)
+                    bottomUp = false;
+                AtomicLongArray swap = mFrontier;
+                mFrontier = mNext;
+                mNext = swap;
+            }
+        }
+
+        /**
+         * Expands the frontier at <code>level</code> into <code>mNext</code>, which is cleared first.
+         */
+        private void step(int level, boolean bottomUp) {
+            int chunks = mChunkNodes.length;
+            Runnable task = () -> IntStream.range(0, chunks).parallel().forEach(c -> {
+                int from = c * CHUNK_WORDS;
+                int to = Math.min(from + CHUNK_WORDS, mWords);
+                for (int w = from; w < to; w++) {
+                    mNext.set(w, 0);
+                }
+            });
+            execute(task);
+            task = () -> IntStream.range(0, chunks).parallel().forEach(c -> {
+                if (bottomUp)
+                    bottomUp(c, level);
+                else
+                    topDown(c, level);
+            });
+            execute(task);
+        }
+
+        private void execute(Runnable task) {
+            if (mChunkNodes.length == 1 || mPool == ForkJoinPool.commonPool()) {
+                task.run();
+            } else {
+                mPool.submit(task).join();
+            }
+        }
+
+        /**
+         * Pushes from the frontier nodes of the chunk to their unvisited neighbours, which are claimed by
+         * setting their visited bit.
+         */
+        private void topDown(int chunk, int level) {
+            long nodes = 0;
+            long arcs = 0;
+            int to = Math.min((chunk + 1) * CHUNK_WORDS, mWords);
+            for (int w = chunk * CHUNK_WORDS; w < to; w++) {
+                long bits = mFrontier.get(w);
+                while (bits != 0) {
+                    int u = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    for (int a = mGraph.arcStart(u); a < mGraph.arcEnd(u); a++) {
+                        int v = mGraph.target(a);
+                        if (!setBit(mVisited, v))
+                            continue;
+                        mParent[v] = u;
+                        mDistance[v] = level + 1;
+                        setBit(mNext, v);
+                        nodes++;
+                        arcs += degree(v);
+                    }
+                }
+            }
+            mChunkNodes[chunk] = nodes;
+            mChunkArcs[chunk] = arcs;
+        }
+
+        /**
+         * Pulls each unvisited node of the chunk from its first neighbour in the frontier. Only the chunk's
+         * own words of the visited and next bitsets are written.
+         */
+        private void bottomUp(int chunk, int level) {
+            long nodes = 0;
+            long arcs = 0;
+            int to = Math.min((chunk + 1) * CHUNK_WORDS, mWords);
+            for (int w = chunk * CHUNK_WORDS; w < to; w++) {
+                long visited = mVisited.get(w);
+                long unvisited = ~visited;
+                if (w == mWords - 1 && (mNodes & 63) != 0)
+                    unvisited &= (1L << (mNodes & 63)) - 1;
+                long found = 0;
+                while (unvisited != 0) {
+                    int v = (w << 6) + Long.numberOfTrailingZeros(unvisited);
+                    long bit = unvisited & -unvisited;
+                    unvisited &= unvisited - 1;
+                    for (int a = mGraph.arcStart(v); a < mGraph.arcEnd(v); a++) {
+                        int u = mGraph.target(a);
+                        if ((mFrontier.get(u >>> 6) & (1L << u)) != 0) {
+                            mParent[v] = u;
+                            mDistance[v] = level + 1;
+                            found |= bit;
+                            nodes++;
+                            arcs += degree(v);
+                            break;
+                        }
+                    }
+                }
+                if (found != 0) {
+                    mVisited.set(w, visited | found);
+                    mNext.set(w, found);
+                }
+            }
+            mChunkNodes[chunk] = nodes;
+            mChunkArcs[chunk] = arcs;
+        }
+
+        private int degree(int u) {
+            return mGraph.arcEnd(u) - mGraph.arcStart(u);
+        }
+
+        /**
+         * Sets the bit of node <code>u</code>, returning true if it was not already set.
+         */
+        private static boolean setBit(AtomicLongArray bits, int u) {
+            int w = u >>> 6;
+            long bit = 1L << u;
+            long old = bits.get(w);
+            while ((old & bit) == 0) {
+                if (bits.compareAndSet(w, old, old | bit))
+                    return true;
+                old = bits.get(w);
+            }
+            return false;
+        }
+    }
+}
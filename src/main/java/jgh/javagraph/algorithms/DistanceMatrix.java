@@ -0,0 +1,80 @@
+package jgh.javagraph.algorithms;
+
+import jgh.javagraph.Graph;
+import jgh.javagraph.NodeIndex;
+import jgh.javagraph.WeightedEdge;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Many to many minimum distances. One Dijkstra search is run from each source, in parallel, and each search
+ * stops as soon as every target is settled, instead of running a separate search for each pair of nodes.
+ * Edges are treated as undirected, and the weights must be non-negative.
+ */
+public class DistanceMatrix {
+
+    /**
+     * Finds the minimum distance from each source to each target.
+     *
+     * @param graph   weighted graph
+     * @param sources source nodes, one row each
+     * @param targets target nodes, one column each
+     * @param <E>     Weighted Edge type
+     * @return matrix with the distance from <code>sources.get(i)</code> to <code>targets.get(j)</code> at
+     * <i>[i][j]</i>, or <code>Float.MAX_VALUE</code> if there is no path.
+     */
+    public static <N, E extends WeightedEdge<N>> float[][] compute(Graph<N, E> graph, List<N> sources,
+                                                                  List<N> targets) {
+        NodeIndex<N> index = graph.getNodeIndex();
+        int n = index.size();
+        int[] targetIds = new int[targets.size()];
+        boolean[] isTarget = new boolean[n];
+        int distinct = 0;
+        for (int j = 0; j < targetIds.length; j++) {
+            targetIds[j] = index.id(targets.get(j));
+            if (!isTarget[targetIds[j]]) {
+                isTarget[targetIds[j]] = true;
+                distinct++;
+            }
+        }
+        int targetCount = distinct;
+
+        Arcs arcs = Arcs.of(graph);
+        float[][] matrix = new float[sources.size()][];
+        IntStream.range(0, sources.size()).parallel().forEach(i -> {
+            TraversalWorkspace workspace = TraversalWorkspace.forCurrentThread();
+            search(arcs, index.id(sources.get(i)), isTarget, targetCount, workspace);
+            float[] row = new float[targetIds.length];
+            for (int j = 0; j < row.length; j++) {
+                row[j] = workspace.distance(targetIds[j]);
+            }
+            matrix[i] = row;
+        });
+        return matrix;
+    }
+
+    /**
+     * Finds the minimum distance between each pair of the given nodes. The result is the square matrix which
+     * <code>TspSolver(ArrayList, float[][])</code> takes, so a tour can be found through nodes of a graph which
+     * is not complete.
+     *
+     * @param graph weighted graph
+     * @param nodes nodes, one row and one column each
+     * @param <E>   Weighted Edge type
+     * @return matrix with the distance from <code>nodes.get(i)</code> to <code>nodes.get(j)</code> at
+     * <i>[i][j]</i>, or <code>Float.MAX_VALUE</code> if there is no path.
+     */
+    public static <N, E extends WeightedEdge<N>> float[][] compute(Graph<N, E> graph, List<N> nodes) {
+        return compute(graph, nodes, nodes);
+    }
+
+    /**
+     * Runs Dijkstra from node id <code>s</code> until <code>targetCount</code> target nodes are settled, or
+     * every reachable node is.
+     */
+    private static void search(Arcs arcs, int s, boolean[] isTarget, int targetCount, TraversalWorkspace workspace) {
+        int[] settled = {0};
+        HeapSearch.run(arcs, s, null, u -> isTarget[u] && ++settled[0] == targetCount, workspace);
+    }
+}
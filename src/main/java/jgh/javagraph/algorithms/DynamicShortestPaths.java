@@ -0,0 +1,286 @@
+package jgh.javagraph.algorithms;
+
+import jgh.javagraph.Graph;
+import jgh.javagraph.NodeIndex;
+import jgh.javagraph.WeightedEdge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Single source shortest paths which are kept up to date as the graph changes, in the manner of
+ * <i>Ramalingam and Reps</i>. Changes are made through this class, which repairs only the part of the shortest
+ * path tree they affect:
+ * <ul>
+ * <li>When an edge gets lighter or is added, the nodes it brings closer to the source are found with a
+ * Dijkstra search starting from its ends.</li>
+ * <li>When an edge of the tree gets heavier or is removed, the subtree below it is cut off, each of its nodes
+ * takes its best distance through a neighbour outside the subtree, and a Dijkstra search over the subtree
+ * settles the rest. Changes to edges outside the tree need no repair.</li>
+ * </ul>
+ * Edges are treated as undirected, and the weights must be non-negative. Nodes must not be removed from
+ * the graph, and weights must not be changed except through <code>setWeight</code>.
+ *
+ * @param <N> Node type
+ * @param <E> Weighted Edge type
+ */
+public final class DynamicShortestPaths<N, E extends WeightedEdge<N>> {
+
+    private final Graph<N, E> mGraph;
+    private final NodeIndex<N> mIndex;
+    private final N mSource;
+
+    /**
+     * Distance of each node id, <code>Float.MAX_VALUE</code> if unreachable.
+     */
+    private float[] mDistance;
+
+    /**
+     * Predecessor of each node id on a minimum path from the source, or -1.
+     */
+    private int[] mPrevious;
+
+    private final IndexedHeap mHeap;
+
+    // nodes of the subtree cut off by the last increase, and a mark for each of them.
+    private int[] mAffected = new int[16];
+    private int[] mMark;
+    private int mStamp;
+
+    /**
+     * Finds the shortest paths from the source.
+     *
+     * @param graph  weighted graph, with non-negative weights
+     * @param source source node
+     */
+    public DynamicShortestPaths(Graph<N, E> graph, N source) {
+        mGraph = graph;
+        mIndex = graph.getNodeIndex();
+        mSource = source;
+        int n = mIndex.size();
+        mDistance = new float[n];
+        mPrevious = new int[n];
+        mMark = new int[n];
+        Arrays.fill(mDistance, Float.MAX_VALUE);
+        Arrays.fill(mPrevious, -1);
+        mHeap = new IndexedHeap(n);
+        int s = mIndex.id(source);
+        mDistance[s] = 0;
+        mHeap.offer(s, 0);
+        propagate();
+    }
+
+    /**
+     * Returns the source node.
+     *
+     * @return source node.
+     */
+    public N getSource() {
+        return mSource;
+    }
+
+    /**
+     * Returns the minimum distance from the source to the node, or <code>Float.MAX_VALUE</code> if the node
+     * cannot be reached.
+     *
+     * @param node node
+     * @return distance to the node.
+     */
+    public float getDistance(N node) {
+        int id = mIndex.id(node);
+        return id == -1 ? Float.MAX_VALUE : mDistance[id];
+    }
+
+    /**
+     * Returns the node before the given node on a minimum path from the source, or <code>null</code> for the
+     * source and for unreachable nodes.
+     *
+     * @param node node
+     * @return predecessor of the node, or <code>null</code>.
+     */
+    public N getPrevious(N node) {
+        int id = mIndex.id(node);
+        return id == -1 || mPrevious[id] == -1 ? null : mIndex.node(mPrevious[id]);
+    }
+
+    /**
+     * Returns a minimum path from the source to the node, starting with the given node and ending with the
+     * source. If the node cannot be reached the list is empty.
+     *
+     * @param node node
+     * @return minimum path, from <code>node</code> back to the source.
+     */
+    public ArrayList<N> getPathTo(N node) {
+        ArrayList<N> path = new ArrayList<N>();
+        if (getDistance(node) == Float.MAX_VALUE)
+            return path;
+        for (int c = mIndex.id(node); c != -1; c = mPrevious[c]) {
+            path.add(mIndex.node(c));
+        }
+        return path;
+    }
+
+    /**
+     * Returns a snapshot of the current shortest paths, which later changes do not affect.
+     *
+     * @return shortest path tree.
+     */
+    public ShortestPathTree<N> toShortestPathTree() {
+        float[] distance = Arrays.copyOf(mDistance, mDistance.length);
+        int[] previous = Arrays.copyOf(mPrevious, mPrevious.length);
+        return new ShortestPathTree<N>(mSource, distance, previous, mIndex::id, mIndex::node);
+    }
+
+    /**
+     * Changes the weight of an edge of the graph and repairs the shortest paths.
+     *
+     * @param edge   edge on the graph
+     * @param weight new, non-negative weight
+     */
+    public void setWeight(E edge, float weight) {
+        float old = edge.getWeight();
+        edge.setWeight(weight);
+        if (weight < old) {
+            decreased(edge);
+        } else if (weight > old) {
+            increased(edge, old);
+        }
+    }
+
+    /**
+     * Adds an edge to the graph and repairs the shortest paths. New nodes of the edge are added too.
+     *
+     * @param edge edge to add
+     * @return false if the edge was already on the graph.
+     */
+    public boolean addEdge(E edge) {
+        if (!mGraph.addEdge(edge))
+            return false;
+        grow();
+        decreased(edge);
+        return true;
+    }
+
+    /**
+     * Removes an edge from the graph and repairs the shortest paths.
+     *
+     * @param edge edge to remove
+     * @return false if the edge was not on the graph.
+     */
+    public boolean removeEdge(E edge) {
+        if (!mGraph.removeEdge(edge))
+            return false;
+        increased(edge, edge.getWeight());
+        return true;
+    }
+
+    /**
+     * Makes room for nodes added with the graph's edges.
+     */
+    private void grow() {
+        int n = mIndex.size();
+        if (n <= mDistance.length)
+            return;
+        int length = mDistance.length;
+        mDistance = Arrays.copyOf(mDistance, n);
+        mPrevious = Arrays.copyOf(mPrevious, n);
+        mMark = Arrays.copyOf(mMark, n);
+        Arrays.fill(mDistance, length, n, Float.MAX_VALUE);
+        Arrays.fill(mPrevious, length, n, -1);
+        mHeap.ensureCapacity(n);
+    }
+
+    /**
+     * The edge is lighter, or new. Relaxes it both ways and passes any improvement on.
+     */
+    private void decreased(E edge) {
+        int u = mIndex.id(edge.from());
+        int v = mIndex.id(edge.to());
+        relax(u, v, edge.getWeight());
+        relax(v, u, edge.getWeight());
+        propagate();
+    }
+
+    /**
+     * The edge, of weight <code>old</code> before the change, is heavier or gone. If it was a tree edge, cuts
+     * off the subtree below it and finds new paths to the subtree's nodes.
+     */
+    private void increased(E edge, float old) {
+        int u = mIndex.id(edge.from());
+        int v = mIndex.id(edge.to());
+        int child;
+        if (isTreeEdge(u, v, old)) {
+            child = v;
+        } else if (isTreeEdge(v, u, old)) {
+            child = u;
+        } else {
+            return;
+        }
+
+        // collect the subtree of child, and mark its nodes unreached.
+        mStamp++;
+        int count = 0;
+        mAffected[count++] = child;
+        mMark[child] = mStamp;
+        for (int i = 0; i < count; i++) {
+            int x = mAffected[i];
+            N node = mIndex.node(x);
+            for (E e : mGraph.incidentEdges(node)) {
+                int y = mIndex.id(e.from() == node ? e.to() : e.from());
+                if (mPrevious[y] != x || mMark[y] == mStamp)
+                    continue;
+                if (count == mAffected.length)
+                    mAffected = Arrays.copyOf(mAffected, count * 2);
+                mAffected[count++] = y;
+                mMark[y] = mStamp;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            mDistance[mAffected[i]] = Float.MAX_VALUE;
+            mPrevious[mAffected[i]] = -1;
+        }
+
+        // each cut off node starts from its best neighbour outside the subtree.
+        for (int i = 0; i < count; i++) {
+            int x = mAffected[i];
+            N node = mIndex.node(x);
+            for (E e : mGraph.incidentEdges(node)) {
+                int y = mIndex.id(e.from() == node ? e.to() : e.from());
+                if (mMark[y] != mStamp)
+                    relax(y, x, e.getWeight());
+            }
+        }
+        propagate();
+    }
+
+    private boolean isTreeEdge(int parent, int child, float weight) {
+        return mPrevious[child] == parent && mDistance[child] == mDistance[parent] + weight;
+    }
+
+    /**
+     * Lowers the distance of <code>v</code> to that through <code>u</code>, if it is shorter, and queues it.
+     */
+    private void relax(int u, int v, float weight) {
+        if (mDistance[u] == Float.MAX_VALUE)
+            return;
+        float poss = mDistance[u] + weight;
+        if (poss < mDistance[v]) {
+            mDistance[v] = poss;
+            mPrevious[v] = u;
+            mHeap.offer(v, poss);
+        }
+    }
+
+    /**
+     * Runs Dijkstra from the queued nodes until the queue is empty.
+     */
+    private void propagate() {
+        while (!mHeap.isEmpty()) {
+            int x = mHeap.poll();
+            N node = mIndex.node(x);
+            for (E e : mGraph.incidentEdges(node)) {
+                relax(x, mIndex.id(e.from() == node ? e.to() : e.from()), e.getWeight());
+            }
+        }
+    }
+}
@@ -32,20 +32,15 @@ public class FordFulkerson {
      */
     public static <N> boolean findMaxFlow(Graph<N,CapacityEdge<N>> graph, N startNode, N finishNode) {
         // find some initial path.
-        HashMap<N,NodeData<N>> nodeMap = new HashMap<N,NodeData<N>>();
-        for (N n : graph.getNodes()) {
-            NodeData<N> nd = new NodeData<N>(n);
-            nodeMap.put(n, nd);
-            if(n == startNode){
-                nd.setVisited(true);
-            }
-        }
+        NodeIndex<N> index = graph.getNodeIndex();
+        BitSet visited = new BitSet(index.size());
+        visited.set(index.id(startNode));
         for (CapacityEdge e : graph.getEdges()) {
             e.setFlowDirection(Direction.FORWARDS);
         }
 
         ArrayList<CapacityEdge<N>> allEdges = new ArrayList<CapacityEdge<N>>(graph.getEdges());
-        ArrayList<CapacityEdge<N>> initialPath = findPath(nodeMap, allEdges,
+        ArrayList<CapacityEdge<N>> initialPath = findPath(index, visited, allEdges,
                 startNode, finishNode);
 
         while (initialPath != null) {
@@ -63,19 +58,17 @@ public class FordFulkerson {
 
             }
 
-            for (N n : graph.getNodes()) {
-                nodeMap.get(n).setVisited(false);
-            }
+            visited.clear();
+            visited.set(index.id(startNode));
             for (CapacityEdge e : graph.getEdges()) {
                 e.setFlowDirection(Direction.FORWARDS);
             }
-            new NodeData<N>(startNode).setVisited(true);
             //augment the path.
             initialPath.clear();
             allEdges.clear();
             allEdges = new ArrayList<CapacityEdge<N>>(graph.getEdges());
             allEdges.remove(minNode.get(0));
-            initialPath = findPath(nodeMap, allEdges,
+            initialPath = findPath(index, visited, allEdges,
                     startNode, finishNode);
         }
 
@@ -94,14 +87,14 @@ public class FordFulkerson {
      * @return a list of <code>CapacityEdge</code>s from the start node to the finish node,
      * if such a path can be found. Otherwise, returns null.
      */
-    private static <N> ArrayList<CapacityEdge<N>> findPath(HashMap<N, NodeData<N>> nodeMap,
+    private static <N> ArrayList<CapacityEdge<N>> findPath(NodeIndex<N> index, BitSet visited,
                                                                          ArrayList<CapacityEdge<N>> edges, N start, N finish) {
 
         //filter only the edges coming from the start node
         Stream<CapacityEdge<N>> edgeStream = Utilities.getIncidentEdges(edges, start).stream().filter(e -> {
-            if (e.from() == start && !nodeMap.get(e.to()).isVisited())
+            if (e.from() == start && !visited.get(index.id(e.to())))
                 return true;
-            else if (e.to() == start && !nodeMap.get(e.from()).isVisited())
+            else if (e.to() == start && !visited.get(index.id(e.from())))
                 return true;
 
             else return false;
@@ -118,7 +111,7 @@ public class FordFulkerson {
                 if (selectedEdge.getResidualFlow() <= 0) {
                     continue;
                 }
-                nodeMap.get(selectedEdge.to()).setVisited(true);
+                visited.set(index.id(selectedEdge.to()));
 
                 // Flow direction is backwards if going from from() to to()
                 // nodes. This changes the residual capacity calculation.
@@ -138,7 +131,7 @@ public class FordFulkerson {
                     if (next == start) {
                         next = selectedEdge.from();
                     }
-                    ArrayList<CapacityEdge<N>> subPath = findPath(nodeMap, edgesCopy, next, finish);
+                    ArrayList<CapacityEdge<N>> subPath = findPath(index, visited, edgesCopy, next, finish);
 
                     if (subPath != null && !subPath.isEmpty()) {
                         ArrayList<CapacityEdge<N>> path = new ArrayList<CapacityEdge<N>>();
@@ -4,10 +4,21 @@ import jgh.javagraph.*;
 import jgh.javagraph.IEdge;
 
 import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Implementation of Search Algorithms for a Graph. Includes <i>Depth First Search</i>
  * and <i>Breadth First Search.</i>
+ * <br>
+ * Each search has an overload taking a <code>TraversalWorkspace</code>, which holds the search state so that
+ * repeated searches do not allocate. The callbacks must not start another search with the same workspace.
+ * The overloads without a workspace use a new one, so their callbacks may start any other search.
+ * <br>
+ * <code>bfs</code> and <code>dfs</code> are lazy, pull based alternatives to the callback searches. They return
+ * a <code>Stream</code> of <code>Visit</code>s which only searches as far as the visits taken from it, so
+ * <code>bfs(graph, start, 3).filter(...).findFirst()</code> costs time proportional to the nodes it reaches,
+ * not to the size of the graph. For hop distances from many sources at once, see <code>MultiSourceBfs</code>.
  */
 public class GraphSearch {
 
@@ -20,45 +31,58 @@ public class GraphSearch {
      * This search will only visit every node of the graph if the graph is <i>connected.</i> Otherwise, it
      * will only visited a connected component of the graph which includes the initial, arbitrary node.
      *
-     * @param graph    Graph to search
-     * @param nextNode Callback interface.
+     * @param graph    graph
+     * @param nextNode implementation of <code>INextNode</code> interface.
      * @param <E>      Edge type
      */
     public static <N, E extends IEdge<N>> void searchBreadthFirst(Graph<N,E> graph, INextNode nextNode) {
-        N current = null;
-        HashMap<N,NodeData<N>> nodeMap = new HashMap<N,NodeData<N>>();
-        boolean currentSelected = false;
-        //find an initial node, and set all nodes to not visited.
-        for (N node : graph.getNodes()) {
-            if (!currentSelected) {
-                currentSelected = true;
-                current = node;
-            }
-            nodeMap.put(node, new NodeData<N>(node));
-        }
+        searchBreadthFirst(graph, nextNode, new TraversalWorkspace());
+    }
 
-        LinkedList<N> nodeQueue = new LinkedList<N>();
-        nodeQueue.addFirst(current);
+    /**
+     * Performs a <i>breadth first search</i> on the nodes of the given graph, as
+     * <code>searchBreadthFirst(Graph, INextNode)</code>, keeping the search state in the given workspace.
+     *
+     * @param graph     graph
+     * @param nextNode  implementation of <code>INextNode</code> interface.
+     * @param workspace workspace for the search state
+     * @param <E>       Edge type
+     */
+    public static <N, E extends IEdge<N>> void searchBreadthFirst(Graph<N,E> graph, INextNode nextNode,
+                                                                  TraversalWorkspace workspace) {
+        if (graph.getNodes().isEmpty())
+            return;
+        //find an initial node. All nodes start unvisited.
+        N current = graph.getNodes().iterator().next();
+        NodeIndex<N> index = graph.getNodeIndex();
+        workspace.reset(index.size());
+        // every node is queued at most once.
+        int[] queue = workspace.ints(index.size());
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = index.id(current);
 
         //apply mNext node function to the initial node.
+        workspace.visit(queue[0]);
         nextNode.onNextNode(graph, current, current);
-        nodeMap.get(current).setVisited(true);
+        if (nextNode.forceStop())
+            return;
 
-        while (!nodeQueue.isEmpty()) {
-            N n = nodeQueue.pollFirst();
+        while (head < tail) {
+            N n = index.node(queue[head++]);
             //get all unvisited adjacent nodes.
-            ArrayList<N> adjNodes = Utilities.getAdjacentUnvisited(nodeMap, graph.getEdges(), n);
-
-            for (N m : adjNodes) {
-                if (nodeMap.get(m).isVisited()) {
+            for (E e : graph.incidentEdges(n)) {
+                N m = e.from() == n ? e.to() : e.from();
+                int id = index.id(m);
+                if (workspace.isVisited(id)) {
                     continue;
                 } else {
                     nextNode.onNextNode(graph, n, m);
-                    nodeMap.get(m).setVisited(true);
-                    nodeQueue.addLast(m);
+                    workspace.visit(id);
+                    queue[tail++] = id;
 
                     if (nextNode.forceStop())
-                        break;
+                        return;
                 }
             }
 
@@ -79,42 +103,52 @@ public class GraphSearch {
      * @param <E>      THe edge type.
      */
     public static <N, E extends IEdge<N>> void searchEdgesBreadthFirst(Graph<N,E> graph, INextEdge<N, E> nextEdge) {
-        E current = null;
-        boolean currentSelected = false;
-
-        HashMap<E,EdgeData<E>> edgeMap = new HashMap<>();
-
-        //find an initial node, and set all nodes to not visited.
-        for (E edge : graph.getEdges()) {
-            if (!currentSelected) {
-                currentSelected = true;
-                current = edge;
-            }
-            edgeMap.put(edge, new EdgeData<E>(edge));
-        }
+        searchEdgesBreadthFirst(graph, nextEdge, new TraversalWorkspace());
+    }
 
-        LinkedList<E> edgeQueue = new LinkedList<E>();
-        edgeQueue.addFirst(current);
+    /**
+     * Performs a <i>breadth first search</i> on the edges of the given graph, as
+     * <code>searchEdgesBreadthFirst(Graph, INextEdge)</code>, keeping the search state in the given workspace.
+     * The workspace is indexed by edge position, see <code>Graph.edgeIndex(E)</code>.
+     *
+     * @param graph     graph
+     * @param nextEdge  implementation of <code>INextEdge</code> interface.
+     * @param workspace workspace for the search state
+     * @param <E>       THe edge type.
+     */
+    public static <N, E extends IEdge<N>> void searchEdgesBreadthFirst(Graph<N,E> graph, INextEdge<N, E> nextEdge,
+                                                                       TraversalWorkspace workspace) {
+        ArrayList<E> edges = graph.getEdges();
+        if (edges.isEmpty())
+            return;
+        //find an initial edge. All edges start unvisited.
+        workspace.reset(edges.size());
+        // every edge is queued at most once.
+        int[] edgeQueue = workspace.ints(edges.size());
+        int head = 0;
+        int tail = 0;
+        edgeQueue[tail++] = 0;
 
         //apply mNext node function to the initial node.
-        nextEdge.onNextEdge(graph, current, current);
-        edgeMap.get(current).setVisited(true);
-
-        while (!edgeQueue.isEmpty()) {
-            E e = edgeQueue.pollFirst();
-            //get all unvisited adjacent nodes.
-            ArrayList<E> incEdges = Utilities.getIncidentEdges(graph.getEdges(), e);
-
-            for (E next : incEdges) {
-                if (edgeMap.get(next).isVisited()) {
-                    continue;
-                } else {
-                    nextEdge.onNextEdge(graph, e, next);
-                    edgeMap.get(next).setVisited(true);
-                    edgeQueue.addLast(next);
-
-                    if (nextEdge.forceStop())
-                        break;
+        nextEdge.onNextEdge(graph, edges.get(0), edges.get(0));
+        workspace.visit(0);
+
+        while (head < tail) {
+            E e = edges.get(edgeQueue[head++]);
+            //get all unvisited incident edges, of both nodes of the edge.
+            for (int end = 0; end < 2; end++) {
+                for (E next : graph.incidentEdges(end == 0 ? e.from() : e.to())) {
+                    int position = graph.edgeIndex(next);
+                    if (workspace.isVisited(position)) {
+                        continue;
+                    } else {
+                        nextEdge.onNextEdge(graph, e, next);
+                        workspace.visit(position);
+                        edgeQueue[tail++] = position;
+
+                        if (nextEdge.forceStop())
+                            return;
+                    }
                 }
             }
         }
@@ -133,70 +167,63 @@ public class GraphSearch {
      * @param <E>      Edge type
      */
     public static <N,E extends IEdge<N>> void searchDepthFirst(Graph<N,E> graph, INextNode nextNode) {
-        N current = null;
-        boolean currentSelected = false;
-        HashMap<N,NodeData<N>> nodeMap = new HashMap<N,NodeData<N>>();
-        //find an initial node, and set all nodes to not visited.
-        for (N node : graph.getNodes()) {
-            if (!currentSelected) {
-                currentSelected = true;
-                current = node;
-
-            }
-            nodeMap.put(node, new NodeData<N>(node));
-        }
-
-        //DFS
-        Stack<N> nodeStack = new Stack<N>();
-        nodeStack.push(current);
-
-        iterateDepthFirst(graph, nodeMap, nodeStack, nextNode);
+        if (graph.getNodes().isEmpty())
+            return;
+        //find an initial node.
+        searchDepthFirst(graph, graph.getNodes().iterator().next(), nextNode);
     }
 
     /**
-     * @param graph
-     * @param startNode
-     * @param nextNode
-     * @param <E>
+     * Performs a <i>depth first search</i> on the nodes of the given graph, starting from <code>startNode</code>.
+     * When reaching an unvisited node, the <code>INextNode.nextNode(...)</code> callback will be called.
+     *
+     * @param graph     Graph to search
+     * @param startNode node to start the search from
+     * @param nextNode  Callback interface.
+     * @param <E>       Edge type
      */
     public static <N, E extends IEdge<N>> void searchDepthFirst(Graph<N,E> graph, N startNode, INextNode nextNode) {
-
-        HashMap<N,NodeData<N>> nodeMap = new HashMap<N,NodeData<N>>();
-        for(N n : graph.getNodes()){
-            nodeMap.put(n, new NodeData<N>(n));
-        }
-        //DFS
-        Stack<N> nodeStack = new Stack<N>();
-
-        nodeStack.push(startNode);
-
-        iterateDepthFirst(graph, nodeMap, nodeStack, nextNode);
+        searchDepthFirst(graph, startNode, nextNode, new TraversalWorkspace());
     }
 
     /**
-     * Iterate through the nodes of the graph depth first. Stack contains the current stack
-     * used for DFS nodes ot be searched.
+     * Performs a <i>depth first search</i> on the nodes of the given graph, starting from <code>startNode</code>,
+     * keeping the search state in the given workspace.
      *
-     * @param graph     graph to search
-     * @param nodeMap   node and NodeData map
-     * @param nodeStack stack of nodes to be searched
-     * @param nextNode  interface for callbacks per node visit.
-     * @param <E>       edge type
+     * @param graph     Graph to search
+     * @param startNode node to start the search from
+     * @param nextNode  Callback interface.
+     * @param workspace workspace for the search state
+     * @param <E>       Edge type
      */
-    private static <N, E extends IEdge<N>> void iterateDepthFirst(Graph<N,E> graph,HashMap<N, NodeData<N>> nodeMap,
-                                                            Stack<N> nodeStack, INextNode nextNode) {
-        while (nodeStack.size() > 0) {
-            N n = nodeStack.pop();
+    public static <N, E extends IEdge<N>> void searchDepthFirst(Graph<N,E> graph, N startNode, INextNode nextNode,
+                                                                TraversalWorkspace workspace) {
+        NodeIndex<N> index = graph.getNodeIndex();
+        // the previous node of each node is the node which last pushed it onto the stack.
+        workspace.reset(index.size());
 
-            if (!nodeMap.get(n).isVisited()) {
-                //Call delegate function here.
-                nextNode.onNextNode(graph, nodeMap.get(n).getPrevious().orElse(null), n);
+        //DFS
+        int[] nodeStack = workspace.ints(index.size());
+        int size = 0;
+        nodeStack[size++] = index.id(startNode);
+        while (size > 0) {
+            int id = nodeStack[--size];
 
-                nodeMap.get(n).setVisited(true);
-                List<N> adjNodes = Utilities.getAdjacentUnvisited(nodeMap, graph.getEdges(), n);
-                for (N m : adjNodes) {
-                    nodeMap.get(m).setPrevious(Optional.of(n));
-                    nodeStack.push(m);
+            if (!workspace.isVisited(id)) {
+                //Call delegate function here.
+                int previous = workspace.previous(id);
+                N n = index.node(id);
+                nextNode.onNextNode(graph, previous == -1 ? null : index.node(previous), n);
+
+                workspace.visit(id);
+                for (E e : graph.incidentEdges(n)) {
+                    int mid = index.id(e.from() == n ? e.to() : e.from());
+                    if (!workspace.isVisited(mid)) {
+                        workspace.setPrevious(mid, id);
+                        if (size == nodeStack.length)
+                            nodeStack = workspace.ints(size + 1);
+                        nodeStack[size++] = mid;
+                    }
                 }
 
                 if (nextNode.forceStop())
@@ -204,7 +231,6 @@ public class GraphSearch {
             }
 
         }
-
     }
 
     /**
@@ -221,32 +247,48 @@ public class GraphSearch {
      * @param <E>      THe edge type.
      */
     public static <N, E extends IEdge<N>> void searchEdgesDepthFirst(Graph<N,E> graph, INextEdge nextEdge) {
-        E current = null;
-        boolean currentSelected = false;
-        HashMap<E,EdgeData<E>> edgeMap = new HashMap<>();
-        //find an initial node, and set all nodes to not visited.
-        for (E edge : graph.getEdges()) {
-            if (!currentSelected) {
-                currentSelected = true;
-                current = edge;
-            }
-            edgeMap.put(edge, new EdgeData<E>(edge));
-        }
+        searchEdgesDepthFirst(graph, nextEdge, new TraversalWorkspace());
+    }
 
-        //DFS
-        Stack<E> nodeStack = new Stack<E>();
-        nodeStack.push(current);
-        while (nodeStack.size() > 0) {
-            E e = nodeStack.pop();
+    /**
+     * Performs a <i>depth first search</i> on the edges of the given graph, as
+     * <code>searchEdgesDepthFirst(Graph, INextEdge)</code>, keeping the search state in the given workspace.
+     * The workspace is indexed by edge position, see <code>Graph.edgeIndex(E)</code>.
+     *
+     * @param graph     graph
+     * @param nextEdge  implementation of <code>INextEdge</code> interface.
+     * @param workspace workspace for the search state
+     * @param <E>       THe edge type.
+     */
+    public static <N, E extends IEdge<N>> void searchEdgesDepthFirst(Graph<N,E> graph, INextEdge nextEdge,
+                                                                     TraversalWorkspace workspace) {
+        ArrayList<E> edges = graph.getEdges();
+        if (edges.isEmpty())
+            return;
+        workspace.reset(edges.size());
 
-            if (!edgeMap.get(e).isVisited()) {
+        //DFS
+        int[] edgeStack = workspace.ints(edges.size());
+        int size = 0;
+        edgeStack[size++] = 0;
+        while (size > 0) {
+            int position = edgeStack[--size];
+
+            if (!workspace.isVisited(position)) {
+                E e = edges.get(position);
                 //Call delegate function here.
                 nextEdge.onNextEdge(graph, null, e);
 
-                edgeMap.get(e).setVisited(true);
-                ArrayList<E> incEdges = Utilities.getIncidentEdges(graph.getEdges(), e);
-                for (E next : incEdges) {
-                    nodeStack.push(next);
+                workspace.visit(position);
+                for (int end = 0; end < 2; end++) {
+                    for (E next : graph.incidentEdges(end == 0 ? e.from() : e.to())) {
+                        int nextPosition = graph.edgeIndex(next);
+                        if (workspace.isVisited(nextPosition))
+                            continue;
+                        if (size == edgeStack.length)
+                            edgeStack = workspace.ints(size + 1);
+                        edgeStack[size++] = nextPosition;
+                    }
                 }
 
                 if (nextEdge.forceStop())
@@ -258,6 +300,345 @@ public class GraphSearch {
     }
 
 
+    /**
+     * Performs a <i>breadth first search</i> on the nodes of the given compact graph, starting from the
+     * node with id 0. When reaching an unvisited node, the <code>INextNode.nextNode(...)</code> callback
+     * will be called, in the same way as <code>searchBreadthFirst(Graph, INextNode)</code>.
+     *
+     * @param graph    Compact graph to search
+     * @param nextNode Callback interface.
+     * @param <E>      Edge type
+     */
+    public static <N, E extends IEdge<N>> void searchBreadthFirst(CompactGraph<N, E> graph, INextNode nextNode) {
+        searchBreadthFirst(graph, nextNode, new TraversalWorkspace());
+    }
+
+    /**
+     * Performs a <i>breadth first search</i> on the nodes of the given compact graph, starting from the
+     * node with id 0, keeping the search state in the given workspace.
+     *
+     * @param graph     Compact graph to search
+     * @param nextNode  Callback interface.
+     * @param workspace workspace for the search state
+     * @param <E>       Edge type
+     */
+    public static <N, E extends IEdge<N>> void searchBreadthFirst(CompactGraph<N, E> graph, INextNode nextNode,
+                                                                  TraversalWorkspace workspace) {
+        int n = graph.nodeCount();
+        if (n == 0)
+            return;
+        workspace.reset(n);
+        int[] queue = workspace.ints(n);
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = 0;
+        workspace.visit(0);
+        nextNode.onNextNode(graph, graph.node(0), graph.node(0));
+        if (nextNode.forceStop())
+            return;
+
+        while (head < tail) {
+            int u = queue[head++];
+            for (int a = graph.arcStart(u); a < graph.arcEnd(u); a++) {
+                int v = graph.target(a);
+                if (workspace.isVisited(v))
+                    continue;
+                nextNode.onNextNode(graph, graph.node(u), graph.node(v));
+                workspace.visit(v);
+                queue[tail++] = v;
+
+                if (nextNode.forceStop())
+                    return;
+            }
+        }
+    }
+
+    /**
+     * Performs a <i>depth first search</i> on the nodes of the given compact graph, starting from the
+     * node with id 0.
+     *
+     * @param graph    Compact graph to search
+     * @param nextNode Callback interface.
+     * @param <E>      Edge type
+     */
+    public static <N, E extends IEdge<N>> void searchDepthFirst(CompactGraph<N, E> graph, INextNode nextNode) {
+        if (graph.nodeCount() == 0)
+            return;
+        searchDepthFirst(graph, graph.node(0), nextNode);
+    }
+
+    /**
+     * Performs a <i>depth first search</i> on the nodes of the given compact graph, starting from
+     * <code>startNode</code>. The <i>previous</i> node passed to the callback is the node whose
+     * adjacency pushed the current node onto the stack, or <code>null</code> for the start node.
+     *
+     * @param graph     Compact graph to search
+     * @param startNode node to start the search from
+     * @param nextNode  Callback interface.
+     * @param <E>       Edge type
+     */
+    public static <N, E extends IEdge<N>> void searchDepthFirst(CompactGraph<N, E> graph, N startNode, INextNode nextNode) {
+        searchDepthFirst(graph, startNode, nextNode, new TraversalWorkspace());
+    }
+
+    /**
+     * Performs a <i>depth first search</i> on the nodes of the given compact graph, starting from
+     * <code>startNode</code>, keeping the search state in the given workspace.
+     *
+     * @param graph     Compact graph to search
+     * @param startNode node to start the search from
+     * @param nextNode  Callback interface.
+     * @param workspace workspace for the search state
+     * @param <E>       Edge type
+     */
+    public static <N, E extends IEdge<N>> void searchDepthFirst(CompactGraph<N, E> graph, N startNode, INextNode nextNode,
+                                                                TraversalWorkspace workspace) {
+        workspace.reset(graph.nodeCount());
+        // every arc pushes at most one entry, plus the start node. Each entry is a node and the
+        // node which pushed it.
+        int[] stack = workspace.ints(2 * (graph.arcCount() + 1));
+        int size = 0;
+        stack[size++] = graph.id(startNode);
+        stack[size++] = -1;
+        while (size > 0) {
+            int p = stack[--size];
+            int u = stack[--size];
+            if (workspace.isVisited(u))
+                continue;
+            //Call delegate function here.
+            nextNode.onNextNode(graph, p == -1 ? null : graph.node(p), graph.node(u));
+            workspace.visit(u);
+            for (int a = graph.arcStart(u); a < graph.arcEnd(u); a++) {
+                int v = graph.target(a);
+                if (!workspace.isVisited(v)) {
+                    stack[size++] = v;
+                    stack[size++] = u;
+                }
+            }
+
+            if (nextNode.forceStop())
+                break;
+        }
+    }
+
+
+    /**
+     * Returns a lazy <i>breadth first search</i> from <code>start</code>. The first visit is
+     * <code>start</code> itself, at depth 0, and each later visit is an unvisited node reached by an edge from
+     * the node of an earlier visit, in breadth first order. The search state grows with the nodes reached,
+     * and each node's edges are only looked at once visits past it are taken from the stream, so the
+     * stream may be used to find the first node which matches some condition, or its
+     * <code>iterator()</code> to pull visits one at a time. The graph must not change while the stream is
+     * in use.
+     *
+     * @param graph graph
+     * @param start node to start the search from
+     * @param <N>   Node type
+     * @param <E>   Edge type
+     * @return stream of visits, in breadth first order.
+     */
+    public static <N, E extends IEdge<N>> Stream<Visit<N>> bfs(Graph<N, E> graph, N start) {
+        return bfs(graph, start, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a lazy <i>breadth first search</i> from <code>start</code>, as <code>bfs(Graph, N)</code>, which
+     * visits only the nodes within <code>maxDepth</code> edges of <code>start</code>.
+     *
+     * @param graph    graph
+     * @param start    node to start the search from
+     * @param maxDepth largest depth of a visit
+     * @param <N>      Node type
+     * @param <E>      Edge type
+     * @return stream of visits, in breadth first order.
+     */
+    public static <N, E extends IEdge<N>> Stream<Visit<N>> bfs(Graph<N, E> graph, N start, int maxDepth) {
+        return stream(new BreadthFirstIterator<N, E>(graph, start, maxDepth));
+    }
+
+    /**
+     * Returns a lazy <i>depth first search</i> from <code>start</code>. The first visit is <code>start</code>
+     * itself, at depth 0, and each later visit is the first unvisited neighbour of the deepest node whose
+     * edges have not all been looked at, so the parents of the visits form a depth first search tree. As
+     * with <code>bfs</code>, the search only advances as visits are taken from the stream.
+     *
+     * @param graph graph
+     * @param start node to start the search from
+     * @param <N>   Node type
+     * @param <E>   Edge type
+     * @return stream of visits, in depth first order.
+     */
+    public static <N, E extends IEdge<N>> Stream<Visit<N>> dfs(Graph<N, E> graph, N start) {
+        return dfs(graph, start, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a lazy <i>depth first search</i> from <code>start</code>, as <code>dfs(Graph, N)</code>, which
+     * does not go more than <code>maxDepth</code> edges down the search tree.
+     *
+     * @param graph    graph
+     * @param start    node to start the search from
+     * @param maxDepth largest depth of a visit
+     * @param <N>      Node type
+     * @param <E>      Edge type
+     * @return stream of visits, in depth first order.
+     */
+    public static <N, E extends IEdge<N>> Stream<Visit<N>> dfs(Graph<N, E> graph, N start, int maxDepth) {
+        return stream(new DepthFirstIterator<N, E>(graph, start, maxDepth));
+    }
+
+    private static <N> Stream<Visit<N>> stream(Iterator<Visit<N>> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * A node reached by <code>bfs</code> or <code>dfs</code>, with the node it was reached from and its depth
+     * in the search tree.
+     *
+     * @param <N> Node type
+     */
+    public static final class Visit<N> {
+        private final N mParent;
+        private final N mNode;
+        private final int mDepth;
+
+        Visit(N parent, N node, int depth) {
+            mParent = parent;
+            mNode = node;
+            mDepth = depth;
+        }
+
+        /**
+         * Returns the node this node was reached from, or <code>null</code> for the start node.
+         *
+         * @return parent node.
+         */
+        public N getParent() {
+            return mParent;
+        }
+
+        /**
+         * Returns the visited node.
+         *
+         * @return node.
+         */
+        public N getNode() {
+            return mNode;
+        }
+
+        /**
+         * Returns the number of edges between the start node and this node in the search tree.
+         *
+         * @return depth.
+         */
+        public int getDepth() {
+            return mDepth;
+        }
+
+        @Override
+        public String toString() {
+            return mParent + " -> " + mNode + " (" + mDepth + ")";
+        }
+    }
+
+    /**
+     * Breadth first search which looks at the edges of one queued node at a time, when the visits found so
+     * far have all been taken.
+     */
+    private static final class BreadthFirstIterator<N, E extends IEdge<N>> implements Iterator<Visit<N>> {
+        private final Graph<N, E> mGraph;
+        private final int mMaxDepth;
+        private final HashSet<N> mReached = new HashSet<N>();
+
+        // visits not yet returned, and returned visits whose edges have not been looked at.
+        private final ArrayDeque<Visit<N>> mPending = new ArrayDeque<Visit<N>>();
+        private final ArrayDeque<Visit<N>> mQueue = new ArrayDeque<Visit<N>>();
+
+        BreadthFirstIterator(Graph<N, E> graph, N start, int maxDepth) {
+            mGraph = graph;
+            mMaxDepth = maxDepth;
+            mReached.add(start);
+            mPending.add(new Visit<N>(null, start, 0));
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (mPending.isEmpty() && !mQueue.isEmpty()) {
+                Visit<N> visit = mQueue.poll();
+                N n = visit.mNode;
+                for (E e : mGraph.incidentEdges(n)) {
+                    N m = e.from() == n ? e.to() : e.from();
+                    if (mReached.add(m))
+                        mPending.add(new Visit<N>(n, m, visit.mDepth + 1));
+                }
+            }
+            return !mPending.isEmpty();
+        }
+
+        @Override
+        public Visit<N> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            Visit<N> visit = mPending.poll();
+            if (visit.mDepth < mMaxDepth)
+                mQueue.add(visit);
+            return visit;
+        }
+    }
+
+    /**
+     * Depth first search keeping a stack of the nodes on the current path, each with the iterator over its
+     * remaining edges.
+     */
+    private static final class DepthFirstIterator<N, E extends IEdge<N>> implements Iterator<Visit<N>> {
+        private final Graph<N, E> mGraph;
+        private final int mMaxDepth;
+        private final HashSet<N> mReached = new HashSet<N>();
+        private final ArrayDeque<Visit<N>> mPath = new ArrayDeque<Visit<N>>();
+        private final ArrayDeque<Iterator<E>> mEdges = new ArrayDeque<Iterator<E>>();
+        private Visit<N> mNext;
+
+        DepthFirstIterator(Graph<N, E> graph, N start, int maxDepth) {
+            mGraph = graph;
+            mMaxDepth = maxDepth;
+            mReached.add(start);
+            mNext = new Visit<N>(null, start, 0);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (mNext == null && !mPath.isEmpty()) {
+                Visit<N> top = mPath.peek();
+                Iterator<E> edges = mEdges.peek();
+                if (!edges.hasNext()) {
+                    mPath.pop();
+                    mEdges.pop();
+                    continue;
+                }
+                E e = edges.next();
+                N n = top.mNode;
+                N m = e.from() == n ? e.to() : e.from();
+                if (mReached.add(m))
+                    mNext = new Visit<N>(n, m, top.mDepth + 1);
+            }
+            return mNext != null;
+        }
+
+        @Override
+        public Visit<N> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            Visit<N> visit = mNext;
+            mNext = null;
+            if (visit.mDepth < mMaxDepth) {
+                mPath.push(visit);
+                mEdges.push(mGraph.incidentEdges(visit.mNode).iterator());
+            }
+            return visit;
+        }
+    }
+
     /**
      * Callback to be called when depth first search or breadth first search hit a new, unvisited
      * node. Uses the <code>getPrevious()</code> and <code>setPrevious()</code> methods for
@@ -0,0 +1,88 @@
+package jgh.javagraph.algorithms;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Dijkstra's relaxation loop over node ids, shared by <code>Dijkstra</code>, <code>AStar</code> and
+ * <code>DistanceMatrix</code> on both <code>Graph</code> and <code>CompactGraph</code>, which each adapt to it
+ * through <code>Arcs</code>. Given an estimate of the distance left from each node the loop is <i>A*</i>.
+ * Distances, predecessors and settled nodes are left in the workspace.
+ */
+final class HeapSearch implements Arcs.Visitor {
+
+    /**
+     * Estimate of the distance from a node to the goal, for <i>A*</i>.
+     */
+    interface Estimate {
+
+        /**
+         * Returns the estimated distance from the node to the goal.
+         *
+         * @param node node id
+         * @return estimated distance.
+         */
+        float estimate(int node);
+    }
+
+    private final TraversalWorkspace mWorkspace;
+    private final IndexedHeap mHeap;
+    private final Estimate mEstimate;
+
+    // node being expanded, and its distance.
+    private int mNode;
+    private float mDistance;
+
+    private HeapSearch(TraversalWorkspace workspace, IndexedHeap heap, Estimate estimate) {
+        mWorkspace = workspace;
+        mHeap = heap;
+        mEstimate = estimate;
+    }
+
+    /**
+     * Searches from node id <code>s</code>, settling nodes in order of distance, plus estimate if one is
+     * given, until <code>done</code> is true of a settled node, or every reachable node is settled.
+     *
+     * @param arcs      arcs of the graph
+     * @param s         start node id
+     * @param estimate  estimate of the distance left, or <code>null</code>
+     * @param done      test of each settled node, true to stop the search
+     * @param workspace workspace for the search state
+     */
+    static void run(Arcs arcs, int s, Estimate estimate, IntPredicate done, TraversalWorkspace workspace) {
+        int n = arcs.size();
+        workspace.reset(n);
+        IndexedHeap heap = workspace.heap(n);
+        HeapSearch search = new HeapSearch(workspace, heap, estimate);
+        workspace.setDistance(s, 0);
+        float key = 0;
+        if (estimate != null) {
+            key = estimate.estimate(s);
+            workspace.setScore(s, key);
+        }
+        heap.offer(s, key);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            workspace.visit(u);
+            if (done.test(u))
+                return;
+            search.mNode = u;
+            search.mDistance = workspace.distance(u);
+            arcs.forEachArc(u, search);
+        }
+    }
+
+    @Override
+    public void arc(int v, float weight) {
+        if (mWorkspace.isVisited(v))
+            return;
+        float poss = mDistance + weight;
+        // the estimate of a node is cached in its score when the node is first reached.
+        if (mEstimate != null && !mWorkspace.isReached(v))
+            mWorkspace.setScore(v, mEstimate.estimate(v));
+        if (poss < mWorkspace.distance(v)) {
+            mWorkspace.setDistance(v, poss);
+            mWorkspace.setPrevious(v, mNode);
+            mHeap.offer(v, mEstimate == null ? poss : poss + mWorkspace.score(v));
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package jgh.javagraph.algorithms;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Indexed <i>d-ary</i> min heap of integer ids in <i>[0, capacity)</i>, ordered by <code>float</code> keys.
+ * The heap keeps the position of each id, so the key of a queued id can be decreased in place in
+ * <i>O(log<sub>d</sub> n)</i> time, and each id is queued at most once. This makes it suitable as the
+ * priority queue of label setting searches such as <i>Dijkstra's algorithm</i>, without the stale entries
+ * of lazy deletion.
+ */
+public final class IndexedHeap {
+
+    private static final int DEFAULT_ARITY = 4;
+
+    private final int mArity;
+
+    /**
+     * Queued ids, in heap order.
+     */
+    private int[] mHeap;
+
+    /**
+     * Key of the id at each heap position.
+     */
+    private float[] mKeys;
+
+    /**
+     * Heap position of each id, or -1 if the id is not queued.
+     */
+    private int[] mPositions;
+
+    private int mSize;
+
+    /**
+     * Creates a 4-ary heap for ids in <i>[0, capacity)</i>.
+     *
+     * @param capacity number of ids
+     */
+    public IndexedHeap(int capacity) {
+        this(capacity, DEFAULT_ARITY);
+    }
+
+    /**
+     * Creates a heap with the given number of children per entry, for ids in <i>[0, capacity)</i>.
+     *
+     * @param capacity number of ids
+     * @param arity    number of children of each heap entry, at least 2
+     */
+    public IndexedHeap(int capacity, int arity) {
+        if (arity < 2)
+            throw new IllegalArgumentException("Heap arity must be at least 2.");
+        mArity = arity;
+        mHeap = new int[capacity];
+        mKeys = new float[capacity];
+        mPositions = new int[capacity];
+        Arrays.fill(mPositions, -1);
+    }
+
+    /**
+     * Makes room for ids in <i>[0, capacity)</i>. Queued ids are kept.
+     *
+     * @param capacity number of ids
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= mPositions.length)
+            return;
+        int length = mPositions.length;
+        int grown = Math.max(capacity, length + (length >> 1));
+        mHeap = Arrays.copyOf(mHeap, grown);
+        mKeys = Arrays.copyOf(mKeys, grown);
+        mPositions = Arrays.copyOf(mPositions, grown);
+        Arrays.fill(mPositions, length, grown, -1);
+    }
+
+    /**
+     * Returns the number of queued ids.
+     *
+     * @return number of queued ids.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Returns true if no ids are queued.
+     *
+     * @return true if empty.
+     */
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Returns true if the id is queued.
+     *
+     * @param id id
+     * @return true if queued.
+     */
+    public boolean contains(int id) {
+        return mPositions[id] != -1;
+    }
+
+    /**
+     * Returns the key of a queued id.
+     *
+     * @param id queued id
+     * @return key of the id.
+     */
+    public float key(int id) {
+        return mKeys[mPositions[id]];
+    }
+
+    /**
+     * Queues the id with the given key. If the id is already queued with a larger key then its key is
+     * decreased; if it is queued with a key no larger than <code>key</code> then nothing changes.
+     *
+     * @param id  id
+     * @param key key
+     * @return true if the id was queued or its key decreased.
+     */
+    public boolean offer(int id, float key) {
+        int position = mPositions[id];
+        if (position == -1) {
+            position = mSize++;
+        } else if (mKeys[position] <= key) {
+            return false;
+        }
+        siftUp(position, id, key);
+        return true;
+    }
+
+    /**
+     * Queues the id with the given key, or changes its key to <code>key</code> if it is already queued,
+     * whether the new key is smaller or larger.
+     *
+     * @param id  id
+     * @param key key
+     */
+    public void update(int id, float key) {
+        int position = mPositions[id];
+        if (position == -1) {
+            siftUp(mSize++, id, key);
+        } else if (key < mKeys[position]) {
+            siftUp(position, id, key);
+        } else {
+            siftDown(position, id, key);
+        }
+    }
+
+    /**
+     * Returns the id with the smallest key, without removing it.
+     *
+     * @return id with the smallest key.
+     * @throws NoSuchElementException if the heap is empty.
+     */
+    public int peek() {
+        if (mSize == 0)
+            throw new NoSuchElementException();
+        return mHeap[0];
+    }
+
+    /**
+     * Returns the smallest key.
+     *
+     * @return smallest key.
+     * @throws NoSuchElementException if the heap is empty.
+     */
+    public float peekKey() {
+        if (mSize == 0)
+            throw new NoSuchElementException();
+        return mKeys[0];
+    }
+
+    /**
+     * Removes and returns the id with the smallest key.
+     *
+     * @return id with the smallest key.
+     * @throws NoSuchElementException if the heap is empty.
+     */
+    public int poll() {
+        if (mSize == 0)
+            throw new NoSuchElementException();
+        int id = mHeap[0];
+        mPositions[id] = -1;
+        if (--mSize > 0)
+            siftDown(0, mHeap[mSize], mKeys[mSize]);
+        return id;
+    }
+
+    /**
+     * Removes every queued id. Takes time proportional to the number of queued ids.
+     */
+    public void clear() {
+        for (int i = 0; i < mSize; i++) {
+            mPositions[mHeap[i]] = -1;
+        }
+        mSize = 0;
+    }
+
+    /**
+     * Moves the hole at <code>position</code> up until <code>key</code> fits, then places the id there.
+     */
+    private void siftUp(int position, int id, float key) {
+        while (position > 0) {
+            int parent = (position - 1) / mArity;
+            if (mKeys[parent] <= key)
+                break;
+            place(position, mHeap[parent], mKeys[parent]);
+            position = parent;
+        }
+        place(position, id, key);
+    }
+
+    /**
+     * Moves the hole at <code>position</code> down until <code>key</code> fits, then places the id there.
+     */
+    private void siftDown(int position, int id, float key) {
+        while (true) {
+            int first = position * mArity + 1;
+            if (first >= mSize)
+                break;
+            int last = Math.min(first + mArity, mSize);
+            int min = first;
+            for (int c = first + 1; c < last; c++) {
+                if (mKeys[c] < mKeys[min])
+                    min = c;
+            }
+            if (key <= mKeys[min])
+                break;
+            place(position, mHeap[min], mKeys[min]);
+            position = min;
+        }
+        place(position, id, key);
+    }
+
+    private void place(int position, int id, float key) {
+        mHeap[position] = id;
+        mKeys[position] = key;
+        mPositions[id] = position;
+    }
+}
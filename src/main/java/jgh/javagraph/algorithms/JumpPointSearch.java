@@ -0,0 +1,323 @@
+package jgh.javagraph.algorithms;
+
+import java.util.BitSet;
+
+/**
+ * <i>Jump Point Search</i> on an implicit 4-connected 2D grid, or 6-connected 3D grid, of unit cost moves.
+ * The grid is given only by its dimensions and a bitset of blocked cells, so no nodes or edges are created.
+ * Cells are numbered <i>x + width * (y + height * z)</i>, the same order as
+ * <code>SpecialGeneration.generateGrid</code> and <code>generateGrid3D</code> give their nodes.
+ * <br>
+ * <i>A*</i> only expands <i>jump points</i>. From each expanded cell the search moves in a straight line,
+ * without queueing the cells passed over, until it reaches the goal, a cell with a <i>forced neighbour</i> (an
+ * open cell to the side whose cell behind is blocked, so that it can only be reached well through this
+ * line), or a cell from which a straight line along a lower axis reaches such a point. The axes are ordered
+ * <i>x</i>, <i>y</i>, <i>z</i>. On open maps this queues a small fraction of the cells plain <i>A*</i> would.
+ * <br>
+ * The first jump point along each line from each cell, ignoring the goal, is precomputed, so a jump costs a
+ * lookup, plus a walk along the line only when the line passes level with the goal. The table takes
+ * <i>2 * axes</i> ints per cell, and is recomputed by the first query which finds the blocked cells changed.
+ * <br>
+ * A search holds no per query state, so queries may be run from several threads at once, each with its own
+ * workspace, as long as the blocked cells are not changed meanwhile.
+ */
+public final class JumpPointSearch {
+
+    private final int mWidth;
+    private final int mHeight;
+    private final int mDepth;
+    private final int mAxes;
+    private final BitSet mBlocked;
+
+    /**
+     * Jump point table, or <code>null</code> before the first query.
+     */
+    private volatile Jumps mJumps;
+
+    /**
+     * Creates a search over a 2D grid.
+     *
+     * @param width   width of the grid
+     * @param height  height of the grid
+     * @param blocked blocked cells. Later changes to the bitset are seen by later queries.
+     */
+    public JumpPointSearch(int width, int height, BitSet blocked) {
+        this(width, height, 1, blocked);
+    }
+
+    /**
+     * Creates a search over a 3D grid.
+     *
+     * @param width   width of the grid
+     * @param height  height of the grid
+     * @param depth   depth of the grid
+     * @param blocked blocked cells. Later changes to the bitset are seen by later queries.
+     */
+    public JumpPointSearch(int width, int height, int depth, BitSet blocked) {
+        if (width < 1 || height < 1 || depth < 1)
+            throw new IllegalArgumentException("Grid dimensions must be positive.");
+        mWidth = width;
+        mHeight = height;
+        mDepth = depth;
+        mAxes = depth > 1 ? 3 : 2;
+        mBlocked = blocked;
+    }
+
+    /**
+     * Returns the cell at <i>(x, y)</i> of a 2D grid.
+     *
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return cell number.
+     */
+    public int cell(int x, int y) {
+        return cell(x, y, 0);
+    }
+
+    /**
+     * Returns the cell at <i>(x, y, z)</i>.
+     *
+     * @param x x coordinate
+     * @param y y coordinate
+     * @param z z coordinate
+     * @return cell number.
+     */
+    public int cell(int x, int y, int z) {
+        return x + mWidth * (y + mHeight * z);
+    }
+
+    /**
+     * Finds a minimum path between two open cells.
+     *
+     * @param start start cell
+     * @param goal  goal cell
+     * @return every cell of the path in order, from <code>start</code> to <code>goal</code>, or an empty
+     * array if <code>goal</code> cannot be reached.
+     */
+    public int[] findPath(int start, int goal) {
+        return findPath(start, goal, TraversalWorkspace.forCurrentThread());
+    }
+
+    /**
+     * Finds a minimum path between two open cells, keeping the search state in the given workspace. The
+     * workspace's visited count is the number of jump points expanded.
+     *
+     * @param start     start cell
+     * @param goal      goal cell
+     * @param workspace workspace for the search state
+     * @return every cell of the path in order, from <code>start</code> to <code>goal</code>, or an empty
+     * array if <code>goal</code> cannot be reached.
+     */
+    public int[] findPath(int start, int goal, TraversalWorkspace workspace) {
+        int n = mWidth * mHeight * mDepth;
+        if (mBlocked.get(start) || mBlocked.get(goal))
+            return new int[0];
+        Jumps jumps = jumps();
+        workspace.reset(n);
+        IndexedHeap heap = workspace.heap(n);
+        workspace.setDistance(start, 0);
+        heap.offer(start, heuristic(start, goal));
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            workspace.visit(u);
+            if (u == goal)
+                return path(start, goal, workspace);
+            int parent = workspace.previous(u);
+            int arrivalAxis = parent == -1 ? -1 : axis(parent, u);
+            for (int axis = 0; axis < mAxes; axis++) {
+                for (int sign = -1; sign <= 1; sign += 2) {
+                    // never go back the way the search came.
+                    if (axis == arrivalAxis && (coordinate(u, axis) - coordinate(parent, axis)) * sign < 0)
+                        continue;
+                    int j = jump(jumps, u, axis, sign, goal);
+                    if (j == -1 || workspace.isVisited(j))
+                        continue;
+                    float g = workspace.distance(u) + Math.abs(coordinate(j, axis) - coordinate(u, axis));
+                    if (g < workspace.distance(j)) {
+                        workspace.setDistance(j, g);
+                        workspace.setPrevious(j, u);
+                        heap.offer(j, g + heuristic(j, goal));
+                    }
+                }
+            }
+        }
+        return new int[0];
+    }
+
+    /**
+     * Moves from <code>c</code> along the axis, returning the first jump point, or -1 if the line ends at a
+     * blocked cell or the edge of the grid first. The goal can only change the table's answer at the cell of
+     * the line level with the goal along the axis, and only if the line is level with it along every higher axis.
+     */
+    private int jump(Jumps jumps, int c, int axis, int sign, int goal) {
+        int next = jumps.next(c, axis, sign);
+        for (int higher = axis + 1; higher < mAxes; higher++) {
+            if (coordinate(c, higher) != coordinate(goal, higher))
+                return next;
+        }
+        int d = (coordinate(goal, axis) - coordinate(c, axis)) * sign;
+        if (d <= 0 || next != -1 && d >= Math.abs(coordinate(next, axis) - coordinate(c, axis)))
+            return next;
+        int step = sign * stride(axis);
+        int level = c + step * d;
+        if (next == -1) {
+            // the line ends at a blocked cell, which may come before the level cell.
+            for (int x = c + step; ; x += step) {
+                if (jumps.mSnapshot.get(x))
+                    return -1;
+                if (x == level)
+                    break;
+            }
+        }
+        if (level == goal)
+            return level;
+        for (int lower = 0; lower < axis; lower++) {
+            if (jump(jumps, level, lower, -1, goal) != -1 || jump(jumps, level, lower, 1, goal) != -1)
+                return level;
+        }
+        return next;
+    }
+
+    /**
+     * Returns the jump point table, recomputing it if the blocked cells have changed since it was computed.
+     */
+    private Jumps jumps() {
+        Jumps jumps = mJumps;
+        if (jumps == null || !jumps.mSnapshot.equals(mBlocked)) {
+            synchronized (this) {
+                jumps = mJumps;
+                if (jumps == null || !jumps.mSnapshot.equals(mBlocked)) {
+                    jumps = new Jumps((BitSet) mBlocked.clone());
+                    mJumps = jumps;
+                }
+            }
+        }
+        return jumps;
+    }
+
+    private int stride(int axis) {
+        return axis == 0 ? 1 : axis == 1 ? mWidth : mWidth * mHeight;
+    }
+
+    private int coordinate(int c, int axis) {
+        if (axis == 0)
+            return c % mWidth;
+        if (axis == 1)
+            return c / mWidth % mHeight;
+        return c / (mWidth * mHeight);
+    }
+
+    /**
+     * Returns the axis along which two cells of a straight line differ.
+     */
+    private int axis(int a, int b) {
+        for (int axis = 0; axis < mAxes - 1; axis++) {
+            if (coordinate(a, axis) != coordinate(b, axis))
+                return axis;
+        }
+        return mAxes - 1;
+    }
+
+    private float heuristic(int c, int goal) {
+        float h = 0;
+        for (int axis = 0; axis < mAxes; axis++) {
+            h += Math.abs(coordinate(c, axis) - coordinate(goal, axis));
+        }
+        return h;
+    }
+
+    /**
+     * Fills in the cells between the jump points from <code>start</code> to <code>goal</code>.
+     */
+    private int[] path(int start, int goal, TraversalWorkspace workspace) {
+        int[] path = new int[(int) workspace.distance(goal) + 1];
+        int p = path.length - 1;
+        for (int c = goal; c != start; c = workspace.previous(c)) {
+            int parent = workspace.previous(c);
+            int axis = axis(parent, c);
+            int step = c > parent ? 1 : -1;
+            int stride = stride(axis);
+            for (int x = c; x != parent; x -= step * stride) {
+                path[p--] = x;
+            }
+        }
+        path[0] = start;
+        return path;
+    }
+
+    /**
+     * First jump point along each line from each cell, ignoring the goal, for a snapshot of the blocked cells.
+     */
+    private final class Jumps {
+
+        final BitSet mSnapshot;
+
+        /**
+         * Jump point of each cell, or -1, by axis and sign.
+         */
+        final int[][] mNext;
+
+        Jumps(BitSet snapshot) {
+            mSnapshot = snapshot;
+            int n = mWidth * mHeight * mDepth;
+            mNext = new int[2 * mAxes][n];
+            // lower axes first, since a line stops where a lower line finds a jump point. Cells are taken
+            // against the direction of travel, so the next cell of the line is always done first.
+            for (int axis = 0; axis < mAxes; axis++) {
+                for (int sign = -1; sign <= 1; sign += 2) {
+                    int[] next = mNext[2 * axis + (sign + 1) / 2];
+                    for (int k = 0; k < n; k++) {
+                        int c = sign == 1 ? n - 1 - k : k;
+                        int d = snapshot.get(c) ? -1 : neighbour(c, axis, sign);
+                        if (d == -1)
+                            next[c] = -1;
+                        else if (forced(d, c, axis) || lowerJump(d, axis))
+                            next[c] = d;
+                        else
+                            next[c] = next[d];
+                    }
+                }
+            }
+        }
+
+        int next(int c, int axis, int sign) {
+            return mNext[2 * axis + (sign + 1) / 2][c];
+        }
+
+        /**
+         * Returns true if <code>c</code>, entered from <code>previous</code> along the axis, has a forced
+         * neighbour.
+         */
+        private boolean forced(int c, int previous, int axis) {
+            for (int other = 0; other < mAxes; other++) {
+                if (other == axis)
+                    continue;
+                for (int t = -1; t <= 1; t += 2) {
+                    if (neighbour(c, other, t) != -1 && neighbour(previous, other, t) == -1)
+                        return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean lowerJump(int c, int axis) {
+            for (int lower = 0; lower < axis; lower++) {
+                if (next(c, lower, -1) != -1 || next(c, lower, 1) != -1)
+                    return true;
+            }
+            return false;
+        }
+
+        /**
+         * Returns the open cell next to <code>c</code> along the axis, or -1 if it is blocked or off the grid.
+         */
+        private int neighbour(int c, int axis, int sign) {
+            int x = coordinate(c, axis) + sign;
+            int size = axis == 0 ? mWidth : axis == 1 ? mHeight : mDepth;
+            if (x < 0 || x >= size)
+                return -1;
+            int next = c + sign * stride(axis);
+            return mSnapshot.get(next) ? -1 : next;
+        }
+    }
+}
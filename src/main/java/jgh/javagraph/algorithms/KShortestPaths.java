@@ -0,0 +1,229 @@
+package jgh.javagraph.algorithms;
+
+import jgh.javagraph.CompactGraph;
+import jgh.javagraph.Graph;
+import jgh.javagraph.WeightedEdge;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * K shortest loopless paths static methods.
+ */
+public class KShortestPaths {
+
+    /**
+     * Finds the <code>k</code> minimum weight loopless paths between two nodes with <i>Yen's algorithm</i>,
+     * running the spur searches of each iteration one after another. Edges are treated as undirected, and
+     * the weights must be non-negative.
+     *
+     * @param graph  weighted graph
+     * @param start  start node
+     * @param finish final node
+     * @param k      number of paths
+     * @param <N>    Node type
+     * @param <E>    Weighted Edge type
+     * @return up to <code>k</code> paths, lightest first. As with <code>Dijkstra.findMinPath</code>, each path
+     * starts with <code>finish</code> and ends with <code>start</code>. If <code>finish</code> cannot be
+     * reached the list is empty.
+     */
+    public static <N, E extends WeightedEdge<N>> List<ArrayList<N>> yen(Graph<N, E> graph, N start, N finish,
+                                                                        int k) {
+        return yen(graph.freeze(), start, finish, k, false);
+    }
+
+    /**
+     * Finds the <code>k</code> minimum weight loopless paths between two nodes with <i>Yen's algorithm</i>.
+     *
+     * @param graph    weighted graph
+     * @param start    start node
+     * @param finish   final node
+     * @param k        number of paths
+     * @param parallel if true, the spur searches of each iteration run in parallel
+     * @param <N>      Node type
+     * @param <E>      Weighted Edge type
+     * @return up to <code>k</code> paths, lightest first, each from <code>finish</code> back to
+     * <code>start</code>.
+     */
+    public static <N, E extends WeightedEdge<N>> List<ArrayList<N>> yen(Graph<N, E> graph, N start, N finish,
+                                                                        int k, boolean parallel) {
+        return yen(graph.freeze(), start, finish, k, parallel);
+    }
+
+    /**
+     * Finds the <code>k</code> minimum weight loopless paths between two nodes of a compact graph with
+     * <i>Yen's algorithm</i>. Each path after the first is found from the one before: for each node of that
+     * path, a <i>spur</i> search looks for the lightest path to <code>finish</code> which leaves the node
+     * by an edge no path found so far with the same <i>root</i>, the part up to the node, leaves by, and which
+     * avoids the root's nodes. Every spur search of an iteration reuses the search state of one
+     * <code>TraversalWorkspace</code> per thread, with the root's nodes marked visited in advance.
+     *
+     * @param graph    weighted compact graph
+     * @param start    start node
+     * @param finish   final node
+     * @param k        number of paths
+     * @param parallel if true, the spur searches of each iteration run in parallel
+     * @param <N>      Node type
+     * @param <E>      Weighted Edge type
+     * @return up to <code>k</code> paths, lightest first, each from <code>finish</code> back to
+     * <code>start</code>.
+     */
+    public static <N, E extends WeightedEdge<N>> List<ArrayList<N>> yen(CompactGraph<N, E> graph, N start,
+                                                                        N finish, int k, boolean parallel) {
+        if (k < 1)
+            throw new IllegalArgumentException("At least one path must be asked for.");
+        int s = graph.id(start);
+        int t = graph.id(finish);
+        ArrayList<Path> found = new ArrayList<Path>();
+        Path first = spur(graph, null, 0, t, new int[0], TraversalWorkspace.forCurrentThread(), s);
+        if (first != null)
+            found.add(first);
+
+        PriorityQueue<Path> candidates = new PriorityQueue<Path>();
+        HashSet<Path> seen = new HashSet<Path>();
+        if (first != null)
+            seen.add(first);
+        while (found.size() < k && !found.isEmpty()) {
+            Path last = found.get(found.size() - 1);
+            IntStream spurs = IntStream.range(0, last.mNodes.length - 1);
+            if (parallel)
+                spurs = spurs.parallel();
+            Path[] spurPaths = spurs.mapToObj(i -> spur(graph, last, i, t, bannedNext(found, last, i),
+                    TraversalWorkspace.forCurrentThread(), s)).toArray(Path[]::new);
+            for (Path p : spurPaths) {
+                if (p != null && seen.add(p))
+                    candidates.add(p);
+            }
+            if (candidates.isEmpty())
+                break;
+            found.add(candidates.poll());
+        }
+
+        List<ArrayList<N>> paths = new ArrayList<ArrayList<N>>(found.size());
+        for (Path p : found) {
+            ArrayList<N> path = new ArrayList<N>(p.mNodes.length);
+            for (int i = p.mNodes.length - 1; i >= 0; i--) {
+                path.add(graph.node(p.mNodes[i]));
+            }
+            paths.add(path);
+        }
+        return paths;
+    }
+
+    /**
+     * Returns the nodes which paths found so far with the same root as <code>last</code> up to its node
+     * <code>i</code> go to next.
+     */
+    private static int[] bannedNext(ArrayList<Path> found, Path last, int i) {
+        int[] banned = new int[found.size()];
+        int count = 0;
+        for (Path p : found) {
+            if (p.mNodes.length > i + 1 && sameRoot(p, last, i))
+                banned[count++] = p.mNodes[i + 1];
+        }
+        return Arrays.copyOf(banned, count);
+    }
+
+    /**
+     * Runs Dijkstra from the spur node, node <code>i</code> of <code>root</code>, to <code>t</code>, avoiding
+     * the root's earlier nodes and the arcs from the spur node to <code>bannedNext</code>. With no root the
+     * search is from <code>s</code>.
+     *
+     * @return the root followed by the spur path, or <code>null</code> if <code>t</code> cannot be reached.
+     */
+    private static <N, E extends WeightedEdge<N>> Path spur(CompactGraph<N, E> graph, Path root, int i, int t,
+                                                           int[] bannedNext, TraversalWorkspace workspace, int s) {
+        int n = graph.nodeCount();
+        int spur = root == null ? s : root.mNodes[i];
+        float rootCost = root == null ? 0 : root.mCosts[i];
+        workspace.reset(n);
+        for (int r = 0; root != null && r < i; r++) {
+            workspace.visit(root.mNodes[r]);
+        }
+        IndexedHeap heap = workspace.heap(n);
+        workspace.setDistance(spur, rootCost);
+        heap.offer(spur, rootCost);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            workspace.visit(u);
+            if (u == t)
+                break;
+            float d = workspace.distance(u);
+            for (int a = graph.arcStart(u); a < graph.arcEnd(u); a++) {
+                int v = graph.target(a);
+                if (workspace.isVisited(v) || (u == spur && contains(bannedNext, v)))
+                    continue;
+                float poss = d + graph.weight(a);
+                if (poss < workspace.distance(v)) {
+                    workspace.setDistance(v, poss);
+                    workspace.setPrevious(v, u);
+                    heap.offer(v, poss);
+                }
+            }
+        }
+        if (!workspace.isVisited(t) || workspace.distance(t) == Float.MAX_VALUE)
+            return null;
+
+        int spurLength = 0;
+        for (int c = t; c != spur; c = workspace.previous(c)) {
+            spurLength++;
+        }
+        int[] nodes = new int[i + 1 + spurLength];
+        float[] costs = new float[nodes.length];
+        if (root != null) {
+            System.arraycopy(root.mNodes, 0, nodes, 0, i);
+            System.arraycopy(root.mCosts, 0, costs, 0, i);
+        }
+        for (int c = t, p = nodes.length - 1; p >= i; c = workspace.previous(c), p--) {
+            nodes[p] = c;
+            costs[p] = workspace.distance(c);
+        }
+        return new Path(nodes, costs);
+    }
+
+    private static boolean sameRoot(Path a, Path b, int i) {
+        for (int r = 0; r <= i; r++) {
+            if (a.mNodes[r] != b.mNodes[r])
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean contains(int[] ids, int id) {
+        for (int x : ids) {
+            if (x == id)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Path of node ids, with the distance along the path to each node. Paths order by total weight, and are
+     * equal if they have the same nodes.
+     */
+    private static final class Path implements Comparable<Path> {
+        private final int[] mNodes;
+        private final float[] mCosts;
+
+        Path(int[] nodes, float[] costs) {
+            mNodes = nodes;
+            mCosts = costs;
+        }
+
+        @Override
+        public int compareTo(Path o) {
+            int c = Float.compare(mCosts[mCosts.length - 1], o.mCosts[o.mCosts.length - 1]);
+            return c != 0 ? c : Integer.compare(mNodes.length, o.mNodes.length);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Path && Arrays.equals(mNodes, ((Path) o).mNodes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(mNodes);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package jgh.javagraph.algorithms;
+
+import jgh.javagraph.CompactGraph;
+import jgh.javagraph.Graph;
+import jgh.javagraph.IEdge;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Hop distances from many sources at once with the <i>multi-source BFS</i> of Then et al. Up to 64 sources
+ * share each <code>long</code> of per node state, one bit per source, so one scan of a node's arcs advances
+ * the breadth first searches of every source whose frontier holds the node. Sources are taken in batches of
+ * up to <i>64 * BATCH_WORDS</i>, each batch keeping <i>BATCH_WORDS</i> words per node, and the batches run in
+ * parallel. With hundreds of sources this reads the graph once per level of each batch, rather than once per
+ * level of each source as running <code>GraphSearch</code> from every source does.
+ * <br>
+ * Edges are treated as undirected.
+ */
+public class MultiSourceBfs {
+
+    /**
+     * Largest number of 64 source words per node in one batch.
+     */
+    private static final int BATCH_WORDS = 4;
+
+    /**
+     * Finds the hop distance from each source to each target. The graph is frozen into a
+     * <code>CompactGraph</code> first.
+     *
+     * @param graph   graph
+     * @param sources source nodes, one row each
+     * @param targets target nodes, one column each
+     * @param <N>     Node type
+     * @param <E>     Edge type
+     * @return matrix with the number of edges on a minimum path from <code>sources.get(i)</code> to
+     * <code>targets.get(j)</code> at <i>[i][j]</i>, or -1 if there is no path.
+     */
+    public static <N, E extends IEdge<N>> int[][] hopDistances(Graph<N, E> graph, List<N> sources, List<N> targets) {
+        CompactGraph<N, E> compact = graph.freeze();
+        int[][] distances = hopDistances(compact, sources);
+        int[][] matrix = new int[sources.size()][targets.size()];
+        for (int j = 0; j < targets.size(); j++) {
+            int t = compact.id(targets.get(j));
+            for (int i = 0; i < sources.size(); i++) {
+                matrix[i][j] = distances[i][t];
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Finds the hop distance from each source to every node of the compact graph, on the common
+     * <code>ForkJoinPool</code>.
+     *
+     * @param graph   compact graph
+     * @param sources source nodes, one row each
+     * @param <N>     Node type
+     * @param <E>     Edge type
+     * @return matrix with the number of edges on a minimum path from <code>sources.get(i)</code> to the node
+     * with id <i>j</i> at <i>[i][j]</i>, or -1 if there is no path.
+     */
+    public static <N, E extends IEdge<N>> int[][] hopDistances(CompactGraph<N, E> graph, List<N> sources) {
+        return hopDistances(graph, sources, Integer.MAX_VALUE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Finds the hop distance from each source to every node of the compact graph within
+     * <code>maxDepth</code> edges of it, such as the <i>k</i>-hop neighbourhoods of the sources, on the common
+     * <code>ForkJoinPool</code>.
+     *
+     * @param graph    compact graph
+     * @param sources  source nodes, one row each
+     * @param maxDepth largest hop distance searched
+     * @param <N>      Node type
+     * @param <E>      Edge type
+     * @return matrix with the hop distance from <code>sources.get(i)</code> to the node with id <i>j</i> at
+     * <i>[i][j]</i>, or -1 if it is more than <code>maxDepth</code>.
+     */
+    public static <N, E extends IEdge<N>> int[][] hopDistances(CompactGraph<N, E> graph, List<N> sources,
+                                                               int maxDepth) {
+        return hopDistances(graph, sources, maxDepth, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Finds the hop distance from each source to every node of the compact graph within
+     * <code>maxDepth</code> edges of it, running the batches of sources in parallel in the given pool.
+     *
+     * @param graph    compact graph
+     * @param sources  source nodes, one row each
+     * @param maxDepth largest hop distance searched
+     * @param pool     pool to run the batches in
+     * @param <N>      Node type
+     * @param <E>      Edge type
+     * @return matrix with the hop distance from <code>sources.get(i)</code> to the node with id <i>j</i> at
+     * <i>[i][j]</i>, or -1 if it is more than <code>maxDepth</code>.
+     */
+    public static <N, E extends IEdge<N>> int[][] hopDistances(CompactGraph<N, E> graph, List<N> sources,
+                                                               int maxDepth, ForkJoinPool pool) {
+        int[] ids = new int[sources.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = graph.id(sources.get(i));
+        }
+        int[][] distances = new int[ids.length][];
+        int batchSize = 64 * BATCH_WORDS;
+        int batches = (ids.length + batchSize - 1) / batchSize;
+        Runnable task = () -> IntStream.range(0, batches).parallel().forEach(b -> {
+            int from = b * batchSize;
+            search(graph, ids, from, Math.min(batchSize, ids.length - from), maxDepth, distances);
+        });
+        if (batches <= 1 || pool == ForkJoinPool.commonPool()) {
+            task.run();
+        } else {
+            pool.submit(task).join();
+        }
+        return distances;
+    }
+
+    /**
+     * Runs the searches from <code>count</code> sources, starting with <code>ids[from]</code>, together,
+     * filling in their rows of <code>distances</code>.
+     */
+    private static void search(CompactGraph<?, ?> graph, int[] ids, int from, int count, int maxDepth,
+                               int[][] distances) {
+        int n = graph.nodeCount();
+        int words = (count + 63) >>> 6;
+        // bit i of node u's words is set in seen if source from + i has reached u, and in visit if u is in
+        // the frontier of source from + i.
+        long[] seen = new long[n * words];
+        long[] visit = new long[n * words];
+        long[] next = new long[n * words];
+        for (int i = 0; i < count; i++) {
+            int s = ids[from + i];
+            int[] row = new int[n];
+            Arrays.fill(row, -1);
+            row[s] = 0;
+            distances[from + i] = row;
+            seen[s * words + (i >>> 6)] |= 1L << i;
+            visit[s * words + (i >>> 6)] |= 1L << i;
+        }
+
+        for (int level = 1; level <= maxDepth; level++) {
+            boolean reached = false;
+            for (int v = 0; v < n; v++) {
+                int vBase = v * words;
+                if (isEmpty(visit, vBase, words))
+                    continue;
+                for (int a = graph.arcStart(v); a < graph.arcEnd(v); a++) {
+                    int uBase = graph.target(a) * words;
+                    for (int w = 0; w < words; w++) {
+                        long found = visit[vBase + w] & ~seen[uBase + w];
+                        if (found == 0)
+                            continue;
+                        seen[uBase + w] |= found;
+                        next[uBase + w] |= found;
+                        reached = true;
+                        int u = graph.target(a);
+                        while (found != 0) {
+                            distances[from + (w << 6) + Long.numberOfTrailingZeros(found)][u] = level;
+                            found &= found - 1;
+                        }
+                    }
+                }
+            }
+            if (!reached)
+                break;
+            long[] swap = visit;
+            visit = next;
+            next = swap;
+            Arrays.fill(next, 0);
+        }
+    }
+
+    private static boolean isEmpty(long[] bits, int base, int words) {
+        for (int w = 0; w < words; w++) {
+            if (bits[base + w] != 0)
+                return false;
+        }
+        return true;
+    }
+}
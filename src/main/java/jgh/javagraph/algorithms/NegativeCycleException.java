@@ -0,0 +1,34 @@
+package jgh.javagraph.algorithms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown when a minimum path search finds a cycle of negative total weight, so that no minimum path exists.
+ * Holds the nodes of the cycle.
+ */
+public class NegativeCycleException extends AlgorithmException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<?> mCycle;
+
+    /**
+     * @param cycle nodes of the negative cycle, in order
+     */
+    public NegativeCycleException(List<?> cycle) {
+        super("Negative cycle found.");
+        mCycle = Collections.unmodifiableList(new ArrayList<Object>(cycle));
+    }
+
+    /**
+     * Returns the nodes of the negative cycle, in order. There is an edge from each node to the next, and
+     * from the last node back to the first, and the weights of these edges sum to less than zero.
+     *
+     * @return nodes of the cycle.
+     */
+    public List<?> getCycle() {
+        return mCycle;
+    }
+}
@@ -30,7 +30,7 @@ public class RandomWalk {
         N current = start;
         while (s-- >= 0) {
             randomPath.add(current);
-            ArrayList<N> adj = Utilities.getAdjacent(graph.getEdges(), current);
+            ArrayList<N> adj = new ArrayList<N>(graph.neighbours(current));
 
             int nextRandom = random.nextInt(adj.size());
             current = adj.get(nextRandom);
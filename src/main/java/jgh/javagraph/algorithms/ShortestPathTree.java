@@ -0,0 +1,103 @@
+package jgh.javagraph.algorithms;
+
+import java.util.ArrayList;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Single source shortest paths, as found by <code>Dijkstra.shortestPathTree</code>. Holds the distance from
+ * the source to every node, and the predecessor of every node on a shortest path from the source.
+ *
+ * @param <N> Node type
+ */
+public final class ShortestPathTree<N> {
+
+    private final N mSource;
+    private final float[] mDistance;
+    private final int[] mPrevious;
+    private final ToIntFunction<N> mIds;
+    private final IntFunction<N> mNodes;
+
+    /**
+     * @param source   source node
+     * @param distance distance of each node id, <code>Float.MAX_VALUE</code> if unreachable
+     * @param previous predecessor id of each node id, or -1
+     * @param ids      id of each node, or -1 if the node is unknown
+     * @param nodes    node of each id
+     */
+    ShortestPathTree(N source, float[] distance, int[] previous, ToIntFunction<N> ids, IntFunction<N> nodes) {
+        mSource = source;
+        mDistance = distance;
+        mPrevious = previous;
+        mIds = ids;
+        mNodes = nodes;
+    }
+
+    /**
+     * Returns the source node of the tree.
+     *
+     * @return source node.
+     */
+    public N getSource() {
+        return mSource;
+    }
+
+    /**
+     * Returns true if there is a path from the source to the node.
+     *
+     * @param node node
+     * @return true if the node is reachable.
+     */
+    public boolean isReachable(N node) {
+        return getDistance(node) != Float.MAX_VALUE;
+    }
+
+    /**
+     * Returns the minimum distance from the source to the node, or <code>Float.MAX_VALUE</code> if the node
+     * cannot be reached.
+     *
+     * @param node node
+     * @return distance to the node.
+     */
+    public float getDistance(N node) {
+        int id = id(node);
+        return id == -1 ? Float.MAX_VALUE : mDistance[id];
+    }
+
+    /**
+     * Returns the node before the given node on a minimum path from the source, or <code>null</code> for the
+     * source and for unreachable nodes.
+     *
+     * @param node node
+     * @return predecessor of the node, or <code>null</code>.
+     */
+    public N getPrevious(N node) {
+        int id = id(node);
+        return id == -1 || mPrevious[id] == -1 ? null : mNodes.apply(mPrevious[id]);
+    }
+
+    /**
+     * Returns a minimum path from the source to the node. As with <code>Dijkstra.findMinPath</code>, the path
+     * starts with the given node and ends with the source. If the node cannot be reached the list is empty.
+     *
+     * @param node node
+     * @return minimum path, from <code>node</code> back to the source.
+     */
+    public ArrayList<N> getPathTo(N node) {
+        ArrayList<N> path = new ArrayList<N>();
+        if (!isReachable(node))
+            return path;
+        for (int c = id(node); c != -1; c = mPrevious[c]) {
+            path.add(mNodes.apply(c));
+        }
+        return path;
+    }
+
+    /**
+     * Returns the id of the node, or -1 if the node was not on the graph when the tree was found.
+     */
+    private int id(N node) {
+        int id = mIds.applyAsInt(node);
+        return id < mDistance.length ? id : -1;
+    }
+}
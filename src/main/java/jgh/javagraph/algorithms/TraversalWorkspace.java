@@ -0,0 +1,260 @@
+package jgh.javagraph.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Reusable per node state for graph searches: a <i>reached</i> flag, a <i>visited</i> flag, a distance, a
+ * secondary score and a predecessor for each node id, plus scratch buffers and a priority queue.
+ * <br>
+ * Flags are stamped with the current epoch rather than cleared, so <code>reset(int)</code> takes constant time
+ * once the arrays are large enough, and repeated searches on the same graph allocate nothing for their state.
+ * A node's distance, score and predecessor are only meaningful once it has been reached in the current epoch;
+ * before that they read as <code>Float.MAX_VALUE</code> and -1.
+ * <br>
+ * A workspace holds the state of one search at a time, so it must not be shared between threads, or used by a
+ * search started from inside another search's callback or heuristic.
+ * Use <code>forCurrentThread()</code> for a pooled workspace.
+ */
+public final class TraversalWorkspace {
+
+    private static final ThreadLocal<TraversalWorkspace> POOL = ThreadLocal.withInitial(TraversalWorkspace::new);
+
+    private int mEpoch = 1;
+    private int mSize;
+    private int mVisitedCount;
+
+    private int[] mReached = new int[0];
+    private int[] mVisited = new int[0];
+    private float[] mDistance = new float[0];
+    private float[] mScore = new float[0];
+    private int[] mPrevious = new int[0];
+    private int[] mInts = new int[0];
+    private float[] mFloats = new float[0];
+    private IndexedHeap mHeap;
+    private BucketQueue mBuckets;
+
+    /**
+     * Returns the workspace pooled for the calling thread.
+     *
+     * @return workspace of the current thread.
+     */
+    public static TraversalWorkspace forCurrentThread() {
+        return POOL.get();
+    }
+
+    /**
+     * Starts a new search over node ids <i>[0, size)</i>. Every node becomes unreached and unvisited.
+     *
+     * @param size number of node ids
+     */
+    public void reset(int size) {
+        if (size > mReached.length) {
+            int capacity = Math.max(size, mReached.length + (mReached.length >> 1));
+            mReached = Arrays.copyOf(mReached, capacity);
+            mVisited = Arrays.copyOf(mVisited, capacity);
+            mDistance = new float[capacity];
+            mScore = new float[capacity];
+            mPrevious = new int[capacity];
+        }
+        if (++mEpoch == 0) {
+            // the epoch has wrapped around, so old stamps could match it again.
+            Arrays.fill(mReached, 0);
+            Arrays.fill(mVisited, 0);
+            mEpoch = 1;
+        }
+        mSize = size;
+        mVisitedCount = 0;
+    }
+
+    /**
+     * Returns the number of node ids of the current search.
+     *
+     * @return number of node ids.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Returns true if the node has been reached in the current search.
+     *
+     * @param id node id
+     * @return true if reached.
+     */
+    public boolean isReached(int id) {
+        return mReached[id] == mEpoch;
+    }
+
+    /**
+     * Marks the node as reached, with no distance, score or predecessor, if it was not already reached.
+     *
+     * @param id node id
+     */
+    public void reach(int id) {
+        if (mReached[id] != mEpoch) {
+            mReached[id] = mEpoch;
+            mDistance[id] = Float.MAX_VALUE;
+            mScore[id] = Float.MAX_VALUE;
+            mPrevious[id] = -1;
+        }
+    }
+
+    /**
+     * Returns true if the node has been visited in the current search.
+     *
+     * @param id node id
+     * @return true if visited.
+     */
+    public boolean isVisited(int id) {
+        return mVisited[id] == mEpoch;
+    }
+
+    /**
+     * Marks the node as visited, and reached.
+     *
+     * @param id node id
+     */
+    public void visit(int id) {
+        reach(id);
+        if (mVisited[id] != mEpoch) {
+            mVisited[id] = mEpoch;
+            mVisitedCount++;
+        }
+    }
+
+    /**
+     * Returns the number of nodes visited in the current search.
+     *
+     * @return number of visited nodes.
+     */
+    public int visitedCount() {
+        return mVisitedCount;
+    }
+
+    /**
+     * Returns the distance of the node, or <code>Float.MAX_VALUE</code> if it has not been reached.
+     *
+     * @param id node id
+     * @return distance of the node.
+     */
+    public float distance(int id) {
+        return mReached[id] == mEpoch ? mDistance[id] : Float.MAX_VALUE;
+    }
+
+    /**
+     * Sets the distance of the node, and marks it as reached.
+     *
+     * @param id       node id
+     * @param distance distance
+     */
+    public void setDistance(int id, float distance) {
+        reach(id);
+        mDistance[id] = distance;
+    }
+
+    /**
+     * Returns the secondary score of the node, such as the estimated total distance of an <i>A*</i> search,
+     * or <code>Float.MAX_VALUE</code> if it has not been reached.
+     *
+     * @param id node id
+     * @return score of the node.
+     */
+    public float score(int id) {
+        return mReached[id] == mEpoch ? mScore[id] : Float.MAX_VALUE;
+    }
+
+    /**
+     * Sets the secondary score of the node, and marks it as reached.
+     *
+     * @param id    node id
+     * @param score score
+     */
+    public void setScore(int id, float score) {
+        reach(id);
+        mScore[id] = score;
+    }
+
+    /**
+     * Returns the id of the node's predecessor, or -1 if it has none.
+     *
+     * @param id node id
+     * @return predecessor id, or -1.
+     */
+    public int previous(int id) {
+        return mReached[id] == mEpoch ? mPrevious[id] : -1;
+    }
+
+    /**
+     * Sets the predecessor of the node, and marks it as reached.
+     *
+     * @param id       node id
+     * @param previous predecessor id, or -1
+     */
+    public void setPrevious(int id, int previous) {
+        reach(id);
+        mPrevious[id] = previous;
+    }
+
+    /**
+     * Returns a scratch <code>int</code> buffer with at least the given length, for queues and stacks.
+     * The same buffer is returned until a longer one is needed, and a longer buffer starts with the
+     * contents of the previous one, so a full stack can grow by asking for more room.
+     *
+     * @param length minimum length
+     * @return scratch buffer.
+     */
+    public int[] ints(int length) {
+        if (mInts.length < length)
+            mInts = Arrays.copyOf(mInts, Math.max(length, mInts.length + (mInts.length >> 1)));
+        return mInts;
+    }
+
+    /**
+     * Returns a scratch <code>float</code> buffer with at least the given length. As with <code>ints(int)</code>,
+     * a longer buffer starts with the contents of the previous one.
+     *
+     * @param length minimum length
+     * @return scratch buffer.
+     */
+    public float[] floats(int length) {
+        if (mFloats.length < length)
+            mFloats = Arrays.copyOf(mFloats, Math.max(length, mFloats.length + (mFloats.length >> 1)));
+        return mFloats;
+    }
+
+    /**
+     * Returns the workspace's priority queue, emptied and with room for ids in <i>[0, size)</i>.
+     * The same heap is returned each time.
+     *
+     * @param size number of ids
+     * @return empty heap.
+     */
+    public IndexedHeap heap(int size) {
+        if (mHeap == null) {
+            mHeap = new IndexedHeap(size);
+        } else {
+            mHeap.clear();
+            mHeap.ensureCapacity(size);
+        }
+        return mHeap;
+    }
+
+    /**
+     * Returns the workspace's bucket queue, emptied and with room for ids in <i>[0, size)</i> and keys
+     * up to <code>maxSpread</code> past the last polled key. The same queue is returned while
+     * <code>maxSpread</code> is unchanged.
+     *
+     * @param size      number of ids
+     * @param maxSpread largest difference between a queued key and the last polled key
+     * @return empty bucket queue.
+     */
+    public BucketQueue buckets(int size, int maxSpread) {
+        if (mBuckets == null || mBuckets.getMaxSpread() != maxSpread) {
+            mBuckets = new BucketQueue(size, maxSpread);
+        } else {
+            mBuckets.clear();
+            mBuckets.ensureCapacity(size);
+        }
+        return mBuckets;
+    }
+}
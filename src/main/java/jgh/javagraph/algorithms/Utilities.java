@@ -5,7 +5,6 @@ import jgh.javagraph.*;
 import jgh.javagraph.trees.SpanningTree;
 
 import java.util.*;
-import java.util.stream.Stream;
 
 
 /**
@@ -40,11 +39,10 @@ public class Utilities {
      */
     public static <N, E extends IEdge<N>> Graph<N,E> mergeGraphs(Graph<N,E> graph1, Graph<N,E> graph2) {
         if (graph1 == null || graph2 == null) throw new IllegalArgumentException("Cannot pass a null Graph.");
-        Collection<E> edges1 = graph1.getEdges();
-        Collection<E> edges2 = graph2.getEdges();
-        edges1.addAll(edges2);
+        ArrayList<E> edges = new ArrayList<E>(graph1.getEdges());
+        edges.addAll(graph2.getEdges());
 
-        return new Graph<N,E>(new ArrayList<E>(edges1));
+        return new Graph<N,E>(edges);
     }
 
     /**
@@ -66,6 +64,20 @@ public class Utilities {
         return filtered;
     }
 
+    /**
+     * Gets all edges incident with the given edge, using the graph's incidence index rather than
+     * scanning the edge list. The returned list includes the edge itself.
+     *
+     * @param graph graph containing the edge
+     * @param edge  edge
+     * @return list of edges sharing a node with the given edge.
+     */
+    public static <N, E extends IEdge<N>> ArrayList<E> getIncidentEdges(IGraph<N, E> graph, E edge) {
+        LinkedHashSet<E> incident = new LinkedHashSet<E>(graph.incidentEdges(edge.from()));
+        incident.addAll(graph.incidentEdges(edge.to()));
+        return new ArrayList<E>(incident);
+    }
+
     /**
      * Gets the incident edges of the given node.
      *
@@ -96,14 +108,11 @@ public class Utilities {
      * @return True if the nodes are connected, false otherwise.
      */
     public static <N, E extends IEdge<N>> boolean isAdjacent(N t1, N t2, Graph<N,E> graph) {
-        Stream<E> streamt1 = graph.getEdges().stream();
-        Stream<E> streamt2 = streamt1.filter(e -> e.nodes().contains(t1)
-                && e.nodes().contains(t2));
-        if (streamt2.count() > 0)
-            return true;
-        else
-            return false;
-
+        for (E e : graph.incidentEdges(t1)) {
+            if (e.nodes().contains(t2))
+                return true;
+        }
+        return false;
     }
 
     /**
@@ -173,6 +182,25 @@ public class Utilities {
         return new ArrayList<N>(adjacent);
     }
 
+    /**
+     * Gets all adjacent and unvisited nodes to the current node, using the graph's incidence index.
+     *
+     * @param nodeMap map of node data, giving the visited state of each node.
+     * @param graph   graph to consider.
+     * @param node    Current node.
+     * @param <E>     Edge type
+     * @return List of adjacent, unvisited nodes.
+     */
+    public static <N, E extends IEdge<N>> ArrayList<N> getAdjacentUnvisited(HashMap<N,NodeData<N>> nodeMap, IGraph<N, E> graph, N node) {
+        ArrayList<N> adjacent = new ArrayList<N>();
+        for (N other : graph.neighbours(node)) {
+            if (other != node && nodeMap.get(other).isVisited() == false) {
+                adjacent.add(other);
+            }
+        }
+        return adjacent;
+    }
+
     /**
      * Generates random weights for a graph, <code>Graph<Edge></Edge></code>, between the min and max weights (uniformly distributed).
      *
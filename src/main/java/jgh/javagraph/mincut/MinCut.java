@@ -3,7 +3,6 @@ package jgh.javagraph.mincut;
 
 import jgh.javagraph.Graph;
 import jgh.javagraph.IEdge;
-import jgh.javagraph.algorithms.Utilities;
 
 import java.util.ArrayList;
 import java.util.Random;
@@ -48,32 +47,30 @@ public class MinCut {
      * @param <E>
      */
     private static <N, E extends ModifiableEdge<N>> void contractEdge(Graph<N,E> graph, E edge) {
-        if (graph.getEdges().contains(edge) == false)
+        if (graph.incidentEdges(edge.from()).contains(edge) == false)
             throw new IllegalArgumentException("Edge does not exist on this graph.");
         //arbitrary, choose the form node to make the new node.
         N newNode = edge.from();
-        ArrayList<E> incident = Utilities.getIncidentEdges(graph.getEdges(), edge.to());
-        ArrayList<E> toRemove = new ArrayList<>();
-        toRemove.add(edge);
+        ArrayList<E> incident = new ArrayList<>(graph.incidentEdges(edge.to()));
+        // remove the contracted node, and all its edges, through the graph so that the
+        // graph's incidence index stays in sync. Edges which are kept are re-attached to
+        // the new node and added back.
+        graph.removeNode(edge.to());
         for (E e : incident) {
             if (e == edge)
                 continue;
             else if (e.from() == edge.to()) {
                 if (e.to() == newNode) {
-                    toRemove.add(e);
                     continue;
                 }
                 e.setFrom(newNode);
             } else if (e.to() == edge.to()) {
                 if (e.from() == newNode) {
-                    toRemove.add(e);
                     continue;
                 }
                 e.setTo(newNode);
             }
+            graph.addEdge(e);
         }
-
-        graph.getNodes().remove(edge.to());
-        graph.getEdges().removeAll(toRemove);
     }
 }
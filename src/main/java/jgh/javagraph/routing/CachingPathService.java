@@ -0,0 +1,255 @@
+package jgh.javagraph.routing;
+
+import jgh.javagraph.Graph;
+import jgh.javagraph.WeightedEdge;
+import jgh.javagraph.algorithms.AStar;
+import jgh.javagraph.algorithms.Dijkstra;
+import jgh.javagraph.algorithms.ShortestPathTree;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimum path queries on a graph, with the results cached. Paths and shortest path trees are kept in a
+ * least recently used cache of bounded size, and optionally expire a fixed time after they were found. Every
+ * result is tied to the graph's modification count, so changes made through <code>addEdge</code>,
+ * <code>removeEdge</code> or <code>removeNode</code> clear the cache. Changes to edge weights are not seen,
+ * so after changing weights call <code>clear()</code>.
+ * <br>
+ * Queries may be made from several threads, as long as the graph is not changed at the same time.
+ *
+ * @param <N> Node type
+ * @param <E> Weighted edge type
+ */
+public final class CachingPathService<N, E extends WeightedEdge<N>> {
+
+    /**
+     * Cache key kind of Dijkstra paths. A* paths are keyed by their heuristic.
+     */
+    private static final Object DIJKSTRA = new Object();
+
+    /**
+     * Cache key kind of shortest path trees.
+     */
+    private static final Object TREE = new Object();
+
+    private final Graph<N, E> mGraph;
+    private final int mMaxEntries;
+    private final long mTimeToLiveNanos;
+
+    private final LinkedHashMap<Key, CacheEntry> mCache;
+    private int mVersion;
+
+    private final AtomicLong mHits = new AtomicLong();
+    private final AtomicLong mMisses = new AtomicLong();
+
+    /**
+     * Creates a service whose results are kept until evicted or the graph changes.
+     *
+     * @param graph      weighted graph
+     * @param maxEntries largest number of cached paths and trees
+     */
+    public CachingPathService(Graph<N, E> graph, int maxEntries) {
+        this(graph, maxEntries, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a service whose results also expire a fixed time after they were found.
+     *
+     * @param graph      weighted graph
+     * @param maxEntries largest number of cached paths and trees
+     * @param timeToLive time a result is kept for, or 0 to keep results until evicted
+     * @param unit       unit of <code>timeToLive</code>
+     */
+    public CachingPathService(Graph<N, E> graph, int maxEntries, long timeToLive, TimeUnit unit) {
+        if (maxEntries < 1)
+            throw new IllegalArgumentException("The cache must hold at least one entry.");
+        mGraph = graph;
+        mMaxEntries = maxEntries;
+        mTimeToLiveNanos = unit.toNanos(timeToLive);
+        mVersion = graph.getModificationCount();
+        mCache = new LinkedHashMap<Key, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CacheEntry> eldest) {
+                return size() > mMaxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the minimum path between two nodes, as <code>Dijkstra.findMinPath</code>, from the cache if
+     * possible. A cached shortest path tree from <code>start</code> also answers the query.
+     *
+     * @param start  start node
+     * @param finish final node
+     * @return minimum path, from <code>finish</code> back to <code>start</code>, or an empty list if
+     * <code>finish</code> cannot be reached.
+     */
+    public ArrayList<N> findMinPath(N start, N finish) {
+        Key key = new Key(DIJKSTRA, start, finish);
+        ArrayList<N> path = get(key);
+        if (path == null) {
+            ShortestPathTree<N> tree = get(new Key(TREE, start, null));
+            if (tree != null) {
+                path = tree.getPathTo(finish);
+            } else {
+                mMisses.incrementAndGet();
+                int version = mGraph.getModificationCount();
+                path = Dijkstra.findMinPath(mGraph, start, finish);
+                put(key, path, version);
+            }
+        }
+        return new ArrayList<N>(path);
+    }
+
+    /**
+     * Returns the minimum path between two nodes, as <code>AStar.findMinPath</code>, from the cache if
+     * possible. Paths found with different heuristics are cached separately.
+     *
+     * @param start     start node
+     * @param finish    final node
+     * @param heuristic A* heuristic
+     * @return minimum path, from <code>start</code> to <code>finish</code>.
+     */
+    public ArrayList<N> findMinPath(N start, N finish, AStar.IAStarHeuristic<N> heuristic) {
+        Key key = new Key(heuristic, start, finish);
+        ArrayList<N> path = get(key);
+        if (path == null) {
+            mMisses.incrementAndGet();
+            int version = mGraph.getModificationCount();
+            path = AStar.findMinPath(mGraph, start, finish, heuristic);
+            put(key, path, version);
+        }
+        return new ArrayList<N>(path);
+    }
+
+    /**
+     * Returns the shortest path tree from the source, as <code>Dijkstra.shortestPathTree</code>, from the
+     * cache if possible.
+     *
+     * @param source source node
+     * @return shortest path tree.
+     */
+    public ShortestPathTree<N> shortestPathTree(N source) {
+        Key key = new Key(TREE, source, null);
+        ShortestPathTree<N> tree = get(key);
+        if (tree == null) {
+            mMisses.incrementAndGet();
+            int version = mGraph.getModificationCount();
+            tree = Dijkstra.shortestPathTree(mGraph, source);
+            put(key, tree, version);
+        }
+        return tree;
+    }
+
+    /**
+     * Returns the number of queries answered from the cache.
+     *
+     * @return hit count.
+     */
+    public long getHitCount() {
+        return mHits.get();
+    }
+
+    /**
+     * Returns the number of queries which needed a search.
+     *
+     * @return miss count.
+     */
+    public long getMissCount() {
+        return mMisses.get();
+    }
+
+    /**
+     * Returns the number of cached paths and trees.
+     *
+     * @return cache size.
+     */
+    public synchronized int size() {
+        validate();
+        return mCache.size();
+    }
+
+    /**
+     * Removes every cached result. The hit and miss counts are kept.
+     */
+    public synchronized void clear() {
+        mCache.clear();
+    }
+
+    /**
+     * Returns the cached value, counting a hit, or <code>null</code> if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    private synchronized <T> T get(Key key) {
+        validate();
+        CacheEntry entry = mCache.get(key);
+        if (entry == null)
+            return null;
+        if (mTimeToLiveNanos > 0 && System.nanoTime() - entry.mCreated > mTimeToLiveNanos) {
+            mCache.remove(key);
+            return null;
+        }
+        mHits.incrementAndGet();
+        return (T) entry.mValue;
+    }
+
+    /**
+     * Caches a value found when the graph had the given modification count, unless the graph has changed since.
+     */
+    private synchronized void put(Key key, Object value, int version) {
+        validate();
+        if (version == mVersion)
+            mCache.put(key, new CacheEntry(value, System.nanoTime()));
+    }
+
+    /**
+     * Clears the cache if the graph has changed.
+     */
+    private void validate() {
+        int version = mGraph.getModificationCount();
+        if (version != mVersion) {
+            mCache.clear();
+            mVersion = version;
+        }
+    }
+
+    private static final class Key {
+        private final Object mKind;
+        private final Object mFrom;
+        private final Object mTo;
+
+        Key(Object kind, Object from, Object to) {
+            mKind = kind;
+            mFrom = from;
+            mTo = to;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key))
+                return false;
+            Key other = (Key) o;
+            return mKind == other.mKind && Objects.equals(mFrom, other.mFrom) && Objects.equals(mTo, other.mTo);
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(mKind) * 31 + Objects.hashCode(mFrom)) * 31 + Objects.hashCode(mTo);
+        }
+    }
+
+    private static final class CacheEntry {
+        private final Object mValue;
+        private final long mCreated;
+
+        CacheEntry(Object value, long created) {
+            mValue = value;
+            mCreated = created;
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package jgh.javagraph.routing;
+
+import jgh.javagraph.CompactGraph;
+import jgh.javagraph.Graph;
+import jgh.javagraph.NodeIndex;
+import jgh.javagraph.WeightedEdge;
+import jgh.javagraph.algorithms.IndexedHeap;
+import jgh.javagraph.algorithms.TraversalWorkspace;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * <i>Contraction hierarchy</i> of a static, undirected weighted graph, for fast point to point shortest path
+ * queries. Preprocessing contracts the nodes one at a time, in order of importance, adding <i>shortcut</i>
+ * edges which keep the distances between the remaining nodes. A query is then a bidirectional Dijkstra search
+ * from both ends which only follows edges to more important nodes, and settles a small number of nodes
+ * no matter how large the graph is.
+ * <br>
+ * The hierarchy is a snapshot; later changes to the graph are not seen. It can be saved with
+ * <code>write(OutputStream)</code> and loaded again with <code>read(InputStream, List)</code>.
+ * Queries may be run from several threads at once.
+ *
+ * @param <N> Node type
+ */
+public final class ContractionHierarchy<N> {
+
+    private static final int MAGIC = 0x4a474348;
+    private static final int VERSION = 1;
+
+    private static final ThreadLocal<TraversalWorkspace> FORWARD = ThreadLocal.withInitial(TraversalWorkspace::new);
+    private static final ThreadLocal<TraversalWorkspace> BACKWARD = ThreadLocal.withInitial(TraversalWorkspace::new);
+
+    /**
+     * Ids of the nodes, those of the compact snapshot the hierarchy was built from.
+     */
+    private final NodeIndex<N> mIndex;
+
+    private final int[] mRank;
+
+    // all edges, original and shortcut. See Contractor.
+    private final int[] mFrom;
+    private final int[] mTo;
+    private final float[] mWeight;
+    private final int[] mMiddle;
+    private final int[] mChildA;
+    private final int[] mChildB;
+
+    // upward graph: for each node, arcs to its neighbours of higher rank, in CSR form.
+    private final int[] mUpOffsets;
+    private final int[] mUpTargets;
+    private final float[] mUpWeights;
+    private final int[] mUpEdges;
+
+    private ContractionHierarchy(NodeIndex<N> index, int[] rank, int edgeCount, int[] from, int[] to,
+                                 float[] weight, int[] middle, int[] childA, int[] childB) {
+        mIndex = index;
+        mRank = rank;
+        mFrom = Arrays.copyOf(from, edgeCount);
+        mTo = Arrays.copyOf(to, edgeCount);
+        mWeight = Arrays.copyOf(weight, edgeCount);
+        mMiddle = Arrays.copyOf(middle, edgeCount);
+        mChildA = Arrays.copyOf(childA, edgeCount);
+        mChildB = Arrays.copyOf(childB, edgeCount);
+
+        int n = mIndex.size();
+        mUpOffsets = new int[n + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            if (mFrom[e] != mTo[e])
+                mUpOffsets[lower(e) + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            mUpOffsets[i + 1] += mUpOffsets[i];
+        }
+        int arcs = mUpOffsets[n];
+        mUpTargets = new int[arcs];
+        mUpWeights = new float[arcs];
+        mUpEdges = new int[arcs];
+        int[] next = Arrays.copyOf(mUpOffsets, n);
+        for (int e = 0; e < edgeCount; e++) {
+            if (mFrom[e] == mTo[e])
+                continue;
+            int low = lower(e);
+            int a = next[low]++;
+            mUpTargets[a] = low == mFrom[e] ? mTo[e] : mFrom[e];
+            mUpWeights[a] = mWeight[e];
+            mUpEdges[a] = e;
+        }
+    }
+
+    private int lower(int edge) {
+        return mRank[mFrom[edge]] < mRank[mTo[edge]] ? mFrom[edge] : mTo[edge];
+    }
+
+    /**
+     * Builds the contraction hierarchy of the graph. Edges are treated as undirected, and their weights
+     * must be non-negative.
+     *
+     * @param graph weighted graph
+     * @param <N>   Node type
+     * @param <E>   Weighted edge type
+     * @return contraction hierarchy of the graph.
+     */
+    public static <N, E extends WeightedEdge<N>> ContractionHierarchy<N> preprocess(Graph<N, E> graph) {
+        CompactGraph<N, E> compact = graph.freeze();
+        int m = compact.edgeCount();
+        int[] from = new int[m];
+        int[] to = new int[m];
+        float[] weight = new float[m];
+        for (int e = 0; e < m; e++) {
+            from[e] = compact.edgeFrom(e);
+            to[e] = compact.edgeTo(e);
+            weight[e] = compact.edge(e).getWeight();
+        }
+        Contractor contractor = new Contractor(compact.nodeCount(), from, to, weight);
+        contractor.contract();
+        return new ContractionHierarchy<N>(compact.getNodeIndex(), contractor.mRank, contractor.mEdgeCount, contractor.mFrom,
+                contractor.mTo, contractor.mWeight, contractor.mMiddle, contractor.mChildA, contractor.mChildB);
+    }
+
+    /**
+     * Returns the nodes of the hierarchy, in the order <code>read(InputStream, List)</code> expects them.
+     *
+     * @return list of nodes.
+     */
+    public List<N> getNodes() {
+        return mIndex.nodes();
+    }
+
+    /**
+     * Returns the number of edges of the hierarchy, original and shortcut.
+     *
+     * @return number of edges.
+     */
+    public int getEdgeCount() {
+        return mFrom.length;
+    }
+
+    /**
+     * Returns the minimum distance between two nodes, or <code>Float.MAX_VALUE</code> if there is no path.
+     *
+     * @param start  start node
+     * @param finish finish node
+     * @return minimum distance.
+     */
+    public float distance(N start, N finish) {
+        TraversalWorkspace forward = FORWARD.get();
+        TraversalWorkspace backward = BACKWARD.get();
+        int meet = search(id(start), id(finish), forward, backward);
+        return meet == -1 ? Float.MAX_VALUE : forward.distance(meet) + backward.distance(meet);
+    }
+
+    /**
+     * Returns a minimum path between two nodes, in the same order as <code>Dijkstra.findMinPath</code>:
+     * starting with <code>finish</code> and ending with <code>start</code>. If <code>finish</code> cannot be
+     * reached the list is empty.
+     *
+     * @param start  start node
+     * @param finish finish node
+     * @return minimum path, from <code>finish</code> back to <code>start</code>.
+     */
+    public ArrayList<N> path(N start, N finish) {
+        TraversalWorkspace forward = FORWARD.get();
+        TraversalWorkspace backward = BACKWARD.get();
+        int s = id(start);
+        int meet = search(s, id(finish), forward, backward);
+        ArrayList<N> path = new ArrayList<N>();
+        if (meet == -1)
+            return path;
+        // walk the forward search's edges back from the meeting node to start, then unpack them in order.
+        ArrayDeque<Integer> upEdges = new ArrayDeque<Integer>();
+        for (int c = meet; c != s; c = other(forward.previous(c), c)) {
+            upEdges.push(forward.previous(c));
+        }
+        ArrayList<Integer> ids = new ArrayList<Integer>();
+        ids.add(s);
+        int at = s;
+        for (int e : upEdges) {
+            at = unpack(e, at, ids);
+        }
+        for (int c = meet; backward.previous(c) != -1; ) {
+            int e = backward.previous(c);
+            c = unpack(e, c, ids);
+        }
+        for (int i = ids.size() - 1; i >= 0; i--) {
+            path.add(mIndex.node(ids.get(i)));
+        }
+        return path;
+    }
+
+    private int id(N node) {
+        int id = mIndex.id(node);
+        if (id == -1)
+            throw new IllegalArgumentException("Node is not in the contraction hierarchy.");
+        return id;
+    }
+
+    private int other(int edge, int node) {
+        return mFrom[edge] == node ? mTo[edge] : mFrom[edge];
+    }
+
+    /**
+     * Appends the original path of the edge, leaving <code>from</code>, to <code>ids</code>, without
+     * <code>from</code> itself.
+     *
+     * @return the node at the other end of the edge.
+     */
+    private int unpack(int edge, int from, ArrayList<Integer> ids) {
+        int end = other(edge, from);
+        // stack of (edge, node the edge is entered from) pairs still to unpack.
+        ArrayDeque<int[]> stack = new ArrayDeque<int[]>();
+        stack.push(new int[]{edge, from});
+        while (!stack.isEmpty()) {
+            int[] top = stack.pop();
+            int e = top[0];
+            int u = top[1];
+            if (mMiddle[e] == -1) {
+                ids.add(other(e, u));
+                continue;
+            }
+            int first = mFrom[e] == u ? mChildA[e] : mChildB[e];
+            int second = mFrom[e] == u ? mChildB[e] : mChildA[e];
+            stack.push(new int[]{second, mMiddle[e]});
+            stack.push(new int[]{first, u});
+        }
+        return end;
+    }
+
+    /**
+     * Runs the upward bidirectional search. Predecessors in the workspaces are edge ids.
+     *
+     * @return the node where the best path meets, or -1 if there is no path.
+     */
+    private int search(int s, int f, TraversalWorkspace forward, TraversalWorkspace backward) {
+        int n = mIndex.size();
+        forward.reset(n);
+        backward.reset(n);
+        IndexedHeap forwardHeap = forward.heap(n);
+        IndexedHeap backwardHeap = backward.heap(n);
+        forward.setDistance(s, 0);
+        forwardHeap.offer(s, 0);
+        backward.setDistance(f, 0);
+        backwardHeap.offer(f, 0);
+
+        float best = Float.MAX_VALUE;
+        int meet = -1;
+        boolean isForward = false;
+        while (true) {
+            boolean forwardOpen = !forwardHeap.isEmpty() && forwardHeap.peekKey() < best;
+            boolean backwardOpen = !backwardHeap.isEmpty() && backwardHeap.peekKey() < best;
+            if (!forwardOpen && !backwardOpen)
+                break;
+            // alternate between the two searches while both are open.
+            isForward = forwardOpen && (!backwardOpen || !isForward);
+            TraversalWorkspace self = isForward ? forward : backward;
+            TraversalWorkspace other = isForward ? backward : forward;
+            IndexedHeap heap = isForward ? forwardHeap : backwardHeap;
+
+            int u = heap.poll();
+            self.visit(u);
+            float d = self.distance(u);
+            if (other.isReached(u) && d + other.distance(u) < best) {
+                best = d + other.distance(u);
+                meet = u;
+            }
+            for (int a = mUpOffsets[u]; a < mUpOffsets[u + 1]; a++) {
+                int v = mUpTargets[a];
+                float poss = d + mUpWeights[a];
+                if (poss < self.distance(v)) {
+                    self.setDistance(v, poss);
+                    self.setPrevious(v, mUpEdges[a]);
+                    heap.offer(v, poss);
+                }
+            }
+        }
+        return meet;
+    }
+
+    /**
+     * Writes the hierarchy to the stream. Nodes are written as their index in <code>getNodes()</code>,
+     * so the same node list must be given to <code>read</code>.
+     *
+     * @param out output stream
+     * @throws IOException if the stream cannot be written.
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(mIndex.size());
+        data.writeInt(mFrom.length);
+        for (int rank : mRank) {
+            data.writeInt(rank);
+        }
+        for (int e = 0; e < mFrom.length; e++) {
+            data.writeInt(mFrom[e]);
+            data.writeInt(mTo[e]);
+            data.writeFloat(mWeight[e]);
+            data.writeInt(mMiddle[e]);
+            data.writeInt(mChildA[e]);
+            data.writeInt(mChildB[e]);
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a hierarchy written by <code>write(OutputStream)</code>.
+     *
+     * @param in    input stream
+     * @param nodes the nodes of the hierarchy, in the order of its <code>getNodes()</code>
+     * @param <N>   Node type
+     * @return contraction hierarchy.
+     * @throws IOException if the stream cannot be read, or does not hold a hierarchy of the given nodes.
+     */
+    public static <N> ContractionHierarchy<N> read(InputStream in, List<N> nodes) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC || data.readInt() != VERSION)
+            throw new IOException("Stream does not hold a contraction hierarchy.");
+        int n = data.readInt();
+        if (n != nodes.size())
+            throw new IOException("Contraction hierarchy has " + n + " nodes, but " + nodes.size() + " were given.");
+        int m = data.readInt();
+        int[] rank = new int[n];
+        for (int i = 0; i < n; i++) {
+            rank[i] = data.readInt();
+        }
+        int[] from = new int[m];
+        int[] to = new int[m];
+        float[] weight = new float[m];
+        int[] middle = new int[m];
+        int[] childA = new int[m];
+        int[] childB = new int[m];
+        for (int e = 0; e < m; e++) {
+            from[e] = data.readInt();
+            to[e] = data.readInt();
+            weight[e] = data.readFloat();
+            middle[e] = data.readInt();
+            childA[e] = data.readInt();
+            childB[e] = data.readInt();
+        }
+        return new ContractionHierarchy<N>(NodeIndex.of(nodes), rank, m, from, to, weight, middle, childA, childB);
+    }
+}
@@ -0,0 +1,250 @@
+package jgh.javagraph.routing;
+
+import jgh.javagraph.algorithms.IndexedHeap;
+import jgh.javagraph.algorithms.TraversalWorkspace;
+
+import java.util.Arrays;
+
+/**
+ * Contracts the nodes of an undirected weighted graph, one at a time, to build a contraction hierarchy.
+ * Nodes are picked by their <i>edge difference</i>: the number of shortcuts contracting the node would add,
+ * less the number of edges it would remove, plus the number of its neighbours already contracted. Priorities
+ * are updated lazily, by recomputing a node's priority when it reaches the top of the queue.
+ * <br>
+ * When a node <i>v</i> is contracted, a shortcut <i>u-w</i> is added for each pair of its uncontracted
+ * neighbours unless a <i>witness search</i> from <i>u</i>, which avoids <i>v</i>, finds a path to <i>w</i>
+ * no longer than <i>u-v-w</i>. Witness searches settle at most <code>WITNESS_SETTLE_LIMIT</code> nodes, so
+ * they may miss a witness and add a shortcut which is not needed, but never leave one out.
+ */
+final class Contractor {
+
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private final int mNodeCount;
+
+    // edges, original and shortcut. A shortcut replaces the edges mChildA (mFrom to mMiddle)
+    // and mChildB (mMiddle to mTo). Original edges have no middle node or children.
+    int mEdgeCount;
+    int[] mFrom;
+    int[] mTo;
+    float[] mWeight;
+    int[] mMiddle;
+    int[] mChildA;
+    int[] mChildB;
+
+    /**
+     * Position of each node in the contraction order.
+     */
+    final int[] mRank;
+
+    /**
+     * Ids of the edges incident with each node.
+     */
+    private final int[][] mIncident;
+    private final int[] mIncidentSize;
+
+    private final boolean[] mContracted;
+    private final int[] mContractedNeighbours;
+
+    // the uncontracted neighbours of the node being simulated or contracted, and the lightest
+    // edge to each of them.
+    private int[] mNeighbours;
+    private int[] mNeighbourEdges;
+    private int mNeighbourCount;
+    private final int[] mLightest;
+
+    private final TraversalWorkspace mWorkspace = new TraversalWorkspace();
+
+    /**
+     * @param nodeCount number of nodes, with ids in <i>[0, nodeCount)</i>
+     * @param from      first node of each edge
+     * @param to        second node of each edge
+     * @param weight    non-negative weight of each edge
+     */
+    Contractor(int nodeCount, int[] from, int[] to, float[] weight) {
+        mNodeCount = nodeCount;
+        int m = from.length;
+        int capacity = Math.max(16, m * 2);
+        mFrom = Arrays.copyOf(from, capacity);
+        mTo = Arrays.copyOf(to, capacity);
+        mWeight = Arrays.copyOf(weight, capacity);
+        mMiddle = new int[capacity];
+        mChildA = new int[capacity];
+        mChildB = new int[capacity];
+        Arrays.fill(mMiddle, -1);
+        Arrays.fill(mChildA, -1);
+        Arrays.fill(mChildB, -1);
+        mEdgeCount = m;
+
+        mRank = new int[nodeCount];
+        mIncident = new int[nodeCount][];
+        mIncidentSize = new int[nodeCount];
+        mContracted = new boolean[nodeCount];
+        mContractedNeighbours = new int[nodeCount];
+        mNeighbours = new int[16];
+        mNeighbourEdges = new int[16];
+        mLightest = new int[nodeCount];
+        Arrays.fill(mLightest, -1);
+        for (int i = 0; i < nodeCount; i++) {
+            mIncident[i] = new int[4];
+        }
+        for (int e = 0; e < m; e++) {
+            // loops are never part of a shortest path.
+            if (from[e] == to[e])
+                continue;
+            addIncident(from[e], e);
+            addIncident(to[e], e);
+        }
+    }
+
+    /**
+     * Contracts every node, filling in <code>mRank</code> and adding the shortcut edges.
+     */
+    void contract() {
+        IndexedHeap queue = new IndexedHeap(mNodeCount);
+        for (int v = 0; v < mNodeCount; v++) {
+            queue.offer(v, priority(v));
+        }
+        int rank = 0;
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+            float priority = priority(v);
+            if (!queue.isEmpty() && priority > queue.peekKey()) {
+                // the priority was out of date; try again later.
+                queue.offer(v, priority);
+                continue;
+            }
+            contract(v, true);
+            mContracted[v] = true;
+            mRank[v] = rank++;
+            for (int i = 0; i < mNeighbourCount; i++) {
+                int u = mNeighbours[i];
+                mContractedNeighbours[u]++;
+                queue.update(u, queue.key(u) + 1);
+            }
+        }
+    }
+
+    private float priority(int v) {
+        int shortcuts = contract(v, false);
+        return shortcuts - mNeighbourCount + mContractedNeighbours[v];
+    }
+
+    /**
+     * Finds the shortcuts needed to contract <code>v</code>, and adds them if <code>add</code> is true.
+     * Leaves the uncontracted neighbours of <code>v</code> in <code>mNeighbours</code>.
+     *
+     * @return number of shortcuts needed.
+     */
+    private int contract(int v, boolean add) {
+        collectNeighbours(v);
+        int shortcuts = 0;
+        for (int i = 0; i < mNeighbourCount; i++) {
+            int u = mNeighbours[i];
+            if (i + 1 == mNeighbourCount)
+                break;
+            float toU = mWeight[mNeighbourEdges[i]];
+            float maxDistance = 0;
+            for (int j = i + 1; j < mNeighbourCount; j++) {
+                maxDistance = Math.max(maxDistance, toU + mWeight[mNeighbourEdges[j]]);
+            }
+            witnessSearch(u, v, maxDistance);
+            for (int j = i + 1; j < mNeighbourCount; j++) {
+                int w = mNeighbours[j];
+                float via = toU + mWeight[mNeighbourEdges[j]];
+                if (mWorkspace.distance(w) <= via)
+                    continue;
+                shortcuts++;
+                if (add)
+                    addShortcut(u, v, w, via, mNeighbourEdges[i], mNeighbourEdges[j]);
+            }
+        }
+        return shortcuts;
+    }
+
+    /**
+     * Collects the uncontracted neighbours of <code>v</code>, with the lightest edge to each.
+     */
+    private void collectNeighbours(int v) {
+        mNeighbourCount = 0;
+        int[] incident = mIncident[v];
+        for (int k = 0; k < mIncidentSize[v]; k++) {
+            int e = incident[k];
+            int u = mFrom[e] == v ? mTo[e] : mFrom[e];
+            if (mContracted[u])
+                continue;
+            int lightest = mLightest[u];
+            if (lightest == -1) {
+                mLightest[u] = mNeighbourCount;
+                if (mNeighbourCount == mNeighbours.length) {
+                    mNeighbours = Arrays.copyOf(mNeighbours, mNeighbourCount * 2);
+                    mNeighbourEdges = Arrays.copyOf(mNeighbourEdges, mNeighbourCount * 2);
+                }
+                mNeighbours[mNeighbourCount] = u;
+                mNeighbourEdges[mNeighbourCount++] = e;
+            } else if (mWeight[e] < mWeight[mNeighbourEdges[lightest]]) {
+                mNeighbourEdges[lightest] = e;
+            }
+        }
+        for (int i = 0; i < mNeighbourCount; i++) {
+            mLightest[mNeighbours[i]] = -1;
+        }
+    }
+
+    /**
+     * Runs Dijkstra from <code>source</code> over the uncontracted nodes other than <code>avoid</code>, until
+     * the distances up to <code>maxDistance</code> are settled or the settle limit is reached.
+     */
+    private void witnessSearch(int source, int avoid, float maxDistance) {
+        mWorkspace.reset(mNodeCount);
+        IndexedHeap heap = mWorkspace.heap(mNodeCount);
+        mWorkspace.setDistance(source, 0);
+        heap.offer(source, 0);
+        while (!heap.isEmpty() && mWorkspace.visitedCount() < WITNESS_SETTLE_LIMIT) {
+            if (heap.peekKey() > maxDistance)
+                break;
+            int x = heap.poll();
+            mWorkspace.visit(x);
+            float d = mWorkspace.distance(x);
+            int[] incident = mIncident[x];
+            for (int k = 0; k < mIncidentSize[x]; k++) {
+                int e = incident[k];
+                int y = mFrom[e] == x ? mTo[e] : mFrom[e];
+                if (y == avoid || mContracted[y] || mWorkspace.isVisited(y))
+                    continue;
+                float poss = d + mWeight[e];
+                if (poss < mWorkspace.distance(y)) {
+                    mWorkspace.setDistance(y, poss);
+                    heap.offer(y, poss);
+                }
+            }
+        }
+    }
+
+    private void addShortcut(int u, int v, int w, float weight, int childA, int childB) {
+        if (mEdgeCount == mFrom.length) {
+            int capacity = mEdgeCount * 2;
+            mFrom = Arrays.copyOf(mFrom, capacity);
+            mTo = Arrays.copyOf(mTo, capacity);
+            mWeight = Arrays.copyOf(mWeight, capacity);
+            mMiddle = Arrays.copyOf(mMiddle, capacity);
+            mChildA = Arrays.copyOf(mChildA, capacity);
+            mChildB = Arrays.copyOf(mChildB, capacity);
+        }
+        int e = mEdgeCount++;
+        mFrom[e] = u;
+        mTo[e] = w;
+        mWeight[e] = weight;
+        mMiddle[e] = v;
+        mChildA[e] = childA;
+        mChildB[e] = childB;
+        addIncident(u, e);
+        addIncident(w, e);
+    }
+
+    private void addIncident(int node, int edge) {
+        if (mIncidentSize[node] == mIncident[node].length)
+            mIncident[node] = Arrays.copyOf(mIncident[node], mIncidentSize[node] * 2);
+        mIncident[node][mIncidentSize[node]++] = edge;
+    }
+}
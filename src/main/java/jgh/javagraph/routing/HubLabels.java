@@ -0,0 +1,315 @@
+package jgh.javagraph.routing;
+
+import jgh.javagraph.CompactGraph;
+import jgh.javagraph.Graph;
+import jgh.javagraph.NodeIndex;
+import jgh.javagraph.WeightedEdge;
+import jgh.javagraph.algorithms.IndexedHeap;
+import jgh.javagraph.algorithms.TraversalWorkspace;
+
+import java.io.*;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * <i>2-hop hub labelling</i> of a static, undirected weighted graph, a distance oracle for read heavy
+ * workloads. Every node has a label: a list of <i>hubs</i> with the distance to each. Labels are built so that
+ * any two nodes share a hub on one of their minimum paths, so a query is a merge of two hub lists sorted by
+ * hub, with no graph search.
+ * <br>
+ * Labels are built by <i>pruned landmark labelling</i>. Nodes are taken in order of decreasing degree, and
+ * from each a Dijkstra search adds the node as a hub to the labels of the nodes it settles, except that the
+ * search is pruned at nodes whose distance the labels built so far already give.
+ * <br>
+ * The labels are held in three flat arrays, the start of each node's label, the hubs, and the distances, which
+ * <code>write</code> stores as they are and <code>map</code> memory maps from a file, so a large labelling can
+ * be queried without being read onto the heap. Queries may be run from several threads at once.
+ *
+ * @param <N> Node type
+ */
+public final class HubLabels<N> {
+
+    private static final int MAGIC = 0x4a47484c;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    /**
+     * Ids of the nodes, those of the compact snapshot the labels were built from.
+     */
+    private final NodeIndex<N> mIndex;
+
+    // label of node u is [mOffsets[u], mOffsets[u + 1]) of mHubs and mDistances, sorted by hub.
+    private final IntBuffer mOffsets;
+    private final IntBuffer mHubs;
+    private final FloatBuffer mDistances;
+
+    private HubLabels(NodeIndex<N> index, IntBuffer offsets, IntBuffer hubs, FloatBuffer distances) {
+        mIndex = index;
+        mOffsets = offsets;
+        mHubs = hubs;
+        mDistances = distances;
+    }
+
+    /**
+     * Builds the hub labels of the graph. Edges are treated as undirected, and their weights must be
+     * non-negative.
+     *
+     * @param graph weighted graph
+     * @param <N>   Node type
+     * @param <E>   Weighted edge type
+     * @return hub labels of the graph.
+     */
+    public static <N, E extends WeightedEdge<N>> HubLabels<N> build(Graph<N, E> graph) {
+        CompactGraph<N, E> compact = graph.freeze();
+        int n = compact.nodeCount();
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        // ids follow the graph's insertion order, often row by row, so ties are broken by the bit reversed id,
+        // which spreads the first hubs of equal degree over the graph.
+        Arrays.sort(order, Comparator.comparingInt((Integer u) -> -compact.degree(u))
+                .thenComparingInt(Integer::reverse));
+
+        // labels under construction. Hubs are ranks in the order, so each label is sorted as it grows.
+        int[][] hubs = new int[n][];
+        float[][] distances = new float[n][];
+        int[] sizes = new int[n];
+        for (int i = 0; i < n; i++) {
+            hubs[i] = new int[4];
+            distances[i] = new float[4];
+        }
+
+        // distance from the current root to each of the hubs of its label.
+        float[] rootDistance = new float[n];
+        Arrays.fill(rootDistance, Float.MAX_VALUE);
+        TraversalWorkspace workspace = new TraversalWorkspace();
+        for (int rank = 0; rank < n; rank++) {
+            int root = order[rank];
+            for (int k = 0; k < sizes[root]; k++) {
+                rootDistance[hubs[root][k]] = distances[root][k];
+            }
+            workspace.reset(n);
+            IndexedHeap heap = workspace.heap(n);
+            workspace.setDistance(root, 0);
+            heap.offer(root, 0);
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                workspace.visit(u);
+                float d = workspace.distance(u);
+                if (covered(hubs[u], distances[u], sizes[u], rootDistance, d))
+                    continue;
+                if (sizes[u] == hubs[u].length) {
+                    hubs[u] = Arrays.copyOf(hubs[u], sizes[u] * 2);
+                    distances[u] = Arrays.copyOf(distances[u], sizes[u] * 2);
+                }
+                hubs[u][sizes[u]] = rank;
+                distances[u][sizes[u]++] = d;
+                for (int a = compact.arcStart(u); a < compact.arcEnd(u); a++) {
+                    int v = compact.target(a);
+                    if (workspace.isVisited(v))
+                        continue;
+                    float poss = d + compact.weight(a);
+                    if (poss < workspace.distance(v)) {
+                        workspace.setDistance(v, poss);
+                        heap.offer(v, poss);
+                    }
+                }
+            }
+            for (int k = 0; k < sizes[root]; k++) {
+                rootDistance[hubs[root][k]] = Float.MAX_VALUE;
+            }
+        }
+
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = offsets[u] + sizes[u];
+        }
+        int[] flatHubs = new int[offsets[n]];
+        float[] flatDistances = new float[offsets[n]];
+        for (int u = 0; u < n; u++) {
+            System.arraycopy(hubs[u], 0, flatHubs, offsets[u], sizes[u]);
+            System.arraycopy(distances[u], 0, flatDistances, offsets[u], sizes[u]);
+        }
+        return new HubLabels<N>(compact.getNodeIndex(), IntBuffer.wrap(offsets), IntBuffer.wrap(flatHubs),
+                FloatBuffer.wrap(flatDistances));
+    }
+
+    /**
+     * Returns true if the label gives a distance to the root no greater than <code>distance</code>.
+     */
+    private static boolean covered(int[] hubs, float[] distances, int size, float[] rootDistance, float distance) {
+        for (int k = 0; k < size; k++) {
+            float via = rootDistance[hubs[k]];
+            if (via != Float.MAX_VALUE && via + distances[k] <= distance)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the nodes of the labelling, in the order <code>read</code> and <code>map</code> expect them.
+     *
+     * @return list of nodes.
+     */
+    public List<N> getNodes() {
+        return mIndex.nodes();
+    }
+
+    /**
+     * Returns the total number of hubs in all labels.
+     *
+     * @return number of label entries.
+     */
+    public int getLabelSize() {
+        return mOffsets.get(mIndex.size());
+    }
+
+    /**
+     * Returns the minimum distance between two nodes, or <code>Float.MAX_VALUE</code> if there is no path.
+     *
+     * @param start  start node
+     * @param finish finish node
+     * @return minimum distance.
+     */
+    public float distance(N start, N finish) {
+        int s = id(start);
+        int t = id(finish);
+        if (s == t)
+            return 0;
+        int i = mOffsets.get(s);
+        int iEnd = mOffsets.get(s + 1);
+        int j = mOffsets.get(t);
+        int jEnd = mOffsets.get(t + 1);
+        float best = Float.MAX_VALUE;
+        while (i < iEnd && j < jEnd) {
+            int a = mHubs.get(i);
+            int b = mHubs.get(j);
+            if (a < b) {
+                i++;
+            } else if (a > b) {
+                j++;
+            } else {
+                best = Math.min(best, mDistances.get(i++) + mDistances.get(j++));
+            }
+        }
+        return best;
+    }
+
+    private int id(N node) {
+        int id = mIndex.id(node);
+        if (id == -1)
+            throw new IllegalArgumentException("Node is not part of the hub labelling.");
+        return id;
+    }
+
+    /**
+     * Writes the labels to the stream: a header, then the label starts, the hubs and the distances, as
+     * big-endian ints and floats. Nodes are written as their index in <code>getNodes()</code>, so the same node
+     * list must be given to <code>read</code> or <code>map</code>.
+     *
+     * @param out output stream
+     * @throws IOException if the stream cannot be written.
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        int n = mIndex.size();
+        int size = getLabelSize();
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(n);
+        data.writeInt(size);
+        for (int i = 0; i <= n; i++) {
+            data.writeInt(mOffsets.get(i));
+        }
+        for (int i = 0; i < size; i++) {
+            data.writeInt(mHubs.get(i));
+        }
+        for (int i = 0; i < size; i++) {
+            data.writeFloat(mDistances.get(i));
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads labels written by <code>write(OutputStream)</code> onto the heap.
+     *
+     * @param in    input stream
+     * @param nodes the nodes of the labelling, in the order of its <code>getNodes()</code>
+     * @param <N>   Node type
+     * @return hub labels.
+     * @throws IOException if the stream cannot be read, or does not hold labels of the given nodes.
+     */
+    public static <N> HubLabels<N> read(InputStream in, List<N> nodes) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        int size = readHeader(data.readInt(), data.readInt(), data.readInt(), data.readInt(), nodes);
+        int[] offsets = new int[nodes.size() + 1];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = data.readInt();
+        }
+        int[] hubs = new int[size];
+        for (int i = 0; i < size; i++) {
+            hubs[i] = data.readInt();
+        }
+        float[] distances = new float[size];
+        for (int i = 0; i < size; i++) {
+            distances[i] = data.readFloat();
+        }
+        return new HubLabels<N>(NodeIndex.of(nodes), IntBuffer.wrap(offsets), IntBuffer.wrap(hubs),
+                FloatBuffer.wrap(distances));
+    }
+
+    /**
+     * Memory maps labels written by <code>write(OutputStream)</code> to a file. The labels are read from the
+     * file as they are queried, rather than copied onto the heap, and the mapping stays valid after the file
+     * is closed. The file must be no larger than 2GB.
+     *
+     * @param file  file holding the labels
+     * @param nodes the nodes of the labelling, in the order of its <code>getNodes()</code>
+     * @param <N>   Node type
+     * @return hub labels.
+     * @throws IOException if the file cannot be mapped, or does not hold labels of the given nodes.
+     */
+    public static <N> HubLabels<N> map(Path file, List<N> nodes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Hub label file is too large to map.");
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES)
+                throw new IOException("File does not hold hub labels.");
+            int size = readHeader(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt(), nodes);
+            long expected = HEADER_BYTES + 4L * (nodes.size() + 1) + 8L * size;
+            if (channel.size() < expected)
+                throw new IOException("Hub label file is truncated.");
+            IntBuffer offsets = slice(buffer, HEADER_BYTES).asIntBuffer();
+            IntBuffer hubs = slice(buffer, HEADER_BYTES + 4 * (nodes.size() + 1)).asIntBuffer();
+            FloatBuffer distances = slice(buffer, HEADER_BYTES + 4 * (nodes.size() + 1) + 4 * size)
+                    .asFloatBuffer();
+            return new HubLabels<N>(NodeIndex.of(nodes), offsets, hubs, distances);
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int position) {
+        ByteBuffer copy = buffer.duplicate();
+        // through Buffer, since ByteBuffer.position(int) only exists from Java 9.
+        ((Buffer) copy).position(position);
+        return copy.slice();
+    }
+
+    /**
+     * Checks the header and returns the number of label entries.
+     */
+    private static int readHeader(int magic, int version, int n, int size, List<?> nodes) throws IOException {
+        if (magic != MAGIC || version != VERSION)
+            throw new IOException("Stream does not hold hub labels.");
+        if (n != nodes.size())
+            throw new IOException("Hub labels have " + n + " nodes, but " + nodes.size() + " were given.");
+        return size;
+    }
+}
@@ -0,0 +1,149 @@
+package jgh.javagraph.routing;
+
+import jgh.javagraph.Graph;
+import jgh.javagraph.NodeIndex;
+import jgh.javagraph.WeightedEdge;
+import jgh.javagraph.algorithms.AStar;
+import jgh.javagraph.algorithms.Dijkstra;
+import jgh.javagraph.algorithms.ShortestPathTree;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * <i>ALT</i> heuristic for <code>AStar</code>, which needs no node coordinates. Distances from a few
+ * <i>landmark</i> nodes to every node are found up front, and by the triangle inequality
+ * <i>|d(L, goal) - d(L, t)|</i> is a lower bound on the distance from <i>t</i> to the goal, for each landmark
+ * <i>L</i>. The heuristic is the largest of these bounds, so it never overestimates and <i>A*</i> still finds
+ * minimum paths. Edges are treated as undirected, and their weights must be non-negative.
+ * <br>
+ * The heuristic is a snapshot of the graph's distances. If the graph changes it must be built again.
+ *
+ * @param <N> Node type
+ */
+public final class LandmarkHeuristic<N> implements AStar.IAStarHeuristic<N> {
+
+    /**
+     * How the landmarks are chosen.
+     */
+    public enum Selection {
+        /**
+         * Each landmark is the node farthest from the landmarks chosen before it, starting from an arbitrary
+         * node. Landmarks end up spread around the edges of the graph, which gives the tightest bounds, but
+         * each distance search must finish before the next landmark can be chosen.
+         */
+        FARTHEST,
+
+        /**
+         * The landmarks are the nodes of highest degree. The distance searches run in parallel.
+         */
+        DEGREE
+    }
+
+    private final NodeIndex<N> mIndex;
+    private final ArrayList<N> mLandmarks;
+
+    /**
+     * Distance from each landmark to each node id, <code>Float.MAX_VALUE</code> if unreachable.
+     */
+    private final float[][] mDistances;
+
+    /**
+     * Chooses <code>k</code> landmarks of the graph and finds their distances to every node.
+     *
+     * @param graph     weighted graph
+     * @param k         number of landmarks. If the graph has fewer nodes, every node is a landmark.
+     * @param selection how the landmarks are chosen
+     * @param <E>       Weighted edge type
+     */
+    public <E extends WeightedEdge<N>> LandmarkHeuristic(Graph<N, E> graph, int k, Selection selection) {
+        if (k < 1)
+            throw new IllegalArgumentException("At least one landmark is needed.");
+        mIndex = graph.getNodeIndex();
+        k = Math.min(k, mIndex.count());
+        mLandmarks = new ArrayList<N>(k);
+        mDistances = new float[k][];
+        if (selection == Selection.FARTHEST) {
+            chooseFarthest(graph, k);
+        } else {
+            chooseByDegree(graph, k);
+        }
+    }
+
+    private <E extends WeightedEdge<N>> void chooseFarthest(Graph<N, E> graph, int k) {
+        int n = mIndex.size();
+        // smallest distance from each node to the landmarks chosen so far.
+        float[] nearest = new float[n];
+        Arrays.fill(nearest, Float.MAX_VALUE);
+        N next = graph.getNodes().iterator().next();
+        for (int l = 0; l < k; l++) {
+            mLandmarks.add(next);
+            mDistances[l] = distancesFrom(graph, next);
+            next = null;
+            float farthest = -1;
+            for (int i = 0; i < n; i++) {
+                N node = mIndex.node(i);
+                if (node == null)
+                    continue;
+                nearest[i] = Math.min(nearest[i], mDistances[l][i]);
+                // unreachable nodes come first, so every connected component gets a landmark.
+                if (nearest[i] > farthest) {
+                    farthest = nearest[i];
+                    next = node;
+                }
+            }
+        }
+    }
+
+    private <E extends WeightedEdge<N>> void chooseByDegree(Graph<N, E> graph, int k) {
+        ArrayList<N> nodes = new ArrayList<N>(graph.getNodes());
+        nodes.sort(Comparator.comparingInt(graph::degree).reversed());
+        mLandmarks.addAll(nodes.subList(0, k));
+        IntStream.range(0, k).parallel().forEach(l -> mDistances[l] = distancesFrom(graph, mLandmarks.get(l)));
+    }
+
+    private <E extends WeightedEdge<N>> float[] distancesFrom(Graph<N, E> graph, N landmark) {
+        ShortestPathTree<N> tree = Dijkstra.shortestPathTree(graph, landmark);
+        float[] distances = new float[mIndex.size()];
+        for (int i = 0; i < distances.length; i++) {
+            N node = mIndex.node(i);
+            distances[i] = node == null ? Float.MAX_VALUE : tree.getDistance(node);
+        }
+        return distances;
+    }
+
+    /**
+     * Returns the landmarks, in the order they were chosen.
+     *
+     * @return list of landmarks.
+     */
+    public List<N> getLandmarks() {
+        return Collections.unmodifiableList(mLandmarks);
+    }
+
+    /**
+     * Returns the largest landmark lower bound on the distance from <code>t</code> to <code>goal</code>.
+     * Landmarks which cannot reach both nodes give no bound. Nodes added to the graph after the heuristic was
+     * built have a heuristic of 0.
+     *
+     * @param t    node
+     * @param goal the goal node
+     * @return lower bound on the distance.
+     */
+    @Override
+    public float getHeuristic(N t, N goal) {
+        int a = mIndex.id(t);
+        int b = mIndex.id(goal);
+        if (a == -1 || b == -1 || a >= mDistances[0].length || b >= mDistances[0].length)
+            return 0;
+        float bound = 0;
+        for (float[] distances : mDistances) {
+            float da = distances[a];
+            float db = distances[b];
+            if (da == Float.MAX_VALUE || db == Float.MAX_VALUE)
+                continue;
+            bound = Math.max(bound, Math.abs(db - da));
+        }
+        return bound;
+    }
+}
@@ -38,6 +38,100 @@ public class SpanningTree {
         return stEdges;
     }
 
+    /**
+     * Generates the minimum spanning tree of the <b><i>connected</i></b>, compact weighted graph,
+     * using <i>Kruskal's algorithm</i> over the edge indices of the snapshot and an array based
+     * union-find. If the graph is not connected then a minimum spanning forest is returned.
+     *
+     * @param weightedGraph connected, compact weighted graph
+     * @return List of edges in minimum spanning tree.
+     */
+    public static <N, E extends WeightedEdge<N>> ArrayList<E> generateMinimumSpanningTree(CompactGraph<N, E> weightedGraph) {
+        int m = weightedGraph.edgeCount();
+        // sort the edge indices by weight, keeping ties in edge index order.
+        long[] order = new long[m];
+        for (int i = 0; i < m; i++) {
+            int bits = Float.floatToIntBits(weightedGraph.edge(i).getWeight());
+            bits ^= (bits >> 31) & 0x7fffffff;
+            order[i] = ((long) bits << 32) | i;
+        }
+        Arrays.sort(order);
+
+        int[] parent = createForest(weightedGraph.nodeCount());
+        ArrayList<E> stEdges = new ArrayList<E>();
+        for (long key : order) {
+            int e = (int) (key & 0xffffffffL);
+            if (union(parent, weightedGraph.edgeFrom(e), weightedGraph.edgeTo(e))) {
+                stEdges.add(weightedGraph.edge(e));
+            }
+        }
+        return stEdges;
+    }
+
+    /**
+     * Generates some spanning tree for the <i>connected</i> compact graph, from a <i>BFS</i>
+     * starting at the node with id 0. If the graph is not connected then the edges form a spanning
+     * tree of the connected component containing that node.
+     *
+     * @param graph compact graph
+     * @param <E>   edge type
+     * @return list of edges forming a spanning tree
+     */
+    public static <N, E extends IEdge<N>> ArrayList<E> generateSpanningTree(CompactGraph<N, E> graph) {
+        ArrayList<E> stEdges = new ArrayList<E>();
+        int n = graph.nodeCount();
+        if (n == 0)
+            return stEdges;
+        boolean[] visited = new boolean[n];
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = 0;
+        visited[0] = true;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int a = graph.arcStart(u); a < graph.arcEnd(u); a++) {
+                int v = graph.target(a);
+                if (!visited[v]) {
+                    visited[v] = true;
+                    queue[tail++] = v;
+                    stEdges.add(graph.edge(graph.edgeIndex(a)));
+                }
+            }
+        }
+        return stEdges;
+    }
+
+    private static int[] createForest(int size) {
+        int[] parent = new int[size];
+        for (int i = 0; i < size; i++) {
+            parent[i] = i;
+        }
+        return parent;
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /**
+     * Joins the sets containing <code>x</code> and <code>y</code>.
+     *
+     * @return false if they were already in the same set.
+     */
+    private static boolean union(int[] parent, int x, int y) {
+        int rx = find(parent, x);
+        int ry = find(parent, y);
+        if (rx == ry)
+            return false;
+        parent[ry] = rx;
+        return true;
+    }
+
     /**
      * Generates some spanning tree for the <i>connected<i> graph. The graph is assumed to be connected,
      * so if an unconnected graph is used as an argument, the algorithm will return a list of
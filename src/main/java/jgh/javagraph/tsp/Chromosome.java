@@ -30,6 +30,12 @@ public class Chromosome<N, W extends WeightedEdge<N>> implements Comparable<Chro
     private Graph<N,W> mGraph;
     private ArrayList<N> mOrderedNodeList;
 
+    /**
+     * Distance between each pair of nodes, by index in the ordered node list, or <code>null</code> if
+     * costs are taken from the edges of the graph.
+     */
+    private float[][] mDistances;
+
     /**
      * Instantiate a single chromosome.
      *
@@ -39,6 +45,26 @@ public class Chromosome<N, W extends WeightedEdge<N>> implements Comparable<Chro
         //ArrayList<N> nodes = new ArrayList<>(graph.getNodes());
         mOrderedNodeList = orderedNodeList;
         mGraph = graph;
+        shuffle();
+    }
+
+    /**
+     * Instantiate a single chromosome whose costs come from a distance matrix, such as one from
+     * <code>DistanceMatrix.compute</code>.
+     *
+     * @param distances       distance between each pair of nodes, by index in <code>orderedNodeList</code>
+     * @param orderedNodeList nodes
+     */
+    public Chromosome(float[][] distances, ArrayList<N> orderedNodeList) {
+        mOrderedNodeList = orderedNodeList;
+        mDistances = distances;
+        shuffle();
+    }
+
+    /**
+     * Sets a random node order.
+     */
+    private void shuffle() {
         mNodes = new int[mOrderedNodeList.size()];
 
         boolean taken[] = new boolean[mNodes.length];
@@ -62,12 +88,19 @@ public class Chromosome<N, W extends WeightedEdge<N>> implements Comparable<Chro
 
     /**
      * Calculates the cost function for this chromosome. This is the distance necessary
-     * to travel in a hamiltonian cycle around the graph.
+     * to travel in a hamiltonian cycle around the graph. If the chromosome has a distance matrix
+     * the costs are taken from it, and the graph is not used.
      *
      * @param graph    Complete Graph
      */
     public void calculateCost(Graph<N,W> graph) {
         mCost = 0;
+        if (mDistances != null) {
+            for (int i = 0; i < mNodes.length; i++) {
+                mCost += mDistances[mNodes[i]][mNodes[(i + 1) % mNodes.length]];
+            }
+            return;
+        }
         for (int i = 0; i < mOrderedNodeList.size() - 1; i++) {
             N n = mOrderedNodeList.get(mNodes[i]);
             N m = mOrderedNodeList.get(mNodes[i + 1]);
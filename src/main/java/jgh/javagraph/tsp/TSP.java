@@ -42,7 +42,7 @@ public class TSP {
                 continue;
             nodeMap.get(nodes.get(i)).setVisited(true);
             int d1 = graph.degree(nodes.get(i));
-            HashSet<N> adj = new HashSet<N>(Utilities.getAdjacentUnvisited(nodeMap, graph.getEdges(), nodes.get(i)));
+            HashSet<N> adj = new HashSet<N>(Utilities.getAdjacentUnvisited(nodeMap, graph, nodes.get(i)));
             HashSet<N> notAdj = new HashSet<N>(graph.getNodes());
             notAdj.removeAll(adj);
             for (N n : notAdj) {
@@ -69,13 +69,6 @@ public class TSP {
         if (graph.getNodes().size() < 3)
             return false;
 
-        int minDegree = Integer.MAX_VALUE;
-        for (N n : graph.getNodes()) {
-            int d = graph.degree(n);
-            if (d < minDegree)
-                minDegree = d;
-        }
-
-        return minDegree >= graph.getNodes().size() * 0.5f;
+        return graph.getMinDegree() >= graph.getNodes().size() * 0.5f;
     }
 }
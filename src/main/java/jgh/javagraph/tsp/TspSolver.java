@@ -55,6 +55,41 @@ public class TspSolver<N, E extends WeightedEdge<N>> {
         Collections.sort(mChromosomes, new ChromosomeComparator());
     }
 
+    /**
+     * Instantiates an instance of a TspSolver which takes its costs from a distance matrix, so the nodes need
+     * not form a complete graph. The matrix can be found with <code>DistanceMatrix.compute(graph, nodes)</code>,
+     * which gives the minimum path distance between each pair of nodes.
+     *
+     * @param nodes     nodes to visit
+     * @param distances distance between each pair of nodes, by index in <code>nodes</code>
+     * @throws AlgorithmException if some node cannot be reached from another.
+     */
+    public TspSolver(ArrayList<N> nodes, float[][] distances) throws AlgorithmException {
+        if (distances.length != nodes.size())
+            throw new IllegalArgumentException("The distance matrix must have a row for each node.");
+        for (float[] row : distances) {
+            if (row.length != nodes.size())
+                throw new IllegalArgumentException("The distance matrix must have a column for each node.");
+            for (float distance : row) {
+                if (distance == Float.MAX_VALUE)
+                    throw new AlgorithmException("TspSolver needs a path between every pair of nodes.");
+            }
+        }
+        mNodeList = new ArrayList<>(nodes);
+        mNodeCount = nodes.size();
+        mPopulation = 800;
+        mMatingPopulation = (int) (mPopulation * 0.5f);
+
+        mSelectedPopulation = (int) (mMatingPopulation * 0.5f);
+
+        mChromosomes = new ArrayList<Chromosome<N,E>>(mPopulation);
+        for (int i = 0; i < mPopulation; i++) {
+            mChromosomes.add(new Chromosome<N,E>(distances, mNodeList));
+        }
+
+        Collections.sort(mChromosomes, new ChromosomeComparator());
+    }
+
     /**
      * Solve the <i>TSP</i> problem, heuristically.
      */
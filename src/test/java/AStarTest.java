@@ -1,12 +1,16 @@
 import jgh.javagraph.Graph;
 import jgh.javagraph.WeightedEdge;
+import jgh.javagraph.CompactGraph;
 import jgh.javagraph.algorithms.AStar;
+import jgh.javagraph.algorithms.Dijkstra;
 import jgh.javagraph.generation.NodeGeneration;
 import junit.framework.Assert;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Random;
 
 
 public class AStarTest {
@@ -308,4 +312,56 @@ public class AStarTest {
 
     }
 
+    @Test
+    public void AStarGridTest(){
+        // 200 x 200 grid with a fifth of the cells blocked, and the Manhattan distance as the heuristic.
+        final int size = 200;
+        final NodeGeneration.BasicNode[] cells = new NodeGeneration.BasicNode[size * size];
+        final HashMap<NodeGeneration.BasicNode, Integer> position = new HashMap<>();
+        Random random = new Random(5);
+        for (int i = 0; i < cells.length; i++) {
+            if (random.nextInt(5) > 0 || i == 0 || i == cells.length - 1) {
+                cells[i] = new NodeGeneration.BasicNode("" + i);
+                position.put(cells[i], i);
+            }
+        }
+        ArrayList<WeightedEdge<NodeGeneration.BasicNode>> list = new ArrayList<>();
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == null)
+                continue;
+            if (i % size < size - 1 && cells[i + 1] != null)
+                list.add(new WeightedEdge<>(cells[i], cells[i + 1], 1));
+            if (i + size < cells.length && cells[i + size] != null)
+                list.add(new WeightedEdge<>(cells[i], cells[i + size], 1));
+        }
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = new Graph<>(list);
+        CompactGraph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> compact = g.freeze();
+        AStar.IAStarHeuristic<NodeGeneration.BasicNode> manhattan = new AStar.IAStarHeuristic<NodeGeneration.BasicNode>() {
+            @Override
+            public float getHeuristic(NodeGeneration.BasicNode t, NodeGeneration.BasicNode goal) {
+                int a = position.get(t);
+                int b = position.get(goal);
+                return Math.abs(a % size - b % size) + Math.abs(a / size - b / size);
+            }
+        };
+
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(g.getNodes());
+        for (int q = 0; q < 20; q++) {
+            NodeGeneration.BasicNode s = nodes.get(random.nextInt(nodes.size()));
+            NodeGeneration.BasicNode f = nodes.get(random.nextInt(nodes.size()));
+            ArrayList<NodeGeneration.BasicNode> expected = Dijkstra.findMinPath(g, s, f);
+            ArrayList<NodeGeneration.BasicNode> path = AStar.findMinPath(g, s, f, manhattan);
+            ArrayList<NodeGeneration.BasicNode> compactPath = AStar.findMinPath(compact, s, f, manhattan);
+            if (expected.isEmpty()) {
+                Assert.assertEquals(1, path.size());
+                Assert.assertEquals(1, compactPath.size());
+                continue;
+            }
+            Assert.assertEquals(expected.size(), path.size());
+            Assert.assertEquals(expected.size(), compactPath.size());
+            Assert.assertEquals(s, path.get(0));
+            Assert.assertEquals(f, compactPath.get(compactPath.size() - 1));
+        }
+    }
+
 }
@@ -0,0 +1,96 @@
+import jgh.javagraph.*;
+import jgh.javagraph.algorithms.AlgorithmException;
+import jgh.javagraph.algorithms.AllPairs;
+import jgh.javagraph.algorithms.Dijkstra;
+import jgh.javagraph.algorithms.ShortestPathTree;
+import jgh.javagraph.generation.NodeGeneration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Tests for the all pairs shortest path algorithms.
+ */
+public class AllPairsTest {
+
+    @Test
+    public void floydWarshallTest() throws AlgorithmException {
+        // more nodes than one tile, so the row, column and remaining tile phases all run.
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(150));
+        Random random = new Random(3);
+        ArrayList<WeightedEdge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            for (int j = 0; j < 3; j++) {
+                edges.add(new WeightedEdge<>(nodes.get(i), nodes.get(random.nextInt(nodes.size())),
+                        1 + random.nextFloat() * 9));
+            }
+        }
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = new Graph<>(edges);
+        AllPairs.Distances<NodeGeneration.BasicNode> distances = AllPairs.floydWarshall(g);
+        for (NodeGeneration.BasicNode s : g.getNodes()) {
+            ShortestPathTree<NodeGeneration.BasicNode> tree = Dijkstra.shortestPathTree(g, s);
+            for (NodeGeneration.BasicNode t : g.getNodes()) {
+                Assert.assertEquals(tree.getDistance(t), distances.getDistance(s, t), 1e-3f);
+            }
+        }
+        float[][] matrix = distances.toArray();
+        Assert.assertEquals(g.getNodes().size(), matrix.length);
+        Assert.assertEquals(distances.getDistance(distances.getNodes().get(4), distances.getNodes().get(7)),
+                matrix[4][7], 0);
+    }
+
+    @Test
+    public void johnsonTest() throws AlgorithmException {
+        // edges only go from lower to higher index, so negative weights make no cycles.
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(100));
+        Random random = new Random(5);
+        ArrayList<DirectedWeightedEdge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            for (int j = 0; j < 4; j++) {
+                int k = i + 1 + random.nextInt(20);
+                if (k >= nodes.size())
+                    continue;
+                Direction direction = random.nextBoolean() ? Direction.FORWARDS : Direction.BACKWARDS;
+                NodeGeneration.BasicNode from = direction == Direction.FORWARDS ? nodes.get(i) : nodes.get(k);
+                NodeGeneration.BasicNode to = direction == Direction.FORWARDS ? nodes.get(k) : nodes.get(i);
+                edges.add(new DirectedWeightedEdge<>(from, to, random.nextFloat() * 10 - 4, direction));
+            }
+        }
+        Graph<NodeGeneration.BasicNode, DirectedWeightedEdge<NodeGeneration.BasicNode>> g = new Graph<>(edges);
+        AllPairs.Distances<NodeGeneration.BasicNode> johnson = AllPairs.johnson(g);
+        AllPairs.Distances<NodeGeneration.BasicNode> floyd = AllPairs.floydWarshall(g);
+        int reachable = 0;
+        for (NodeGeneration.BasicNode s : g.getNodes()) {
+            for (NodeGeneration.BasicNode t : g.getNodes()) {
+                Assert.assertEquals(floyd.getDistance(s, t), johnson.getDistance(s, t), 1e-3f);
+                if (johnson.getDistance(s, t) != Float.MAX_VALUE)
+                    reachable++;
+            }
+        }
+        Assert.assertTrue(reachable > g.getNodes().size());
+    }
+
+    @Test
+    public void negativeCycleTest() {
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(3));
+        ArrayList<DirectedWeightedEdge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        edges.add(new DirectedWeightedEdge<>(nodes.get(0), nodes.get(1), 1, Direction.FORWARDS));
+        edges.add(new DirectedWeightedEdge<>(nodes.get(1), nodes.get(2), -3, Direction.FORWARDS));
+        edges.add(new DirectedWeightedEdge<>(nodes.get(2), nodes.get(0), 1, Direction.FORWARDS));
+        Graph<NodeGeneration.BasicNode, DirectedWeightedEdge<NodeGeneration.BasicNode>> g = new Graph<>(edges);
+        try {
+            AllPairs.johnson(g);
+            Assert.fail();
+        } catch (AlgorithmException e) {
+            // expected
+        }
+        try {
+            AllPairs.floydWarshall(g);
+            Assert.fail();
+        } catch (AlgorithmException e) {
+            // expected
+        }
+    }
+}
@@ -2,11 +2,15 @@ import jgh.javagraph.*;
 import jgh.javagraph.algorithms.AStar;
 import jgh.javagraph.algorithms.AlgorithmException;
 import jgh.javagraph.algorithms.BellmanFord;
+import jgh.javagraph.algorithms.NegativeCycleException;
 import jgh.javagraph.generation.NodeGeneration;
 import junit.framework.Assert;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 
 public class BellmanFordTest {
@@ -61,4 +65,164 @@ public class BellmanFordTest {
             Assert.fail("Failure: Bellman Ford test algorithm exception, "+e.getMessage());
         }
     }
+
+    @Test
+    public void SpfaTest() throws AlgorithmException {
+        // edges only go from lower to higher index, so negative weights make no cycles.
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(80));
+        Random random = new Random(17);
+        ArrayList<DirectedWeightedEdge<NodeGeneration.BasicNode>> list = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            for (int j = 0; j < 3; j++) {
+                int k = i + 1 + random.nextInt(10);
+                if (k < nodes.size())
+                    list.add(new DirectedWeightedEdge<>(nodes.get(i), nodes.get(k), random.nextFloat() * 10 - 3,
+                            Direction.FORWARDS));
+            }
+        }
+        Graph<NodeGeneration.BasicNode, DirectedWeightedEdge<NodeGeneration.BasicNode>> g = new Graph<>(list);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (NodeGeneration.BasicNode target : g.getNodes()) {
+            ArrayList<NodeGeneration.BasicNode> expected = BellmanFord.findMinPath(g, nodes.get(0), target);
+            ArrayList<NodeGeneration.BasicNode> path = BellmanFord.findMinPathSpfa(g, nodes.get(0), target);
+            Assert.assertEquals(expected.size() == 0, path.size() == 0);
+            Assert.assertEquals(TestGraphs.pathWeight(list, expected), TestGraphs.pathWeight(list, path), 1e-3f);
+            ArrayList<NodeGeneration.BasicNode> parallel = BellmanFord.findMinPathParallel(g, nodes.get(0), target,
+                    pool);
+            Assert.assertEquals(expected.size() == 0, parallel.size() == 0);
+            Assert.assertEquals(TestGraphs.pathWeight(list, expected), TestGraphs.pathWeight(list, parallel), 1e-3f);
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void ParallelTest() throws AlgorithmException {
+        // enough arcs for several parallel chunks. Negative weights only go forwards from lower to higher
+        // index, and two-way and backwards edges are positive, so there are no negative cycles.
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(20000));
+        Random random = new Random(23);
+        ArrayList<DirectedWeightedEdge<NodeGeneration.BasicNode>> list = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            for (int j = 0; j < 2; j++) {
+                int k = i + 1 + random.nextInt(50);
+                if (k >= nodes.size())
+                    continue;
+                Direction direction = Direction.values()[random.nextInt(3)];
+                float weight = direction == Direction.FORWARDS ? random.nextFloat() * 10 - 2 : 5 + random.nextFloat();
+                list.add(new DirectedWeightedEdge<>(nodes.get(i), nodes.get(k), weight, direction));
+            }
+        }
+        Graph<NodeGeneration.BasicNode, DirectedWeightedEdge<NodeGeneration.BasicNode>> g = new Graph<>(list);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int t = 0; t < 5; t++) {
+            NodeGeneration.BasicNode target = nodes.get(random.nextInt(nodes.size()));
+            ArrayList<NodeGeneration.BasicNode> expected = BellmanFord.findMinPathSpfa(g, nodes.get(0), target);
+            ArrayList<NodeGeneration.BasicNode> parallel = BellmanFord.findMinPathParallel(g, nodes.get(0), target,
+                    pool);
+            Assert.assertEquals(expected.size() == 0, parallel.size() == 0);
+            Assert.assertEquals(TestGraphs.pathWeight(list, expected), TestGraphs.pathWeight(list, parallel), 1e-2f);
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void ParallelNegativeCycleTest() {
+        // random forward edges over several parallel chunks, a chain to make every node reachable, and one
+        // heavy negative edge back to the start.
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(3000));
+        Random random = new Random(31);
+        ArrayList<DirectedWeightedEdge<NodeGeneration.BasicNode>> list = new ArrayList<>();
+        for (int i = 0; i + 1 < nodes.size(); i++) {
+            list.add(new DirectedWeightedEdge<>(nodes.get(i), nodes.get(i + 1), 1, Direction.FORWARDS));
+            for (int j = 0; j < 6; j++) {
+                int k = i + 2 + random.nextInt(50);
+                if (k < nodes.size())
+                    list.add(new DirectedWeightedEdge<>(nodes.get(i), nodes.get(k), random.nextFloat() * 10 - 2,
+                            Direction.FORWARDS));
+            }
+        }
+        list.add(new DirectedWeightedEdge<>(nodes.get(nodes.size() - 1), nodes.get(0), -100000, Direction.FORWARDS));
+        Graph<NodeGeneration.BasicNode, DirectedWeightedEdge<NodeGeneration.BasicNode>> g = new Graph<>(list);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            BellmanFord.findMinPathParallel(g, nodes.get(0), nodes.get(10), pool);
+            Assert.fail("Negative cycle not found.");
+        } catch (NegativeCycleException e) {
+            List<?> cycle = e.getCycle();
+            Assert.assertFalse(cycle.isEmpty());
+            float weight = 0;
+            for (int i = 0; i < cycle.size(); i++) {
+                float w = TestGraphs.edgeWeight(list, (NodeGeneration.BasicNode) cycle.get(i),
+                        (NodeGeneration.BasicNode) cycle.get((i + 1) % cycle.size()));
+                Assert.assertTrue(w != Float.MAX_VALUE);
+                weight += w;
+            }
+            Assert.assertTrue(weight < 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void NegativeCycleTest() {
+        // exchange rates as -log weights; A -> B -> C -> A is an arbitrage loop.
+        NodeGeneration.BasicNode a = new NodeGeneration.BasicNode("A");
+        NodeGeneration.BasicNode b = new NodeGeneration.BasicNode("B");
+        NodeGeneration.BasicNode c = new NodeGeneration.BasicNode("C");
+        NodeGeneration.BasicNode d = new NodeGeneration.BasicNode("D");
+        ArrayList<DirectedWeightedEdge<NodeGeneration.BasicNode>> list = new ArrayList<>();
+        list.add(new DirectedWeightedEdge<>(d, a, 0.5f, Direction.FORWARDS));
+        list.add(new DirectedWeightedEdge<>(a, b, (float) -Math.log(1.2), Direction.FORWARDS));
+        list.add(new DirectedWeightedEdge<>(b, c, (float) -Math.log(0.9), Direction.FORWARDS));
+        list.add(new DirectedWeightedEdge<>(c, a, (float) -Math.log(1.0), Direction.FORWARDS));
+        list.add(new DirectedWeightedEdge<>(c, d, 1f, Direction.FORWARDS));
+        Graph<NodeGeneration.BasicNode, DirectedWeightedEdge<NodeGeneration.BasicNode>> g = new Graph<>(list);
+        for (int run = 0; run < 3; run++) {
+            try {
+                if (run == 0) {
+                    BellmanFord.findMinPath(g, d, c);
+                } else if (run == 1) {
+                    BellmanFord.findMinPathSpfa(g, d, c);
+                } else {
+                    BellmanFord.findMinPathParallel(g, d, c);
+                }
+                Assert.fail("Negative cycle not found.");
+            } catch (NegativeCycleException e) {
+                List<?> cycle = e.getCycle();
+                Assert.assertEquals(3, cycle.size());
+                Assert.assertTrue(cycle.contains(a) && cycle.contains(b) && cycle.contains(c));
+                float weight = 0;
+                for (int i = 0; i < cycle.size(); i++) {
+                    weight += TestGraphs.edgeWeight(list, (NodeGeneration.BasicNode) cycle.get(i),
+                            (NodeGeneration.BasicNode) cycle.get((i + 1) % cycle.size()));
+                }
+                Assert.assertTrue(weight < 0);
+            } catch (AlgorithmException e) {
+                Assert.fail("Expected a NegativeCycleException.");
+            }
+        }
+    }
+
+    @Test
+    public void ZeroWeightCycleTest() throws AlgorithmException {
+        // C and D are joined by a zero weight two-way edge, and S, the source, has the largest id, so a
+        // relaxation through the other end of the edge ties with the distance found from S.
+        NodeGeneration.BasicNode s = new NodeGeneration.BasicNode("S");
+        NodeGeneration.BasicNode c = new NodeGeneration.BasicNode("C");
+        NodeGeneration.BasicNode d = new NodeGeneration.BasicNode("D");
+        ArrayList<DirectedWeightedEdge<NodeGeneration.BasicNode>> list = new ArrayList<>();
+        list.add(new DirectedWeightedEdge<>(c, d, 0f, Direction.BOTH));
+        list.add(new DirectedWeightedEdge<>(s, c, 1f, Direction.FORWARDS));
+        list.add(new DirectedWeightedEdge<>(s, d, 1f, Direction.FORWARDS));
+        Graph<NodeGeneration.BasicNode, DirectedWeightedEdge<NodeGeneration.BasicNode>> g = new Graph<>(list);
+        Assert.assertTrue(g.getNodeIndex().id(s) > g.getNodeIndex().id(c));
+        Assert.assertTrue(g.getNodeIndex().id(s) > g.getNodeIndex().id(d));
+        for (NodeGeneration.BasicNode target : new NodeGeneration.BasicNode[]{c, d}) {
+            ArrayList<NodeGeneration.BasicNode> path = BellmanFord.findMinPathParallel(g, s, target);
+            Assert.assertEquals(target, path.get(0));
+            Assert.assertEquals(s, path.get(path.size() - 1));
+            Assert.assertEquals(1f, TestGraphs.pathWeight(list, path), 0);
+            Assert.assertEquals(1f, TestGraphs.pathWeight(list, BellmanFord.findMinPath(g, s, target)), 0);
+        }
+    }
 }
@@ -0,0 +1,76 @@
+import jgh.javagraph.Edge;
+import jgh.javagraph.Graph;
+import jgh.javagraph.WeightedEdge;
+import jgh.javagraph.algorithms.AlgorithmException;
+import jgh.javagraph.algorithms.Dijkstra;
+import jgh.javagraph.algorithms.TraversalWorkspace;
+import jgh.javagraph.generation.CompleteGeneration;
+import jgh.javagraph.generation.NodeGeneration;
+import jgh.javagraph.generation.SpecialGeneration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Tests and settled node benchmark for bidirectional Dijkstra.
+ */
+public class BidirectionalDijkstraTest {
+
+    @Test
+    public void samePathWeightTest() {
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g =
+                CompleteGeneration.createRandomWeighted(NodeGeneration.generateNodes(30), 10f);
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(g.getNodes());
+        for (int i = 0; i < nodes.size(); i++) {
+            ArrayList<NodeGeneration.BasicNode> expected = Dijkstra.findMinPath(g, nodes.get(0), nodes.get(i));
+            ArrayList<NodeGeneration.BasicNode> path = Dijkstra.findMinPathBidirectional(g, nodes.get(0), nodes.get(i));
+            Assert.assertEquals(nodes.get(i), path.get(0));
+            Assert.assertEquals(nodes.get(0), path.get(path.size() - 1));
+            Assert.assertEquals(TestGraphs.pathWeight(g, expected), TestGraphs.pathWeight(g, path), 1e-3f);
+        }
+    }
+
+    @Test
+    public void unreachableTest() {
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(4));
+        ArrayList<WeightedEdge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        edges.add(new WeightedEdge<>(nodes.get(0), nodes.get(1), 1));
+        edges.add(new WeightedEdge<>(nodes.get(2), nodes.get(3), 1));
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = new Graph<>(edges);
+        Assert.assertTrue(Dijkstra.findMinPathBidirectional(g, nodes.get(0), nodes.get(3)).isEmpty());
+        Assert.assertEquals(1, Dijkstra.findMinPathBidirectional(g, nodes.get(2), nodes.get(2)).size());
+    }
+
+    @Test
+    public void settledNodesBenchmark() throws AlgorithmException {
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> grid =
+                SpecialGeneration.generateGrid(NodeGeneration.generateNodes(100 * 100), 100);
+        Random random = new Random(11);
+        ArrayList<WeightedEdge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        for (Edge<NodeGeneration.BasicNode> e : grid.getEdges()) {
+            edges.add(new WeightedEdge<>(e.from(), e.to(), 1 + random.nextFloat()));
+        }
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = new Graph<>(edges);
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(g.getNodes());
+
+        TraversalWorkspace uni = new TraversalWorkspace();
+        TraversalWorkspace forward = new TraversalWorkspace();
+        TraversalWorkspace backward = new TraversalWorkspace();
+        long uniSettled = 0;
+        long biSettled = 0;
+        for (int q = 0; q < 50; q++) {
+            NodeGeneration.BasicNode s = nodes.get(random.nextInt(nodes.size()));
+            NodeGeneration.BasicNode f = nodes.get(random.nextInt(nodes.size()));
+            ArrayList<NodeGeneration.BasicNode> expected = Dijkstra.findMinPath(g, s, f, uni);
+            ArrayList<NodeGeneration.BasicNode> path = Dijkstra.findMinPathBidirectional(g, s, f, forward, backward);
+            Assert.assertEquals(TestGraphs.pathWeight(g, expected), TestGraphs.pathWeight(g, path), 1e-2f);
+            uniSettled += uni.visitedCount();
+            biSettled += forward.visitedCount() + backward.visitedCount();
+        }
+        System.out.println("100x100 grid, 50 queries: unidirectional settled " + uniSettled
+                + " nodes, bidirectional settled " + biSettled + " nodes");
+        Assert.assertTrue(biSettled < uniSettled);
+    }
+}
@@ -0,0 +1,100 @@
+import jgh.javagraph.Graph;
+import jgh.javagraph.WeightedEdge;
+import jgh.javagraph.algorithms.Dijkstra;
+import jgh.javagraph.generation.NodeGeneration;
+import jgh.javagraph.routing.CachingPathService;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the caching path service.
+ */
+public class CachingPathServiceTest {
+
+    @Test
+    public void hitMissTest() {
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(5));
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = line(nodes);
+        CachingPathService<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> service =
+                new CachingPathService<>(g, 10);
+        ArrayList<NodeGeneration.BasicNode> path = service.findMinPath(nodes.get(0), nodes.get(4));
+        Assert.assertEquals(Dijkstra.findMinPath(g, nodes.get(0), nodes.get(4)), path);
+        Assert.assertEquals(0, service.getHitCount());
+        Assert.assertEquals(1, service.getMissCount());
+        // changing the returned list leaves the cached path alone.
+        path.clear();
+        Assert.assertEquals(5, service.findMinPath(nodes.get(0), nodes.get(4)).size());
+        Assert.assertEquals(1, service.getHitCount());
+
+        // a cached tree answers paths from its source.
+        service.shortestPathTree(nodes.get(1));
+        Assert.assertEquals(2, service.getMissCount());
+        Assert.assertEquals(3, service.findMinPath(nodes.get(1), nodes.get(3)).size());
+        Assert.assertEquals(2, service.getMissCount());
+        Assert.assertEquals(2, service.getHitCount());
+
+        service.findMinPath(nodes.get(0), nodes.get(4), (t, goal) -> 0);
+        Assert.assertEquals(3, service.getMissCount());
+    }
+
+    @Test
+    public void invalidationTest() {
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(5));
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = line(nodes);
+        CachingPathService<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> service =
+                new CachingPathService<>(g, 10);
+        Assert.assertEquals(5, service.findMinPath(nodes.get(0), nodes.get(4)).size());
+
+        WeightedEdge<NodeGeneration.BasicNode> shortcut = new WeightedEdge<>(nodes.get(0), nodes.get(4), 1);
+        g.addEdge(shortcut);
+        Assert.assertEquals(2, service.findMinPath(nodes.get(0), nodes.get(4)).size());
+        Assert.assertEquals(2, service.getMissCount());
+
+        g.removeEdge(shortcut);
+        Assert.assertEquals(5, service.findMinPath(nodes.get(0), nodes.get(4)).size());
+        Assert.assertEquals(3, service.getMissCount());
+
+        g.removeNode(nodes.get(2));
+        Assert.assertTrue(service.findMinPath(nodes.get(0), nodes.get(4)).isEmpty());
+        Assert.assertEquals(4, service.getMissCount());
+        Assert.assertEquals(0, service.getHitCount());
+    }
+
+    @Test
+    public void evictionTest() throws InterruptedException {
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(5));
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = line(nodes);
+        CachingPathService<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> service =
+                new CachingPathService<>(g, 2);
+        service.findMinPath(nodes.get(0), nodes.get(1));
+        service.findMinPath(nodes.get(0), nodes.get(2));
+        // use the first path, so the second is the least recently used.
+        service.findMinPath(nodes.get(0), nodes.get(1));
+        service.findMinPath(nodes.get(0), nodes.get(3));
+        Assert.assertEquals(2, service.size());
+        service.findMinPath(nodes.get(0), nodes.get(1));
+        Assert.assertEquals(2, service.getHitCount());
+        service.findMinPath(nodes.get(0), nodes.get(2));
+        Assert.assertEquals(4, service.getMissCount());
+
+        CachingPathService<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> expiring =
+                new CachingPathService<>(g, 10, 1, TimeUnit.MILLISECONDS);
+        expiring.findMinPath(nodes.get(0), nodes.get(4));
+        Thread.sleep(20);
+        expiring.findMinPath(nodes.get(0), nodes.get(4));
+        Assert.assertEquals(0, expiring.getHitCount());
+        Assert.assertEquals(2, expiring.getMissCount());
+    }
+
+    private static Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> line(
+            ArrayList<NodeGeneration.BasicNode> nodes) {
+        ArrayList<WeightedEdge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        for (int i = 0; i + 1 < nodes.size(); i++) {
+            edges.add(new WeightedEdge<>(nodes.get(i), nodes.get(i + 1), 1));
+        }
+        return new Graph<>(edges);
+    }
+}
@@ -0,0 +1,164 @@
+import jgh.javagraph.CompactGraph;
+import jgh.javagraph.Edge;
+import jgh.javagraph.Graph;
+import jgh.javagraph.WeightedEdge;
+import jgh.javagraph.algorithms.AlgorithmException;
+import jgh.javagraph.algorithms.Connectivity;
+import jgh.javagraph.algorithms.Dijkstra;
+import jgh.javagraph.algorithms.GraphSearch;
+import jgh.javagraph.algorithms.Utilities;
+import jgh.javagraph.generation.CompleteGeneration;
+import jgh.javagraph.generation.NodeGeneration;
+import jgh.javagraph.generation.SpecialGeneration;
+import jgh.javagraph.trees.SpanningTree;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+/**
+ * Tests for the compact (CSR) graph snapshot.
+ */
+public class CompactGraphTest {
+
+    @Test
+    public void compactStructureTest() {
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> K6 =
+                CompleteGeneration.create(NodeGeneration.generateNodes(6));
+        CompactGraph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> compact = K6.freeze();
+        Assert.assertEquals(6, compact.nodeCount());
+        Assert.assertEquals(15, compact.edgeCount());
+        Assert.assertEquals(30, compact.arcCount());
+        Assert.assertFalse(compact.isWeighted());
+        for (int i = 0; i < compact.nodeCount(); i++) {
+            Assert.assertEquals(i, compact.id(compact.node(i)));
+            Assert.assertEquals(5, compact.arcEnd(i) - compact.arcStart(i));
+        }
+    }
+
+    @Test
+    public void compactIdsTest() {
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> K6 =
+                CompleteGeneration.create(NodeGeneration.generateNodes(6));
+        // with no node removed the snapshot numbers the nodes as the graph does.
+        CompactGraph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> compact = K6.freeze();
+        for (NodeGeneration.BasicNode n : K6.getNodes()) {
+            Assert.assertEquals(K6.getNodeIndex().id(n), compact.id(n));
+        }
+        // a removed node's id is closed up, keeping the order of the others.
+        NodeGeneration.BasicNode removed = K6.getNodeIndex().node(2);
+        K6.removeNode(removed);
+        compact = K6.freeze();
+        Assert.assertEquals(5, compact.getNodeIndex().size());
+        Assert.assertEquals(-1, compact.id(removed));
+        for (NodeGeneration.BasicNode n : K6.getNodes()) {
+            int id = K6.getNodeIndex().id(n);
+            Assert.assertEquals(id < 2 ? id : id - 1, compact.id(n));
+        }
+    }
+
+    @Test
+    public void compactDijkstraTest() {
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g =
+                CompleteGeneration.createRandomWeighted(NodeGeneration.generateNodes(25), 10f);
+        CompactGraph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> compact = g.freeze();
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(g.getNodes());
+        for (int i = 1; i < nodes.size(); i++) {
+            ArrayList<NodeGeneration.BasicNode> expected = Dijkstra.findMinPath(g, nodes.get(0), nodes.get(i));
+            ArrayList<NodeGeneration.BasicNode> path = Dijkstra.findMinPath(compact, nodes.get(0), nodes.get(i));
+            Assert.assertEquals(nodes.get(i), path.get(0));
+            Assert.assertEquals(nodes.get(0), path.get(path.size() - 1));
+            Assert.assertEquals(TestGraphs.pathWeight(g, expected), TestGraphs.pathWeight(g, path), 1e-4f);
+        }
+    }
+
+    @Test
+    public void compactSearchTest() throws AlgorithmException {
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> grid =
+                SpecialGeneration.generateGrid(NodeGeneration.generateNodes(30), 5);
+        CompactGraph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> compact = grid.freeze();
+        final HashSet<NodeGeneration.BasicNode> visited = new HashSet<>();
+        GraphSearch.searchBreadthFirst(compact, new GraphSearch.INextNode() {
+            @Override
+            public void onNextNode(jgh.javagraph.IGraph graph, Object previous, Object current) {
+                visited.add((NodeGeneration.BasicNode) current);
+            }
+
+            @Override
+            public boolean forceStop() {
+                return false;
+            }
+        });
+        Assert.assertEquals(30, visited.size());
+        Assert.assertTrue(Connectivity.isConnected(compact));
+        Assert.assertEquals(29, SpanningTree.generateSpanningTree(compact).size());
+    }
+
+    @Test
+    public void compactSearchStopTest() throws AlgorithmException {
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> grid =
+                SpecialGeneration.generateGrid(NodeGeneration.generateNodes(30), 5);
+        CompactGraph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> compact = grid.freeze();
+        // both searches stop as soon as forceStop is true, including straight after the start node.
+        for (int limit = 1; limit <= 3; limit++) {
+            StopAfter graphSearch = new StopAfter(limit);
+            GraphSearch.searchBreadthFirst(grid, graphSearch);
+            StopAfter compactSearch = new StopAfter(limit);
+            GraphSearch.searchBreadthFirst(compact, compactSearch);
+            Assert.assertEquals(limit, graphSearch.mCount);
+            Assert.assertEquals(limit, compactSearch.mCount);
+        }
+    }
+
+    /**
+     * Counts the nodes a search reaches, asking it to stop once <code>mLimit</code> are reached.
+     */
+    private static final class StopAfter implements GraphSearch.INextNode {
+
+        private final int mLimit;
+        private int mCount;
+
+        StopAfter(int limit) {
+            mLimit = limit;
+        }
+
+        @Override
+        public void onNextNode(jgh.javagraph.IGraph graph, Object previous, Object current) {
+            mCount++;
+        }
+
+        @Override
+        public boolean forceStop() {
+            return mCount >= mLimit;
+        }
+    }
+
+    @Test
+    public void compactComponentsTest() {
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> left =
+                CompleteGeneration.create(NodeGeneration.generateNodes(4));
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> right =
+                CompleteGeneration.create(NodeGeneration.generateNodes(5));
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g = Utilities.mergeGraphs(left, right);
+        CompactGraph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> compact = g.freeze();
+        Assert.assertFalse(Connectivity.isConnected(compact));
+        ArrayList<ArrayList<NodeGeneration.BasicNode>> components = Connectivity.getConnectedComponents(compact);
+        Assert.assertEquals(2, components.size());
+        Assert.assertEquals(9, components.get(0).size() + components.get(1).size());
+    }
+
+    @Test
+    public void compactMinimumSpanningTreeTest() {
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g =
+                CompleteGeneration.createRandomWeighted(NodeGeneration.generateNodes(12), 10f);
+        ArrayList<WeightedEdge<NodeGeneration.BasicNode>> expected = SpanningTree.generateMinimumSpanningTree(g);
+        ArrayList<WeightedEdge<NodeGeneration.BasicNode>> tree = SpanningTree.generateMinimumSpanningTree(g.freeze());
+        Assert.assertEquals(11, tree.size());
+        float expectedWeight = 0;
+        float weight = 0;
+        for (WeightedEdge<NodeGeneration.BasicNode> e : expected) expectedWeight += e.getWeight();
+        for (WeightedEdge<NodeGeneration.BasicNode> e : tree) weight += e.getWeight();
+        Assert.assertEquals(expectedWeight, weight, 1e-3f);
+    }
+}
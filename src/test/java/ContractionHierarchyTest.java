@@ -0,0 +1,84 @@
+import jgh.javagraph.Graph;
+import jgh.javagraph.WeightedEdge;
+import jgh.javagraph.algorithms.AlgorithmException;
+import jgh.javagraph.algorithms.Dijkstra;
+import jgh.javagraph.generation.NodeGeneration;
+import jgh.javagraph.routing.ContractionHierarchy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Tests for contraction hierarchy queries, compared with Dijkstra's algorithm.
+ */
+public class ContractionHierarchyTest {
+
+    @Test
+    public void gridQueryTest() throws AlgorithmException {
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = randomGrid(30, 30, 5);
+        ContractionHierarchy<NodeGeneration.BasicNode> ch = ContractionHierarchy.preprocess(g);
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(g.getNodes());
+        Random random = new Random(7);
+        for (int q = 0; q < 200; q++) {
+            NodeGeneration.BasicNode s = nodes.get(random.nextInt(nodes.size()));
+            NodeGeneration.BasicNode f = nodes.get(random.nextInt(nodes.size()));
+            ArrayList<NodeGeneration.BasicNode> expected = Dijkstra.findMinPath(g, s, f);
+            ArrayList<NodeGeneration.BasicNode> path = ch.path(s, f);
+            Assert.assertEquals(TestGraphs.pathWeight(g, expected), ch.distance(s, f), 1e-2f);
+            Assert.assertEquals(TestGraphs.pathWeight(g, expected), TestGraphs.pathWeight(g, path), 1e-2f);
+            Assert.assertEquals(f, path.get(0));
+            Assert.assertEquals(s, path.get(path.size() - 1));
+        }
+    }
+
+    @Test
+    public void persistenceTest() throws AlgorithmException, IOException {
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = randomGrid(10, 12, 3);
+        ContractionHierarchy<NodeGeneration.BasicNode> ch = ContractionHierarchy.preprocess(g);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ch.write(out);
+        ContractionHierarchy<NodeGeneration.BasicNode> loaded =
+                ContractionHierarchy.read(new ByteArrayInputStream(out.toByteArray()), ch.getNodes());
+        Assert.assertEquals(ch.getEdgeCount(), loaded.getEdgeCount());
+        for (NodeGeneration.BasicNode s : ch.getNodes()) {
+            NodeGeneration.BasicNode f = ch.getNodes().get(0);
+            Assert.assertEquals(ch.distance(s, f), loaded.distance(s, f), 0f);
+            Assert.assertEquals(ch.path(s, f), loaded.path(s, f));
+        }
+    }
+
+    @Test
+    public void unreachableTest() {
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(4));
+        ArrayList<WeightedEdge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        edges.add(new WeightedEdge<>(nodes.get(0), nodes.get(1), 1));
+        edges.add(new WeightedEdge<>(nodes.get(2), nodes.get(3), 1));
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = new Graph<>(edges);
+        ContractionHierarchy<NodeGeneration.BasicNode> ch = ContractionHierarchy.preprocess(g);
+        Assert.assertEquals(Float.MAX_VALUE, ch.distance(nodes.get(0), nodes.get(3)), 0f);
+        Assert.assertTrue(ch.path(nodes.get(0), nodes.get(3)).isEmpty());
+        Assert.assertEquals(1, ch.path(nodes.get(2), nodes.get(2)).size());
+    }
+
+    /**
+     * Grid with random weights, plus some random long range edges.
+     */
+    private static Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> randomGrid(int width, int height, long seed)
+            throws AlgorithmException {
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> grid =
+                TestGraphs.integerGrid(width, height, 10, seed);
+        Random random = new Random(seed);
+        ArrayList<WeightedEdge<NodeGeneration.BasicNode>> edges = new ArrayList<>(grid.getEdges());
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(grid.getNodes());
+        for (int i = 0; i < width; i++) {
+            edges.add(new WeightedEdge<>(nodes.get(random.nextInt(nodes.size())),
+                    nodes.get(random.nextInt(nodes.size())), 5 + random.nextInt(20)));
+        }
+        return new Graph<>(edges);
+    }
+}
@@ -0,0 +1,88 @@
+import jgh.javagraph.CompactGraph;
+import jgh.javagraph.Graph;
+import jgh.javagraph.WeightedEdge;
+import jgh.javagraph.algorithms.AlgorithmException;
+import jgh.javagraph.algorithms.DeltaStepping;
+import jgh.javagraph.algorithms.Dijkstra;
+import jgh.javagraph.algorithms.ShortestPathTree;
+import jgh.javagraph.generation.CompleteGeneration;
+import jgh.javagraph.generation.NodeGeneration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+/**
+ * Tests for delta-stepping.
+ */
+public class DeltaSteppingTest {
+
+    @Test
+    public void sameDistanceTest() throws AlgorithmException {
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = TestGraphs.weightedGrid(60, 60, 7);
+        NodeGeneration.BasicNode source = g.getNodes().iterator().next();
+        ShortestPathTree<NodeGeneration.BasicNode> expected = Dijkstra.shortestPathTree(g, source);
+        // a delta below, near and above the weights.
+        for (float delta : new float[]{0.3f, 1.5f, 20f}) {
+            ShortestPathTree<NodeGeneration.BasicNode> tree = DeltaStepping.shortestPaths(g, source, delta);
+            for (NodeGeneration.BasicNode node : g.getNodes()) {
+                Assert.assertEquals(expected.getDistance(node), tree.getDistance(node), 1e-3f);
+                ArrayList<NodeGeneration.BasicNode> path = tree.getPathTo(node);
+                Assert.assertEquals(node, path.get(0));
+                Assert.assertEquals(source, path.get(path.size() - 1));
+            }
+        }
+    }
+
+    @Test
+    public void completeGraphTest() {
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g =
+                CompleteGeneration.createRandomWeighted(NodeGeneration.generateNodes(40), 10f);
+        NodeGeneration.BasicNode source = g.getNodes().iterator().next();
+        ShortestPathTree<NodeGeneration.BasicNode> expected = Dijkstra.shortestPathTree(g, source);
+        ShortestPathTree<NodeGeneration.BasicNode> tree = DeltaStepping.shortestPaths(g, source, 2f);
+        for (NodeGeneration.BasicNode node : g.getNodes()) {
+            Assert.assertEquals(expected.getDistance(node), tree.getDistance(node), 1e-3f);
+        }
+    }
+
+    @Test
+    public void unreachableTest() {
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(4));
+        ArrayList<WeightedEdge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        edges.add(new WeightedEdge<>(nodes.get(0), nodes.get(1), 1));
+        edges.add(new WeightedEdge<>(nodes.get(2), nodes.get(3), 1));
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = new Graph<>(edges);
+        ShortestPathTree<NodeGeneration.BasicNode> tree = DeltaStepping.shortestPaths(g, nodes.get(0), 1f);
+        Assert.assertEquals(1f, tree.getDistance(nodes.get(1)), 0);
+        Assert.assertFalse(tree.isReachable(nodes.get(3)));
+        Assert.assertTrue(tree.getPathTo(nodes.get(3)).isEmpty());
+    }
+
+    @Test
+    public void zeroWeightTest() {
+        // C and D are joined by a zero weight edge, so a relaxation through either end ties with the distance
+        // found from the source S. Which ties arise depends on the node ids, which follow the node set's
+        // order, so every assignment of the roles to three nodes is tried.
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(3));
+        for (int[] roles : new int[][]{{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}}) {
+            NodeGeneration.BasicNode s = nodes.get(roles[0]);
+            NodeGeneration.BasicNode c = nodes.get(roles[1]);
+            NodeGeneration.BasicNode d = nodes.get(roles[2]);
+            ArrayList<WeightedEdge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+            edges.add(new WeightedEdge<>(s, c, 1));
+            edges.add(new WeightedEdge<>(s, d, 1));
+            edges.add(new WeightedEdge<>(c, d, 0));
+            CompactGraph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = new Graph<>(edges).freeze();
+            for (float delta : new float[]{0.5f, 1f, 5f}) {
+                ShortestPathTree<NodeGeneration.BasicNode> tree = DeltaStepping.shortestPaths(g, s, delta);
+                for (NodeGeneration.BasicNode node : new NodeGeneration.BasicNode[]{c, d}) {
+                    Assert.assertEquals(1f, tree.getDistance(node), 0);
+                    ArrayList<NodeGeneration.BasicNode> path = tree.getPathTo(node);
+                    Assert.assertEquals(node, path.get(0));
+                    Assert.assertEquals(s, path.get(path.size() - 1));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+import jgh.javagraph.CompactGraph;
+import jgh.javagraph.Graph;
+import jgh.javagraph.WeightedEdge;
+import jgh.javagraph.algorithms.AlgorithmException;
+import jgh.javagraph.algorithms.BucketQueue;
+import jgh.javagraph.algorithms.Dijkstra;
+import jgh.javagraph.generation.NodeGeneration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Tests the bucket queue, and Dial's algorithm against the heap based Dijkstra search.
+ */
+public class DialDijkstraTest {
+
+    @Test
+    public void bucketQueueTest() {
+        Random random = new Random(61);
+        BucketQueue queue = new BucketQueue(500, 10);
+        int[] keys = new int[500];
+        int last = 0;
+        int polled = 0;
+        queue.offer(0, 0);
+        keys[0] = 0;
+        int next = 1;
+        while (!queue.isEmpty()) {
+            int key = queue.peekKey();
+            int id = queue.poll();
+            Assert.assertEquals(keys[id], key);
+            Assert.assertFalse(queue.contains(id));
+            Assert.assertTrue(key >= last);
+            last = key;
+            polled++;
+            // queue new ids, and decrease a queued one, within the allowed spread.
+            for (int k = 0; k < 2 && next < keys.length; k++, next++) {
+                keys[next] = key + random.nextInt(11);
+                Assert.assertTrue(queue.offer(next, keys[next]));
+            }
+            int other = random.nextInt(next);
+            if (queue.contains(other)) {
+                Assert.assertFalse(queue.offer(other, keys[other]));
+                if (keys[other] > key) {
+                    keys[other] = key + random.nextInt(keys[other] - key);
+                    Assert.assertTrue(queue.offer(other, keys[other]));
+                }
+            }
+        }
+        Assert.assertEquals(500, polled);
+
+        queue.clear();
+        queue.offer(3, 4);
+        try {
+            queue.offer(4, 11);
+            Assert.fail("Key outside the spread was queued.");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void samePathWeightTest() throws AlgorithmException {
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = TestGraphs.integerGrid(40, 40, 12, 67);
+        Assert.assertEquals(12, Dijkstra.integerWeightBound(g));
+        CompactGraph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> compact = g.freeze();
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(g.getNodes());
+        Random random = new Random(71);
+        for (int q = 0; q < 50; q++) {
+            NodeGeneration.BasicNode s = nodes.get(random.nextInt(nodes.size()));
+            NodeGeneration.BasicNode f = nodes.get(random.nextInt(nodes.size()));
+            float expected = TestGraphs.pathWeight(g, Dijkstra.findMinPath(g, s, f));
+            ArrayList<NodeGeneration.BasicNode> path = Dijkstra.findMinPathDial(g, s, f);
+            Assert.assertEquals(f, path.get(0));
+            Assert.assertEquals(s, path.get(path.size() - 1));
+            Assert.assertEquals(expected, TestGraphs.pathWeight(g, path), 0);
+            Assert.assertEquals(expected, TestGraphs.pathWeight(g, Dijkstra.findMinPathDial(compact, s, f)), 0);
+        }
+    }
+
+    @Test
+    public void weightCheckTest() {
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(4));
+        ArrayList<WeightedEdge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        edges.add(new WeightedEdge<>(nodes.get(0), nodes.get(1), 1));
+        edges.add(new WeightedEdge<>(nodes.get(1), nodes.get(2), 2.5f));
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = new Graph<>(edges);
+        Assert.assertEquals(-1, Dijkstra.integerWeightBound(g));
+        // falls back to the heap search.
+        Assert.assertEquals(3, Dijkstra.findMinPathDial(g, nodes.get(0), nodes.get(2)).size());
+        try {
+            Dijkstra.findMinPathDial(g, nodes.get(0), nodes.get(2), 3);
+            Assert.fail("Non-integer weight was accepted.");
+        } catch (IllegalArgumentException expected) {
+        }
+        edges.set(1, new WeightedEdge<>(nodes.get(1), nodes.get(2), 3));
+        edges.add(new WeightedEdge<>(nodes.get(3), nodes.get(3), 0));
+        g = new Graph<>(edges);
+        Assert.assertTrue(Dijkstra.findMinPathDial(g, nodes.get(0), nodes.get(3), 3).isEmpty());
+    }
+
+    @Test
+    public void largeDistanceTest() {
+        // distances past 2^24 are not exact as floats, so unit steps after a heavy prefix must be counted
+        // as ints.
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(41));
+        ArrayList<WeightedEdge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            edges.add(new WeightedEdge<>(nodes.get(i), nodes.get(i + 1), 1048575));
+        }
+        for (int i = 20; i < 40; i++) {
+            edges.add(new WeightedEdge<>(nodes.get(i), nodes.get(i + 1), i % 2));
+        }
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = new Graph<>(edges);
+        Assert.assertEquals(1048575, Dijkstra.integerWeightBound(g));
+        ArrayList<NodeGeneration.BasicNode> expected = Dijkstra.findMinPath(g, nodes.get(0), nodes.get(40));
+        Assert.assertEquals(41, expected.size());
+        Assert.assertEquals(expected, Dijkstra.findMinPathDial(g, nodes.get(0), nodes.get(40)));
+        Assert.assertEquals(expected, Dijkstra.findMinPathDial(g.freeze(), nodes.get(0), nodes.get(40)));
+    }
+}
@@ -1,6 +1,8 @@
 import jgh.javagraph.Graph;
 import jgh.javagraph.WeightedEdge;
 import jgh.javagraph.algorithms.Dijkstra;
+import jgh.javagraph.algorithms.ShortestPathTree;
+import jgh.javagraph.generation.CompleteGeneration;
 import jgh.javagraph.generation.NodeGeneration;
 import junit.framework.Assert;
 import org.junit.Test;
@@ -118,4 +120,22 @@ public class DijkstraTest {
 //            System.out.println("node in path   "+n.getLabel());
 //        }
     }
+
+    @Test
+    public void shortestPathTreeTest() {
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g =
+                CompleteGeneration.createRandomWeighted(NodeGeneration.generateNodes(40), 10f);
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(g.getNodes());
+        NodeGeneration.BasicNode source = nodes.get(0);
+        ShortestPathTree<NodeGeneration.BasicNode> tree = Dijkstra.shortestPathTree(g, source);
+        Assert.assertEquals(0f, tree.getDistance(source), 0f);
+        Assert.assertNull(tree.getPrevious(source));
+        for (NodeGeneration.BasicNode n : nodes) {
+            ArrayList<NodeGeneration.BasicNode> path = Dijkstra.findMinPath(g, source, n);
+            Assert.assertEquals(TestGraphs.pathWeight(g, path), tree.getDistance(n), 1e-3f);
+            Assert.assertEquals(TestGraphs.pathWeight(g, path), TestGraphs.pathWeight(g, tree.getPathTo(n)), 1e-3f);
+            Assert.assertEquals(n, tree.getPathTo(n).get(0));
+        }
+        Assert.assertEquals(tree.getDistance(nodes.get(5)), Dijkstra.shortestPathTree(g.freeze(), source).getDistance(nodes.get(5)), 1e-3f);
+    }
 }
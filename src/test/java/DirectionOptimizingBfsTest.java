@@ -0,0 +1,83 @@
+import jgh.javagraph.CompactGraph;
+import jgh.javagraph.Edge;
+import jgh.javagraph.Graph;
+import jgh.javagraph.algorithms.AlgorithmException;
+import jgh.javagraph.algorithms.DirectionOptimizingBfs;
+import jgh.javagraph.algorithms.GraphSearch;
+import jgh.javagraph.algorithms.ShortestPathTree;
+import jgh.javagraph.generation.NodeGeneration;
+import jgh.javagraph.generation.SpecialGeneration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests for direction optimising breadth first search.
+ */
+public class DirectionOptimizingBfsTest {
+
+    @Test
+    public void randomGraphTest() {
+        // small diameter, so the middle levels are expanded bottom up.
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g = TestGraphs.randomGraph(20000, 160000, 83);
+        CompactGraph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> compact = g.freeze();
+        NodeGeneration.BasicNode source = compact.node(0);
+        for (int threads : new int[]{1, 2, 4}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            check(g, source, DirectionOptimizingBfs.search(compact, source, pool));
+            pool.shutdown();
+        }
+        check(g, source, DirectionOptimizingBfs.search(g, source));
+    }
+
+    @Test
+    public void gridTest() throws AlgorithmException {
+        // large diameter, so every level is expanded top down.
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g =
+                SpecialGeneration.generateGrid(NodeGeneration.generateNodes(150 * 100), 150);
+        NodeGeneration.BasicNode source = g.getNodes().iterator().next();
+        check(g, source, DirectionOptimizingBfs.search(g, source));
+    }
+
+    @Test
+    public void unreachableTest() {
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(5));
+        ArrayList<Edge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        edges.add(new Edge<>(nodes.get(0), nodes.get(1)));
+        edges.add(new Edge<>(nodes.get(1), nodes.get(2)));
+        edges.add(new Edge<>(nodes.get(3), nodes.get(4)));
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g = new Graph<>(edges);
+        ShortestPathTree<NodeGeneration.BasicNode> tree = DirectionOptimizingBfs.search(g, nodes.get(0));
+        Assert.assertEquals(2, tree.getDistance(nodes.get(2)), 0);
+        Assert.assertFalse(tree.isReachable(nodes.get(4)));
+        Assert.assertNull(tree.getPrevious(nodes.get(0)));
+    }
+
+    private static void check(Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g,
+                              NodeGeneration.BasicNode source, ShortestPathTree<NodeGeneration.BasicNode> tree) {
+        HashMap<NodeGeneration.BasicNode, Integer> depth = new HashMap<>();
+        GraphSearch.bfs(g, source).forEach(v -> depth.put(v.getNode(), v.getDepth()));
+        for (NodeGeneration.BasicNode node : g.getNodes()) {
+            Integer expected = depth.get(node);
+            if (expected == null) {
+                Assert.assertFalse(tree.isReachable(node));
+                continue;
+            }
+            Assert.assertEquals((float) expected, tree.getDistance(node), 0);
+            NodeGeneration.BasicNode parent = tree.getPrevious(node);
+            if (node == source) {
+                Assert.assertNull(parent);
+                continue;
+            }
+            Assert.assertEquals(expected - 1, (int) depth.get(parent));
+            boolean adjacent = false;
+            for (Edge<NodeGeneration.BasicNode> e : g.incidentEdges(node)) {
+                adjacent |= e.from() == parent || e.to() == parent;
+            }
+            Assert.assertTrue(adjacent);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+import jgh.javagraph.Graph;
+import jgh.javagraph.WeightedEdge;
+import jgh.javagraph.algorithms.AlgorithmException;
+import jgh.javagraph.algorithms.Dijkstra;
+import jgh.javagraph.algorithms.DistanceMatrix;
+import jgh.javagraph.algorithms.ShortestPathTree;
+import jgh.javagraph.generation.NodeGeneration;
+import jgh.javagraph.tsp.TspSolver;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for many to many distance matrices.
+ */
+public class DistanceMatrixTest {
+
+    @Test
+    public void sameDistanceTest() throws AlgorithmException {
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = TestGraphs.weightedGrid(50, 50, 19);
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(g.getNodes());
+        Collections.shuffle(nodes, new Random(2));
+        List<NodeGeneration.BasicNode> sources = nodes.subList(0, 10);
+        List<NodeGeneration.BasicNode> targets = new ArrayList<>(nodes.subList(5, 40));
+        // a repeated target gets the same distance in both columns.
+        targets.add(targets.get(0));
+        float[][] matrix = DistanceMatrix.compute(g, sources, targets);
+        Assert.assertEquals(sources.size(), matrix.length);
+        for (int i = 0; i < sources.size(); i++) {
+            ShortestPathTree<NodeGeneration.BasicNode> tree = Dijkstra.shortestPathTree(g, sources.get(i));
+            Assert.assertEquals(targets.size(), matrix[i].length);
+            for (int j = 0; j < targets.size(); j++) {
+                Assert.assertEquals(tree.getDistance(targets.get(j)), matrix[i][j], 1e-3f);
+            }
+        }
+    }
+
+    @Test
+    public void unreachableTest() {
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(4));
+        ArrayList<WeightedEdge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        edges.add(new WeightedEdge<>(nodes.get(0), nodes.get(1), 2));
+        edges.add(new WeightedEdge<>(nodes.get(2), nodes.get(3), 1));
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = new Graph<>(edges);
+        float[][] matrix = DistanceMatrix.compute(g, nodes);
+        Assert.assertEquals(0, matrix[0][0], 0);
+        Assert.assertEquals(2, matrix[0][1], 0);
+        Assert.assertEquals(Float.MAX_VALUE, matrix[0][3], 0);
+        try {
+            new TspSolver<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>>(nodes, matrix);
+            Assert.fail();
+        } catch (AlgorithmException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void tspMatrixTest() throws AlgorithmException {
+        // a tour through nodes of a grid, which is not a complete graph.
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = TestGraphs.weightedGrid(20, 20, 29);
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(g.getNodes());
+        Collections.shuffle(nodes, new Random(4));
+        ArrayList<NodeGeneration.BasicNode> stops = new ArrayList<>(nodes.subList(0, 30));
+        TspSolver<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> solver =
+                new TspSolver<>(stops, DistanceMatrix.compute(g, stops));
+        solver.solve();
+    }
+}
@@ -0,0 +1,77 @@
+import jgh.javagraph.Edge;
+import jgh.javagraph.Graph;
+import jgh.javagraph.WeightedEdge;
+import jgh.javagraph.algorithms.AlgorithmException;
+import jgh.javagraph.algorithms.Dijkstra;
+import jgh.javagraph.algorithms.DynamicShortestPaths;
+import jgh.javagraph.algorithms.ShortestPathTree;
+import jgh.javagraph.generation.NodeGeneration;
+import jgh.javagraph.generation.SpecialGeneration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Randomized tests of dynamic shortest paths against fresh Dijkstra searches.
+ */
+public class DynamicShortestPathsTest {
+
+    @Test
+    public void randomUpdatesTest() throws AlgorithmException {
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> grid =
+                SpecialGeneration.generateGrid(NodeGeneration.generateNodes(30 * 30), 30);
+        Random random = new Random(31);
+        ArrayList<WeightedEdge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        for (Edge<NodeGeneration.BasicNode> e : grid.getEdges()) {
+            edges.add(new WeightedEdge<>(e.from(), e.to(), 1 + random.nextInt(5)));
+        }
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = new Graph<>(edges);
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(g.getNodes());
+        NodeGeneration.BasicNode source = nodes.get(0);
+        DynamicShortestPaths<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> paths =
+                new DynamicShortestPaths<>(g, source);
+        check(g, paths);
+
+        ArrayList<WeightedEdge<NodeGeneration.BasicNode>> removed = new ArrayList<>();
+        for (int step = 0; step < 300; step++) {
+            ArrayList<WeightedEdge<NodeGeneration.BasicNode>> current = g.getEdges();
+            int op = random.nextInt(4);
+            if (op < 2) {
+                // integer weights, including zero, make many ties.
+                paths.setWeight(current.get(random.nextInt(current.size())), random.nextInt(6));
+            } else if (op == 2 || removed.isEmpty()) {
+                WeightedEdge<NodeGeneration.BasicNode> edge = current.get(random.nextInt(current.size()));
+                Assert.assertTrue(paths.removeEdge(edge));
+                removed.add(edge);
+            } else {
+                Assert.assertTrue(paths.addEdge(removed.remove(random.nextInt(removed.size()))));
+            }
+            check(g, paths);
+        }
+
+        // an edge with a new node.
+        NodeGeneration.BasicNode extra = new NodeGeneration.BasicNode("extra");
+        paths.addEdge(new WeightedEdge<>(nodes.get(5), extra, 2));
+        check(g, paths);
+    }
+
+    private static void check(Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g,
+                              DynamicShortestPaths<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> paths) {
+        ShortestPathTree<NodeGeneration.BasicNode> expected = Dijkstra.shortestPathTree(g, paths.getSource());
+        for (NodeGeneration.BasicNode node : g.getNodes()) {
+            Assert.assertEquals(expected.getDistance(node), paths.getDistance(node), 0);
+            NodeGeneration.BasicNode previous = paths.getPrevious(node);
+            if (previous != null) {
+                // the predecessor must be a neighbour on a minimum path.
+                float best = Float.MAX_VALUE;
+                for (WeightedEdge<NodeGeneration.BasicNode> e : g.incidentEdges(node)) {
+                    if (e.from() == previous || e.to() == previous)
+                        best = Math.min(best, e.getWeight());
+                }
+                Assert.assertEquals(paths.getDistance(node), paths.getDistance(previous) + best, 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,353 @@
+import jgh.javagraph.Edge;
+import jgh.javagraph.Graph;
+import jgh.javagraph.GraphBuilder;
+import jgh.javagraph.IGraph;
+import jgh.javagraph.NodeIndex;
+import jgh.javagraph.algorithms.Utilities;
+import jgh.javagraph.generation.CompleteGeneration;
+import jgh.javagraph.generation.NodeGeneration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests for the mutators and the incidence index of <code>Graph</code>.
+ */
+public class GraphTest {
+
+    @Test
+    public void neighboursTest() {
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> K5 =
+                CompleteGeneration.create(NodeGeneration.generateNodes(5));
+        for (NodeGeneration.BasicNode n : K5.getNodes()) {
+            Assert.assertEquals(4, K5.neighbours(n).size());
+            Assert.assertEquals(4, K5.incidentEdges(n).size());
+            Assert.assertFalse(K5.neighbours(n).contains(n));
+        }
+    }
+
+    @Test
+    public void addRemoveEdgeTest() {
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(3));
+        Edge<NodeGeneration.BasicNode> e1 = new Edge<>(nodes.get(0), nodes.get(1));
+        Edge<NodeGeneration.BasicNode> e2 = new Edge<>(nodes.get(1), nodes.get(2));
+        ArrayList<Edge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        edges.add(e1);
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g = new Graph<>(edges);
+
+        Assert.assertTrue(g.addEdge(e2));
+        Assert.assertFalse(g.addEdge(e2));
+        Assert.assertEquals(3, g.getNodes().size());
+        Assert.assertTrue(g.neighbours(nodes.get(1)).contains(nodes.get(2)));
+
+        Assert.assertTrue(g.removeEdge(e1));
+        Assert.assertFalse(g.removeEdge(e1));
+        Assert.assertEquals(1, g.getEdges().size());
+        Assert.assertTrue(g.neighbours(nodes.get(0)).isEmpty());
+
+        Assert.assertTrue(g.removeNode(nodes.get(2)));
+        Assert.assertTrue(g.getEdges().isEmpty());
+        Assert.assertTrue(g.incidentEdges(nodes.get(1)).isEmpty());
+    }
+
+    @Test
+    public void degreeTest() {
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> K5 =
+                CompleteGeneration.create(NodeGeneration.generateNodes(5));
+        Assert.assertTrue(K5.eulerian());
+        Assert.assertEquals(4, K5.getMinDegree());
+        Assert.assertEquals(4, K5.getMaxDegree());
+        Assert.assertEquals(5, K5.getDegreeHistogram()[4]);
+
+        NodeGeneration.BasicNode n = K5.getNodes().iterator().next();
+        Edge<NodeGeneration.BasicNode> e = K5.incidentEdges(n).iterator().next();
+        K5.removeEdge(e);
+        Assert.assertFalse(K5.eulerian());
+        Assert.assertEquals(3, K5.getMinDegree());
+        Assert.assertEquals(2, K5.getMinDegreeNode().size());
+        Assert.assertEquals(3, K5.getMaxDegreeNode().size());
+
+        K5.addEdge(e);
+        Assert.assertTrue(K5.eulerian());
+        Assert.assertEquals(5, K5.getMaxDegreeNode().size());
+    }
+
+    @Test
+    public void builderDuplicatesTest() {
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(50));
+        ArrayList<Edge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 5000; i++) {
+            edges.add(new Edge<>(nodes.get(random.nextInt(50)), nodes.get(random.nextInt(50))));
+        }
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g =
+                new GraphBuilder<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>>().addEdges(edges).build();
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> p =
+                new GraphBuilder<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>>()
+                        .addEdges(edges).parallel(true).build();
+        Assert.assertEquals(g.getEdges(), p.getEdges());
+
+        // only the last edge of each (from, to) pair is kept.
+        HashSet<Edge<NodeGeneration.BasicNode>> expected = new HashSet<>();
+        for (int i = edges.size() - 1; i >= 0; i--) {
+            boolean later = false;
+            for (Edge<NodeGeneration.BasicNode> e : expected) {
+                if (e.from() == edges.get(i).from() && e.to() == edges.get(i).to()) {
+                    later = true;
+                    break;
+                }
+            }
+            if (!later)
+                expected.add(edges.get(i));
+        }
+        Assert.assertEquals(expected, new HashSet<>(g.getEdges()));
+    }
+
+    @Test
+    public void collidingHashCodesTest() {
+        ArrayList<Object> nodes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            nodes.add(new Object() {
+                @Override
+                public int hashCode() {
+                    return 0;
+                }
+            });
+        }
+        ArrayList<Edge<Object>> edges = new ArrayList<>();
+        edges.add(new Edge<>(nodes.get(0), nodes.get(1)));
+        edges.add(new Edge<>(nodes.get(1), nodes.get(2)));
+        Graph<Object, Edge<Object>> g = new Graph<>(edges);
+        Assert.assertEquals(2, g.getEdges().size());
+    }
+
+    @Test
+    public void nodeIndexTest() {
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> K5 =
+                CompleteGeneration.create(NodeGeneration.generateNodes(5));
+        NodeIndex<NodeGeneration.BasicNode> index = K5.getNodeIndex();
+        Assert.assertEquals(5, index.size());
+        for (NodeGeneration.BasicNode n : K5.getNodes()) {
+            Assert.assertEquals(n, index.node(index.id(n)));
+        }
+
+        NodeGeneration.BasicNode removed = K5.getNodes().iterator().next();
+        int removedId = index.id(removed);
+        HashSet<Integer> ids = new HashSet<>();
+        K5.removeNode(removed);
+        for (NodeGeneration.BasicNode n : K5.getNodes()) {
+            ids.add(K5.getNodeIndex().id(n));
+        }
+        Assert.assertEquals(-1, K5.getNodeIndex().id(removed));
+        Assert.assertNull(K5.getNodeIndex().node(removedId));
+        Assert.assertEquals(4, K5.getNodeIndex().count());
+        Assert.assertFalse(ids.contains(removedId));
+
+        // the removed node's id is given to the next node added.
+        NodeGeneration.BasicNode added = NodeGeneration.generateNodes(1).iterator().next();
+        K5.addEdge(new Edge<>(added, K5.getNodes().iterator().next()));
+        Assert.assertEquals(removedId, K5.getNodeIndex().id(added));
+        Assert.assertEquals(5, K5.getNodeIndex().size());
+        NodeGeneration.BasicNode next = NodeGeneration.generateNodes(1).iterator().next();
+        K5.addEdge(new Edge<>(next, added));
+        Assert.assertEquals(5, K5.getNodeIndex().id(next));
+    }
+
+    @Test
+    public void incidenceOrderTest() {
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(6));
+        NodeGeneration.BasicNode hub = nodes.get(0);
+        ArrayList<Edge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        for (int i = 1; i < nodes.size(); i++) {
+            edges.add(new Edge<>(hub, nodes.get(i)));
+        }
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g = new Graph<>(edges);
+        Edge<NodeGeneration.BasicNode> loop = new Edge<>(hub, hub);
+        Assert.assertTrue(g.addEdge(loop));
+        // a loop is incident once.
+        Assert.assertEquals(6, g.degree(hub));
+        Assert.assertEquals(1, g.getMaxDegreeNode().size());
+
+        // removing an edge moves the last edge, the loop, into its position, and keeps the order of the rest.
+        Assert.assertTrue(g.removeEdge(edges.get(1)));
+        Assert.assertEquals(1, g.edgeIndex(loop));
+        Assert.assertEquals(new ArrayList<>(Arrays.asList(edges.get(0), edges.get(2), edges.get(3), edges.get(4),
+                loop)), new ArrayList<>(g.incidentEdges(hub)));
+        Assert.assertTrue(g.incidentEdges(hub).contains(loop));
+        Assert.assertFalse(g.incidentEdges(hub).contains(edges.get(1)));
+        Assert.assertFalse(g.removeEdge(edges.get(1)));
+
+        // the view of a removed node stays empty when its id is given to a new node.
+        Set<Edge<NodeGeneration.BasicNode>> removed = g.incidentEdges(nodes.get(5));
+        Assert.assertEquals(1, removed.size());
+        g.removeNode(nodes.get(5));
+        NodeGeneration.BasicNode added = NodeGeneration.generateNodes(1).iterator().next();
+        g.addEdge(new Edge<>(added, hub));
+        Assert.assertTrue(removed.isEmpty());
+        Assert.assertEquals(1, g.incidentEdges(added).size());
+    }
+
+    @Test
+    public void nodeIdReuseTest() {
+        Random random = new Random(61);
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(20));
+        ArrayList<Edge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        for (int i = 0; i + 1 < nodes.size(); i++) {
+            edges.add(new Edge<>(nodes.get(i), nodes.get(i + 1)));
+        }
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g = new Graph<>(edges);
+        // churn of inserts and deletes, never holding more than 20 nodes, must not grow the id range.
+        for (int round = 0; round < 1000; round++) {
+            NodeGeneration.BasicNode removed = nodes.remove(random.nextInt(nodes.size()));
+            g.removeNode(removed);
+            NodeGeneration.BasicNode added = NodeGeneration.generateNodes(1).iterator().next();
+            g.addEdge(new Edge<>(added, nodes.get(random.nextInt(nodes.size()))));
+            nodes.add(added);
+        }
+        NodeIndex<NodeGeneration.BasicNode> index = g.getNodeIndex();
+        Assert.assertEquals(20, index.size());
+        Assert.assertEquals(20, index.count());
+        HashSet<Integer> ids = new HashSet<>();
+        for (NodeGeneration.BasicNode n : g.getNodes()) {
+            Assert.assertEquals(n, index.node(index.id(n)));
+            ids.add(index.id(n));
+        }
+        Assert.assertEquals(20, ids.size());
+    }
+
+    @Test
+    public void randomUpdatesTest() {
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(20));
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g =
+                new Graph<>(new ArrayList<Edge<NodeGeneration.BasicNode>>(), new HashSet<>(nodes));
+        Random random = new Random(17);
+        for (int i = 0; i < 2000; i++) {
+            if (random.nextInt(3) > 0 || g.getEdges().isEmpty()) {
+                g.addEdge(new Edge<>(nodes.get(random.nextInt(20)), nodes.get(random.nextInt(20))));
+            } else {
+                g.removeEdge(g.getEdges().get(random.nextInt(g.getEdges().size())));
+            }
+        }
+        int odd = 0;
+        for (NodeGeneration.BasicNode n : nodes) {
+            Assert.assertEquals(new HashSet<>(Utilities.getIncidentEdges(g.getEdges(), n)),
+                    new HashSet<>(g.incidentEdges(n)));
+            odd += Utilities.getIncidentEdges(g.getEdges(), n).size() % 2;
+        }
+        Assert.assertEquals(odd == 0, g.eulerian());
+    }
+
+    @Test
+    public void directChangeTest() {
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(5));
+        ArrayList<Edge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            edges.add(new Edge<>(nodes.get(i), nodes.get(i + 1)));
+        }
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g = new Graph<>(edges);
+        Assert.assertEquals(1, g.degree(nodes.get(0)));
+        int count = g.getModificationCount();
+
+        // changes which keep the sizes of the edge list and node set.
+        Edge<NodeGeneration.BasicNode> replacement = new Edge<>(nodes.get(4), nodes.get(2));
+        int i = g.edgeIndex(edges.get(0));
+        g.getEdges().set(i, replacement);
+        Assert.assertEquals(0, g.degree(nodes.get(0)));
+        Assert.assertEquals(3, g.degree(nodes.get(2)));
+        Assert.assertEquals(i, g.edgeIndex(replacement));
+        Assert.assertEquals(-1, g.edgeIndex(edges.get(0)));
+        Assert.assertTrue(g.getModificationCount() > count);
+
+        Edge<NodeGeneration.BasicNode> added = new Edge<>(nodes.get(0), nodes.get(3));
+        g.getEdges().remove(replacement);
+        g.getEdges().add(added);
+        Assert.assertEquals(1, g.degree(nodes.get(0)));
+        Assert.assertEquals(2, g.degree(nodes.get(2)));
+        Assert.assertTrue(g.incidentEdges(nodes.get(3)).contains(added));
+
+        g.getEdges().subList(0, g.getEdges().size()).set(g.edgeIndex(added), replacement);
+        Assert.assertEquals(0, g.degree(nodes.get(0)));
+        Assert.assertFalse(g.incidentEdges(nodes.get(3)).contains(added));
+
+        NodeGeneration.BasicNode other = NodeGeneration.generateNodes(1).iterator().next();
+        g.getNodes().remove(nodes.get(0));
+        g.getNodes().add(other);
+        Assert.assertEquals(-1, g.getNodeIndex().id(nodes.get(0)));
+        Assert.assertEquals(0, g.degree(other));
+    }
+
+    @Test
+    public void concurrentReadTest() throws Exception {
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(200));
+        ArrayList<Edge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            for (int j = 1; j <= 10; j++) {
+                edges.add(new Edge<>(nodes.get(i), nodes.get((i + j) % nodes.size())));
+            }
+        }
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g = new Graph<>(edges);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 20; round++) {
+                // a direct change, so the first readers find the index stale and race to rebuild it.
+                Edge<NodeGeneration.BasicNode> removed = g.getEdges().remove(g.getEdges().size() - 1);
+                CountDownLatch start = new CountDownLatch(1);
+                ArrayList<Future<Integer>> degrees = new ArrayList<>();
+                for (int t = 0; t < 8; t++) {
+                    degrees.add(pool.submit(() -> {
+                        start.await();
+                        int total = 0;
+                        for (NodeGeneration.BasicNode n : nodes) {
+                            total += g.degree(n);
+                        }
+                        return total;
+                    }));
+                }
+                start.countDown();
+                for (Future<Integer> total : degrees) {
+                    Assert.assertEquals(2 * g.getEdges().size(), (int) total.get());
+                }
+                Assert.assertFalse(g.incidentEdges(removed.from()).contains(removed));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void defaultNeighboursTest() {
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(4));
+        ArrayList<Edge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        edges.add(new Edge<>(nodes.get(0), nodes.get(1)));
+        edges.add(new Edge<>(nodes.get(2), nodes.get(0)));
+        edges.add(new Edge<>(nodes.get(2), nodes.get(3)));
+        // implements only the abstract methods, so the neighbourhoods come from the edge scan.
+        IGraph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g =
+                new IGraph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>>() {
+                    @Override
+                    public Collection<Edge<NodeGeneration.BasicNode>> getEdges() {
+                        return edges;
+                    }
+
+                    @Override
+                    public Set<NodeGeneration.BasicNode> getNodes() {
+                        return new HashSet<>(nodes);
+                    }
+                };
+        Assert.assertEquals(2, g.incidentEdges(nodes.get(0)).size());
+        Assert.assertEquals(new HashSet<>(new Graph<>(edges).neighbours(nodes.get(0))),
+                new HashSet<>(g.neighbours(nodes.get(0))));
+        Assert.assertEquals(1, g.neighbours(nodes.get(3)).size());
+        Assert.assertTrue(g.incidentEdges(NodeGeneration.generateNodes(1).iterator().next()).isEmpty());
+    }
+}
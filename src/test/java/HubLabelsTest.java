@@ -0,0 +1,93 @@
+import jgh.javagraph.Graph;
+import jgh.javagraph.WeightedEdge;
+import jgh.javagraph.algorithms.AlgorithmException;
+import jgh.javagraph.algorithms.Dijkstra;
+import jgh.javagraph.algorithms.ShortestPathTree;
+import jgh.javagraph.generation.NodeGeneration;
+import jgh.javagraph.routing.HubLabels;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests hub label distances against Dijkstra, and writing, reading and mapping the labels.
+ */
+public class HubLabelsTest {
+
+    @Test
+    public void distanceTest() throws AlgorithmException {
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = TestGraphs.integerGrid(20, 15, 9, 51);
+        HubLabels<NodeGeneration.BasicNode> labels = HubLabels.build(g);
+        check(g, labels);
+        // pruning keeps the labels well below one hub per pair of nodes.
+        int n = labels.getNodes().size();
+        Assert.assertTrue(labels.getLabelSize() < n * (long) n / 4);
+    }
+
+    @Test
+    public void disconnectedTest() {
+        NodeGeneration.BasicNode a = new NodeGeneration.BasicNode("a");
+        NodeGeneration.BasicNode b = new NodeGeneration.BasicNode("b");
+        NodeGeneration.BasicNode c = new NodeGeneration.BasicNode("c");
+        NodeGeneration.BasicNode d = new NodeGeneration.BasicNode("d");
+        ArrayList<WeightedEdge<NodeGeneration.BasicNode>> list = new ArrayList<>();
+        list.add(new WeightedEdge<>(a, b, 2));
+        list.add(new WeightedEdge<>(b, c, 0));
+        list.add(new WeightedEdge<>(d, d, 1));
+        HubLabels<NodeGeneration.BasicNode> labels = HubLabels.build(new Graph<>(list));
+        Assert.assertEquals(2, labels.distance(a, c), 0);
+        Assert.assertEquals(0, labels.distance(b, c), 0);
+        Assert.assertEquals(0, labels.distance(d, d), 0);
+        Assert.assertEquals(Float.MAX_VALUE, labels.distance(a, d), 0);
+    }
+
+    @Test
+    public void writeReadTest() throws IOException, AlgorithmException {
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = TestGraphs.integerGrid(12, 12, 9, 53);
+        HubLabels<NodeGeneration.BasicNode> labels = HubLabels.build(g);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        labels.write(out);
+        List<NodeGeneration.BasicNode> nodes = labels.getNodes();
+        HubLabels<NodeGeneration.BasicNode> read = HubLabels.read(new ByteArrayInputStream(out.toByteArray()), nodes);
+        Assert.assertEquals(labels.getLabelSize(), read.getLabelSize());
+        check(g, read);
+
+        try {
+            HubLabels.read(new ByteArrayInputStream(out.toByteArray()), nodes.subList(1, nodes.size()));
+            Assert.fail("Labels read with the wrong nodes.");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void mapTest() throws IOException, AlgorithmException {
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = TestGraphs.integerGrid(15, 10, 9, 57);
+        HubLabels<NodeGeneration.BasicNode> labels = HubLabels.build(g);
+        File file = File.createTempFile("hublabels", ".bin");
+        file.deleteOnExit();
+        try (OutputStream out = new FileOutputStream(file)) {
+            labels.write(out);
+        }
+        HubLabels<NodeGeneration.BasicNode> mapped = HubLabels.map(file.toPath(), labels.getNodes());
+        Assert.assertEquals(labels.getLabelSize(), mapped.getLabelSize());
+        check(g, mapped);
+    }
+
+    private static void check(Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g,
+                              HubLabels<NodeGeneration.BasicNode> labels) {
+        for (NodeGeneration.BasicNode s : g.getNodes()) {
+            ShortestPathTree<NodeGeneration.BasicNode> tree = Dijkstra.shortestPathTree(g, s);
+            for (NodeGeneration.BasicNode t : g.getNodes()) {
+                Assert.assertEquals(tree.getDistance(t), labels.distance(s, t), 1e-3f);
+            }
+        }
+    }
+}
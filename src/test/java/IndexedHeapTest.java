@@ -0,0 +1,57 @@
+import jgh.javagraph.algorithms.IndexedHeap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests for the indexed d-ary heap.
+ */
+public class IndexedHeapTest {
+
+    @Test
+    public void pollOrderTest() {
+        for (int arity = 2; arity <= 5; arity++) {
+            Random random = new Random(arity);
+            IndexedHeap heap = new IndexedHeap(200, arity);
+            float[] keys = new float[200];
+            for (int i = 0; i < 200; i++) {
+                keys[i] = random.nextFloat() * 100;
+                Assert.assertTrue(heap.offer(i, keys[i]));
+            }
+            // decrease some keys, and check larger keys are ignored.
+            for (int i = 0; i < 200; i += 3) {
+                Assert.assertFalse(heap.offer(i, keys[i] + 1));
+                keys[i] /= 2;
+                Assert.assertTrue(heap.offer(i, keys[i]));
+            }
+            float last = -1;
+            int count = 0;
+            while (!heap.isEmpty()) {
+                float key = heap.peekKey();
+                int id = heap.poll();
+                Assert.assertEquals(keys[id], key, 0f);
+                Assert.assertFalse(heap.contains(id));
+                Assert.assertTrue(key >= last);
+                last = key;
+                count++;
+            }
+            Assert.assertEquals(200, count);
+        }
+    }
+
+    @Test
+    public void clearTest() {
+        IndexedHeap heap = new IndexedHeap(4);
+        heap.offer(1, 3f);
+        heap.offer(3, 1f);
+        heap.clear();
+        Assert.assertTrue(heap.isEmpty());
+        Assert.assertFalse(heap.contains(3));
+        heap.ensureCapacity(10);
+        heap.offer(9, 2f);
+        heap.offer(3, 5f);
+        Assert.assertEquals(9, heap.poll());
+        Assert.assertEquals(3, heap.poll());
+    }
+}
@@ -0,0 +1,241 @@
+import jgh.javagraph.CompactGraph;
+import jgh.javagraph.Graph;
+import jgh.javagraph.WeightedEdge;
+import jgh.javagraph.algorithms.AStar;
+import jgh.javagraph.algorithms.JumpPointSearch;
+import jgh.javagraph.algorithms.TraversalWorkspace;
+import jgh.javagraph.generation.NodeGeneration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Tests Jump Point Search against breadth first search, and compares it with A* on a grid graph.
+ */
+public class JumpPointSearchTest {
+
+    @Test
+    public void grid2DTest() {
+        Random random = new Random(41);
+        for (int trial = 0; trial < 20; trial++) {
+            int width = 10 + random.nextInt(40);
+            int height = 10 + random.nextInt(40);
+            BitSet blocked = randomBlocked(width * height, random.nextFloat() * 0.4f, random);
+            JumpPointSearch search = new JumpPointSearch(width, height, blocked);
+            check(search, new int[]{width, height, 1}, blocked, random);
+        }
+    }
+
+    @Test
+    public void grid3DTest() {
+        Random random = new Random(43);
+        for (int trial = 0; trial < 20; trial++) {
+            int width = 4 + random.nextInt(12);
+            int height = 4 + random.nextInt(12);
+            int depth = 2 + random.nextInt(10);
+            BitSet blocked = randomBlocked(width * height * depth, random.nextFloat() * 0.4f, random);
+            JumpPointSearch search = new JumpPointSearch(width, height, depth, blocked);
+            check(search, new int[]{width, height, depth}, blocked, random);
+        }
+    }
+
+    @Test
+    public void expandedNodesBenchmark() {
+        // 200 x 200 map with walls of blocked cells.
+        final int size = 200;
+        Random random = new Random(47);
+        BitSet blocked = new BitSet(size * size);
+        for (int w = 0; w < 60; w++) {
+            int x = random.nextInt(size);
+            int y = random.nextInt(size);
+            boolean horizontal = random.nextBoolean();
+            for (int k = 0; k < 30 && x < size && y < size; k++) {
+                blocked.set(x + y * size);
+                if (horizontal) x++; else y++;
+            }
+        }
+        final NodeGeneration.BasicNode[] cells = new NodeGeneration.BasicNode[size * size];
+        for (int i = 0; i < cells.length; i++) {
+            if (!blocked.get(i))
+                cells[i] = new NodeGeneration.BasicNode("" + i);
+        }
+        ArrayList<WeightedEdge<NodeGeneration.BasicNode>> list = new ArrayList<>();
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == null)
+                continue;
+            if (i % size < size - 1 && cells[i + 1] != null)
+                list.add(new WeightedEdge<>(cells[i], cells[i + 1], 1));
+            if (i + size < cells.length && cells[i + size] != null)
+                list.add(new WeightedEdge<>(cells[i], cells[i + size], 1));
+        }
+        CompactGraph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> compact = new Graph<>(list).freeze();
+        AStar.IAStarHeuristic<NodeGeneration.BasicNode> manhattan = (t, goal) -> {
+            int a = Integer.parseInt(t.getLabel());
+            int b = Integer.parseInt(goal.getLabel());
+            return Math.abs(a % size - b % size) + Math.abs(a / size - b / size);
+        };
+
+        JumpPointSearch search = new JumpPointSearch(size, size, blocked);
+        TraversalWorkspace jps = new TraversalWorkspace();
+        TraversalWorkspace astar = new TraversalWorkspace();
+        int[][] queries = new int[30][];
+        for (int q = 0; q < queries.length; q++) {
+            int s, f;
+            do {
+                s = random.nextInt(size * size);
+                f = random.nextInt(size * size);
+            } while (blocked.get(s) || blocked.get(f));
+            queries[q] = new int[]{s, f};
+        }
+        long jpsExpanded = 0, astarExpanded = 0;
+        long jpsBest = Long.MAX_VALUE, astarBest = Long.MAX_VALUE;
+        // the best round of each is taken, so that the searches are compared once both are compiled.
+        for (int round = 0; round < 20; round++) {
+            long jpsTime = 0, astarTime = 0;
+            jpsExpanded = astarExpanded = 0;
+            for (int[] query : queries) {
+                int s = query[0], f = query[1];
+                long t0 = System.nanoTime();
+                int[] path = search.findPath(s, f, jps);
+                long t1 = System.nanoTime();
+                ArrayList<NodeGeneration.BasicNode> expected = AStar.findMinPath(compact, cells[s], cells[f], manhattan, astar);
+                long t2 = System.nanoTime();
+                jpsTime += t1 - t0;
+                astarTime += t2 - t1;
+                jpsExpanded += jps.visitedCount();
+                astarExpanded += astar.visitedCount();
+                if (path.length > 0)
+                    Assert.assertEquals(expected.size(), path.length);
+            }
+            jpsBest = Math.min(jpsBest, jpsTime);
+            astarBest = Math.min(astarBest, astarTime);
+        }
+        System.out.println("200x200 map, 30 queries: A* expanded " + astarExpanded + " nodes in " + astarBest / 1e6
+                + " ms, JPS expanded " + jpsExpanded + " jump points in " + jpsBest / 1e6 + " ms");
+        Assert.assertTrue(jpsExpanded * 5 < astarExpanded);
+        Assert.assertTrue(jpsBest * 10 < astarBest);
+    }
+
+    @Test
+    public void blockedChangeTest() {
+        Random random = new Random(59);
+        final int width = 40, height = 30;
+        BitSet blocked = randomBlocked(width * height, 0.2f, random);
+        JumpPointSearch search = new JumpPointSearch(width, height, blocked);
+        check(search, new int[]{width, height, 1}, blocked, random);
+        // the search must see cells blocked and opened after its first queries.
+        for (int round = 0; round < 5; round++) {
+            for (int k = 0; k < 100; k++) {
+                blocked.flip(random.nextInt(width * height));
+            }
+            check(search, new int[]{width, height, 1}, blocked, random);
+        }
+    }
+
+    @Test
+    public void concurrentQueryTest() throws InterruptedException {
+        Random random = new Random(53);
+        final int width = 60, height = 50;
+        BitSet blocked = randomBlocked(width * height, 0.25f, random);
+        final JumpPointSearch search = new JumpPointSearch(width, height, blocked);
+        final int[][] queries = new int[200][];
+        final int[][] expected = new int[queries.length][];
+        for (int q = 0; q < queries.length; q++) {
+            queries[q] = new int[]{random.nextInt(width * height), random.nextInt(width * height)};
+            expected[q] = search.findPath(queries[q][0], queries[q][1]);
+        }
+        // threads sharing the search, each with its own workspace, must find the same paths.
+        final int[][][] found = new int[4][queries.length][];
+        Thread[] threads = new Thread[found.length];
+        for (int t = 0; t < threads.length; t++) {
+            final int[][] results = found[t];
+            threads[t] = new Thread(() -> {
+                for (int q = 0; q < queries.length; q++) {
+                    results[q] = search.findPath(queries[q][0], queries[q][1]);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int[][] results : found) {
+            for (int q = 0; q < queries.length; q++) {
+                Assert.assertArrayEquals(expected[q], results[q]);
+            }
+        }
+    }
+
+    private static void check(JumpPointSearch search, int[] size, BitSet blocked, Random random) {
+        int n = size[0] * size[1] * size[2];
+        for (int q = 0; q < 20; q++) {
+            int s = random.nextInt(n);
+            int f = random.nextInt(n);
+            int[] path = search.findPath(s, f);
+            int expected = blocked.get(s) || blocked.get(f) ? -1 : bfs(size, blocked, s, f);
+            if (expected == -1) {
+                Assert.assertEquals(0, path.length);
+                continue;
+            }
+            Assert.assertEquals(Arrays.toString(size) + " " + s + " -> " + f, expected + 1, path.length);
+            Assert.assertEquals(s, path[0]);
+            Assert.assertEquals(f, path[path.length - 1]);
+            for (int i = 0; i < path.length; i++) {
+                Assert.assertFalse(blocked.get(path[i]));
+                if (i > 0)
+                    Assert.assertEquals(1, manhattan(size, path[i - 1], path[i]));
+            }
+        }
+    }
+
+    private static int bfs(int[] size, BitSet blocked, int s, int f) {
+        int n = size[0] * size[1] * size[2];
+        int[] distance = new int[n];
+        Arrays.fill(distance, -1);
+        distance[s] = 0;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(s);
+        int[] strides = {1, size[0], size[0] * size[1]};
+        while (!queue.isEmpty()) {
+            int c = queue.poll();
+            if (c == f)
+                return distance[c];
+            for (int axis = 0; axis < 3; axis++) {
+                int coordinate = c / strides[axis] % size[axis];
+                for (int sign = -1; sign <= 1; sign += 2) {
+                    if (coordinate + sign < 0 || coordinate + sign >= size[axis])
+                        continue;
+                    int next = c + sign * strides[axis];
+                    if (blocked.get(next) || distance[next] != -1)
+                        continue;
+                    distance[next] = distance[c] + 1;
+                    queue.add(next);
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int manhattan(int[] size, int a, int b) {
+        int[] strides = {1, size[0], size[0] * size[1]};
+        int d = 0;
+        for (int axis = 0; axis < 3; axis++) {
+            d += Math.abs(a / strides[axis] % size[axis] - b / strides[axis] % size[axis]);
+        }
+        return d;
+    }
+
+    private static BitSet randomBlocked(int n, float density, Random random) {
+        BitSet blocked = new BitSet(n);
+        for (int i = 0; i < n; i++) {
+            if (random.nextFloat() < density)
+                blocked.set(i);
+        }
+        return blocked;
+    }
+}
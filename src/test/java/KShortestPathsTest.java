@@ -0,0 +1,83 @@
+import jgh.javagraph.Graph;
+import jgh.javagraph.WeightedEdge;
+import jgh.javagraph.algorithms.Dijkstra;
+import jgh.javagraph.algorithms.KShortestPaths;
+import jgh.javagraph.generation.NodeGeneration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * Tests for Yen's k shortest loopless paths, against every simple path of small graphs.
+ */
+public class KShortestPathsTest {
+
+    @Test
+    public void allSimplePathsTest() {
+        Random random = new Random(37);
+        for (int trial = 0; trial < 10; trial++) {
+            ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(8));
+            ArrayList<WeightedEdge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+            for (int i = 0; i < nodes.size(); i++) {
+                for (int j = i + 1; j < nodes.size(); j++) {
+                    if (random.nextFloat() < 0.5f)
+                        edges.add(new WeightedEdge<>(nodes.get(i), nodes.get(j), 1 + random.nextInt(9)));
+                }
+            }
+            Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = new Graph<>(edges, new HashSet<>(nodes));
+            NodeGeneration.BasicNode start = nodes.get(0);
+            NodeGeneration.BasicNode finish = nodes.get(7);
+
+            ArrayList<Float> all = new ArrayList<>();
+            simplePaths(g, finish, new ArrayList<>(Collections.singletonList(start)), 0, all);
+            Collections.sort(all);
+
+            List<ArrayList<NodeGeneration.BasicNode>> paths = KShortestPaths.yen(g, start, finish, 10);
+            List<ArrayList<NodeGeneration.BasicNode>> parallel = KShortestPaths.yen(g, start, finish, 10, true);
+            Assert.assertEquals(Math.min(10, all.size()), paths.size());
+            Assert.assertEquals(paths.size(), parallel.size());
+            HashSet<List<NodeGeneration.BasicNode>> distinct = new HashSet<>();
+            for (int i = 0; i < paths.size(); i++) {
+                ArrayList<NodeGeneration.BasicNode> path = paths.get(i);
+                Assert.assertEquals(finish, path.get(0));
+                Assert.assertEquals(start, path.get(path.size() - 1));
+                Assert.assertEquals(path.size(), new HashSet<>(path).size());
+                Assert.assertTrue(distinct.add(path));
+                Assert.assertEquals(all.get(i), TestGraphs.pathWeight(g, path), 1e-4f);
+                Assert.assertEquals(all.get(i), TestGraphs.pathWeight(g, parallel.get(i)), 1e-4f);
+            }
+            if (!paths.isEmpty())
+                Assert.assertEquals(TestGraphs.pathWeight(g, Dijkstra.findMinPath(g, start, finish)), TestGraphs.pathWeight(g, paths.get(0)), 1e-4f);
+        }
+    }
+
+    @Test
+    public void unreachableTest() {
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(4));
+        ArrayList<WeightedEdge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        edges.add(new WeightedEdge<>(nodes.get(0), nodes.get(1), 1));
+        edges.add(new WeightedEdge<>(nodes.get(2), nodes.get(3), 1));
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = new Graph<>(edges);
+        Assert.assertTrue(KShortestPaths.yen(g, nodes.get(0), nodes.get(3), 3).isEmpty());
+        Assert.assertEquals(1, KShortestPaths.yen(g, nodes.get(0), nodes.get(1), 3).size());
+    }
+
+    private static void simplePaths(Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g,
+                                    NodeGeneration.BasicNode finish, ArrayList<NodeGeneration.BasicNode> path,
+                                    float weight, ArrayList<Float> out) {
+        NodeGeneration.BasicNode last = path.get(path.size() - 1);
+        if (last == finish) {
+            out.add(weight);
+            return;
+        }
+        for (WeightedEdge<NodeGeneration.BasicNode> e : g.incidentEdges(last)) {
+            NodeGeneration.BasicNode next = e.from() == last ? e.to() : e.from();
+            if (path.contains(next))
+                continue;
+            path.add(next);
+            simplePaths(g, finish, path, weight + e.getWeight(), out);
+            path.remove(path.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+import jgh.javagraph.Graph;
+import jgh.javagraph.WeightedEdge;
+import jgh.javagraph.algorithms.AStar;
+import jgh.javagraph.algorithms.AlgorithmException;
+import jgh.javagraph.algorithms.Dijkstra;
+import jgh.javagraph.algorithms.ShortestPathTree;
+import jgh.javagraph.algorithms.TraversalWorkspace;
+import jgh.javagraph.generation.NodeGeneration;
+import jgh.javagraph.routing.LandmarkHeuristic;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Tests for the landmark (ALT) heuristic.
+ */
+public class LandmarkHeuristicTest {
+
+    @Test
+    public void admissibleTest() throws AlgorithmException {
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = TestGraphs.integerGrid(20, 20, 5, 2);
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(g.getNodes());
+        for (LandmarkHeuristic.Selection selection : LandmarkHeuristic.Selection.values()) {
+            LandmarkHeuristic<NodeGeneration.BasicNode> heuristic = new LandmarkHeuristic<>(g, 4, selection);
+            Assert.assertEquals(4, heuristic.getLandmarks().size());
+            NodeGeneration.BasicNode goal = nodes.get(17);
+            ShortestPathTree<NodeGeneration.BasicNode> tree = Dijkstra.shortestPathTree(g, goal);
+            for (NodeGeneration.BasicNode n : nodes) {
+                Assert.assertTrue(heuristic.getHeuristic(n, goal) <= tree.getDistance(n) + 1e-3f);
+            }
+        }
+    }
+
+    @Test
+    public void fewerNodesVisitedTest() throws AlgorithmException {
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = TestGraphs.integerGrid(40, 40, 5, 4);
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(g.getNodes());
+        LandmarkHeuristic<NodeGeneration.BasicNode> heuristic =
+                new LandmarkHeuristic<>(g, 8, LandmarkHeuristic.Selection.FARTHEST);
+        AStar.IAStarHeuristic<NodeGeneration.BasicNode> zero = (t, goal) -> 0;
+        TraversalWorkspace workspace = new TraversalWorkspace();
+        Random random = new Random(9);
+        long alt = 0;
+        long plain = 0;
+        for (int q = 0; q < 30; q++) {
+            NodeGeneration.BasicNode s = nodes.get(random.nextInt(nodes.size()));
+            NodeGeneration.BasicNode f = nodes.get(random.nextInt(nodes.size()));
+            ArrayList<NodeGeneration.BasicNode> expected = AStar.findMinPath(g, s, f, zero, workspace);
+            plain += workspace.visitedCount();
+            ArrayList<NodeGeneration.BasicNode> path = AStar.findMinPath(g, s, f, heuristic, workspace);
+            alt += workspace.visitedCount();
+            Assert.assertEquals(TestGraphs.pathWeight(g, expected), TestGraphs.pathWeight(g, path), 1e-2f);
+        }
+        System.out.println("40x40 grid, 30 queries: A* with zero heuristic visited " + plain
+                + " nodes, with 8 landmarks visited " + alt + " nodes");
+        Assert.assertTrue(alt < plain);
+    }
+}
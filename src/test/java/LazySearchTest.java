@@ -0,0 +1,112 @@
+import jgh.javagraph.Edge;
+import jgh.javagraph.Graph;
+import jgh.javagraph.algorithms.AlgorithmException;
+import jgh.javagraph.algorithms.GraphSearch;
+import jgh.javagraph.generation.NodeGeneration;
+import jgh.javagraph.generation.SpecialGeneration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Tests the lazy breadth first and depth first search streams.
+ */
+public class LazySearchTest {
+
+    @Test
+    public void breadthFirstTest() throws AlgorithmException {
+        HashSet<NodeGeneration.BasicNode> set = NodeGeneration.generateNodes(30 * 20);
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g = SpecialGeneration.generateGrid(set, 30);
+        NodeGeneration.BasicNode start = g.getNodes().iterator().next();
+        List<GraphSearch.Visit<NodeGeneration.BasicNode>> visits = GraphSearch.bfs(g, start).collect(Collectors.toList());
+        Assert.assertEquals(g.getNodes().size(), visits.size());
+        Assert.assertEquals(start, visits.get(0).getNode());
+        Assert.assertNull(visits.get(0).getParent());
+
+        HashMap<NodeGeneration.BasicNode, Integer> depth = new HashMap<>();
+        int last = 0;
+        for (GraphSearch.Visit<NodeGeneration.BasicNode> v : visits) {
+            Assert.assertNull(depth.put(v.getNode(), v.getDepth()));
+            Assert.assertTrue(v.getDepth() >= last);
+            last = v.getDepth();
+            if (v.getParent() != null) {
+                Assert.assertEquals(depth.get(v.getParent()) + 1, v.getDepth());
+                Assert.assertTrue(adjacent(g, v.getParent(), v.getNode()));
+            }
+        }
+        // breadth first depths are hop distances, so no edge joins nodes two or more levels apart.
+        for (Edge<NodeGeneration.BasicNode> e : g.getEdges()) {
+            Assert.assertTrue(Math.abs(depth.get(e.from()) - depth.get(e.to())) <= 1);
+        }
+    }
+
+    @Test
+    public void maxDepthTest() throws AlgorithmException {
+        HashSet<NodeGeneration.BasicNode> set = NodeGeneration.generateNodes(200 * 200);
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g = SpecialGeneration.generateGrid(set, 200);
+        // grid positions follow the set's iteration order.
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(set);
+        NodeGeneration.BasicNode centre = nodes.get(100 * 200 + 100);
+        // nodes within 3 hops of an interior grid node: 1 + 4 + 8 + 12.
+        Assert.assertEquals(25, GraphSearch.bfs(g, centre, 3).count());
+        Assert.assertTrue(GraphSearch.dfs(g, centre, 3).allMatch(v -> v.getDepth() <= 3));
+
+        Optional<GraphSearch.Visit<NodeGeneration.BasicNode>> found = GraphSearch.bfs(g, centre, 3)
+                .filter(v -> v.getDepth() == 2).findFirst();
+        Assert.assertTrue(found.isPresent());
+        Assert.assertTrue(adjacent(g, found.get().getParent(), found.get().getNode()));
+
+        Iterator<GraphSearch.Visit<NodeGeneration.BasicNode>> iterator = GraphSearch.bfs(g, centre).iterator();
+        Assert.assertEquals(centre, iterator.next().getNode());
+        Assert.assertEquals(1, iterator.next().getDepth());
+    }
+
+    @Test
+    public void depthFirstTest() throws AlgorithmException {
+        HashSet<NodeGeneration.BasicNode> set = NodeGeneration.generateNodes(15 * 15);
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g = SpecialGeneration.generateGrid(set, 15);
+        // grid positions follow the set's iteration order.
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(set);
+        NodeGeneration.BasicNode start = nodes.get(7);
+        List<GraphSearch.Visit<NodeGeneration.BasicNode>> visits = GraphSearch.dfs(g, start).collect(Collectors.toList());
+        Assert.assertEquals(g.getNodes().size(), visits.size());
+
+        HashMap<NodeGeneration.BasicNode, GraphSearch.Visit<NodeGeneration.BasicNode>> byNode = new HashMap<>();
+        for (GraphSearch.Visit<NodeGeneration.BasicNode> v : visits) {
+            Assert.assertNull(byNode.put(v.getNode(), v));
+            if (v.getParent() != null) {
+                Assert.assertEquals(byNode.get(v.getParent()).getDepth() + 1, v.getDepth());
+                Assert.assertTrue(adjacent(g, v.getParent(), v.getNode()));
+            }
+        }
+        // in a depth first search tree of an undirected graph every edge joins a node to an ancestor.
+        for (Edge<NodeGeneration.BasicNode> e : g.getEdges()) {
+            Assert.assertTrue(isAncestor(byNode, e.from(), e.to()) || isAncestor(byNode, e.to(), e.from()));
+        }
+    }
+
+    private static boolean isAncestor(HashMap<NodeGeneration.BasicNode, GraphSearch.Visit<NodeGeneration.BasicNode>> byNode,
+                                      NodeGeneration.BasicNode ancestor, NodeGeneration.BasicNode node) {
+        for (NodeGeneration.BasicNode c = node; c != null; c = byNode.get(c).getParent()) {
+            if (c == ancestor)
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean adjacent(Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g,
+                                    NodeGeneration.BasicNode a, NodeGeneration.BasicNode b) {
+        for (Edge<NodeGeneration.BasicNode> e : g.incidentEdges(a)) {
+            if (e.from() == b || e.to() == b)
+                return true;
+        }
+        return false;
+    }
+}
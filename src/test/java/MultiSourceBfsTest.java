@@ -0,0 +1,58 @@
+import jgh.javagraph.CompactGraph;
+import jgh.javagraph.Edge;
+import jgh.javagraph.Graph;
+import jgh.javagraph.algorithms.MultiSourceBfs;
+import jgh.javagraph.generation.NodeGeneration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests for multi-source bit-parallel breadth first search.
+ */
+public class MultiSourceBfsTest {
+
+    @Test
+    public void sameDistanceTest() {
+        // sparse enough to leave some nodes unreachable.
+        CompactGraph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g = TestGraphs.randomGraph(3000, 3600, 97).freeze();
+        Random random = new Random(101);
+        // more than one batch, with a repeated source.
+        List<NodeGeneration.BasicNode> sources = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            sources.add(g.node(random.nextInt(g.nodeCount())));
+        }
+        sources.add(sources.get(0));
+        ForkJoinPool pool = new ForkJoinPool(2);
+        int[][] distances = MultiSourceBfs.hopDistances(g, sources, Integer.MAX_VALUE, pool);
+        pool.shutdown();
+        Assert.assertEquals(sources.size(), distances.length);
+        for (int i = 0; i < sources.size(); i++) {
+            Assert.assertArrayEquals(TestGraphs.hopDistances(g, g.id(sources.get(i)), Integer.MAX_VALUE), distances[i]);
+        }
+
+        int[][] near = MultiSourceBfs.hopDistances(g, sources.subList(0, 70), 3);
+        for (int i = 0; i < 70; i++) {
+            Assert.assertArrayEquals(TestGraphs.hopDistances(g, g.id(sources.get(i)), 3), near[i]);
+        }
+    }
+
+    @Test
+    public void targetsTest() {
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(5));
+        ArrayList<Edge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        edges.add(new Edge<>(nodes.get(0), nodes.get(1)));
+        edges.add(new Edge<>(nodes.get(1), nodes.get(2)));
+        edges.add(new Edge<>(nodes.get(3), nodes.get(4)));
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g = new Graph<>(edges);
+        int[][] matrix = MultiSourceBfs.hopDistances(g, Arrays.asList(nodes.get(0), nodes.get(4)),
+                Arrays.asList(nodes.get(2), nodes.get(3), nodes.get(0)));
+        Assert.assertArrayEquals(new int[]{2, -1, 0}, matrix[0]);
+        Assert.assertArrayEquals(new int[]{-1, 1, -1}, matrix[1]);
+    }
+}
@@ -1,11 +1,27 @@
+import jgh.javagraph.CompactGraph;
 import jgh.javagraph.Edge;
 import jgh.javagraph.Graph;
+import jgh.javagraph.IGraph;
+import jgh.javagraph.WeightedEdge;
+import jgh.javagraph.algorithms.AlgorithmException;
 import jgh.javagraph.algorithms.Connectivity;
+import jgh.javagraph.algorithms.DeltaStepping;
+import jgh.javagraph.algorithms.Dijkstra;
+import jgh.javagraph.algorithms.DirectionOptimizingBfs;
+import jgh.javagraph.algorithms.GraphSearch;
+import jgh.javagraph.algorithms.MultiSourceBfs;
+import jgh.javagraph.algorithms.ShortestPathTree;
+import jgh.javagraph.algorithms.TraversalWorkspace;
 import jgh.javagraph.generation.CompleteGeneration;
 import jgh.javagraph.generation.NodeGeneration;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 
 public class SpeedTest {
@@ -99,4 +115,122 @@ public class SpeedTest {
 //        duration = (endTime - startTime) *1f / 1000000;
 //        System.out.println("K640 connectivity test took "+duration+" ms");
     }
+
+    @Test
+    public void testDialSpeed() throws AlgorithmException {
+        // 300 x 300 grid with weights in [1, 10], heap and bucket queue searches on the same queries.
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g =
+                TestGraphs.integerGrid(300, 300, 10, 73);
+        CompactGraph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> compact = g.freeze();
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(g.getNodes());
+        TraversalWorkspace workspace = new TraversalWorkspace();
+        Random random = new Random(79);
+        long heapTime = 0;
+        long dialTime = 0;
+        for (int q = 0; q < 40; q++) {
+            NodeGeneration.BasicNode s = nodes.get(random.nextInt(nodes.size()));
+            NodeGeneration.BasicNode f = nodes.get(random.nextInt(nodes.size()));
+            long t0 = System.nanoTime();
+            ArrayList<NodeGeneration.BasicNode> expected = Dijkstra.findMinPath(compact, s, f, workspace);
+            long t1 = System.nanoTime();
+            ArrayList<NodeGeneration.BasicNode> path = Dijkstra.findMinPathDial(compact, s, f, 10, workspace);
+            long t2 = System.nanoTime();
+            if (q >= 10) {
+                // the first queries warm up both searches.
+                heapTime += t1 - t0;
+                dialTime += t2 - t1;
+            }
+            Assert.assertEquals(TestGraphs.pathWeight(g, expected), TestGraphs.pathWeight(g, path), 0);
+        }
+        System.out.println("300x300 grid, 30 queries: heap Dijkstra took " + heapTime / 1e6
+                + " ms, Dial's algorithm took " + dialTime / 1e6 + " ms");
+    }
+
+    @Test
+    public void testDeltaSteppingSpeed() throws AlgorithmException {
+        CompactGraph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g = TestGraphs.weightedGrid(400, 400, 13).freeze();
+        NodeGeneration.BasicNode source = g.node(0);
+        long start = System.nanoTime();
+        ShortestPathTree<NodeGeneration.BasicNode> expected = Dijkstra.shortestPathTree(g, source);
+        System.out.println("400x400 grid, sequential Dijkstra took " + (System.nanoTime() - start) / 1e6 + " ms");
+        for (int p = 1; p <= 32; p *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(p);
+            start = System.nanoTime();
+            ShortestPathTree<NodeGeneration.BasicNode> tree = DeltaStepping.shortestPaths(g, source, 1.5f, pool);
+            System.out.println("400x400 grid, delta-stepping on " + p + " threads took "
+                    + (System.nanoTime() - start) / 1e6 + " ms");
+            pool.shutdown();
+            Assert.assertEquals(expected.getDistance(g.node(g.nodeCount() - 1)),
+                    tree.getDistance(g.node(g.nodeCount() - 1)), 1e-2f);
+        }
+    }
+
+    @Test
+    public void testDirectionOptimizingBfsSpeed() {
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g = TestGraphs.randomGraph(100000, 1000000, 89);
+        CompactGraph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> compact = g.freeze();
+        NodeGeneration.BasicNode source = g.getNodes().iterator().next();
+        // warm up both searches.
+        DirectionOptimizingBfs.search(compact, source);
+        GraphSearch.searchBreadthFirst(g, new Counter());
+
+        long t0 = System.nanoTime();
+        Counter counter = new Counter();
+        GraphSearch.searchBreadthFirst(g, counter);
+        long t1 = System.nanoTime();
+        ShortestPathTree<NodeGeneration.BasicNode> tree = DirectionOptimizingBfs.search(compact, source);
+        long t2 = System.nanoTime();
+        System.out.println("100000 nodes, 1000000 edges: searchBreadthFirst took " + (t1 - t0) / 1e6
+                + " ms, direction optimising BFS took " + (t2 - t1) / 1e6 + " ms on "
+                + ForkJoinPool.getCommonPoolParallelism() + " common pool threads");
+        int reached = 0;
+        for (int i = 0; i < compact.nodeCount(); i++) {
+            if (tree.isReachable(compact.node(i)))
+                reached++;
+        }
+        Assert.assertEquals(counter.mCount, reached);
+    }
+
+    @Test
+    public void testMultiSourceBfsSpeed() {
+        CompactGraph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g =
+                TestGraphs.randomGraph(50000, 400000, 103).freeze();
+        Random random = new Random(107);
+        List<NodeGeneration.BasicNode> sources = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            sources.add(g.node(random.nextInt(g.nodeCount())));
+        }
+        // warm up both searches.
+        MultiSourceBfs.hopDistances(g, sources.subList(0, 64));
+        TestGraphs.hopDistances(g, 0, Integer.MAX_VALUE);
+
+        long t0 = System.nanoTime();
+        int[][] distances = MultiSourceBfs.hopDistances(g, sources);
+        long t1 = System.nanoTime();
+        for (int i = 0; i < sources.size(); i++) {
+            TestGraphs.hopDistances(g, g.id(sources.get(i)), Integer.MAX_VALUE);
+        }
+        long t2 = System.nanoTime();
+        System.out.println("50000 nodes, 400000 edges, 256 sources: multi-source BFS took " + (t1 - t0) / 1e6
+                + " ms, one BFS per source took " + (t2 - t1) / 1e6 + " ms");
+        Assert.assertArrayEquals(TestGraphs.hopDistances(g, g.id(sources.get(255)), Integer.MAX_VALUE), distances[255]);
+    }
+
+    /**
+     * Counts the nodes a search reaches.
+     */
+    private static final class Counter implements GraphSearch.INextNode<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> {
+        int mCount;
+
+        @Override
+        public void onNextNode(IGraph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> graph,
+                               NodeGeneration.BasicNode previous, NodeGeneration.BasicNode current) {
+            mCount++;
+        }
+
+        @Override
+        public boolean forceStop() {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,147 @@
+import jgh.javagraph.CompactGraph;
+import jgh.javagraph.DirectedWeightedEdge;
+import jgh.javagraph.Direction;
+import jgh.javagraph.Edge;
+import jgh.javagraph.Graph;
+import jgh.javagraph.WeightedEdge;
+import jgh.javagraph.algorithms.AlgorithmException;
+import jgh.javagraph.generation.NodeGeneration;
+import jgh.javagraph.generation.SpecialGeneration;
+import org.junit.Assert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Graphs, path weights and hop distances shared by the path finding and search tests.
+ */
+final class TestGraphs {
+
+    private TestGraphs() {
+    }
+
+    /**
+     * Returns a <i>width</i> by <i>height</i> grid whose edges have random integer weights in
+     * <i>[1, maxWeight]</i>.
+     */
+    static Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> integerGrid(int width, int height,
+                                                                                           int maxWeight, long seed)
+            throws AlgorithmException {
+        Random random = new Random(seed);
+        return grid(width, height, () -> 1f + random.nextInt(maxWeight));
+    }
+
+    /**
+     * Returns a <i>width</i> by <i>height</i> grid whose edges have random weights in <i>[1, 2)</i>.
+     */
+    static Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> weightedGrid(int width, int height,
+                                                                                            long seed)
+            throws AlgorithmException {
+        Random random = new Random(seed);
+        return grid(width, height, () -> 1 + random.nextFloat());
+    }
+
+    private static Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> grid(int width, int height,
+                                                                                            Supplier<Float> weights)
+            throws AlgorithmException {
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> grid =
+                SpecialGeneration.generateGrid(NodeGeneration.generateNodes(width * height), width);
+        ArrayList<WeightedEdge<NodeGeneration.BasicNode>> edges = new ArrayList<>();
+        for (Edge<NodeGeneration.BasicNode> e : grid.getEdges()) {
+            edges.add(new WeightedEdge<>(e.from(), e.to(), weights.get()));
+        }
+        return new Graph<>(edges);
+    }
+
+    /**
+     * Returns a graph of <i>m</i> edges between random pairs of <i>n</i> nodes, which may include loops and
+     * repeated edges.
+     */
+    static Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> randomGraph(int n, int m, long seed) {
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(NodeGeneration.generateNodes(n));
+        Random random = new Random(seed);
+        ArrayList<Edge<NodeGeneration.BasicNode>> edges = new ArrayList<>(m);
+        for (int i = 0; i < m; i++) {
+            edges.add(new Edge<>(nodes.get(random.nextInt(n)), nodes.get(random.nextInt(n))));
+        }
+        return new Graph<>(edges);
+    }
+
+    /**
+     * Returns the hop distances from node id <i>s</i>, by a queue based breadth first search up to
+     * <code>maxDepth</code> edges, with -1 for nodes not reached.
+     */
+    static int[] hopDistances(CompactGraph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> g, int s,
+                              int maxDepth) {
+        int[] distance = new int[g.nodeCount()];
+        Arrays.fill(distance, -1);
+        int[] queue = new int[g.nodeCount()];
+        int head = 0;
+        int tail = 0;
+        distance[s] = 0;
+        queue[tail++] = s;
+        while (head < tail) {
+            int u = queue[head++];
+            if (distance[u] == maxDepth)
+                continue;
+            for (int a = g.arcStart(u); a < g.arcEnd(u); a++) {
+                int v = g.target(a);
+                if (distance[v] == -1) {
+                    distance[v] = distance[u] + 1;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Returns the weight of a path of the graph, taking the lightest edge between each pair of consecutive
+     * nodes.
+     */
+    static float pathWeight(Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g,
+                            List<NodeGeneration.BasicNode> path) {
+        float w = 0;
+        for (int i = 0; i + 1 < path.size(); i++) {
+            float best = Float.MAX_VALUE;
+            for (WeightedEdge<NodeGeneration.BasicNode> e : g.incidentEdges(path.get(i))) {
+                if (e.from() == path.get(i + 1) || e.to() == path.get(i + 1))
+                    best = Math.min(best, e.getWeight());
+            }
+            Assert.assertTrue("Path steps between nodes with no edge.", best != Float.MAX_VALUE);
+            w += best;
+        }
+        return w;
+    }
+
+    /**
+     * Returns the weight of a path over directed edges. Paths run from the final node back to the start, so
+     * each step is along an edge from <i>path[i + 1]</i> to <i>path[i]</i>.
+     */
+    static float pathWeight(List<DirectedWeightedEdge<NodeGeneration.BasicNode>> edges,
+                            List<NodeGeneration.BasicNode> path) {
+        float weight = 0;
+        for (int i = 0; i + 1 < path.size(); i++) {
+            weight += edgeWeight(edges, path.get(i + 1), path.get(i));
+        }
+        return weight;
+    }
+
+    /**
+     * Returns the weight of the lightest edge which can be followed from <code>from</code> to <code>to</code>,
+     * or <code>Float.MAX_VALUE</code> if there is none.
+     */
+    static float edgeWeight(List<DirectedWeightedEdge<NodeGeneration.BasicNode>> edges,
+                            NodeGeneration.BasicNode from, NodeGeneration.BasicNode to) {
+        float weight = Float.MAX_VALUE;
+        for (DirectedWeightedEdge<NodeGeneration.BasicNode> e : edges) {
+            if (e.from() == from && e.to() == to && e.getDirection() != Direction.BACKWARDS
+                    || e.from() == to && e.to() == from && e.getDirection() != Direction.FORWARDS)
+                weight = Math.min(weight, e.getWeight());
+        }
+        return weight;
+    }
+}
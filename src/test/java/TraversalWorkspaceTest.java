@@ -0,0 +1,92 @@
+import jgh.javagraph.Edge;
+import jgh.javagraph.Graph;
+import jgh.javagraph.IGraph;
+import jgh.javagraph.WeightedEdge;
+import jgh.javagraph.algorithms.AlgorithmException;
+import jgh.javagraph.algorithms.Dijkstra;
+import jgh.javagraph.algorithms.GraphSearch;
+import jgh.javagraph.algorithms.TraversalWorkspace;
+import jgh.javagraph.generation.CompleteGeneration;
+import jgh.javagraph.generation.NodeGeneration;
+import jgh.javagraph.generation.SpecialGeneration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+/**
+ * Tests for reusing a <code>TraversalWorkspace</code> between searches.
+ */
+public class TraversalWorkspaceTest {
+
+    @Test
+    public void resetTest() {
+        TraversalWorkspace workspace = new TraversalWorkspace();
+        workspace.reset(10);
+        workspace.setDistance(3, 2.5f);
+        workspace.setPrevious(3, 1);
+        workspace.visit(4);
+        Assert.assertTrue(workspace.isReached(3));
+        Assert.assertEquals(2.5f, workspace.distance(3), 0f);
+        Assert.assertEquals(1, workspace.visitedCount());
+
+        workspace.reset(20);
+        Assert.assertFalse(workspace.isReached(3));
+        Assert.assertFalse(workspace.isVisited(4));
+        Assert.assertEquals(Float.MAX_VALUE, workspace.distance(3), 0f);
+        Assert.assertEquals(-1, workspace.previous(3));
+        Assert.assertEquals(0, workspace.visitedCount());
+    }
+
+    @Test
+    public void repeatedDijkstraTest() {
+        Graph<NodeGeneration.BasicNode, WeightedEdge<NodeGeneration.BasicNode>> g =
+                CompleteGeneration.createRandomWeighted(NodeGeneration.generateNodes(30), 10f);
+        ArrayList<NodeGeneration.BasicNode> nodes = new ArrayList<>(g.getNodes());
+        TraversalWorkspace workspace = new TraversalWorkspace();
+        for (int i = 1; i < nodes.size(); i++) {
+            Assert.assertEquals(Dijkstra.findMinPath(g, nodes.get(0), nodes.get(i), new TraversalWorkspace()),
+                    Dijkstra.findMinPath(g, nodes.get(0), nodes.get(i), workspace));
+        }
+        // after the first query the workspace buffers are large enough, so they are reused.
+        int[] buffer = workspace.ints(0);
+        Dijkstra.findMinPath(g, nodes.get(1), nodes.get(2), workspace);
+        Assert.assertSame(buffer, workspace.ints(0));
+    }
+
+    @Test
+    public void edgeSearchTest() throws AlgorithmException {
+        Graph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> grid =
+                SpecialGeneration.generateGrid(NodeGeneration.generateNodes(20), 4);
+        TraversalWorkspace workspace = new TraversalWorkspace();
+        for (int k = 0; k < 2; k++) {
+            final HashSet<Edge<NodeGeneration.BasicNode>> bfs = new HashSet<>();
+            final HashSet<Edge<NodeGeneration.BasicNode>> dfs = new HashSet<>();
+            GraphSearch.searchEdgesBreadthFirst(grid, new Collector(bfs), workspace);
+            GraphSearch.searchEdgesDepthFirst(grid, new Collector(dfs), workspace);
+            Assert.assertEquals(new HashSet<>(grid.getEdges()), bfs);
+            Assert.assertEquals(new HashSet<>(grid.getEdges()), dfs);
+        }
+    }
+
+    private static class Collector implements GraphSearch.INextEdge<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> {
+
+        private final HashSet<Edge<NodeGeneration.BasicNode>> mVisited;
+
+        Collector(HashSet<Edge<NodeGeneration.BasicNode>> visited) {
+            mVisited = visited;
+        }
+
+        @Override
+        public void onNextEdge(IGraph<NodeGeneration.BasicNode, Edge<NodeGeneration.BasicNode>> graph,
+                               Edge<NodeGeneration.BasicNode> previous, Edge<NodeGeneration.BasicNode> current) {
+            Assert.assertTrue(mVisited.add(current));
+        }
+
+        @Override
+        public boolean forceStop() {
+            return false;
+        }
+    }
+}